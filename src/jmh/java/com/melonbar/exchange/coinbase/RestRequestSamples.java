@@ -0,0 +1,85 @@
+package com.melonbar.exchange.coinbase;
+
+import com.melonbar.core.model.ProductId;
+import com.melonbar.exchange.coinbase.authentication.CoinbaseProAuthentication;
+import com.melonbar.exchange.coinbase.model.order.GetOrderByOrderIdRequest;
+import com.melonbar.exchange.coinbase.model.order.LimitOrderRequest;
+import com.melonbar.exchange.coinbase.model.order.ListOrdersRequest;
+import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
+import com.melonbar.exchange.coinbase.model.order.flag.TimeInForce;
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+
+import java.math.BigDecimal;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Representative REST requests and credentials for benchmarking the request-building path.
+ */
+public final class RestRequestSamples {
+
+    public static final String LIMIT_ORDER_BODY = "{\"side\":\"buy\",\"product_id\":\"BTC-USD\",\"price\":\"4388.01\","
+            + "\"size\":\"0.01\",\"type\":\"limit\",\"client_oid\":\"d50ec984-77a8-460a-b958-66f114b0de9b\","
+            + "\"time_in_force\":\"GTC\"}";
+
+    private static final String SECRET_KEY = Base64.getEncoder().encodeToString(new byte[64]);
+
+    private RestRequestSamples() {
+    }
+
+    /**
+     * Builds a limit order with a body field of every kind: enums, product id, decimals and a client order id.
+     *
+     * @return New {@link LimitOrderRequest}
+     */
+    public static LimitOrderRequest limitOrder() {
+        return LimitOrderRequest.builder()
+                .side(OrderSide.BUY)
+                .productId(ProductId.BTC_USD)
+                .price(new BigDecimal("4388.01"))
+                .size(new BigDecimal("0.01"))
+                .orderId(UUID.fromString("d50ec984-77a8-460a-b958-66f114b0de9b"))
+                .timeInForce(TimeInForce.GTC)
+                .build();
+    }
+
+    /**
+     * Builds a request with a single path parameter.
+     *
+     * @return New {@link GetOrderByOrderIdRequest}
+     */
+    public static GetOrderByOrderIdRequest orderById() {
+        return GetOrderByOrderIdRequest.builder()
+                .orderId("d50ec984-77a8-460a-b958-66f114b0de9b")
+                .build();
+    }
+
+    /**
+     * Builds a request with a query field. Array query fields are left out, they are unsupported and logged.
+     *
+     * @return New {@link ListOrdersRequest}
+     */
+    public static ListOrdersRequest listOrders() {
+        return ListOrdersRequest.builder()
+                .productId("BTC-USD")
+                .build();
+    }
+
+    /**
+     * Creates an authentication source with well-formed, fake credentials.
+     *
+     * @return {@link CoinbaseProAuthentication}
+     */
+    public static CoinbaseProAuthentication authentication() {
+        return new CoinbaseProAuthentication("api-key", "api-passphrase", SECRET_KEY);
+    }
+
+    /**
+     * Raises the log level to WARN. Enrichment and dispatch log every request at INFO, which would otherwise
+     * measure the console appender rather than request building.
+     */
+    public static void quietLogging() {
+        LogManager.getRootLogger().setLevel(Level.WARN);
+    }
+}
@@ -0,0 +1,46 @@
+package com.melonbar.exchange.coinbase.authentication;
+
+import com.melonbar.exchange.coinbase.RestRequestSamples;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.http.HttpRequest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link CoinbaseProAuthentication#sign}, i.e. the HMAC-SHA256 signature and the authentication
+ * headers, for an order placement and for a body-less request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoinbaseProAuthenticationBenchmark {
+
+    private CoinbaseProAuthentication authentication;
+
+    @Setup
+    public void setup() {
+        authentication = RestRequestSamples.authentication();
+    }
+
+    @Benchmark
+    public HttpRequest.Builder signPost() {
+        return authentication.sign(HttpRequest.newBuilder(), "POST", "/orders", RestRequestSamples.LIMIT_ORDER_BODY);
+    }
+
+    @Benchmark
+    public HttpRequest.Builder signGet() {
+        return authentication.sign(HttpRequest.newBuilder(), "GET", "/orders/client::d50ec984", "");
+    }
+}
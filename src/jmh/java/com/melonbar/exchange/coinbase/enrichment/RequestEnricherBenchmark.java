@@ -0,0 +1,63 @@
+package com.melonbar.exchange.coinbase.enrichment;
+
+import com.melonbar.core.http.Http;
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.exchange.coinbase.RestRequestSamples;
+import com.melonbar.exchange.coinbase.model.order.GetOrderByOrderIdRequest;
+import com.melonbar.exchange.coinbase.model.order.LimitOrderRequest;
+import com.melonbar.exchange.coinbase.model.order.ListOrdersRequest;
+import com.melonbar.exchange.coinbase.rest.api.resource.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link RequestEnricher#enrichRequest} on the three shapes of request: body fields, a path parameter
+ * and query fields. Requests are enriched again on every operation, enrichment overwrites what it sets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestEnricherBenchmark {
+
+    private RequestEnricher requestEnricher;
+    private LimitOrderRequest limitOrder;
+    private GetOrderByOrderIdRequest orderById;
+    private ListOrdersRequest listOrders;
+
+    @Setup
+    public void setup() {
+        RestRequestSamples.quietLogging();
+        requestEnricher = new RequestEnricher();
+        limitOrder = RestRequestSamples.limitOrder();
+        orderById = RestRequestSamples.orderById();
+        listOrders = RestRequestSamples.listOrders();
+    }
+
+    @Benchmark
+    public BaseRequest bodyFields() {
+        return requestEnricher.enrichRequest(limitOrder, Http.POST, Resource.ORDER);
+    }
+
+    @Benchmark
+    public BaseRequest pathParameter() {
+        return requestEnricher.enrichRequest(orderById, Http.GET, Resource.ORDER_BY_ORDER_ID);
+    }
+
+    @Benchmark
+    public BaseRequest queryFields() {
+        return requestEnricher.enrichRequest(listOrders, Http.GET, Resource.ORDER);
+    }
+}
@@ -0,0 +1,77 @@
+package com.melonbar.exchange.coinbase.http;
+
+import com.melonbar.core.http.Http;
+import com.melonbar.exchange.coinbase.RestRequestSamples;
+import com.melonbar.exchange.coinbase.enrichment.RequestEnricher;
+import com.melonbar.exchange.coinbase.model.order.LimitOrderRequest;
+import com.melonbar.exchange.coinbase.rest.api.resource.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.http.HttpRequest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order-entry latency on our side of the wire: {@link HttpClientImpl#generateHttpRequest} on its own, and the
+ * composite path from a new {@link LimitOrderRequest} to a signed {@link HttpRequest}, i.e. building, enrichment,
+ * signing and request creation, nothing being sent.
+ *
+ * <p> The enricher, authentication and client are shared by all benchmark threads, as they are in an application,
+ * so the 8 and 32 thread variants show contention on any state they share.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderEntryBenchmark {
+
+    private RequestEnricher requestEnricher;
+    private HttpClientImpl httpClient;
+    private LimitOrderRequest enrichedLimitOrder;
+
+    @Setup
+    public void setup() {
+        RestRequestSamples.quietLogging();
+        requestEnricher = new RequestEnricher();
+        httpClient = new HttpClientImpl(RestRequestSamples.authentication(), java.net.http.HttpClient.newHttpClient());
+        enrichedLimitOrder = requestEnricher.enrichRequest(RestRequestSamples.limitOrder(), Http.POST, Resource.ORDER);
+    }
+
+    @Benchmark
+    public HttpRequest generateHttpRequest() {
+        return httpClient.generateHttpRequest(enrichedLimitOrder);
+    }
+
+    @Benchmark
+    public HttpRequest signedLimitOrder() {
+        return buildSignedLimitOrder();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public HttpRequest signedLimitOrder8Threads() {
+        return buildSignedLimitOrder();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public HttpRequest signedLimitOrder32Threads() {
+        return buildSignedLimitOrder();
+    }
+
+    private HttpRequest buildSignedLimitOrder() {
+        return httpClient.generateHttpRequest(
+                requestEnricher.enrichRequest(RestRequestSamples.limitOrder(), Http.POST, Resource.ORDER));
+    }
+}
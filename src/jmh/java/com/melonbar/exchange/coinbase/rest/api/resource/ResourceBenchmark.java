@@ -0,0 +1,59 @@
+package com.melonbar.exchange.coinbase.rest.api.resource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link Resource#populateRequestPath} for a resource without parameters and one with a parameter, and
+ * of {@link Resource#appendRequestPath} into a reused builder, with and without percent-encoding.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceBenchmark {
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private Object[] productArgs;
+    private final StringBuilder requestPath = new StringBuilder(64);
+
+    @Setup
+    public void setup() {
+        productArgs = new Object[] {"BTC-USD"};
+    }
+
+    @Benchmark
+    public String noParameter() {
+        return Resource.ORDER.populateRequestPath(NO_ARGS);
+    }
+
+    @Benchmark
+    public String oneParameter() {
+        return Resource.PRODUCT_ORDER_BOOK.populateRequestPath(productArgs);
+    }
+
+    @Benchmark
+    public StringBuilder appendOneParameter() {
+        requestPath.setLength(0);
+        return Resource.PRODUCT_ORDER_BOOK.appendRequestPath(requestPath, productArgs, false);
+    }
+
+    @Benchmark
+    public StringBuilder appendOneEncodedParameter() {
+        requestPath.setLength(0);
+        return Resource.PRODUCT_ORDER_BOOK.appendRequestPath(requestPath, productArgs, true);
+    }
+}
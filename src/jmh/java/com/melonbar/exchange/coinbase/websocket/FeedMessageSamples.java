@@ -0,0 +1,114 @@
+package com.melonbar.exchange.coinbase.websocket;
+
+import java.util.Map;
+
+/**
+ * Representative inbound websocket feed messages for benchmarking, modeled after the examples in the Coinbase Pro
+ * websocket feed documentation.
+ */
+public final class FeedMessageSamples {
+
+    public static final String SUBSCRIBE = "{\"type\":\"subscribe\",\"product_ids\":[\"ETH-USD\",\"ETH-EUR\"],"
+            + "\"channels\":[{\"name\":\"level2\"},{\"name\":\"heartbeat\"},"
+            + "{\"name\":\"ticker\",\"product_ids\":[\"ETH-BTC\",\"ETH-USD\"]}]}";
+
+    public static final String SUBSCRIPTIONS = "{\"type\":\"subscriptions\",\"channels\":["
+            + "{\"name\":\"level2\",\"product_ids\":[\"ETH-USD\",\"ETH-EUR\"]},"
+            + "{\"name\":\"heartbeat\",\"product_ids\":[\"ETH-USD\",\"ETH-EUR\"]},"
+            + "{\"name\":\"ticker\",\"product_ids\":[\"ETH-USD\",\"ETH-EUR\",\"ETH-BTC\"]}]}";
+
+    public static final String ERROR = "{\"type\":\"error\",\"message\":\"error message\"}";
+
+    public static final String TICKER = "{\"type\":\"ticker\",\"trade_id\":20153558,\"sequence\":3262786978,"
+            + "\"time\":\"2017-09-02T17:05:49.250Z\",\"product_id\":\"BTC-USD\",\"price\":\"4388.01000000\","
+            + "\"side\":\"buy\",\"last_size\":\"0.03000000\",\"best_bid\":\"4388\",\"best_ask\":\"4388.01\"}";
+
+    public static final String RECEIVED = "{\"type\":\"received\",\"time\":\"2014-11-07T08:19:27.028Z\","
+            + "\"product_id\":\"BTC-USD\",\"sequence\":10,\"order_id\":\"d50ec984-77a8-460a-b958-66f114b0de9b\","
+            + "\"size\":\"1.34\",\"price\":\"502.1\",\"side\":\"buy\",\"order_type\":\"limit\"}";
+
+    public static final String OPEN = "{\"type\":\"open\",\"time\":\"2014-11-07T08:19:27.028Z\","
+            + "\"product_id\":\"BTC-USD\",\"sequence\":11,\"order_id\":\"d50ec984-77a8-460a-b958-66f114b0de9b\","
+            + "\"price\":\"502.1\",\"remaining_size\":\"1.00\",\"side\":\"buy\"}";
+
+    public static final String MATCH = "{\"type\":\"match\",\"trade_id\":10,\"sequence\":50,"
+            + "\"maker_order_id\":\"ac928c66-ca53-498f-9c13-a110027a60e8\","
+            + "\"taker_order_id\":\"132fb6ae-456b-4654-b4e0-d681ac05cea1\",\"time\":\"2014-11-07T08:19:27.028Z\","
+            + "\"product_id\":\"BTC-USD\",\"size\":\"5.23512\",\"price\":\"400.23\",\"side\":\"sell\"}";
+
+    public static final String CHANGE = "{\"type\":\"change\",\"time\":\"2014-11-07T08:19:27.028Z\",\"sequence\":80,"
+            + "\"order_id\":\"ac928c66-ca53-498f-9c13-a110027a60e8\",\"product_id\":\"BTC-USD\","
+            + "\"new_size\":\"5.23512\",\"old_size\":\"12.234412\",\"price\":\"400.23\",\"side\":\"sell\"}";
+
+    public static final String HEARTBEAT = "{\"type\":\"heartbeat\",\"sequence\":90,\"last_trade_id\":20,"
+            + "\"product_id\":\"BTC-USD\",\"time\":\"2014-11-07T08:19:28.464Z\"}";
+
+    public static final String SNAPSHOT = snapshot(10);
+
+    public static final String L2_UPDATE = "{\"type\":\"l2update\",\"product_id\":\"BTC-USD\","
+            + "\"time\":\"2019-08-14T20:42:27.265Z\",\"changes\":[[\"buy\",\"10101.80000000\",\"0.162567\"]]}";
+
+    public static final String DONE = "{\"type\":\"done\",\"time\":\"2014-11-07T08:19:27.028Z\","
+            + "\"product_id\":\"BTC-USD\",\"sequence\":10,\"price\":\"200.2\","
+            + "\"order_id\":\"d50ec984-77a8-460a-b958-66f114b0de9b\",\"reason\":\"filled\",\"side\":\"sell\","
+            + "\"remaining_size\":\"0\"}";
+
+    public static final String ACTIVATE = "{\"type\":\"activate\",\"product_id\":\"BTC-USD\","
+            + "\"timestamp\":\"1483736448.299000\",\"user_id\":\"12\","
+            + "\"profile_id\":\"30000727-d308-cf50-7b1c-c06deb1934fc\","
+            + "\"order_id\":\"7b52009b-35fd-4fc2-bca6-6c3b53c8c7d5\",\"stop_type\":\"entry\",\"side\":\"buy\","
+            + "\"stop_price\":\"80\",\"size\":\"2\",\"funds\":\"50\",\"taker_fee_rate\":\"0.0025\","
+            + "\"private\":true}";
+
+    /**
+     * One sample per {@link MessageTypes message type}.
+     */
+    public static final Map<String, String> BY_TYPE = Map.ofEntries(
+            Map.entry(MessageTypes.SUBSCRIBE, SUBSCRIBE),
+            Map.entry(MessageTypes.SUBSCRIPTIONS, SUBSCRIPTIONS),
+            Map.entry(MessageTypes.ERROR, ERROR),
+            Map.entry(MessageTypes.TICKER, TICKER),
+            Map.entry(MessageTypes.HEARTBEAT, HEARTBEAT),
+            Map.entry(MessageTypes.SNAPSHOT, SNAPSHOT),
+            Map.entry(MessageTypes.L2_UPDATE, L2_UPDATE),
+            Map.entry(MessageTypes.RECEIVED_ORDER, RECEIVED),
+            Map.entry(MessageTypes.OPENED_ORDER, OPEN),
+            Map.entry(MessageTypes.CLOSED_ORDER, DONE),
+            Map.entry(MessageTypes.MATCHED_ORDER, MATCH),
+            Map.entry(MessageTypes.CHANGED_ORDER, CHANGE),
+            Map.entry(MessageTypes.ACTIVATED_ORDER, ACTIVATE));
+
+    /**
+     * Message mix approximating the full channel, where order lifecycle messages dominate.
+     */
+    public static final String[] FULL_CHANNEL_MIX = {
+            RECEIVED, OPEN, RECEIVED, OPEN, MATCH, CHANGE, RECEIVED, OPEN, TICKER, HEARTBEAT
+    };
+
+    /**
+     * Builds a level2 snapshot with <code>levels</code> bids and as many asks, one cent apart around 10000, e.g. a
+     * few tens of thousands of levels for a liquid product.
+     *
+     * @param levels Number of levels per side
+     * @return Raw snapshot message
+     */
+    public static String snapshot(final int levels) {
+        final StringBuilder builder = new StringBuilder(64 + levels * 60);
+        builder.append("{\"type\":\"snapshot\",\"product_id\":\"BTC-USD\",\"bids\":[");
+        appendLevels(builder, levels, -1);
+        builder.append("],\"asks\":[");
+        appendLevels(builder, levels, 1);
+        return builder.append("]}").toString();
+    }
+
+    private static void appendLevels(final StringBuilder builder, final int levels, final int direction) {
+        for (int i = 0; i < levels; i++) {
+            final long cents = 1_000_000L + direction * (i + 1);
+            final long sizeFraction = 12_345L * (i + 1) % 100_000_000L;
+            builder.append(i == 0 ? "" : ",")
+                    .append("[\"").append(cents / 100).append('.').append(String.format("%02d", cents % 100))
+                    .append("\",\"").append(1 + i % 7).append('.').append(String.format("%08d", sizeFraction))
+                    .append("\"]");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.melonbar.exchange.coinbase.websocket.message.deserializer;
+
+import com.melonbar.exchange.coinbase.websocket.FeedMessageSamples;
+import com.melonbar.exchange.coinbase.websocket.MessageTypes;
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link JsonMessageMapper#jsonToObject} for every {@link MessageTypes message type}, both with the
+ * type detected from the message and with the class known up front. Run with <code>-prof gc</code>, the default of
+ * the benchmark profile, to get the bytes allocated per decoded message next to the rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonMessageMapperBenchmark {
+
+    @Param({
+            MessageTypes.SUBSCRIBE, MessageTypes.SUBSCRIPTIONS, MessageTypes.ERROR, MessageTypes.TICKER,
+            MessageTypes.HEARTBEAT, MessageTypes.SNAPSHOT, MessageTypes.L2_UPDATE, MessageTypes.RECEIVED_ORDER,
+            MessageTypes.OPENED_ORDER, MessageTypes.CLOSED_ORDER, MessageTypes.MATCHED_ORDER,
+            MessageTypes.CHANGED_ORDER, MessageTypes.ACTIVATED_ORDER
+    })
+    private String type;
+
+    private String message;
+    private Class<? extends FeedMessage> messageClass;
+
+    @Setup
+    public void setup() {
+        message = FeedMessageSamples.BY_TYPE.get(type);
+        messageClass = MessageTypes.evaluateMessageType(type);
+        if (JsonMessageMapper.jsonToObject(message).isEmpty()) {
+            throw new IllegalStateException("Sample of type [" + type + "] does not decode");
+        }
+    }
+
+    @Benchmark
+    public Optional<? extends FeedMessage> detectedType() {
+        return JsonMessageMapper.jsonToObject(message);
+    }
+
+    @Benchmark
+    public Optional<? extends FeedMessage> knownType() {
+        return JsonMessageMapper.jsonToObject(message, messageClass);
+    }
+}
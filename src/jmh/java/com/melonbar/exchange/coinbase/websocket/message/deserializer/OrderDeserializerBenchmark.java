@@ -0,0 +1,69 @@
+package com.melonbar.exchange.coinbase.websocket.message.deserializer;
+
+import com.melonbar.exchange.coinbase.websocket.FeedMessageSamples;
+import com.melonbar.exchange.coinbase.websocket.message.L2UpdateMessage;
+import com.melonbar.exchange.coinbase.websocket.message.SnapshotMessage;
+import com.melonbar.exchange.coinbase.websocket.processing.book.L2MessageDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link OrderDeserializer} on level2 snapshots of realistic sizes, from a thin book to the tens of
+ * thousands of levels of a liquid product, and on a single-change update. Binding to {@link SnapshotMessage}
+ * creates a tuple and two {@link java.math.BigDecimal}s per level, while {@link L2MessageDecoder} streams the
+ * levels into reused primitive buffers; <code>-prof gc</code> shows the difference in allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderDeserializerBenchmark {
+
+    @Param({"50", "1000", "25000"})
+    private int levels;
+
+    private String snapshot;
+    private L2MessageDecoder decoder;
+
+    @Setup
+    public void setup() {
+        snapshot = FeedMessageSamples.snapshot(levels);
+        decoder = new L2MessageDecoder();
+    }
+
+    @Benchmark
+    public Optional<SnapshotMessage> bindSnapshot() {
+        return JsonMessageMapper.jsonToObject(snapshot, SnapshotMessage.class);
+    }
+
+    @Benchmark
+    public int decodeSnapshot() {
+        decoder.decode(snapshot);
+        return decoder.getLevels().count();
+    }
+
+    @Benchmark
+    public Optional<L2UpdateMessage> bindUpdate() {
+        return JsonMessageMapper.jsonToObject(FeedMessageSamples.L2_UPDATE, L2UpdateMessage.class);
+    }
+
+    @Benchmark
+    public int decodeUpdate() {
+        decoder.decode(FeedMessageSamples.L2_UPDATE);
+        return decoder.getLevels().count();
+    }
+}
@@ -0,0 +1,60 @@
+package com.melonbar.exchange.coinbase.websocket.message.deserializer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.melonbar.core.model.ProductId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link ProductIdDeserializer}, invoked once for every message carrying a <code>product_id</code>.
+ * The parser is created per operation, as it is per message when binding, and {@link #parseOnly} measures that
+ * share on its own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductIdDeserializerBenchmark {
+
+    private static final String PRODUCT_ID = "\"BTC-USD\"";
+
+    private JsonFactory jsonFactory;
+    private ProductIdDeserializer deserializer;
+
+    @Setup
+    public void setup() {
+        jsonFactory = new JsonFactory();
+        deserializer = new ProductIdDeserializer();
+    }
+
+    @Benchmark
+    public ProductId deserialize() throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(PRODUCT_ID)) {
+            parser.nextToken();
+            return deserializer.deserialize(parser, null);
+        }
+    }
+
+    @Benchmark
+    public void parseOnly(final Blackhole blackhole) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(PRODUCT_ID)) {
+            blackhole.consume(parser.nextToken());
+            blackhole.consume(parser.getTextLength());
+        }
+    }
+}
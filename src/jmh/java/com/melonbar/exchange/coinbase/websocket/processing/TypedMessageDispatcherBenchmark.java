@@ -0,0 +1,97 @@
+package com.melonbar.exchange.coinbase.websocket.processing;
+
+import com.melonbar.exchange.coinbase.websocket.FeedMessageSamples;
+import com.melonbar.exchange.coinbase.websocket.MessageTypes;
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
+import com.melonbar.exchange.coinbase.websocket.message.TickerMessage;
+import com.melonbar.exchange.coinbase.websocket.message.deserializer.JsonMessageMapper;
+import com.melonbar.exchange.coinbase.websocket.message.full.ChangedOrderMessage;
+import com.melonbar.exchange.coinbase.websocket.message.full.MatchedOrderMessage;
+import com.melonbar.exchange.coinbase.websocket.message.full.OpenedOrderMessage;
+import com.melonbar.exchange.coinbase.websocket.message.full.ReceivedOrderMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.websocket.MessageHandler;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares per-message cost of the {@link String} predicate chain built with {@link MessageHandlers#byType} against
+ * the decode-once {@link TypedMessageDispatcher}, using 10 handlers spread across the full channel message types.
+ *
+ * <p> In the predicate chain, each handler extracts the <code>type</code> field itself and, once matched, decodes the
+ * message on its own. With the dispatcher, the type is extracted once and the message is decoded once per message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypedMessageDispatcherBenchmark {
+
+    private static final String[] MESSAGES = FeedMessageSamples.FULL_CHANNEL_MIX;
+
+    private AggregatedMessageHandler<String> predicateChain;
+    private TypedMessageDispatcher typedMessageDispatcher;
+    private int index;
+    private long consumed;
+
+    @Setup
+    public void setup() {
+        predicateChain = MessageHandlers.aggregate(
+                MessageHandlers.byType(MessageTypes.RECEIVED_ORDER,
+                        decoding(ReceivedOrderMessage.class), decoding(ReceivedOrderMessage.class)),
+                MessageHandlers.byType(MessageTypes.OPENED_ORDER,
+                        decoding(OpenedOrderMessage.class), decoding(OpenedOrderMessage.class)),
+                MessageHandlers.byType(MessageTypes.MATCHED_ORDER,
+                        decoding(MatchedOrderMessage.class), decoding(MatchedOrderMessage.class)),
+                MessageHandlers.byType(MessageTypes.CHANGED_ORDER,
+                        decoding(ChangedOrderMessage.class), decoding(ChangedOrderMessage.class)),
+                MessageHandlers.byType(MessageTypes.TICKER,
+                        decoding(TickerMessage.class), decoding(TickerMessage.class)));
+
+        typedMessageDispatcher = new TypedMessageDispatcher();
+        for (int i = 0; i < 2; i++) {
+            typedMessageDispatcher.addMessageHandler(ReceivedOrderMessage.class, this::consume);
+            typedMessageDispatcher.addMessageHandler(OpenedOrderMessage.class, this::consume);
+            typedMessageDispatcher.addMessageHandler(MatchedOrderMessage.class, this::consume);
+            typedMessageDispatcher.addMessageHandler(ChangedOrderMessage.class, this::consume);
+            typedMessageDispatcher.addMessageHandler(TickerMessage.class, this::consume);
+        }
+    }
+
+    @Benchmark
+    public long predicateChain() {
+        predicateChain.onMessage(nextMessage());
+        return consumed;
+    }
+
+    @Benchmark
+    public long typedDispatch() {
+        typedMessageDispatcher.onMessage(nextMessage());
+        return consumed;
+    }
+
+    private String nextMessage() {
+        final String message = MESSAGES[index];
+        index = (index + 1) % MESSAGES.length;
+        return message;
+    }
+
+    private <T extends FeedMessage> MessageHandler.Whole<String> decoding(final Class<T> type) {
+        return message -> JsonMessageMapper.jsonToObject(message, type).ifPresent(this::consume);
+    }
+
+    private void consume(final FeedMessage message) {
+        consumed += message.getSequence();
+    }
+}
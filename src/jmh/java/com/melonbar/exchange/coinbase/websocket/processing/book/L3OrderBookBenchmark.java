@@ -0,0 +1,76 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the steady-state cost of full channel order churn on an {@link L3OrderBook} holding 50,000 resting orders
+ * around the top of the book: every operation opens a new order and closes the oldest one. Run with
+ * <code>-prof gc</code> to confirm the steady state does not allocate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class L3OrderBookBenchmark {
+
+    private static final int RESTING_ORDERS = 50_000;
+
+    private L3OrderBook orderBook;
+    private long[] highs;
+    private long[] lows;
+    private long[] prices;
+    private int next;
+
+    @Setup
+    public void setup() {
+        orderBook = new L3OrderBook("BTC-USD", 2, 8);
+        final Random random = new Random(1);
+        highs = new long[RESTING_ORDERS];
+        lows = new long[RESTING_ORDERS];
+        prices = new long[RESTING_ORDERS];
+        for (int i = 0; i < RESTING_ORDERS; i++) {
+            highs[i] = random.nextLong();
+            lows[i] = random.nextLong();
+            prices[i] = 5_000_000 + random.nextInt(2_000);
+            orderBook.open(highs[i], lows[i], side(prices[i]), prices[i], 100_000_000);
+        }
+    }
+
+    @Benchmark
+    public long openAndDone() {
+        final int slot = next;
+        next = (next + 1) % RESTING_ORDERS;
+        orderBook.done(highs[slot], lows[slot]);
+        highs[slot]++;
+        orderBook.open(highs[slot], lows[slot], side(prices[slot]), prices[slot], 100_000_000);
+        return orderBook.bestBid();
+    }
+
+    @Benchmark
+    public long matchAndChange() {
+        final int slot = next;
+        next = (next + 1) % RESTING_ORDERS;
+        orderBook.match(highs[slot], lows[slot], 1);
+        orderBook.change(highs[slot], lows[slot], 100_000_000);
+        return orderBook.bestAsk();
+    }
+
+    private static OrderSide side(final long price) {
+        return price < 5_001_000 ? OrderSide.BUY : OrderSide.SELL;
+    }
+}
@@ -0,0 +1,61 @@
+package com.melonbar.exchange.coinbase.websocket.processing.tracking;
+
+import com.melonbar.exchange.coinbase.websocket.FeedMessageSamples;
+import com.melonbar.exchange.coinbase.websocket.processing.ProductOrdinals;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link PriceTracker#update} on ticker messages and of the lock-free {@link PriceTracker#read}.
+ * Tickers cycle with increasing sequences within a run of {@value #MESSAGES} messages, after which they are stale
+ * and updates stop short of writing the slot; the scan and parse, which dominate, are measured either way.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceTrackerBenchmark {
+
+    private static final int MESSAGES = 1024;
+
+    private final PriceTracker.PriceReading reading = new PriceTracker.PriceReading();
+    private PriceTracker priceTracker;
+    private String[] tickers;
+    private int ordinal;
+    private int index;
+
+    @Setup
+    public void setup() {
+        priceTracker = new PriceTracker();
+        tickers = new String[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            tickers[i] = FeedMessageSamples.TICKER.replace("\"sequence\":3262786978", "\"sequence\":" + (i + 1));
+        }
+        priceTracker.update(tickers[0]);
+        ordinal = ProductOrdinals.ordinal("BTC-USD");
+    }
+
+    @Benchmark
+    public void update() {
+        priceTracker.update(tickers[index]);
+        index = (index + 1) & (MESSAGES - 1);
+    }
+
+    @Benchmark
+    public long read() {
+        priceTracker.read(ordinal, reading);
+        return reading.getPrice();
+    }
+}
@@ -1,6 +1,7 @@
 package com.melonbar.exchange.coinbase.annotation;
 
 import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.exchange.coinbase.util.JsonBodyWriter;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -9,7 +10,10 @@ import java.lang.annotation.Target;
 
 /**
  * Marks a member variable for any extension of {@link BaseRequest} as a field for the jsonified request body.
- * During request body generation, the member's <code>toString</code> implementation is invoked.
+ * During request body generation, the member is written by {@link JsonBodyWriter#field(String, Object)}, always as a
+ * json string: {@link String}, {@link java.math.BigDecimal BigDecimal}, integer and boolean members through typed
+ * generator calls, <code>Object[]</code> members as one repeated key per element, and any other type through its
+ * <code>toString</code> implementation.
  *
  * <p> Unlike {@link RequestField}, during execution-level enrichment, the inheritance hierarchy is traversed in
  * search for all occurrences of this annotation.
@@ -17,8 +21,8 @@ import java.lang.annotation.Target;
  * <p> Currently, nested keys are not supported, since Coinbase Pro API requests (so far) don't require any
  * nested json objects. This is subject to change.
  *
- * <p> TODO: Currently we always invoke the <code>toString</code> implementation, but there is a chance certain
- *      types will need to be non-string values in the json body. E.g. using true instead of "true".
+ * <p> TODO: Every value is currently quoted, as the exchange expects, but there is a chance certain fields will need
+ *      unquoted json values in the body. E.g. using true instead of "true".
  */
 @Target(ElementType.FIELD)
 @Retention(RetentionPolicy.RUNTIME)
@@ -27,4 +27,13 @@ public @interface RequestField {
      * @return True if field is required to construct URI, false otherwise
      */
     boolean required() default true;
+
+    /**
+     * Percent-encoding leaves values made of URI-safe characters unchanged, so all URI parameters of a request are
+     * encoded as soon as one of its fields requires it.
+     *
+     * @return True if the field must be percent-encoded in the URI, e.g. when it may hold <code>/</code> or
+     *         <code>?</code>
+     */
+    boolean percentEncode() default false;
 }
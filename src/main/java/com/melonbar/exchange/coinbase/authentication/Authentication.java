@@ -3,6 +3,7 @@ package com.melonbar.exchange.coinbase.authentication;
 import com.melonbar.core.http.Http;
 
 import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Generic authentication interface intended to be applied to HTTP requests before dispatch.
@@ -23,4 +24,21 @@ public interface Authentication {
                              final String method,
                              final String requestPath,
                              final String body);
+
+    /**
+     * Applies authentication signature on the HTTP request being built, given the request body as the UTF-8 bytes
+     * that are sent. Implementations signing the body should override it to sign the bytes as they are.
+     *
+     * @param httpRequestBuilder HTTP request being built
+     * @param method HTTP method, probably {@link Http} as a string
+     * @param requestPath URI
+     * @param body UTF-8 request body, probably in JSON format, empty if there is none
+     * @return Signed {@link HttpRequest.Builder}
+     */
+    default HttpRequest.Builder sign(final HttpRequest.Builder httpRequestBuilder,
+                                     final String method,
+                                     final String requestPath,
+                                     final byte[] body) {
+        return sign(httpRequestBuilder, method, requestPath, new String(body, StandardCharsets.UTF_8));
+    }
 }
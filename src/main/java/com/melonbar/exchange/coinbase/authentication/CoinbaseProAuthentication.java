@@ -2,30 +2,22 @@ package com.melonbar.exchange.coinbase.authentication;
 
 import com.melonbar.core.util.Format;
 import com.melonbar.core.util.Guard;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.joda.time.DateTime;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.net.http.HttpRequest;
 import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
 
 /**
- * Authentication source for making <code>Trade</code> level permission requests to Coinbase Pro.
+ * Authentication source for making <code>Trade</code> level permission requests to Coinbase Pro. Signatures are
+ * computed by an {@link HmacSigner}, keyed once with the API secret.
  */
 @Slf4j
-@RequiredArgsConstructor
 public class CoinbaseProAuthentication implements Authentication {
 
     private final String apiKey;
     private final String apiPassword;
-    private final String apiSecretKey;
+    private final HmacSigner signer;
 
-    private static final String HMAC_SHA256 = "HmacSHA256";
     private static final String CONTENT_TYPE = "Content-Type";
     private static final String APPLICATION_JSON_TYPE = "application/json";
 
@@ -34,6 +26,20 @@ public class CoinbaseProAuthentication implements Authentication {
     private static final String CB_ACCESS_TIMESTAMP = "CB-ACCESS-TIMESTAMP";
     private static final String CB_ACCESS_PASSPHRASE = "CB-ACCESS-PASSPHRASE";
 
+    /**
+     * Creates an authentication source for API credentials.
+     *
+     * @param apiKey API key
+     * @param apiPassword API passphrase
+     * @param apiSecretKey Base64-encoded API secret
+     * @throws IllegalArgumentException If the API secret is not a valid base64-encoded key
+     */
+    public CoinbaseProAuthentication(final String apiKey, final String apiPassword, final String apiSecretKey) {
+        this.apiKey = apiKey;
+        this.apiPassword = apiPassword;
+        this.signer = new HmacSigner(apiSecretKey);
+    }
+
     /**
      * Enriches a provided HTTP request builder with necessary headers for making HTTP requests to
      * Coinbase Pro.
@@ -57,20 +63,35 @@ public class CoinbaseProAuthentication implements Authentication {
                                     final String method,
                                     final String requestPath,
                                     final String body) {
+        Guard.nonNull(body);
+        return sign(httpRequestBuilder, method, requestPath, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Enriches a provided HTTP request builder with necessary headers for making HTTP requests to
+     * Coinbase Pro, signing the body bytes as they are sent.
+     *
+     * @param httpRequestBuilder {@link HttpRequest.Builder}
+     * @param method HTTP request method, e.g. <code>POST</code>
+     * @param requestPath Request path
+     * @param body UTF-8 message body, empty for HTTP <code>GET</code>
+     * @return Signed {@link HttpRequest.Builder}, same reference as input <code>httpRequestBuilder</code>
+     * @see #sign(HttpRequest.Builder, String, String, String)
+     */
+    @Override
+    public HttpRequest.Builder sign(final HttpRequest.Builder httpRequestBuilder,
+                                    final String method,
+                                    final String requestPath,
+                                    final byte[] body) {
         Guard.nonNull(httpRequestBuilder, method, requestPath, body);
-        final String timestamp = Long.toString(DateTime.now().getMillis() / 1000);
+        final String timestamp = Long.toString(System.currentTimeMillis() / 1000);
         try {
             return httpRequestBuilder
                     .setHeader(CONTENT_TYPE, APPLICATION_JSON_TYPE)
                     .setHeader(CB_ACCESS_KEY, apiKey)
                     .setHeader(CB_ACCESS_PASSPHRASE, apiPassword)
                     .setHeader(CB_ACCESS_TIMESTAMP, timestamp)
-                    .setHeader(CB_ACCESS_SIGN, sign(timestamp, method, requestPath, body));
-        } catch (NoSuchAlgorithmException | InvalidKeyException exceptionOnSign) {
-            // signing issue
-            throw new RuntimeException(
-                    "Exception thrown while signing HTTP request, " + requestDetails(method, requestPath, body),
-                    exceptionOnSign);
+                    .setHeader(CB_ACCESS_SIGN, signer.sign(timestamp, method, requestPath, body));
         } catch (Exception exception) {
             // other issue
             throw new RuntimeException(
@@ -80,39 +101,8 @@ public class CoinbaseProAuthentication implements Authentication {
         }
     }
 
-    /**
-     * Helper method for creating the base64-encoded signed header for <code>CB-ACCESS-SIGN</code>.
-     * This header is generated by creating a sha256 HMAC using the base64-decoded secret key on the
-     * prehash string <code>timestamp + method + request path + body</code> and base64-encode the output.
-     * The timestamp value is the same as the <code>CB-ACCESS-TIMESTAMP</code>> header.
-     *
-     * <p> The body is the request body string or omitted if there is no request body (typically for
-     * <code>GET</code>requests). It is the caller's responsibility to ensure this.
-     *
-     * @param timestamp Timestamp of request creation
-     * @param method HTTP method type
-     * @param requestPath Request path
-     * @param body Request body, must be empty for <code>GET</code> requests
-     * @return Signed header
-     * @throws NoSuchAlgorithmException When HMAC is initialized with an invalid Key spec.
-     * @throws InvalidKeyException      When an invalid MAC algorithm is provided.
-     */
-    private String sign(final String timestamp,
-                        final String method,
-                        final String requestPath,
-                        final String body) throws NoSuchAlgorithmException, InvalidKeyException {
-        final byte[] decodedSecretKey = Base64.getDecoder().decode(apiSecretKey);
-        final Mac hmac = Mac.getInstance(HMAC_SHA256);
-        final SecretKeySpec secretKeySpec = new SecretKeySpec(decodedSecretKey, hmac.getAlgorithm());
-
-        // init with secret key spec, made from base64 decoded secret key using sha256 HMAC.
-        hmac.init(secretKeySpec);
-        return Base64.getEncoder().encodeToString(
-                hmac.doFinal((timestamp + method + requestPath + body).getBytes(StandardCharsets.UTF_8)));
-    }
-
-    private String requestDetails(final String method, final String uriPath, final String body) {
+    private String requestDetails(final String method, final String uriPath, final byte[] body) {
         return Format.format("method: [{}], URI: [{}], body: [{}]",
-                method, uriPath, body);
+                method, uriPath, new String(body, StandardCharsets.UTF_8));
     }
 }
@@ -0,0 +1,139 @@
+package com.melonbar.exchange.coinbase.authentication;
+
+import com.melonbar.core.util.Guard;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * HMAC-SHA256 signing engine for the <code>CB-ACCESS-SIGN</code> header, i.e. the base64-encoded HMAC of the
+ * prehash <code>timestamp + method + request path + body</code> keyed with the base64-decoded API secret.
+ *
+ * <p> The secret is decoded and a keyed {@link Mac} prototype initialized once, when the signer is created. Each
+ * thread then signs with its own clone of the prototype, which is reset by every signature, so signing neither
+ * looks up a provider nor re-keys, and threads never contend. The text components of the prehash are encoded into a
+ * per-thread buffer and fed to {@link Mac#update(byte[], int, int)} along with the body bytes as they are sent,
+ * without building the prehash string.
+ *
+ * <p> Thread-safe.
+ */
+public class HmacSigner {
+
+    /**
+     * JCA name of the MAC algorithm.
+     */
+    public static final String HMAC_SHA256 = "HmacSHA256";
+
+    private static final int INITIAL_PREHASH_CAPACITY = 256;
+
+    private final SecretKeySpec key;
+    private final Mac prototype;
+    private final ThreadLocal<SigningState> states = ThreadLocal.withInitial(SigningState::new);
+
+    /**
+     * Creates a signer for an API secret.
+     *
+     * @param base64Secret Base64-encoded API secret
+     * @throws IllegalArgumentException If the secret is not valid base64 or is rejected as a key
+     * @throws IllegalStateException If HMAC-SHA256 is not available
+     */
+    public HmacSigner(final String base64Secret) {
+        Guard.nonNull(base64Secret);
+        key = new SecretKeySpec(Base64.getDecoder().decode(base64Secret), HMAC_SHA256);
+        try {
+            prototype = Mac.getInstance(HMAC_SHA256);
+            prototype.init(key);
+        } catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+            throw new IllegalStateException("MAC algorithm " + HMAC_SHA256 + " is unavailable",
+                    noSuchAlgorithmException);
+        } catch (InvalidKeyException invalidKeyException) {
+            throw new IllegalArgumentException("Invalid API secret", invalidKeyException);
+        }
+    }
+
+    /**
+     * Signs a request.
+     *
+     * @param timestamp Timestamp of the request, as sent in <code>CB-ACCESS-TIMESTAMP</code>
+     * @param method HTTP method, e.g. <code>POST</code>
+     * @param requestPath Request path, including the query string
+     * @param body UTF-8 request body, empty if there is none
+     * @return Base64-encoded signature
+     */
+    public String sign(final String timestamp, final String method, final String requestPath, final byte[] body) {
+        final SigningState state = states.get();
+        final Mac mac = state.mac;
+        int length = state.encode(timestamp, 0);
+        length = state.encode(method, length);
+        length = state.encode(requestPath, length);
+        mac.update(state.prehash, 0, length);
+        mac.update(body);
+        try {
+            mac.doFinal(state.digest, 0);
+        } catch (ShortBufferException shortBufferException) {
+            // the digest buffer is sized with the MAC length
+            throw new IllegalStateException(shortBufferException);
+        }
+        return Base64.getEncoder().encodeToString(state.digest);
+    }
+
+    private Mac newMac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException cloneNotSupportedException) {
+            // provider without cloning, key a new instance like the prototype
+            try {
+                final Mac mac = Mac.getInstance(prototype.getAlgorithm(), prototype.getProvider());
+                mac.init(key);
+                return mac;
+            } catch (NoSuchAlgorithmException | InvalidKeyException exception) {
+                throw new IllegalStateException("Failed to create " + HMAC_SHA256 + " instance", exception);
+            }
+        }
+    }
+
+    /**
+     * Per-thread MAC and buffers.
+     */
+    private class SigningState {
+
+        private final Mac mac = newMac();
+        private final byte[] digest = new byte[mac.getMacLength()];
+        private byte[] prehash = new byte[INITIAL_PREHASH_CAPACITY];
+
+        /**
+         * Encodes the input text as UTF-8 into the prehash buffer, growing it if needed.
+         *
+         * @return Offset following the last written byte
+         */
+        private int encode(final String text, final int offset) {
+            final int length = text.length();
+            ensureCapacity(offset + length);
+            int position = offset;
+            for (int i = 0; i < length; i++) {
+                final char c = text.charAt(i);
+                if (c >= 0x80) {
+                    // rare, request paths are percent-encoded: encode the rest with the JDK
+                    final byte[] rest = text.substring(i).getBytes(StandardCharsets.UTF_8);
+                    ensureCapacity(position + rest.length);
+                    System.arraycopy(rest, 0, prehash, position, rest.length);
+                    return position + rest.length;
+                }
+                prehash[position++] = (byte) c;
+            }
+            return position;
+        }
+
+        private void ensureCapacity(final int capacity) {
+            if (capacity > prehash.length) {
+                prehash = Arrays.copyOf(prehash, Math.max(capacity, 2 * prehash.length));
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.melonbar.exchange.coinbase.enrichment;
+
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.exchange.coinbase.enrichment.processor.EnricherProcessor;
+import com.melonbar.exchange.coinbase.rest.api.resource.Resource;
+
+/**
+ * Enrichment code of one request class, generated at compile time by the {@link EnricherProcessor} into the package
+ * of the request, under the name <code>&lt;RequestName&gt;_Enricher</code>. It reads the annotated fields of the
+ * request through constant {@link java.lang.invoke.VarHandle}s and builds the request path, query string and body
+ * with straight-line code, with the same output and the same errors as the {@link RequestPlan reflective} path of
+ * the {@link RequestEnricher}, which prefers it when present.
+ *
+ * @param <T> Extension of {@link BaseRequest}
+ */
+public interface GeneratedEnricher<T extends BaseRequest> {
+
+    /**
+     * Evaluates the request path, populated with the path parameters and followed by the query string.
+     *
+     * @param request Request whose path is being evaluated
+     * @param resource Resource authority
+     * @return Request path
+     */
+    String requestPath(T request, Resource resource);
+
+    /**
+     * Generates the jsonified request body.
+     *
+     * @param request Request whose body is being generated
+     * @return Request body, empty if the request class has no body field
+     */
+    String requestBody(T request);
+}
@@ -0,0 +1,166 @@
+package com.melonbar.exchange.coinbase.enrichment;
+
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.core.util.Format;
+import com.melonbar.core.util.request.Pagination;
+import com.melonbar.exchange.coinbase.exception.InvalidRequestException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+
+/**
+ * Support code of {@link GeneratedEnricher}s: lookup of the generated class of a request class, and the few steps
+ * shared by all generated enrichers, kept here so that they behave exactly like the reflective path of the
+ * {@link RequestEnricher}. Only meant to be called by generated code.
+ */
+@Slf4j
+public final class GeneratedEnrichers {
+
+    /**
+     * Suffix of generated enricher class names.
+     */
+    public static final String SUFFIX = "_Enricher";
+
+    private static final ClassValue<GeneratedEnricher<?>> ENRICHERS = new ClassValue<>() {
+        @Override
+        protected GeneratedEnricher<?> computeValue(final Class<?> requestClass) {
+            final String enricherName = enricherName(requestClass.getName());
+            try {
+                final Class<?> enricherClass = Class.forName(enricherName, true, requestClass.getClassLoader());
+                return (GeneratedEnricher<?>) enricherClass.getDeclaredConstructor().newInstance();
+            } catch (ClassNotFoundException classNotFoundException) {
+                log.debug("No generated enricher for request type [{}]", requestClass.getName());
+                return null;
+            } catch (ReflectiveOperationException | ClassCastException exception) {
+                log.warn("Unusable generated enricher [{}], falling back to reflection", enricherName, exception);
+                return null;
+            }
+        }
+    };
+
+    private GeneratedEnrichers() {
+    }
+
+    /**
+     * Gets the generated enricher of a request class, loading it on first use.
+     *
+     * @param requestClass Extension of {@link BaseRequest}
+     * @param <T> Extension of {@link BaseRequest}
+     * @return {@link GeneratedEnricher}, or null if none was generated for the class
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends BaseRequest> GeneratedEnricher<T> find(final Class<? extends BaseRequest> requestClass) {
+        return (GeneratedEnricher<T>) ENRICHERS.get(requestClass);
+    }
+
+    /**
+     * Gets the binary name of the enricher generated for a request class, e.g.
+     * <code>com.example.Outer_InnerRequest_Enricher</code> for <code>com.example.Outer$InnerRequest</code>.
+     *
+     * @param requestClassName Binary name of the request class
+     * @return Binary name of the generated enricher
+     */
+    public static String enricherName(final String requestClassName) {
+        final int packageEnd = requestClassName.lastIndexOf('.') + 1;
+        return requestClassName.substring(0, packageEnd)
+                + requestClassName.substring(packageEnd).replace('$', '_')
+                + SUFFIX;
+    }
+
+    /**
+     * Checks a path parameter.
+     *
+     * @param value Field value
+     * @param index Path parameter index
+     * @param requestName Simple name of the request class
+     * @return The input value
+     * @throws InvalidRequestException If the value is null
+     */
+    public static Object requirePathValue(final Object value, final int index, final String requestName) {
+        if (value == null) {
+            throw new InvalidRequestException("Found missing request field for index: " + index
+                    + ", for request type " + requestName);
+        }
+        return value;
+    }
+
+    /**
+     * Removes the missing optional path parameters.
+     *
+     * @param values Path parameters in index order, null if missing
+     * @return Present path parameters in index order
+     */
+    public static Object[] presentPathValues(final Object[] values) {
+        int count = 0;
+        for (final Object value : values) {
+            if (value != null) {
+                values[count++] = value;
+            }
+        }
+        return count == values.length ? values : Arrays.copyOf(values, count);
+    }
+
+    /**
+     * Creates the error of a missing required query field.
+     *
+     * @param name Field name
+     * @param key Query key
+     * @param requestName Simple name of the request class
+     * @return {@link IllegalStateException} to throw
+     */
+    public static IllegalStateException missingQueryField(final String name,
+                                                          final String key,
+                                                          final String requestName) {
+        return new IllegalStateException(
+                Format.format("Required query field {} (key={}) for request {} is null!", name, key, requestName));
+    }
+
+    /**
+     * Skips a query field holding an array, which is unsupported.
+     *
+     * @param name Field name
+     * @param value Array value
+     */
+    public static void skipQueryArray(final String name, final Object value) {
+        log.warn("Arrays are unsupported for query field types. Field {} has array type [{}].",
+                name, value.getClass().getName());
+    }
+
+    /**
+     * Completes the query string of a request path, appending the pagination if any.
+     *
+     * @param requestPath Request path followed by <code>?</code> and each query parameter followed by
+     *                    <code>&amp;</code>
+     * @param pagination Pagination of the request, may be null
+     * @return Request path
+     */
+    public static String completeQuery(final StringBuilder requestPath, final Pagination pagination) {
+        final char tailChar = requestPath.charAt(requestPath.length() - 1);
+        final boolean tailIsDelimitingChar = tailChar == '&' || tailChar == '?';
+        if (pagination != null) {
+            if (!tailIsDelimitingChar) {
+                requestPath.append('?');
+            }
+            requestPath.append(pagination);
+        } else if (tailIsDelimitingChar) {
+            // remove extraneous ampersand or question mark since nothing needs to be added
+            requestPath.setLength(requestPath.length() - 1);
+        }
+        return requestPath.toString();
+    }
+
+    /**
+     * Creates the error of a missing required body field.
+     *
+     * @param name Field name
+     * @param key Body key
+     * @param requestName Simple name of the request class
+     * @return {@link IllegalStateException} to throw
+     */
+    public static IllegalStateException missingBodyField(final String name,
+                                                         final String key,
+                                                         final String requestName) {
+        return new IllegalStateException(
+                Format.format("Required body field {} (key={}) for request {} is null!", name, key, requestName));
+    }
+}
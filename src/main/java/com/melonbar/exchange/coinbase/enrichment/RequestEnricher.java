@@ -10,15 +10,9 @@ import com.melonbar.exchange.coinbase.exception.InvalidRequestException;
 import com.melonbar.core.http.Http;
 import com.melonbar.core.http.request.BaseRequest;
 import com.melonbar.exchange.coinbase.util.AppConfig;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.melonbar.exchange.coinbase.util.JsonBodyWriter;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.reflect.FieldUtils;
 
-import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.Optional;
 
@@ -31,31 +25,51 @@ import java.util.Optional;
  * <p> Given a {@link BaseRequest request}, {@link Http method}, and {@link Resource resource}, enrichment
  * will mutate the input <code>request</code> and populate its: HTTP method, request path, request body,
  * full URI with query string and pagination.
+ *
+ * <p> The annotated fields of each request class are resolved once, into a {@link RequestPlan} cached per class, so
+ * that enriching further requests of the same type performs no reflective lookup.
+ *
+ * <p> Request classes compiled with the {@link com.melonbar.exchange.coinbase.enrichment.processor.EnricherProcessor}
+ * have a {@link GeneratedEnricher}, which is used instead of the plan. The plan remains the fallback for any other
+ * request class.
  */
 @Slf4j
 public class RequestEnricher implements Enricher {
 
-    /** Static {@link ObjectMapper} for json marshalling. */
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private final boolean useGeneratedEnrichers;
 
     /**
-     * Suffix for deduping JSON keys.
+     * Creates an enricher using the {@link GeneratedEnricher} of a request class when present.
      */
-    private static final String DE_DUPE_SUFFIX_FORMAT = "$DEDUPE_{}$";
+    public RequestEnricher() {
+        this(true);
+    }
 
     /**
-     * Regex string for detecting deduped keys.
+     * Creates an enricher.
+     *
+     * @param useGeneratedEnrichers False to always enrich by reflection, e.g. to compare both paths
      */
-    private static final String DE_DUPE_SUFFIX_REGEX = "\\$DEDUPE_\\d\\$";
+    RequestEnricher(final boolean useGeneratedEnrichers) {
+        this.useGeneratedEnrichers = useGeneratedEnrichers;
+    }
 
     /**
-     * Internal static record that stores URI params as a pair of index and value. May be sorted by index.
+     * Reads the value of a body field of a request, i.e. of its member annotated with {@link BodyField} of the input
+     * key, without generating the body.
+     *
+     * @param request Extension of {@link BaseRequest}
+     * @param key Body field key
+     * @return Field value, or null if the field is not set or the request has no such body field
      */
-    private static record UriParameter(int index, Object value) implements Comparable<UriParameter> {
-        @Override
-        public int compareTo(final UriParameter other) {
-            return Integer.compare(index, other.index());
+    public static Object getBodyField(final BaseRequest request, final String key) {
+        Guard.nonNull(request, key);
+        for (final RequestPlan.Parameter bodyParameter : RequestPlan.of(request.getClass()).bodyParameters) {
+            if (bodyParameter.key().equals(key)) {
+                return bodyParameter.get(request);
+            }
         }
+        return null;
     }
 
     /**
@@ -71,207 +85,149 @@ public class RequestEnricher implements Enricher {
     @Override
     public <T extends BaseRequest> T enrichRequest(final T request, final Http method, final Resource resource) {
         request.setMethod(method);
-        try {
-            request.setRequestPath(generateRequestPath(resource, request));
-            request.setBody(generateRequestBody(request));
+        final GeneratedEnricher<T> generatedEnricher =
+                useGeneratedEnrichers ? GeneratedEnrichers.find(request.getClass()) : null;
+        if (generatedEnricher != null) {
+            Guard.nonNull(resource);
+            request.setRequestPath(generatedEnricher.requestPath(request, resource));
+            request.setBody(generatedEnricher.requestBody(request));
+            if (!request.getBody().isEmpty()) {
+                log.info("Generated body for request type {}: [{}]", request.getClass().getSimpleName(),
+                        request.getBody());
+            }
             request.setUri(generateUri(request));
-        } catch (IllegalAccessException | JsonProcessingException exception) {
-            log.error("Failed to complete request enrichment, current request state: {}", request);
-            throw new RuntimeException("Failed to populate URI and/or request body", exception);
+            return validateRequest(request);
         }
-        validateRequest(request);
-        log.info("For request of type [{}], evaluated method as [{}] and URI as [{}]", request.getClass().getSimpleName(),
-                request.getMethod(), request.getUri());
-        return request;
+        final RequestPlan plan = RequestPlan.of(request.getClass());
+        request.setRequestPath(generateRequestPath(resource, request, plan));
+        request.setBody(generateRequestBody(request, plan));
+        request.setUri(generateUri(request));
+        return validateRequest(request);
     }
 
     /**
      * Evaluates request path using the request fields (that are annotated with {@link RequestField}) and the
-     * corresponding {@link Resource resource authority}. Currently does not support optional parameters.
+     * corresponding {@link Resource resource authority}, followed by the query string, built in a single
+     * {@link StringBuilder}.
      *
      * @param resource Resource authority
      * @param request Request whose URI is being evaluated
+     * @param plan {@link RequestPlan} of the request class
      * @param <T> Extension of {@link BaseRequest}
      * @return Evaluated URI
-     * @throws IllegalAccessException When access to an inaccessible field is attempted
      */
-    private <T extends BaseRequest> String generateRequestPath(final Resource resource, final T request)
-            throws IllegalAccessException {
+    private <T extends BaseRequest> String generateRequestPath(final Resource resource,
+                                                               final T request,
+                                                               final RequestPlan plan) {
         Guard.nonNull(resource, request);
-        final String baseRequestPath = generateBaseRequestPath(resource, request);
-
-        // get all fields annotated with @QueryField, including those from inheritance hierarchy
-        final Field[] fields = FieldUtils.getFieldsWithAnnotation(request.getClass(), QueryField.class);
+        final StringBuilder requestPath = appendBaseRequestPath(new StringBuilder(64), resource, request, plan);
 
         // no query fields, no more work needed
-        if (ArrayUtils.isEmpty(fields)) {
-            return baseRequestPath;
+        if (plan.queryParameters.length == 0) {
+            return requestPath.toString();
         }
 
         // convert to query string
-        final StringBuilder queryStringBuilder = new StringBuilder("?");
-        for (final Field field : fields) {
-            field.setAccessible(true);
-            final QueryField queryField = field.getAnnotation(QueryField.class);
-            final Optional<Object> maybeValue = Optional.ofNullable(field.get(request));
-            maybeValue.ifPresentOrElse(
-                    value -> {
-                        // do nothing on arrays, currently unsupported
-                        if (value.getClass().isArray()) {
-                            log.warn("Arrays are unsupported for query field types. Field {} has array type [{}].",
-                                    field.getName(), value.getClass().getName());
-                            return;
-                        }
-                        // append to query string builder
-                        queryStringBuilder.append(queryField.key())
-                                .append("=")
-                                .append(value)
-                                .append("&");
-                    },
-                    () -> {
-                        // throw error on missing required fields
-                        if (queryField.required()) {
-                            throw new IllegalStateException(
-                                    Format.format("Required query field {} (key={}) for request {} is null!",
-                                            field.getName(), queryField.key(), request.getClass().getSimpleName()));
-                        }
-                    });
-        }
-
-        final char tailChar = queryStringBuilder.charAt(queryStringBuilder.length()-1);
-        final boolean tailIsDelimitingChar = tailChar == '&' || tailChar == '?';
-
-        // handle pagination
-        if (request.getPagination() != null) {
-            if (!tailIsDelimitingChar) {
-                queryStringBuilder.append('?');
+        requestPath.append('?');
+        for (final RequestPlan.Parameter queryField : plan.queryParameters) {
+            final Object value = queryField.get(request);
+            if (value == null) {
+                // throw error on missing required fields
+                if (queryField.required()) {
+                    throw new IllegalStateException(
+                            Format.format("Required query field {} (key={}) for request {} is null!",
+                                    queryField.name(), queryField.key(), plan.requestName));
+                }
+                continue;
+            }
+            // do nothing on arrays, currently unsupported
+            if (value.getClass().isArray()) {
+                log.warn("Arrays are unsupported for query field types. Field {} has array type [{}].",
+                        queryField.name(), value.getClass().getName());
+                continue;
             }
-            queryStringBuilder.append(request.getPagination());
-        } else if (tailIsDelimitingChar) {
-            // remove extraneous ampersand or question mark since nothing needs to be added
-            queryStringBuilder.deleteCharAt(queryStringBuilder.length()-1);
+            // append to query string builder
+            requestPath.append(queryField.key())
+                    .append('=')
+                    .append(value)
+                    .append('&');
         }
-
-        return baseRequestPath + queryStringBuilder;
+        return GeneratedEnrichers.completeQuery(requestPath, request.getPagination());
     }
 
     /**
-     * Generates the base request path provided the {@link Resource} using the input request's members annotated
-     * with {@link RequestField}.
+     * Appends the base request path provided the {@link Resource} using the input request's members annotated
+     * with {@link RequestField}, which the plan holds in ascending index order.
      *
+     * @param requestPath Request path being built
      * @param resource {@link Resource}
      * @param request Request
+     * @param plan {@link RequestPlan} of the request class
      * @param <T> Extension of {@link BaseRequest}
-     * @return Base request path
+     * @return The input request path
      */
-    private <T extends BaseRequest> String generateBaseRequestPath(final Resource resource, final T request)
-            throws IllegalAccessException {
-        final Class<? extends BaseRequest> requestClass = request.getClass();
-        final UriParameter[] uriParameters = new UriParameter[
-                FieldUtils.getFieldsListWithAnnotation(requestClass, RequestField.class).size()];
-        String uriFormat = resource.getUri();
-
+    private <T extends BaseRequest> StringBuilder appendBaseRequestPath(final StringBuilder requestPath,
+                                                                        final Resource resource,
+                                                                        final T request,
+                                                                        final RequestPlan plan) {
         // URI with no params
         if (resource.getMaxArgs() < 1) {
-            return uriFormat;
+            return requestPath.append(resource.getUri());
         }
 
-        // track request params and corresponding indices.
-        int i = 0;
-        for (final Field field : request.getClass().getDeclaredFields()) {
-            field.setAccessible(true);
-            final RequestField requestField = field.getAnnotation(RequestField.class);
-
-            // ignore fields with no @RequestField annotation
-            if (requestField == null) {
-                continue;
-            }
-
+        final Object[] values = new Object[plan.pathParameters.length];
+        int count = 0;
+        for (final RequestPlan.Parameter requestField : plan.pathParameters) {
             // throw error on non-present required values, skip non-present optional values
-            final Object value = field.get(request);
+            final Object value = requestField.get(request);
             if (value == null) {
                 if (requestField.required()) {
                     throw new InvalidRequestException("Found missing request field for index: "
-                            + requestField.index() + ", for request type " + request.getClass().getSimpleName());
-                } else {
-                    // skip
-                    continue;
+                            + requestField.index() + ", for request type " + plan.requestName);
                 }
+                continue;
             }
-
-            // append URI parameter, index stored for later sorting
-            uriParameters[i++] = new UriParameter(requestField.index(), value);
+            values[count++] = value;
         }
-
-        // sort in ascending order by index and populate URI
-        Arrays.sort(uriParameters);
-        return resource.populateRequestPath(Arrays.stream(uriParameters)
-                .map(UriParameter::value)
-                .toArray(Object[]::new));
+        return resource.appendRequestPath(requestPath, count == values.length ? values : Arrays.copyOf(values, count),
+                plan.percentEncodePath);
     }
 
     /**
      * Generate request body based on the request class definition. All requests are expected to be an extension of
      * {@link BaseRequest}. All fields, including those inherited, annotated with {@link BodyField} will be processed
-     * into the request body.
+     * into the request body by a {@link JsonBodyWriter}, array fields as one member per element with the same key.
      *
      * @param request Request that will be used to generate the request body
+     * @param plan {@link RequestPlan} of the request class
      * @param <T> Extension of {@link BaseRequest}
      * @return Jsonified request body as string
-     * @throws IllegalAccessException When access to an inaccessible field is attempted
-     * @throws JsonProcessingException If the {@link ObjectMapper} fails to produce a json format string
      */
-    private <T extends BaseRequest> String generateRequestBody(final T request)
-            throws IllegalAccessException, JsonProcessingException {
+    private <T extends BaseRequest> String generateRequestBody(final T request, final RequestPlan plan) {
         Guard.nonNull(request);
 
-        // get all fields annotated with @BodyField, including those from inheritance hierarchy
-        final Field[] fields = FieldUtils.getFieldsWithAnnotation(request.getClass(), BodyField.class);
-
         // no body fields, no more work needed
-        if (ArrayUtils.isEmpty(fields)) {
+        if (plan.bodyParameters.length == 0) {
             return "";
         }
 
-        // convert request body to string format with deduped keys (if necessary)
-        final ObjectNode root = OBJECT_MAPPER.createObjectNode();
-        for (final Field field : fields) {
-            field.setAccessible(true);
-            final BodyField bodyParameter = field.getAnnotation(BodyField.class);
-            final Optional<Object> maybeValue = Optional.ofNullable(field.get(request));
-            maybeValue.ifPresentOrElse(
-                    // body field value present, process
-                    value -> {
-                        if (value.getClass().isArray()) {
-                            /*
-                             * Jackson databind does not support duplicate keys in json format, so we must apply temporary
-                             * suffix that is known for later de-dupe.
-                             */
-                            final Object[] values = (Object[]) value;
-                            int i = 0;
-                            for (final Object _value : values) {
-                                root.put(bodyParameter.key() + Format.format(DE_DUPE_SUFFIX_FORMAT, i++),
-                                        _value.toString());
-                            }
-                        } else {
-                            // add to object mapper
-                            root.put(bodyParameter.key(), value.toString());
-                        }
-                    },
-                    // body field value not present, throw exception if marked as required
-                    () -> {
-                        if (bodyParameter.required()) {
-                            throw new IllegalStateException(
-                                    Format.format("Required body field {} (key={}) for request {} is null!",
-                                            field.getName(), bodyParameter.key(), request.getClass().getSimpleName()));
-                        }
-                    });
+        final JsonBodyWriter body = JsonBodyWriter.start();
+        for (final RequestPlan.Parameter bodyParameter : plan.bodyParameters) {
+            final Object value = bodyParameter.get(request);
+            if (value == null) {
+                // body field value not present, throw exception if marked as required
+                if (bodyParameter.required()) {
+                    throw new IllegalStateException(
+                            Format.format("Required body field {} (key={}) for request {} is null!",
+                                    bodyParameter.name(), bodyParameter.key(), plan.requestName));
+                }
+                continue;
+            }
+            body.field(bodyParameter.key(), value);
         }
-        final String requestBody = dedupeKeys(OBJECT_MAPPER.writer()
-                .writeValueAsString(root)
-                .trim());
+        final String requestBody = body.finish();
 
-        log.info("Generated body for request type {}: [{}]", request.getClass().getSimpleName(), requestBody);
+        log.info("Generated body for request type {}: [{}]", plan.requestName, requestBody);
 
         return requestBody;
     }
@@ -298,33 +254,17 @@ public class RequestEnricher implements Enricher {
      *
      * @param request Request
      * @param <T> Extension of {@link BaseRequest}
+     * @return The input request
      * @throws InvalidRequestException if <code>T</code>'s implementation of <code>isValidRequest</code> returns false
      */
-    private <T extends BaseRequest> void validateRequest(final T request) {
+    private <T extends BaseRequest> T validateRequest(final T request) {
         if (!request.isValidRequest()) {
             throw new InvalidRequestException(Format.format(
                     "Request of type [{}] failed validation check, body: [{}], uri: [{}]",
                     request.getClass().getSimpleName(), request.getBody(), request.getUri()));
         }
-    }
-
-    /**
-     * Helper for replacing all deduped keys for a given input string, assuming it is in json format. Effectively
-     * no-op if the input is null or empty, or if no keys need to be deduped.
-     *
-     * <p> Consider this input json: </p>
-     * <code>
-     *     { "key": 1, "key$DEDUPED_0$": 2, "key$DEDUPED_1$": 3, "otherKey": 4 }
-     * </code>
-     * <p> Once deduped, the resulting json is: </p>
-     * <code>
-     *     { "key": 1, "key": 2, "key": 3, "otherKey": 4 }
-     * </code>
-     *
-     * @param jsonString Json format string
-     * @return Json format string with deduped keys
-     */
-    private String dedupeKeys(final String jsonString) {
-        return StringUtils.isEmpty(jsonString) ? "" : jsonString.replaceAll(DE_DUPE_SUFFIX_REGEX, "");
+        log.info("For request of type [{}], evaluated method as [{}] and URI as [{}]",
+                request.getClass().getSimpleName(), request.getMethod(), request.getUri());
+        return request;
     }
 }
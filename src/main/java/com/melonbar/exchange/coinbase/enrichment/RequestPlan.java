@@ -0,0 +1,130 @@
+package com.melonbar.exchange.coinbase.enrichment;
+
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.exchange.coinbase.annotation.BodyField;
+import com.melonbar.exchange.coinbase.annotation.QueryField;
+import com.melonbar.exchange.coinbase.annotation.RequestField;
+import org.apache.commons.lang3.reflect.FieldUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Enrichment metadata of one request class, computed once per class and cached in a {@link ClassValue}. It holds
+ * the fields annotated with {@link RequestField}, {@link QueryField} and {@link BodyField}, each with its key, index
+ * and required flag resolved from the annotation and a {@link MethodHandle} getter, so that enriching a request
+ * does no reflective lookup: path parameters are pre-sorted by index, query and body fields keep the order
+ * {@link FieldUtils#getFieldsWithAnnotation} yields, i.e. declared fields first, then inherited ones.
+ *
+ * <p> As documented on the annotations, path parameters are only looked up among the declared fields of the
+ * request class, while query and body fields are also inherited.
+ */
+final class RequestPlan {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<RequestPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected RequestPlan computeValue(final Class<?> requestClass) {
+            return new RequestPlan(requestClass);
+        }
+    };
+
+    final String requestName;
+    final Parameter[] pathParameters;
+    final boolean percentEncodePath;
+    final Parameter[] queryParameters;
+    final Parameter[] bodyParameters;
+
+    private RequestPlan(final Class<?> requestClass) {
+        final MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(requestClass, MethodHandles.lookup());
+        } catch (IllegalAccessException illegalAccessException) {
+            throw new IllegalStateException(
+                    "Cannot access fields of request type " + requestClass.getName(), illegalAccessException);
+        }
+        this.requestName = requestClass.getSimpleName();
+        this.pathParameters = Arrays.stream(requestClass.getDeclaredFields())
+                .filter(field -> field.isAnnotationPresent(RequestField.class))
+                .map(field -> {
+                    final RequestField requestField = field.getAnnotation(RequestField.class);
+                    return new Parameter(field.getName(), null, requestField.index(), requestField.required(),
+                            getter(lookup, field));
+                })
+                .sorted(Comparator.comparingInt(Parameter::index))
+                .toArray(Parameter[]::new);
+        this.percentEncodePath = Arrays.stream(requestClass.getDeclaredFields())
+                .filter(field -> field.isAnnotationPresent(RequestField.class))
+                .anyMatch(field -> field.getAnnotation(RequestField.class).percentEncode());
+        this.queryParameters = Arrays.stream(FieldUtils.getFieldsWithAnnotation(requestClass, QueryField.class))
+                .map(field -> {
+                    final QueryField queryField = field.getAnnotation(QueryField.class);
+                    return new Parameter(field.getName(), queryField.key(), -1, queryField.required(),
+                            getter(lookup, field));
+                })
+                .toArray(Parameter[]::new);
+        this.bodyParameters = Arrays.stream(FieldUtils.getFieldsWithAnnotation(requestClass, BodyField.class))
+                .map(field -> {
+                    final BodyField bodyField = field.getAnnotation(BodyField.class);
+                    return new Parameter(field.getName(), bodyField.key(), -1, bodyField.required(),
+                            getter(lookup, field));
+                })
+                .toArray(Parameter[]::new);
+    }
+
+    /**
+     * Gets the plan of a request class, computing it on first use.
+     *
+     * @param requestClass Extension of {@link BaseRequest}
+     * @return {@link RequestPlan}
+     */
+    static RequestPlan of(final Class<? extends BaseRequest> requestClass) {
+        return PLANS.get(requestClass);
+    }
+
+    private static MethodHandle getter(final MethodHandles.Lookup lookup, final Field field) {
+        try {
+            // inherited fields are private to their declaring class
+            final MethodHandles.Lookup declaringLookup = field.getDeclaringClass() == lookup.lookupClass()
+                    ? lookup
+                    : MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+            return declaringLookup.unreflectGetter(field).asType(GETTER_TYPE);
+        } catch (IllegalAccessException illegalAccessException) {
+            throw new IllegalStateException("Cannot access request field " + field, illegalAccessException);
+        }
+    }
+
+    /**
+     * Annotated request field.
+     *
+     * @param name Field name, for error messages
+     * @param key Query or body key, null for path parameters
+     * @param index Path parameter index, -1 for query and body fields
+     * @param required Whether the field must be set
+     * @param getter Getter of type <code>(Object)Object</code>
+     */
+    record Parameter(String name, String key, int index, boolean required, MethodHandle getter) {
+
+        /**
+         * Reads the field from the input request.
+         *
+         * @param request Request of the planned class
+         * @return Field value, may be null
+         */
+        Object get(final Object request) {
+            try {
+                return getter.invokeExact(request);
+            } catch (RuntimeException | Error exception) {
+                throw exception;
+            } catch (Throwable throwable) {
+                // a field getter throws no checked exception
+                throw new IllegalStateException("Failed to read request field " + name, throwable);
+            }
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package com.melonbar.exchange.coinbase.enrichment.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor generating a {@link com.melonbar.exchange.coinbase.enrichment.GeneratedEnricher} for each
+ * concrete extension of <code>BaseRequest</code> compiled alongside it, from the fields annotated with
+ * <code>@RequestField</code>, <code>@QueryField</code> and <code>@BodyField</code>, following the same rules as the
+ * reflective enrichment: path parameters are declared fields sorted by index, query and body fields are declared
+ * fields first, then inherited ones.
+ *
+ * <p> Fields are read through <code>static final</code> {@link java.lang.invoke.VarHandle}s, which the JIT treats
+ * as constants, so that private fields need no accessor. A request class the generated code cannot reference, e.g.
+ * a private nested class, or with an unsupported field, e.g. a primitive array body field, is skipped with a note
+ * and keeps being enriched by reflection.
+ *
+ * <p> The processor is compiled ahead of the rest of the module, see the <code>compile-enricher-processor</code>
+ * execution of the build. It is named explicitly in the compiler configuration of this module rather than
+ * registered in <code>META-INF/services</code>, so that it never runs for projects depending on the published jar.
+ * It claims no annotation, so other processors such as lombok still see every element. It only depends on the JDK,
+ * since it runs before the classes it generates code against are compiled.
+ */
+@SupportedAnnotationTypes("*")
+public class EnricherProcessor extends AbstractProcessor {
+
+    private static final String BASE_REQUEST = "com.melonbar.core.http.request.BaseRequest";
+    private static final String REQUEST_FIELD = "com.melonbar.exchange.coinbase.annotation.RequestField";
+    private static final String QUERY_FIELD = "com.melonbar.exchange.coinbase.annotation.QueryField";
+    private static final String BODY_FIELD = "com.melonbar.exchange.coinbase.annotation.BodyField";
+    private static final String ENRICHMENT_PACKAGE = "com.melonbar.exchange.coinbase.enrichment";
+    private static final String SUFFIX = "_Enricher";
+
+    /**
+     * Names used by the generated code itself, which fields must not shadow.
+     */
+    private static final Set<String> RESERVED_NAMES =
+            Set.of("request", "resource", "path", "body", "REQUEST_NAME");
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnvironment) {
+        final TypeElement baseRequest = processingEnv.getElementUtils().getTypeElement(BASE_REQUEST);
+        if (baseRequest == null) {
+            return false;
+        }
+        for (final TypeElement type : ElementFilter.typesIn(roundEnvironment.getRootElements())) {
+            visit(type, baseRequest.asType());
+        }
+        return false;
+    }
+
+    private void visit(final TypeElement type, final TypeMirror baseRequest) {
+        final Types types = processingEnv.getTypeUtils();
+        if (type.getKind() == ElementKind.CLASS
+                && !type.getModifiers().contains(Modifier.ABSTRACT)
+                && !types.isSameType(type.asType(), baseRequest)
+                && types.isSubtype(types.erasure(type.asType()), types.erasure(baseRequest))) {
+            final RequestModel request = model(type);
+            if (request != null) {
+                write(request);
+            }
+        }
+        for (final TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            visit(nested, baseRequest);
+        }
+    }
+
+    /**
+     * Collects the annotated fields of a request class.
+     *
+     * @return Model to generate from, or null if the class is skipped
+     */
+    private RequestModel model(final TypeElement type) {
+        final PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        if (!type.getTypeParameters().isEmpty() || !isAccessible(type, packageElement)) {
+            return skip(type, "not accessible from a generated class of its package");
+        }
+        final Set<String> usedNames = new HashSet<>(RESERVED_NAMES);
+        final List<FieldModel> pathFields = new ArrayList<>();
+        final List<FieldModel> queryFields = new ArrayList<>();
+        final List<FieldModel> bodyFields = new ArrayList<>();
+        TypeElement current = type;
+        while (current != null) {
+            for (final VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                final AnnotationMirror requestField = annotation(field, REQUEST_FIELD);
+                final AnnotationMirror queryField = annotation(field, QUERY_FIELD);
+                final AnnotationMirror bodyField = annotation(field, BODY_FIELD);
+                if ((requestField == null || current != type) && queryField == null && bodyField == null) {
+                    continue;
+                }
+                final TypeMirror fieldType = processingEnv.getTypeUtils().erasure(field.asType());
+                if (!isAccessible(current, packageElement) || !isAccessible(fieldType, packageElement)) {
+                    return skip(type, "field " + field.getSimpleName() + " is not accessible");
+                }
+                final String name = field.getSimpleName().toString();
+                final String local = uniqueName(name, usedNames);
+                final String handle = uniqueName(constantName(name), usedNames);
+                if (requestField != null && current == type) {
+                    pathFields.add(new FieldModel(field, current, fieldType, name, local, handle, null,
+                            (Integer) value(requestField, "index"), (Boolean) value(requestField, "required"),
+                            (Boolean) value(requestField, "percentEncode")));
+                }
+                if (queryField != null) {
+                    queryFields.add(new FieldModel(field, current, fieldType, name, local, handle,
+                            (String) value(queryField, "key"), -1, (Boolean) value(queryField, "required"), false));
+                }
+                if (bodyField != null) {
+                    if (fieldType.getKind() == TypeKind.ARRAY
+                            && ((ArrayType) fieldType).getComponentType().getKind().isPrimitive()) {
+                        return skip(type, "body field " + name + " is a primitive array");
+                    }
+                    bodyFields.add(new FieldModel(field, current, fieldType, name, local, handle,
+                            (String) value(bodyField, "key"), -1, (Boolean) value(bodyField, "required"), false));
+                }
+            }
+            final TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superclass).asElement()
+                    : null;
+        }
+        pathFields.sort(Comparator.comparingInt(FieldModel::index));
+        return new RequestModel(type, packageElement.getQualifiedName().toString(), pathFields, queryFields,
+                bodyFields);
+    }
+
+    private void write(final RequestModel request) {
+        final Elements elements = processingEnv.getElementUtils();
+        final String requestType = request.type().getQualifiedName().toString();
+        final String simpleName = elements.getBinaryName(request.type()).toString()
+                .substring(request.packageName().isEmpty() ? 0 : request.packageName().length() + 1)
+                .replace('$', '_') + SUFFIX;
+        final StringBuilder source = new StringBuilder();
+        if (!request.packageName().isEmpty()) {
+            source.append("package ").append(request.packageName()).append(";\n\n");
+        }
+        source.append("import ").append(ENRICHMENT_PACKAGE).append(".GeneratedEnricher;\n")
+                .append("import ").append(ENRICHMENT_PACKAGE).append(".GeneratedEnrichers;\n")
+                .append("import com.melonbar.exchange.coinbase.rest.api.resource.Resource;\n")
+                .append("import com.melonbar.exchange.coinbase.util.JsonBodyWriter;\n\n")
+                .append("import javax.annotation.processing.Generated;\n")
+                .append("import java.lang.invoke.MethodHandles;\n")
+                .append("import java.lang.invoke.VarHandle;\n\n")
+                .append("@Generated(\"").append(EnricherProcessor.class.getName()).append("\")\n")
+                .append("public final class ").append(simpleName)
+                .append(" implements GeneratedEnricher<").append(requestType).append("> {\n\n")
+                .append("    private static final String REQUEST_NAME = ")
+                .append(elements.getConstantExpression(request.type().getSimpleName().toString())).append(";\n");
+
+        final Set<String> declaredHandles = new HashSet<>();
+        final List<FieldModel> handles = new ArrayList<>();
+        for (final FieldModel field : request.allFields()) {
+            if (declaredHandles.add(field.handle())) {
+                handles.add(field);
+                source.append("    private static final VarHandle ").append(field.handle()).append(";\n");
+            }
+        }
+        if (!handles.isEmpty()) {
+            source.append("\n    static {\n        try {\n");
+            // inherited fields are private to their declaring class, which needs its own lookup
+            final Map<TypeElement, String> lookups = new LinkedHashMap<>();
+            for (final FieldModel field : handles) {
+                final String declaringType = field.declaringType().getQualifiedName().toString();
+                String lookup = lookups.get(field.declaringType());
+                if (lookup == null) {
+                    lookup = lookups.isEmpty() ? "lookup" : "lookup" + lookups.size();
+                    lookups.put(field.declaringType(), lookup);
+                    source.append("            final MethodHandles.Lookup ").append(lookup)
+                            .append(" =\n                    MethodHandles.privateLookupIn(").append(declaringType)
+                            .append(".class, MethodHandles.lookup());\n");
+                }
+                source.append("            ").append(field.handle()).append(" = ").append(lookup)
+                        .append(".findVarHandle(").append(declaringType).append(".class, ")
+                        .append(elements.getConstantExpression(field.name())).append(", ")
+                        .append(field.type()).append(".class);\n");
+            }
+            source.append("        } catch (ReflectiveOperationException reflectiveOperationException) {\n")
+                    .append("            throw new ExceptionInInitializerError(reflectiveOperationException);\n")
+                    .append("        }\n    }\n");
+        }
+
+        writeRequestPath(source, request, requestType);
+        writeRequestBody(source, request, requestType);
+        source.append("}\n");
+
+        final String qualifiedName = request.packageName().isEmpty()
+                ? simpleName
+                : request.packageName() + "." + simpleName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, request.type()).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException ioException) {
+            throw new UncheckedIOException("Failed to write enricher " + qualifiedName, ioException);
+        }
+    }
+
+    private void writeRequestPath(final StringBuilder source, final RequestModel request, final String requestType) {
+        final Elements elements = processingEnv.getElementUtils();
+        source.append("\n    @Override\n    public String requestPath(final ").append(requestType)
+                .append(" request, final Resource resource) {\n")
+                .append("        final StringBuilder path = new StringBuilder(64);\n")
+                .append("        if (resource.getMaxArgs() < 1) {\n")
+                .append("            path.append(resource.getUri());\n")
+                .append("        } else {\n");
+        for (final FieldModel field : request.pathFields()) {
+            source.append("            final ").append(field.type()).append(' ').append(field.local()).append(" = ");
+            appendRead(source, field);
+        }
+        final boolean optional = request.pathFields().stream().anyMatch(field -> !field.required());
+        final boolean percentEncode = request.pathFields().stream().anyMatch(FieldModel::percentEncode);
+        source.append("            resource.appendRequestPath(path, ")
+                .append(optional ? "GeneratedEnrichers.presentPathValues(" : "")
+                .append("new Object[] {");
+        for (int i = 0; i < request.pathFields().size(); i++) {
+            final FieldModel field = request.pathFields().get(i);
+            source.append(i == 0 ? "\n" : ",\n").append("                    ");
+            if (field.required() && !field.type().getKind().isPrimitive()) {
+                source.append("GeneratedEnrichers.requirePathValue(").append(field.local()).append(", ")
+                        .append(field.index()).append(", REQUEST_NAME)");
+            } else {
+                source.append(field.local());
+            }
+        }
+        source.append(request.pathFields().isEmpty() ? "}" : "\n            }")
+                .append(optional ? ")" : "")
+                .append(", ").append(percentEncode).append(");\n")
+                .append("        }\n");
+
+        if (request.queryFields().isEmpty()) {
+            source.append("        return path.toString();\n    }\n");
+            return;
+        }
+        source.append("        path.append('?');\n");
+        for (final FieldModel field : request.queryFields()) {
+            source.append("        final ").append(field.type()).append(' ').append(field.local()).append(" = ");
+            appendRead(source, field);
+            final boolean primitive = field.type().getKind().isPrimitive();
+            if (!primitive) {
+                source.append("        if (").append(field.local()).append(" != null) {\n    ");
+            }
+            if (field.type().getKind() == TypeKind.ARRAY) {
+                source.append("        GeneratedEnrichers.skipQueryArray(")
+                        .append(elements.getConstantExpression(field.name())).append(", ")
+                        .append(field.local()).append(");\n");
+            } else {
+                source.append("        path.append(").append(elements.getConstantExpression(field.key() + "="))
+                        .append(").append(").append(field.local()).append(").append('&');\n");
+            }
+            if (!primitive && field.required()) {
+                source.append("        } else {\n            throw GeneratedEnrichers.missingQueryField(")
+                        .append(elements.getConstantExpression(field.name())).append(", ")
+                        .append(elements.getConstantExpression(field.key())).append(", REQUEST_NAME);\n");
+            }
+            if (!primitive) {
+                source.append("        }\n");
+            }
+        }
+        source.append("        return GeneratedEnrichers.completeQuery(path, request.getPagination());\n")
+                .append("    }\n");
+    }
+
+    private void writeRequestBody(final StringBuilder source, final RequestModel request, final String requestType) {
+        final Elements elements = processingEnv.getElementUtils();
+        source.append("\n    @Override\n    public String requestBody(final ").append(requestType)
+                .append(" request) {\n");
+        if (request.bodyFields().isEmpty()) {
+            source.append("        return \"\";\n    }\n");
+            return;
+        }
+        source.append("        final JsonBodyWriter body = JsonBodyWriter.start();\n");
+        for (final FieldModel field : request.bodyFields()) {
+            source.append("        final ").append(field.type()).append(' ').append(field.local()).append(" = ");
+            appendRead(source, field);
+            final boolean primitive = field.type().getKind().isPrimitive();
+            if (!primitive) {
+                source.append("        if (").append(field.local()).append(" != null) {\n    ");
+            }
+            // overloads of the writer are resolved on the declared type, arrays repeat the key
+            source.append("        body.").append(field.type().getKind() == TypeKind.ARRAY ? "fields" : "field")
+                    .append('(').append(elements.getConstantExpression(field.key()))
+                    .append(", ").append(field.local()).append(");\n");
+            if (!primitive && field.required()) {
+                source.append("        } else {\n            throw GeneratedEnrichers.missingBodyField(")
+                        .append(elements.getConstantExpression(field.name())).append(", ")
+                        .append(elements.getConstantExpression(field.key())).append(", REQUEST_NAME);\n");
+            }
+            if (!primitive) {
+                source.append("        }\n");
+            }
+        }
+        source.append("        return body.finish();\n    }\n");
+    }
+
+    private static void appendRead(final StringBuilder source, final FieldModel field) {
+        source.append('(').append(field.type()).append(") ").append(field.handle()).append(".get(request);\n");
+    }
+
+    private RequestModel skip(final TypeElement type, final String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "No enricher generated for " + type.getQualifiedName() + ", " + reason
+                        + ", it is enriched by reflection", type);
+        return null;
+    }
+
+    private static boolean isAccessible(final Element element, final PackageElement packageElement) {
+        for (Element current = element; current.getKind() != ElementKind.PACKAGE;
+             current = current.getEnclosingElement()) {
+            if (current.getModifiers().contains(Modifier.PRIVATE)
+                    || !current.getModifiers().contains(Modifier.PUBLIC)
+                    && !packageOf(current).equals(packageElement)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isAccessible(final TypeMirror type, final PackageElement packageElement) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return isAccessible(((ArrayType) type).getComponentType(), packageElement);
+        }
+        return type.getKind() != TypeKind.DECLARED
+                || isAccessible(((DeclaredType) type).asElement(), packageElement);
+    }
+
+    private static PackageElement packageOf(final Element element) {
+        Element current = element;
+        while (current.getKind() != ElementKind.PACKAGE) {
+            current = current.getEnclosingElement();
+        }
+        return (PackageElement) current;
+    }
+
+    private static AnnotationMirror annotation(final Element element, final String annotationType) {
+        for (final AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            final Element annotationElement = mirror.getAnnotationType().asElement();
+            if (((TypeElement) annotationElement).getQualifiedName().contentEquals(annotationType)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Object value(final AnnotationMirror mirror, final String name) {
+        for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new IllegalStateException("Missing annotation member " + name + " of " + mirror);
+    }
+
+    private static String uniqueName(final String name, final Set<String> usedNames) {
+        String unique = name;
+        for (int i = 1; !usedNames.add(unique); i++) {
+            unique = name + i;
+        }
+        return unique;
+    }
+
+    /**
+     * Converts a camel case field name to a constant name, e.g. <code>productId</code> to <code>PRODUCT_ID</code>.
+     */
+    private static String constantName(final String name) {
+        final StringBuilder constant = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(name.charAt(i - 1))) {
+                constant.append('_');
+            }
+            constant.append(Character.toUpperCase(c));
+        }
+        return constant.toString();
+    }
+
+    /**
+     * Request class to generate an enricher for.
+     */
+    private record RequestModel(TypeElement type,
+                                String packageName,
+                                List<FieldModel> pathFields,
+                                List<FieldModel> queryFields,
+                                List<FieldModel> bodyFields) {
+
+        private List<FieldModel> allFields() {
+            final List<FieldModel> fields = new ArrayList<>(pathFields);
+            fields.addAll(queryFields);
+            fields.addAll(bodyFields);
+            return fields;
+        }
+    }
+
+    /**
+     * Annotated field, with the names of its handle and local variable in the generated code.
+     */
+    private record FieldModel(VariableElement element,
+                              TypeElement declaringType,
+                              TypeMirror type,
+                              String name,
+                              String local,
+                              String handle,
+                              String key,
+                              int index,
+                              boolean required,
+                              boolean percentEncode) {
+    }
+}
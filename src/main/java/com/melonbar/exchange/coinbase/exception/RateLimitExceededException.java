@@ -0,0 +1,32 @@
+package com.melonbar.exchange.coinbase.exception;
+
+/**
+ * Thrown when a request is over the rate limit, either answered by Coinbase Pro with
+ * <code>429 Too Many Requests</code>, or rejected by the client-side rate limiter rather than sent. Retryable once
+ * the rate limit budget has refilled, although a local rejection means the budget is saturated, so retrying it
+ * right away only adds to the load the limiter sheds.
+ */
+public class RateLimitExceededException extends TransientException {
+
+    private final boolean rejectedLocally;
+
+    public RateLimitExceededException(final String message) {
+        this(message, false);
+    }
+
+    /**
+     * @param message Detail message
+     * @param rejectedLocally True if the request was rejected by the client-side rate limiter, without being sent
+     */
+    public RateLimitExceededException(final String message, final boolean rejectedLocally) {
+        super(message);
+        this.rejectedLocally = rejectedLocally;
+    }
+
+    /**
+     * @return True if the request was rejected by the client-side rate limiter, without being sent
+     */
+    public boolean isRejectedLocally() {
+        return rejectedLocally;
+    }
+}
@@ -0,0 +1,25 @@
+package com.melonbar.exchange.coinbase.http;
+
+import com.melonbar.core.http.HttpClient;
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.core.http.response.Response;
+
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link HttpClient} whose asynchronous dispatch returns a {@link CompletableFuture}, so that callers can compose on
+ * the response rather than block on it.
+ */
+public interface AsyncHttpClient extends HttpClient {
+
+    /**
+     * Dispatches a request <i>asynchronously</i>. Failures to build or dispatch the request complete the returned
+     * future exceptionally rather than being thrown.
+     *
+     * @param request Extension of {@link BaseRequest}
+     * @return {@link CompletableFuture} of the {@link HttpResponse<Response>}, whose status is not validated
+     */
+    @Override
+    CompletableFuture<HttpResponse<Response>> sendAsync(final BaseRequest request);
+}
@@ -1,6 +1,5 @@
 package com.melonbar.exchange.coinbase.http;
 
-import com.melonbar.core.http.HttpClient;
 import com.melonbar.core.http.request.BaseRequest;
 import com.melonbar.core.http.response.Response;
 import com.melonbar.core.http.response.ResponseBodyHandler;
@@ -8,15 +7,18 @@ import com.melonbar.core.util.Format;
 import com.melonbar.core.util.request.Requests;
 import com.melonbar.exchange.coinbase.authentication.Authentication;
 import com.melonbar.exchange.coinbase.exception.BadRequestException;
+import com.melonbar.exchange.coinbase.exception.RateLimitExceededException;
 import com.melonbar.exchange.coinbase.exception.TransientException;
 import com.melonbar.exchange.coinbase.util.AppConfig;
+import com.melonbar.exchange.coinbase.util.JsonBodyWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * HTTP client implementation, which uses {@link java.net.http.HttpClient} as the underlying driver for
@@ -28,7 +30,12 @@ import java.util.concurrent.Future;
  */
 @Slf4j
 @RequiredArgsConstructor
-public class HttpClientImpl implements HttpClient {
+public class HttpClientImpl implements AsyncHttpClient {
+
+    /**
+     * Status code of a request over the rate limit.
+     */
+    public static final int TOO_MANY_REQUESTS = 429;
 
     private final Authentication authentication;
     private final java.net.http.HttpClient httpClient;
@@ -42,6 +49,8 @@ public class HttpClientImpl implements HttpClient {
      *
      * @param request Extension of {@link BaseRequest}
      * @return {@link HttpResponse<Response>}
+     * @throws TransientException If the request failed in transit, e.g. timed out, or the status code is retryable
+     * @throws BadRequestException If the status code is not retryable
      */
     @Override
     public HttpResponse<Response> send(final BaseRequest request) {
@@ -51,13 +60,18 @@ public class HttpClientImpl implements HttpClient {
                     request.getClass().getSimpleName(), request.getMethod(), request.getUri());
             httpResponse = httpClient.send(generateHttpRequest(request),
                     new ResponseBodyHandler());
-        } catch (Exception exception) {
+        } catch (IOException ioException) {
+            // e.g. timed out or connection reset, the request may be retried
             log.error(Format.format("Something went wrong while dispatching request: [{}]",
-                    Requests.toString(request)), exception);
-            return null;
+                    Requests.toString(request)), ioException);
+            throw new TransientException("Failed to dispatch request " + request.getClass().getSimpleName(),
+                    ioException);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new TransientException("Interrupted while dispatching request "
+                    + request.getClass().getSimpleName(), interruptedException);
         }
-        validateRequestStatus(httpResponse);
-        return httpResponse;
+        return validateRequestStatus(httpResponse);
     }
 
     /**
@@ -65,13 +79,15 @@ public class HttpClientImpl implements HttpClient {
      * {@link java.net.http.HttpClient}. Handles response body using {@link ResponseBodyHandler}. The response body,
      * {@link Response}, contains the result headers, status code, and string content.
      *
-     * <p> The caller of this dispatch has authority of any post-processing or object mapping on the result.
+     * <p> The caller of this dispatch has authority of any post-processing or object mapping on the result, including
+     * the status code handling, see {@link #validateRequestStatus(HttpResponse)}. A request which cannot be built or
+     * dispatched completes the returned future exceptionally.
      *
      * @param request Extension of {@link BaseRequest}
-     * @return {@link Future<HttpResponse<Response>>}
+     * @return {@link CompletableFuture<HttpResponse<Response>>}
      */
     @Override
-    public Future<HttpResponse<Response>> sendAsync(final BaseRequest request) {
+    public CompletableFuture<HttpResponse<Response>> sendAsync(final BaseRequest request) {
         try {
             if (log.isDebugEnabled()) {
                 log.debug("Dispatching request [{}] asynchronously with method [{}] to URL: [{}]",
@@ -81,38 +97,40 @@ public class HttpClientImpl implements HttpClient {
         } catch (Exception exception) {
             log.error(Format.format("Something went wrong while dispatching async request: [{}]",
                     Requests.toString(request)), exception);
+            return CompletableFuture.failedFuture(exception);
         }
-        return null;
     }
 
     /**
      * Converts the {@link BaseRequest} into the {@link HttpRequest} for dispatch, and handles any required signing
-     * using {@link Authentication}.
+     * using {@link Authentication}. The body is signed and sent as the same UTF-8 bytes, which are those written
+     * during enrichment when the request was enriched on this thread, see {@link JsonBodyWriter#bytes(String)}.
+     * Package-private for benchmarking request building without dispatching.
      *
      * @param request {@link BaseRequest}
      * @return {@link HttpRequest} ready for dispatch
      */
-    private HttpRequest generateHttpRequest(final BaseRequest request) {
+    HttpRequest generateHttpRequest(final BaseRequest request) {
+        final byte[] body = JsonBodyWriter.bytes(request.getBody());
         return authentication
                 .sign(HttpRequest.newBuilder(),
                         request.getMethod().name(),
-                        request.getUri().substring(
-                                request.getUri().indexOf(AppConfig.COINBASE_PRO_API_ENDPOINT) + AppConfig.COINBASE_PRO_API_ENDPOINT.length()),
-                        request.getBody())
+                        request.getUri().substring(request.getUri().indexOf(AppConfig.COINBASE_PRO_API_ENDPOINT)
+                                + AppConfig.COINBASE_PRO_API_ENDPOINT.length()),
+                        body)
                 // apply URI
                 .uri(URI.create(request.getUri()))
                 // apply HTTP method and body
-                .method(request.getMethod().name(),
-                        HttpRequest.BodyPublishers.ofString(request.getBody()))
+                .method(request.getMethod().name(), HttpRequest.BodyPublishers.ofByteArray(body))
                 .build();
     }
 
     /**
      * Validate the response status code based on the Coinbase Pro documentation for HTTP status codes.
-     * Currently this form of immediate post-response validation is only done for sync dispatch. Requests
-     * sent during async dispatch should have status code handling done by the caller, otherwise awaiting
-     * for the status code within <code>sendAsync</code> makes it no different functionally than
-     * <code>sendAsync</code>.
+     * This form of immediate post-response validation is done for sync dispatch. Requests sent during async
+     * dispatch should have status code handling done by the caller once the response completes, otherwise
+     * awaiting for the status code within <code>sendAsync</code> makes it no different functionally than
+     * <code>send</code>.
      *
      * <p> The decisions for throwing exceptions are based on the provided example
      * errors by Coinbase Pro:
@@ -122,18 +140,27 @@ public class HttpClientImpl implements HttpClient {
      * <p> 401 - Unauthorized
      * <p> 403 - Forbidden
      * <p> 404 - Not Found
+     * <p> 429 - Too Many Requests
      * <p> 500 - Internal Server Error
      *
      * @param response {@link HttpResponse}
+     * @return The input response
      * @throws BadRequestException for unrecoverable errors caused by bad requests
+     * @throws RateLimitExceededException for requests over the rate limit, retryable later
      * @throws TransientException for recoverable errors due to internal server issues
      */
-    private void validateRequestStatus(final HttpResponse<Response> response) {
+    public static HttpResponse<Response> validateRequestStatus(final HttpResponse<Response> response) {
         switch (response.statusCode() / 100) {
             case 2:
                 // success
-                return;
+                return response;
             case 4:
+                if (response.statusCode() == TOO_MANY_REQUESTS) {
+                    // throttled, retryable once the rate limit budget refills
+                    throw new RateLimitExceededException(
+                            Format.format("Received code: [{}], request was rate limited. Body: [{}].",
+                                    response.statusCode(), response.body().content()));
+                }
                 // non-retryable
                 throw new BadRequestException(
                         Format.format("Received code: [{}], request could not be processed"
@@ -148,6 +175,7 @@ public class HttpClientImpl implements HttpClient {
                 // unrecognized status code
                 log.warn("Received unknown code [{}] with response body: [{}]", response.statusCode(),
                         response.body().content());
+                return response;
         }
     }
 }
@@ -0,0 +1,217 @@
+package com.melonbar.exchange.coinbase.http.ratelimit;
+
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.core.util.Guard;
+import com.melonbar.exchange.coinbase.exception.RateLimitExceededException;
+import com.melonbar.exchange.coinbase.rest.api.resource.EndpointClass;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Queues of the requests waiting for a token of a {@link RateLimiter}, one per {@link EndpointClass}, ranked by
+ * arrival time plus the max delay of their {@link RequestPriority}, and the dispatcher thread releasing them in rank
+ * order as tokens refill. An urgent request thus overtakes less urgent ones unless they have already waited their max
+ * delay, which bounds how long they can be starved. Requests still queued after the rate limiter's max queue wait
+ * fail with a {@link RateLimitExceededException} when they reach the head of the queue.
+ *
+ * <p> Shared by all the {@link PriorityRequestScheduler} drawing on the same budget, so that a single dispatcher
+ * thread serves them and the priorities hold across clients.
+ *
+ * <p> Thread-safe.
+ */
+@Slf4j
+public class PriorityRequestQueue implements AutoCloseable {
+
+    // longest sleep of the dispatcher while nothing is queued
+    private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Getter
+    private final RateLimiter rateLimiter;
+    private final Map<EndpointClass, PriorityQueue<PendingRequest>> queues = new EnumMap<>(EndpointClass.class);
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Creates a queue and starts its dispatcher thread.
+     *
+     * @param rateLimiter {@link RateLimiter} providing the budgets
+     */
+    public PriorityRequestQueue(final RateLimiter rateLimiter) {
+        this(rateLimiter, true);
+    }
+
+    /**
+     * Creates a queue, for testing without a dispatcher thread, see {@link #dispatchPending()}.
+     *
+     * @param rateLimiter {@link RateLimiter} providing the budgets
+     * @param startDispatcher True to start the dispatcher thread
+     */
+    PriorityRequestQueue(final RateLimiter rateLimiter, final boolean startDispatcher) {
+        Guard.nonNull(rateLimiter);
+        this.rateLimiter = rateLimiter;
+        for (final EndpointClass endpointClass : EndpointClass.values()) {
+            queues.put(endpointClass, new PriorityQueue<>());
+        }
+        if (startDispatcher) {
+            dispatcher = new Thread(this::runDispatcher, "coinbase-pro-request-scheduler");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        } else {
+            dispatcher = null;
+        }
+    }
+
+    /**
+     * Gets the number of requests queued for an endpoint class.
+     *
+     * @param endpointClass {@link EndpointClass}
+     * @return Queue depth
+     */
+    public int getQueueDepth(final EndpointClass endpointClass) {
+        final PriorityQueue<PendingRequest> queue = queues.get(endpointClass);
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Stops the dispatcher thread, and fails the requests still queued. Requests scheduled afterwards fail right
+     * away.
+     */
+    @Override
+    public void close() {
+        running = false;
+        if (dispatcher != null) {
+            LockSupport.unpark(dispatcher);
+        }
+        for (final PriorityQueue<PendingRequest> queue : queues.values()) {
+            synchronized (queue) {
+                PendingRequest pending;
+                while ((pending = queue.poll()) != null) {
+                    pending.release.completeExceptionally(new IllegalStateException("Request scheduler is closed"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes a token for a request right away if possible, queues it otherwise.
+     *
+     * @param request Extension of {@link BaseRequest}
+     * @param endpointClass {@link EndpointClass} of the request
+     * @return {@link CompletableFuture} completing once the request may be sent
+     */
+    CompletableFuture<Void> schedule(final BaseRequest request, final EndpointClass endpointClass) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Request scheduler is closed"));
+        }
+        final PriorityQueue<PendingRequest> queue = queues.get(endpointClass);
+        final PendingRequest pending;
+        synchronized (queue) {
+            if (queue.isEmpty() && rateLimiter.tryAcquire(endpointClass) == 0) {
+                return CompletableFuture.completedFuture(null);
+            }
+            final RequestPriority priority = RequestPriority.of(request, endpointClass);
+            final long nowNanos = rateLimiter.nanoTime();
+            pending = new PendingRequest(nowNanos, nowNanos + priority.getMaxDelayNanos(),
+                    sequence.getAndIncrement());
+            queue.add(pending);
+        }
+        if (dispatcher != null) {
+            LockSupport.unpark(dispatcher);
+        }
+        return pending.release;
+    }
+
+    /**
+     * Releases the queued requests for which tokens are available, in rank order, and fails those queued for longer
+     * than the max queue wait.
+     *
+     * @return Nanoseconds until the next token is available for a queued request, or the idle sleep if nothing is
+     * queued
+     */
+    long dispatchPending() {
+        long sleepNanos = IDLE_NANOS;
+        for (final Map.Entry<EndpointClass, PriorityQueue<PendingRequest>> entry : queues.entrySet()) {
+            final EndpointClass endpointClass = entry.getKey();
+            final PriorityQueue<PendingRequest> queue = entry.getValue();
+            while (true) {
+                final PendingRequest pending;
+                final long waitNanos;
+                synchronized (queue) {
+                    final PendingRequest head = queue.peek();
+                    if (head == null) {
+                        break;
+                    }
+                    if (head.release.isDone()) {
+                        // cancelled while queued
+                        queue.poll();
+                        continue;
+                    }
+                    waitNanos = rateLimiter.nanoTime() - head.enqueuedNanos;
+                    if (waitNanos <= rateLimiter.getMaxQueueWaitNanos()) {
+                        final long tokenNanos = rateLimiter.tryAcquire(endpointClass);
+                        if (tokenNanos > 0) {
+                            sleepNanos = Math.min(sleepNanos, tokenNanos);
+                            break;
+                        }
+                    }
+                    pending = queue.poll();
+                }
+                if (waitNanos > rateLimiter.getMaxQueueWaitNanos()) {
+                    rateLimiter.recordRejected(endpointClass);
+                    pending.release.completeExceptionally(new RateLimitExceededException(
+                            "Request queued for over " + TimeUnit.NANOSECONDS.toMillis(waitNanos) + " ms for the"
+                                    + " rate limit of " + endpointClass + " endpoints", true));
+                } else {
+                    rateLimiter.recordQueueWait(endpointClass, waitNanos);
+                    pending.release.complete(null);
+                }
+            }
+        }
+        return sleepNanos;
+    }
+
+    private void runDispatcher() {
+        while (running) {
+            try {
+                LockSupport.parkNanos(this, dispatchPending());
+            } catch (RuntimeException exception) {
+                // e.g. thrown by a continuation of a released request, the other requests must still be released
+                log.error("Exception thrown while dispatching queued requests", exception);
+            }
+        }
+    }
+
+    /**
+     * Request waiting for a token, ranked by its deadline, then its arrival order.
+     */
+    private static final class PendingRequest implements Comparable<PendingRequest> {
+
+        private final long enqueuedNanos;
+        private final long deadlineNanos;
+        private final long sequence;
+        private final CompletableFuture<Void> release = new CompletableFuture<>();
+
+        private PendingRequest(final long enqueuedNanos, final long deadlineNanos, final long sequence) {
+            this.enqueuedNanos = enqueuedNanos;
+            this.deadlineNanos = deadlineNanos;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(final PendingRequest other) {
+            final int byDeadline = Long.compare(deadlineNanos - other.deadlineNanos, 0);
+            return byDeadline != 0 ? byDeadline : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.melonbar.exchange.coinbase.http.ratelimit;
+
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.exchange.coinbase.exception.RateLimitExceededException;
+import com.melonbar.exchange.coinbase.http.AsyncHttpClient;
+import com.melonbar.exchange.coinbase.rest.api.resource.EndpointClass;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * {@link RateLimitedHttpClient} which hands out the rate limit budget by {@link RequestPriority} rather than in
+ * arrival order, so that order cancellations and placements are not stuck behind reads when the budget is
+ * saturated.
+ *
+ * <p> A request is sent immediately when a token is available and nothing is queued for its endpoint class.
+ * Otherwise it joins a {@link PriorityRequestQueue}, which releases it in rank order as tokens refill. Schedulers
+ * drawing on the same budget should share one queue, so that they are served by a single dispatcher thread, see
+ * {@link #PriorityRequestScheduler(AsyncHttpClient, PriorityRequestQueue)}.
+ *
+ * <p> Blocking requests are sent from the calling thread once released, asynchronous requests from the dispatcher
+ * thread.
+ */
+public class PriorityRequestScheduler extends RateLimitedHttpClient implements AutoCloseable {
+
+    private final PriorityRequestQueue queue;
+    private final boolean ownsQueue;
+
+    /**
+     * Creates a scheduler with a queue of its own, whose dispatcher thread runs until the scheduler is closed.
+     *
+     * @param httpClient {@link AsyncHttpClient} sending the requests
+     * @param rateLimiter {@link RateLimiter} providing the budgets
+     */
+    public PriorityRequestScheduler(final AsyncHttpClient httpClient, final RateLimiter rateLimiter) {
+        this(httpClient, new PriorityRequestQueue(rateLimiter), true);
+    }
+
+    /**
+     * Creates a scheduler sharing a queue, and its dispatcher thread, with other schedulers. Closing the scheduler
+     * leaves the queue open.
+     *
+     * @param httpClient {@link AsyncHttpClient} sending the requests
+     * @param queue {@link PriorityRequestQueue} of the budget
+     */
+    public PriorityRequestScheduler(final AsyncHttpClient httpClient, final PriorityRequestQueue queue) {
+        this(httpClient, queue, false);
+    }
+
+    /**
+     * Creates a scheduler with a queue of its own, for testing without a dispatcher thread, see
+     * {@link #dispatchPending()}.
+     *
+     * @param httpClient {@link AsyncHttpClient} sending the requests
+     * @param rateLimiter {@link RateLimiter} providing the budgets
+     * @param startDispatcher True to start the dispatcher thread
+     */
+    PriorityRequestScheduler(final AsyncHttpClient httpClient,
+                             final RateLimiter rateLimiter,
+                             final boolean startDispatcher) {
+        this(httpClient, new PriorityRequestQueue(rateLimiter, startDispatcher), true);
+    }
+
+    private PriorityRequestScheduler(final AsyncHttpClient httpClient,
+                                     final PriorityRequestQueue queue,
+                                     final boolean ownsQueue) {
+        super(httpClient, queue.getRateLimiter());
+        this.queue = queue;
+        this.ownsQueue = ownsQueue;
+    }
+
+    /**
+     * Gets the number of requests queued for an endpoint class, by this scheduler and those sharing its queue.
+     *
+     * @param endpointClass {@link EndpointClass}
+     * @return Queue depth
+     */
+    @Override
+    public int getQueueDepth(final EndpointClass endpointClass) {
+        return queue.getQueueDepth(endpointClass);
+    }
+
+    /**
+     * Closes the queue of the scheduler, failing the requests still queued, unless it is shared.
+     */
+    @Override
+    public void close() {
+        if (ownsQueue) {
+            queue.close();
+        }
+    }
+
+    @Override
+    protected void acquire(final BaseRequest request, final EndpointClass endpointClass) {
+        final CompletableFuture<Void> release = queue.schedule(request, endpointClass);
+        try {
+            release.get();
+        } catch (InterruptedException interruptedException) {
+            // the dispatcher skips the cancelled request
+            release.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RateLimitExceededException("Interrupted while queued for the rate limit of "
+                    + endpointClass + " endpoints", true);
+        } catch (ExecutionException executionException) {
+            if (executionException.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(executionException.getCause());
+        }
+    }
+
+    @Override
+    protected CompletableFuture<Void> acquireAsync(final BaseRequest request, final EndpointClass endpointClass) {
+        return queue.schedule(request, endpointClass);
+    }
+
+    /**
+     * Releases the queued requests for which tokens are available, see {@link PriorityRequestQueue#dispatchPending()}.
+     *
+     * @return Nanoseconds until the next token is available for a queued request
+     */
+    long dispatchPending() {
+        return queue.dispatchPending();
+    }
+}
@@ -0,0 +1,40 @@
+package com.melonbar.exchange.coinbase.http.ratelimit;
+
+import com.melonbar.exchange.coinbase.rest.api.resource.EndpointClass;
+
+/**
+ * Point-in-time metrics of the rate limit budget of an {@link EndpointClass}, see {@link RateLimiter#getMetrics}.
+ *
+ * <p> Negative available tokens are the requests queued for a token. A rate below the nominal rate of the endpoint
+ * class, or a growing throttled count, means Coinbase Pro answered with <code>429</code> and the limiter slowed
+ * down.
+ *
+ * @param endpointClass Rate limit class
+ * @param availableTokens Tokens available for immediate requests, negative when requests are queued
+ * @param requestsPerSecond Current refill rate
+ * @param acquired Total requests let through, immediately or after queueing
+ * @param queued Requests which had to wait for a token
+ * @param rejected Requests rejected because their wait would have been too long
+ * @param throttled <code>429</code> responses received
+ * @param totalQueueWaitNanos Total time waited by queued requests
+ * @param maxQueueWaitNanos Longest time waited by a queued request
+ */
+public record RateLimitMetrics(EndpointClass endpointClass,
+                               double availableTokens,
+                               double requestsPerSecond,
+                               long acquired,
+                               long queued,
+                               long rejected,
+                               long throttled,
+                               long totalQueueWaitNanos,
+                               long maxQueueWaitNanos) {
+
+    /**
+     * Gets the average time waited by queued requests.
+     *
+     * @return Average queue wait in nanoseconds, 0 if no request was queued
+     */
+    public long averageQueueWaitNanos() {
+        return queued == 0 ? 0 : totalQueueWaitNanos / queued;
+    }
+}
@@ -0,0 +1,144 @@
+package com.melonbar.exchange.coinbase.http.ratelimit;
+
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.core.http.response.Response;
+import com.melonbar.exchange.coinbase.exception.RateLimitExceededException;
+import com.melonbar.exchange.coinbase.http.AsyncHttpClient;
+import com.melonbar.exchange.coinbase.http.HttpClientImpl;
+import com.melonbar.exchange.coinbase.rest.api.resource.EndpointClass;
+import com.melonbar.exchange.coinbase.rest.api.resource.Resource;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.LongConsumer;
+
+/**
+ * {@link AsyncHttpClient} decorator which passes each request through a {@link RateLimiter} before dispatching it,
+ * and reports each response back to it. The budget of a request is that of the {@link EndpointClass} of its request
+ * path, see {@link Resource#endpointClassOf(String)}.
+ *
+ * <p> Blocking dispatch waits on the calling thread while the request is queued. Asynchronous dispatch delays the
+ * request instead, in which case it is signed and sent from a timer thread once its token is available, so that
+ * the signature timestamp is that of the actual dispatch.
+ *
+ * <p> Asynchronous dispatch can report the time a request leaves the queue, see
+ * {@link #sendAsync(BaseRequest, LongConsumer)}, so that callers measuring latencies leave the queue wait out.
+ *
+ * <p> Requests are queued in the order they arrive. Extensions may order them otherwise by overriding
+ * {@link #acquire(BaseRequest, EndpointClass)} and {@link #acquireAsync(BaseRequest, EndpointClass)}.
+ */
+@RequiredArgsConstructor
+public class RateLimitedHttpClient implements AsyncHttpClient {
+
+    private final AsyncHttpClient httpClient;
+    @Getter
+    private final RateLimiter rateLimiter;
+    // asynchronous requests waiting for a token, by endpoint class ordinal
+    private final AtomicIntegerArray delayed = new AtomicIntegerArray(EndpointClass.values().length);
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws RateLimitExceededException If the request is rejected by the rate limiter, or rate limited by
+     * Coinbase Pro
+     */
+    @Override
+    public HttpResponse<Response> send(final BaseRequest request) {
+        final EndpointClass endpointClass = Resource.endpointClassOf(request.getRequestPath());
+        acquire(request, endpointClass);
+        final HttpResponse<Response> response;
+        try {
+            response = httpClient.send(request);
+        } catch (RateLimitExceededException rateLimitExceededException) {
+            // answered with 429
+            rateLimiter.onResponse(endpointClass, HttpClientImpl.TOO_MANY_REQUESTS);
+            throw rateLimitExceededException;
+        }
+        if (response != null) {
+            rateLimiter.onResponse(endpointClass, response.statusCode());
+        }
+        return response;
+    }
+
+    /**
+     * {@inheritDoc} A request rejected by the rate limiter completes the returned future with a
+     * {@link RateLimitExceededException}.
+     */
+    @Override
+    public CompletableFuture<HttpResponse<Response>> sendAsync(final BaseRequest request) {
+        return sendAsync(request, dispatchNanos -> { });
+    }
+
+    /**
+     * Dispatches a request <i>asynchronously</i>, like {@link #sendAsync(BaseRequest)}, reporting when it leaves the
+     * queue.
+     *
+     * @param request Extension of {@link BaseRequest}
+     * @param onDispatch Called with {@link System#nanoTime()} right before the request is sent, not called if the
+     *                   request is rejected by the rate limiter
+     * @return {@link CompletableFuture} of the {@link HttpResponse<Response>}, whose status is not validated
+     */
+    public CompletableFuture<HttpResponse<Response>> sendAsync(final BaseRequest request,
+                                                               final LongConsumer onDispatch) {
+        final EndpointClass endpointClass = Resource.endpointClassOf(request.getRequestPath());
+        final CompletableFuture<Void> token = acquireAsync(request, endpointClass);
+        final CompletableFuture<HttpResponse<Response>> response;
+        if (token.isDone() && !token.isCompletedExceptionally()) {
+            // not queued, dispatch from the calling thread
+            response = dispatch(request, onDispatch);
+        } else {
+            delayed.incrementAndGet(endpointClass.ordinal());
+            response = token
+                    .whenComplete((acquired, throwable) -> delayed.decrementAndGet(endpointClass.ordinal()))
+                    .thenCompose(acquired -> dispatch(request, onDispatch));
+        }
+        return response.whenComplete((httpResponse, throwable) -> {
+            if (httpResponse != null) {
+                rateLimiter.onResponse(endpointClass, httpResponse.statusCode());
+            }
+        });
+    }
+
+    /**
+     * Gets the number of asynchronous requests of this client waiting for a token of an endpoint class. A request
+     * sent while requests are waiting would only add to the queue.
+     *
+     * @param endpointClass {@link EndpointClass}
+     * @return Queue depth
+     */
+    public int getQueueDepth(final EndpointClass endpointClass) {
+        return delayed.get(endpointClass.ordinal());
+    }
+
+    /**
+     * Acquires a token for a request about to be sent, blocking while it is queued.
+     *
+     * @param request Extension of {@link BaseRequest}
+     * @param endpointClass {@link EndpointClass} of the request
+     * @throws RateLimitExceededException If the request is rejected by the rate limiter
+     */
+    protected void acquire(final BaseRequest request, final EndpointClass endpointClass) {
+        rateLimiter.acquire(endpointClass);
+    }
+
+    /**
+     * Acquires a token for a request about to be sent, without blocking.
+     *
+     * @param request Extension of {@link BaseRequest}
+     * @param endpointClass {@link EndpointClass} of the request
+     * @return {@link CompletableFuture} completing once the request may be sent, or failed with a
+     * {@link RateLimitExceededException} if it is rejected
+     */
+    protected CompletableFuture<Void> acquireAsync(final BaseRequest request, final EndpointClass endpointClass) {
+        return rateLimiter.acquireAsync(endpointClass);
+    }
+
+    private CompletableFuture<HttpResponse<Response>> dispatch(final BaseRequest request,
+                                                               final LongConsumer onDispatch) {
+        onDispatch.accept(System.nanoTime());
+        return httpClient.sendAsync(request);
+    }
+}
@@ -0,0 +1,220 @@
+package com.melonbar.exchange.coinbase.http.ratelimit;
+
+import com.melonbar.core.util.Format;
+import com.melonbar.core.util.Guard;
+import com.melonbar.exchange.coinbase.exception.RateLimitExceededException;
+import com.melonbar.exchange.coinbase.http.HttpClientImpl;
+import com.melonbar.exchange.coinbase.rest.api.resource.EndpointClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side rate limiter for Coinbase Pro, with one {@link TokenBucket} per {@link EndpointClass}, sized with the
+ * sustained rate and burst allowance of the exchange's limits.
+ *
+ * <p> A request over the budget is queued until a token refills, by blocking the calling thread with
+ * {@link #acquire(EndpointClass)} or delaying a future with {@link #acquireAsync(EndpointClass)}. A request which
+ * would have to wait longer than the maximum queue wait is rejected with a {@link RateLimitExceededException}
+ * instead, without being sent, so that callers fail fast rather than pile up behind a throttled budget.
+ *
+ * <p> Responses must be reported with {@link #onResponse(EndpointClass, int)}, so that the limiter slows down when
+ * the exchange still answers with <code>429</code>, e.g. when other clients share the API key or IP address.
+ *
+ * <p> Thread-safe.
+ */
+@Slf4j
+public class RateLimiter {
+
+    /**
+     * Default longest time a request may be queued for a token.
+     */
+    public static final Duration DEFAULT_MAX_QUEUE_WAIT = Duration.ofSeconds(2);
+
+    private final Map<EndpointClass, TokenBucket> buckets = new EnumMap<>(EndpointClass.class);
+    private final long maxQueueWaitNanos;
+    private final LongSupplier clock;
+
+    /**
+     * Creates a rate limiter queueing requests for up to {@link #DEFAULT_MAX_QUEUE_WAIT}.
+     */
+    public RateLimiter() {
+        this(DEFAULT_MAX_QUEUE_WAIT);
+    }
+
+    /**
+     * Creates a rate limiter.
+     *
+     * @param maxQueueWait Longest time a request may be queued for a token, zero to reject requests over the budget
+     */
+    public RateLimiter(final Duration maxQueueWait) {
+        this(maxQueueWait, System::nanoTime);
+    }
+
+    /**
+     * Creates a rate limiter with a custom clock, for testing.
+     *
+     * @param maxQueueWait Longest time a request may be queued for a token
+     * @param clock Monotonic time source in nanoseconds
+     */
+    RateLimiter(final Duration maxQueueWait, final LongSupplier clock) {
+        Guard.nonNull(maxQueueWait, clock);
+        if (maxQueueWait.isNegative()) {
+            throw new IllegalArgumentException("Max queue wait must not be negative, got " + maxQueueWait);
+        }
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        this.clock = clock;
+        final long nowNanos = clock.getAsLong();
+        for (final EndpointClass endpointClass : EndpointClass.values()) {
+            buckets.put(endpointClass, new TokenBucket(endpointClass, nowNanos));
+        }
+    }
+
+    /**
+     * Reserves a token for a request.
+     *
+     * @param endpointClass {@link EndpointClass} of the request
+     * @return Nanoseconds to wait before sending the request, 0 to send it immediately
+     * @throws RateLimitExceededException If the request would have to wait longer than the maximum queue wait
+     */
+    public long reserve(final EndpointClass endpointClass) {
+        final long waitNanos = buckets.get(endpointClass).reserve(clock.getAsLong(), maxQueueWaitNanos);
+        if (waitNanos < 0) {
+            throw new RateLimitExceededException(Format.format(
+                    "Rate limit budget of {} endpoints exhausted, request rejected rather than queued for over {} ms",
+                    endpointClass, TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos)), true);
+        }
+        if (waitNanos > 0 && log.isDebugEnabled()) {
+            log.debug("Queueing {} request for {} us", endpointClass, TimeUnit.NANOSECONDS.toMicros(waitNanos));
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Acquires a token for a request, blocking the calling thread while the request is queued.
+     *
+     * @param endpointClass {@link EndpointClass} of the request
+     * @throws RateLimitExceededException If the request would have to wait longer than the maximum queue wait, or
+     * the thread is interrupted while waiting
+     */
+    public void acquire(final EndpointClass endpointClass) {
+        final long waitNanos = reserve(endpointClass);
+        if (waitNanos == 0) {
+            return;
+        }
+        final long deadline = System.nanoTime() + waitNanos;
+        long remainingNanos = waitNanos;
+        while (remainingNanos > 0) {
+            LockSupport.parkNanos(this, remainingNanos);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new RateLimitExceededException("Interrupted while queued for the rate limit of "
+                        + endpointClass + " endpoints", true);
+            }
+            remainingNanos = deadline - System.nanoTime();
+        }
+    }
+
+    /**
+     * Acquires a token for a request without blocking.
+     *
+     * @param endpointClass {@link EndpointClass} of the request
+     * @return {@link CompletableFuture} completing once the request may be sent, already completed if it may be sent
+     * immediately, or failed with a {@link RateLimitExceededException} if it would have to wait longer than the
+     * maximum queue wait
+     */
+    public CompletableFuture<Void> acquireAsync(final EndpointClass endpointClass) {
+        final long waitNanos;
+        try {
+            waitNanos = reserve(endpointClass);
+        } catch (RateLimitExceededException rateLimitExceededException) {
+            return CompletableFuture.failedFuture(rateLimitExceededException);
+        }
+        if (waitNanos == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { },
+                CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Adapts the rate of an endpoint class to the status code of a response.
+     *
+     * @param endpointClass {@link EndpointClass} of the request
+     * @param statusCode Response status code
+     */
+    public void onResponse(final EndpointClass endpointClass, final int statusCode) {
+        final TokenBucket bucket = buckets.get(endpointClass);
+        if (statusCode == HttpClientImpl.TOO_MANY_REQUESTS) {
+            bucket.throttle(clock.getAsLong());
+            log.warn("Received code [{}] for {} endpoints, slowing down to {} requests per second", statusCode,
+                    endpointClass, bucket.metrics(clock.getAsLong()).requestsPerSecond());
+        } else if (statusCode / 100 == 2) {
+            bucket.recover();
+        }
+    }
+
+    /**
+     * Takes a token if one is available, without queueing for one otherwise. Tokens are then handed out in the
+     * caller's own order, e.g. by priority, see {@link PriorityRequestScheduler}.
+     *
+     * @param endpointClass {@link EndpointClass} of the request
+     * @return 0 if a token was taken, otherwise nanoseconds until one is available
+     */
+    long tryAcquire(final EndpointClass endpointClass) {
+        return buckets.get(endpointClass).tryAcquire(clock.getAsLong());
+    }
+
+    /**
+     * Records the time a request waited for a token taken with {@link #tryAcquire(EndpointClass)}.
+     *
+     * @param endpointClass {@link EndpointClass} of the request
+     * @param waitNanos Queue wait
+     */
+    void recordQueueWait(final EndpointClass endpointClass, final long waitNanos) {
+        buckets.get(endpointClass).recordQueueWait(waitNanos);
+    }
+
+    /**
+     * Records a request rejected without a token.
+     *
+     * @param endpointClass {@link EndpointClass} of the request
+     */
+    void recordRejected(final EndpointClass endpointClass) {
+        buckets.get(endpointClass).recordRejected();
+    }
+
+    /**
+     * Gets the longest time a request may be queued for a token.
+     *
+     * @return Max queue wait in nanoseconds
+     */
+    long getMaxQueueWaitNanos() {
+        return maxQueueWaitNanos;
+    }
+
+    /**
+     * Gets the current time of the limiter's clock.
+     *
+     * @return Nanoseconds
+     */
+    long nanoTime() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Gets the metrics of an endpoint class.
+     *
+     * @param endpointClass {@link EndpointClass}
+     * @return {@link RateLimitMetrics}
+     */
+    public RateLimitMetrics getMetrics(final EndpointClass endpointClass) {
+        return buckets.get(endpointClass).metrics(clock.getAsLong());
+    }
+}
@@ -0,0 +1,61 @@
+package com.melonbar.exchange.coinbase.http.ratelimit;
+
+import com.melonbar.core.http.Http;
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.exchange.coinbase.rest.api.resource.EndpointClass;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatch priority of a request queued by the {@link PriorityRequestScheduler}, most urgent first. Each priority
+ * yields to more urgent requests for at most its max delay: a request is ranked by its arrival time plus its max
+ * delay, so that a request which has waited that long is dispatched before more urgent requests arriving later,
+ * which keeps lower priorities from starving.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum RequestPriority {
+
+    /**
+     * Order cancellations, which bound the exposure of resting orders.
+     */
+    CANCEL(0),
+
+    /**
+     * Order placements.
+     */
+    PLACE(TimeUnit.MILLISECONDS.toNanos(50)),
+
+    /**
+     * Reads of private data, e.g. accounts, orders and fills.
+     */
+    READ(TimeUnit.MILLISECONDS.toNanos(500)),
+
+    /**
+     * Reads of public market data.
+     */
+    MARKET_DATA(TimeUnit.SECONDS.toNanos(1));
+
+    // longest time a request of this priority yields to more urgent requests
+    private final long maxDelayNanos;
+
+    /**
+     * Classifies a request: cancellations are <code>DELETE</code> requests, placements are <code>POST</code>
+     * requests, and other requests are reads of private or public data depending on their endpoint class.
+     *
+     * @param request Extension of {@link BaseRequest}
+     * @param endpointClass {@link EndpointClass} of the request
+     * @return {@link RequestPriority} of the request
+     */
+    public static RequestPriority of(final BaseRequest request, final EndpointClass endpointClass) {
+        final Http method = request.getMethod();
+        if (method == Http.DELETE) {
+            return CANCEL;
+        } else if (method == Http.POST) {
+            return PLACE;
+        }
+        return endpointClass == EndpointClass.PUBLIC ? MARKET_DATA : READ;
+    }
+}
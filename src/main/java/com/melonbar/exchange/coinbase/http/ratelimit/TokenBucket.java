@@ -0,0 +1,162 @@
+package com.melonbar.exchange.coinbase.http.ratelimit;
+
+import com.melonbar.exchange.coinbase.rest.api.resource.EndpointClass;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket of one {@link EndpointClass}, refilled continuously at its current rate up to its burst capacity.
+ *
+ * <p> Tokens are reserved rather than polled: a request takes a token even when none is available, and the balance
+ * goes negative by the number of requests queued. The time until the balance covers a request is its queue wait, so
+ * requests are released in the order they reserved, at the refill rate, without any queue being kept.
+ *
+ * <p> The rate adapts to <code>429</code> responses, additive-increase, multiplicative-decrease: each one halves the
+ * rate, down to a floor, and drops the tokens saved up for a burst, while each successful response raises the rate
+ * back by a fraction of the nominal rate.
+ *
+ * <p> Thread-safe, all state is guarded by the bucket's monitor. The clock is passed in by the caller, in
+ * nanoseconds.
+ */
+class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // lowest rate reached by throttling, as a fraction of the nominal rate
+    private static final double MIN_RATE_FRACTION = 0.1;
+
+    // rate regained per successful response, as a fraction of the nominal rate
+    private static final double RECOVERY_FRACTION = 0.05;
+
+    private final EndpointClass endpointClass;
+    private final double nominalRate;
+    private final double capacity;
+
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+
+    private long acquired;
+    private long queued;
+    private long rejected;
+    private long throttled;
+    private long totalQueueWaitNanos;
+    private long maxQueueWaitNanos;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param endpointClass {@link EndpointClass} providing the rate and burst capacity
+     * @param nowNanos Current time
+     */
+    TokenBucket(final EndpointClass endpointClass, final long nowNanos) {
+        this.endpointClass = endpointClass;
+        this.nominalRate = endpointClass.getRequestsPerSecond();
+        this.capacity = endpointClass.getBurst();
+        this.rate = nominalRate;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * Reserves a token.
+     *
+     * @param nowNanos Current time
+     * @param maxWaitNanos Longest acceptable wait for the token
+     * @return Nanoseconds to wait before the token may be used, or -1 if that is longer than the acceptable wait, in
+     * which case nothing was reserved
+     */
+    synchronized long reserve(final long nowNanos, final long maxWaitNanos) {
+        refill(nowNanos);
+        final long waitNanos = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / rate * NANOS_PER_SECOND);
+        if (waitNanos > maxWaitNanos) {
+            rejected++;
+            return -1;
+        }
+        tokens--;
+        acquired++;
+        if (waitNanos > 0) {
+            queued++;
+            totalQueueWaitNanos += waitNanos;
+            maxQueueWaitNanos = Math.max(maxQueueWaitNanos, waitNanos);
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Takes a token if one is available, without reserving one otherwise.
+     *
+     * @param nowNanos Current time
+     * @return 0 if a token was taken, otherwise nanoseconds until one is available
+     */
+    synchronized long tryAcquire(final long nowNanos) {
+        refill(nowNanos);
+        if (tokens >= 1) {
+            tokens--;
+            acquired++;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / rate * NANOS_PER_SECOND));
+    }
+
+    /**
+     * Records the time a request waited for the token it took with {@link #tryAcquire(long)}.
+     *
+     * @param waitNanos Queue wait
+     */
+    synchronized void recordQueueWait(final long waitNanos) {
+        if (waitNanos > 0) {
+            queued++;
+            totalQueueWaitNanos += waitNanos;
+            maxQueueWaitNanos = Math.max(maxQueueWaitNanos, waitNanos);
+        }
+    }
+
+    /**
+     * Records a request rejected without a token.
+     */
+    synchronized void recordRejected() {
+        rejected++;
+    }
+
+    /**
+     * Slows down after a <code>429</code> response.
+     *
+     * @param nowNanos Current time
+     */
+    synchronized void throttle(final long nowNanos) {
+        refill(nowNanos);
+        throttled++;
+        rate = Math.max(nominalRate * MIN_RATE_FRACTION, rate / 2);
+        tokens = Math.min(tokens, 0);
+    }
+
+    /**
+     * Speeds back up after a successful response.
+     */
+    synchronized void recover() {
+        if (rate < nominalRate) {
+            rate = Math.min(nominalRate, rate + nominalRate * RECOVERY_FRACTION);
+        }
+    }
+
+    /**
+     * Gets a snapshot of the bucket's metrics.
+     *
+     * @param nowNanos Current time
+     * @return {@link RateLimitMetrics}
+     */
+    synchronized RateLimitMetrics metrics(final long nowNanos) {
+        refill(nowNanos);
+        return new RateLimitMetrics(endpointClass, tokens, rate, acquired, queued, rejected, throttled,
+                totalQueueWaitNanos, maxQueueWaitNanos);
+    }
+
+    private void refill(final long nowNanos) {
+        final long elapsedNanos = nowNanos - lastRefillNanos;
+        if (elapsedNanos > 0) {
+            tokens = Math.min(capacity, tokens + elapsedNanos * rate / NANOS_PER_SECOND);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.melonbar.exchange.coinbase.http.resilience;
+
+import java.util.Arrays;
+
+/**
+ * Percentiles of the latest response latencies of a request type, kept in a ring buffer.
+ *
+ * <p> Percentiles are only computed every few samples, and cached in between, so that reading one costs about as
+ * much as recording a sample.
+ *
+ * <p> Thread-safe.
+ */
+class LatencyTracker {
+
+    // latest latencies kept
+    private static final int CAPACITY = 128;
+
+    // samples needed before percentiles are computed
+    private static final int MIN_SAMPLES = 20;
+
+    // samples recorded between two computations of the percentile
+    private static final int RECOMPUTE_INTERVAL = 16;
+
+    private final long[] samples = new long[CAPACITY];
+    private final long[] sorted = new long[CAPACITY];
+    private long count;
+    private long computedAt = -1;
+    private double computedPercentile;
+    private long cachedNanos;
+
+    /**
+     * Records a latency.
+     *
+     * @param latencyNanos Latency in nanoseconds
+     */
+    synchronized void record(final long latencyNanos) {
+        samples[(int) (count++ % CAPACITY)] = latencyNanos;
+    }
+
+    /**
+     * Gets a percentile of the latest latencies.
+     *
+     * @param percentile Percentile between 0 and 1, e.g. 0.95
+     * @param defaultNanos Value returned while too few latencies are known
+     * @return Latency in nanoseconds
+     */
+    synchronized long percentile(final double percentile, final long defaultNanos) {
+        if (count < MIN_SAMPLES) {
+            return defaultNanos;
+        }
+        if (computedAt < 0 || count - computedAt >= RECOMPUTE_INTERVAL || computedPercentile != percentile) {
+            final int size = (int) Math.min(count, CAPACITY);
+            System.arraycopy(samples, 0, sorted, 0, size);
+            Arrays.sort(sorted, 0, size);
+            cachedNanos = sorted[Math.max(0, Math.min(size - 1, (int) Math.ceil(percentile * size) - 1))];
+            computedAt = count;
+            computedPercentile = percentile;
+        }
+        return cachedNanos;
+    }
+}
@@ -0,0 +1,312 @@
+package com.melonbar.exchange.coinbase.http.resilience;
+
+import com.melonbar.core.http.Http;
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.core.http.response.Response;
+import com.melonbar.core.util.Guard;
+import com.melonbar.exchange.coinbase.enrichment.RequestEnricher;
+import com.melonbar.exchange.coinbase.exception.RateLimitExceededException;
+import com.melonbar.exchange.coinbase.exception.TransientException;
+import com.melonbar.exchange.coinbase.http.AsyncHttpClient;
+import com.melonbar.exchange.coinbase.http.HttpClientImpl;
+import com.melonbar.exchange.coinbase.http.ratelimit.RateLimitedHttpClient;
+import com.melonbar.exchange.coinbase.rest.api.resource.Resource;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * {@link AsyncHttpClient} decorator which retries idempotent requests on transient failures, and optionally hedges
+ * slow reads, as configured by a {@link RetryPolicy}.
+ *
+ * <p> A request is retried when it fails in transit, e.g. times out or its connection is reset, or is answered with
+ * <code>429</code> or a <code>5xx</code> status code. A request rejected by the client-side rate limiter is not
+ * retried, since the budget is saturated and a retry would only queue for it again, amplifying the overload the
+ * limiter sheds. Only idempotent requests
+ * are retried: <code>GET</code>, <code>PUT</code> and <code>DELETE</code> requests, i.e. reads and cancellations,
+ * and <code>POST</code> requests whose <code>client_oid</code> body field is set, with which the exchange recognizes a
+ * repeated order. Other orders are sent exactly once, since a failed attempt may still have been accepted.
+ *
+ * <p> Retries are delayed with decorrelated jitter: each delay is drawn between the base delay and three times the
+ * previous delay, capped at the max delay, which spreads out the retries of concurrent requests. Each request has a
+ * deadline, across its attempts: an attempt still in flight at the deadline times out, and no retry is started
+ * which could not be sent before it.
+ *
+ * <p> <code>GET</code> requests of the hedged types are sent a second time when the first attempt is slower than
+ * the configured percentile of the recent latencies of the type, and the first response wins. Hedges are drawn from
+ * the same rate limit budget as any request, so when sending through a {@link RateLimitedHttpClient}, no hedge is
+ * sent while requests of the endpoint class are queued, and latencies are measured from the time the request leaves
+ * the queue, so that the hedge delay does not follow the queue wait.
+ *
+ * <p> Blocking dispatch goes through the same path as asynchronous dispatch, and validates the status of the final
+ * response like {@link HttpClientImpl#send(BaseRequest)}.
+ */
+@Slf4j
+public class ResilientHttpClient implements AsyncHttpClient {
+
+    private static final String CLIENT_OID_KEY = "client_oid";
+
+    private final AsyncHttpClient httpClient;
+    // same client, when it is rate limited
+    private final RateLimitedHttpClient rateLimitedClient;
+    private final RetryPolicy retryPolicy;
+    private final Map<Class<?>, LatencyTracker> latencies = new ConcurrentHashMap<>();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+
+    /**
+     * Creates a resilient client.
+     *
+     * @param httpClient {@link AsyncHttpClient} sending each attempt
+     * @param retryPolicy {@link RetryPolicy}
+     */
+    public ResilientHttpClient(final AsyncHttpClient httpClient, final RetryPolicy retryPolicy) {
+        Guard.nonNull(httpClient, retryPolicy);
+        if (retryPolicy.getMaxAttempts() < 1) {
+            throw new IllegalArgumentException("Max attempts must be positive, got " + retryPolicy.getMaxAttempts());
+        }
+        this.httpClient = httpClient;
+        this.rateLimitedClient = httpClient instanceof RateLimitedHttpClient rateLimited ? rateLimited : null;
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Gets the number of retries sent.
+     *
+     * @return Retries
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * Gets the number of hedges sent.
+     *
+     * @return Hedges
+     */
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws TransientException If the request still failed in transit, or with a retryable status code, after
+     * its last attempt
+     * @throws com.melonbar.exchange.coinbase.exception.BadRequestException If the status code is not retryable
+     */
+    @Override
+    public HttpResponse<Response> send(final BaseRequest request) {
+        try {
+            return HttpClientImpl.validateRequestStatus(sendAsync(request).get());
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new TransientException("Interrupted while awaiting response to request "
+                    + request.getClass().getSimpleName(), interruptedException);
+        } catch (ExecutionException executionException) {
+            final Throwable cause = executionException.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new TransientException("Failed to dispatch request " + request.getClass().getSimpleName(), cause);
+        }
+    }
+
+    /**
+     * {@inheritDoc} The returned future completes with the first response which is not retryable, or the response
+     * or failure of the last attempt.
+     */
+    @Override
+    public CompletableFuture<HttpResponse<Response>> sendAsync(final BaseRequest request) {
+        final long deadlineNanos = System.nanoTime() + retryPolicy.getDeadline().toNanos();
+        return attempt(request, isIdempotent(request), 1, retryPolicy.getBaseDelay().toNanos(), deadlineNanos);
+    }
+
+    /**
+     * Checks that a request may be sent more than once without side effects.
+     *
+     * @param request Extension of {@link BaseRequest}
+     * @return True if the request may be retried
+     */
+    static boolean isIdempotent(final BaseRequest request) {
+        final Http method = request.getMethod();
+        if (method == Http.POST) {
+            // orders are only idempotent with a client order id
+            return RequestEnricher.getBodyField(request, CLIENT_OID_KEY) != null;
+        }
+        return method == Http.GET || method == Http.PUT || method == Http.DELETE;
+    }
+
+    private CompletableFuture<HttpResponse<Response>> attempt(final BaseRequest request,
+                                                              final boolean idempotent,
+                                                              final int attempt,
+                                                              final long previousDelayNanos,
+                                                              final long deadlineNanos) {
+        final CompletableFuture<HttpResponse<Response>> response = isHedged(request)
+                ? sendHedged(request, deadlineNanos)
+                : sendTracked(request, null);
+        return response
+                .orTimeout(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)
+                .handle((httpResponse, throwable) -> {
+                    final Throwable failure = unwrap(throwable);
+                    final boolean retryable = failure == null
+                            ? isRetryableStatus(httpResponse.statusCode())
+                            : isRetryable(failure);
+                    if (!retryable || !idempotent || attempt >= retryPolicy.getMaxAttempts()) {
+                        return outcome(httpResponse, failure);
+                    }
+                    final long delayNanos = nextDelayNanos(previousDelayNanos);
+                    if (System.nanoTime() + delayNanos >= deadlineNanos) {
+                        log.warn("Not retrying request [{}], its deadline would pass before the retry",
+                                request.getClass().getSimpleName());
+                        return outcome(httpResponse, failure);
+                    }
+                    log.warn("Retrying request [{}] in {} ms, attempt {} of {} failed with: {}",
+                            request.getClass().getSimpleName(), TimeUnit.NANOSECONDS.toMillis(delayNanos), attempt,
+                            retryPolicy.getMaxAttempts(),
+                            failure == null ? "status code " + httpResponse.statusCode() : failure.toString());
+                    retries.increment();
+                    return CompletableFuture
+                            .runAsync(() -> { }, CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS))
+                            .thenCompose(delayed ->
+                                    attempt(request, idempotent, attempt + 1, delayNanos, deadlineNanos));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * Sends a request, and a hedge if it is not answered within the hedge delay. The first response completes the
+     * returned future, unless its status is retryable and the other attempt is still in flight.
+     */
+    private CompletableFuture<HttpResponse<Response>> sendHedged(final BaseRequest request,
+                                                                 final long deadlineNanos) {
+        final LatencyTracker tracker = latencies.computeIfAbsent(request.getClass(), type -> new LatencyTracker());
+        final long hedgeDelayNanos = tracker.percentile(retryPolicy.getHedgePercentile(),
+                retryPolicy.getInitialHedgeDelay().toNanos());
+        final CompletableFuture<HttpResponse<Response>> result = new CompletableFuture<>();
+        final AtomicInteger inFlight = new AtomicInteger(1);
+        final BiConsumer<HttpResponse<Response>, Throwable> onAttempt = (httpResponse, throwable) -> {
+            if (throwable == null && !isRetryableStatus(httpResponse.statusCode())) {
+                result.complete(httpResponse);
+            } else if (inFlight.decrementAndGet() == 0) {
+                // last attempt in flight
+                if (throwable == null) {
+                    result.complete(httpResponse);
+                } else {
+                    result.completeExceptionally(unwrap(throwable));
+                }
+            }
+        };
+        sendTracked(request, tracker).whenComplete(onAttempt);
+        if (System.nanoTime() + hedgeDelayNanos < deadlineNanos) {
+            CompletableFuture.delayedExecutor(hedgeDelayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                if (isQueued(request)) {
+                    log.debug("Not hedging request [{}], the rate limit budget is saturated",
+                            request.getClass().getSimpleName());
+                    return;
+                }
+                if (!result.isDone() && inFlight.getAndIncrement() > 0) {
+                    log.debug("Hedging request [{}] after {} us", request.getClass().getSimpleName(),
+                            TimeUnit.NANOSECONDS.toMicros(hedgeDelayNanos));
+                    hedges.increment();
+                    sendTracked(request, tracker).whenComplete(onAttempt);
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Sends a single attempt, recording its latency if the request type is tracked, from the time it leaves the rate
+     * limit queue if any.
+     */
+    private CompletableFuture<HttpResponse<Response>> sendTracked(final BaseRequest request,
+                                                                  final LatencyTracker tracker) {
+        final AtomicLong startNanos = new AtomicLong(System.nanoTime());
+        final CompletableFuture<HttpResponse<Response>> response;
+        try {
+            response = rateLimitedClient != null && tracker != null
+                    ? rateLimitedClient.sendAsync(request, startNanos::set)
+                    : httpClient.sendAsync(request);
+        } catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+        if (tracker == null) {
+            return response;
+        }
+        return response.whenComplete((httpResponse, throwable) -> {
+            if (httpResponse != null) {
+                tracker.record(System.nanoTime() - startNanos.get());
+            }
+        });
+    }
+
+    /**
+     * Checks whether requests of the endpoint class of a request are queued for the rate limit, in which case a hedge
+     * would only take a token from a saturated budget.
+     */
+    private boolean isQueued(final BaseRequest request) {
+        return rateLimitedClient != null
+                && rateLimitedClient.getQueueDepth(Resource.endpointClassOf(request.getRequestPath())) > 0;
+    }
+
+    private boolean isHedged(final BaseRequest request) {
+        return request.getMethod() == Http.GET && retryPolicy.getHedgedRequests().contains(request.getClass());
+    }
+
+    /**
+     * Draws the next retry delay with decorrelated jitter.
+     */
+    private long nextDelayNanos(final long previousDelayNanos) {
+        final long baseNanos = retryPolicy.getBaseDelay().toNanos();
+        final long upperNanos = Math.max(baseNanos, previousDelayNanos * 3);
+        final long delayNanos = upperNanos > baseNanos
+                ? ThreadLocalRandom.current().nextLong(baseNanos, upperNanos + 1)
+                : baseNanos;
+        return Math.min(retryPolicy.getMaxDelay().toNanos(), delayNanos);
+    }
+
+    private static boolean isRetryableStatus(final int statusCode) {
+        return statusCode == HttpClientImpl.TOO_MANY_REQUESTS || statusCode / 100 == 5;
+    }
+
+    private static boolean isRetryable(final Throwable failure) {
+        if (failure instanceof RateLimitExceededException rateLimitExceededException
+                && rateLimitExceededException.isRejectedLocally()) {
+            return false;
+        }
+        return failure instanceof TransientException
+                || failure instanceof IOException
+                || failure instanceof TimeoutException;
+    }
+
+    private static Throwable unwrap(final Throwable throwable) {
+        Throwable failure = throwable;
+        while (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        return failure;
+    }
+
+    private static CompletableFuture<HttpResponse<Response>> outcome(final HttpResponse<Response> httpResponse,
+                                                                     final Throwable failure) {
+        return failure == null ? CompletableFuture.completedFuture(httpResponse)
+                : CompletableFuture.failedFuture(failure);
+    }
+}
@@ -0,0 +1,75 @@
+package com.melonbar.exchange.coinbase.http.resilience;
+
+import com.melonbar.core.http.request.BaseRequest;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Configuration of a {@link ResilientHttpClient}, e.g.
+ * <pre>{@code
+ * final RetryPolicy retryPolicy = RetryPolicy.builder()
+ *         .maxAttempts(4)
+ *         .deadline(Duration.ofSeconds(2))
+ *         .hedgedRequests(Set.of(ProductOrderBookRequest.class))
+ *         .build();
+ * }</pre>
+ */
+@Getter
+@Builder
+public class RetryPolicy {
+
+    /**
+     * Attempts per request, including the first one.
+     */
+    @Builder.Default
+    private final int maxAttempts = 3;
+
+    /**
+     * Shortest delay before a retry, and the first delay of the decorrelated jitter.
+     */
+    @Builder.Default
+    private final Duration baseDelay = Duration.ofMillis(100);
+
+    /**
+     * Longest delay before a retry.
+     */
+    @Builder.Default
+    private final Duration maxDelay = Duration.ofSeconds(2);
+
+    /**
+     * Time budget of a request across all of its attempts, after which it fails with its last outcome and no
+     * attempt is started.
+     */
+    @Builder.Default
+    private final Duration deadline = Duration.ofSeconds(5);
+
+    /**
+     * Types of the <code>GET</code> requests hedged with a second request when slow, none by default.
+     */
+    @Builder.Default
+    private final Set<Class<? extends BaseRequest>> hedgedRequests = Set.of();
+
+    /**
+     * Percentile of the recent latencies of a hedged request type after which a hedge is sent.
+     */
+    @Builder.Default
+    private final double hedgePercentile = 0.95;
+
+    /**
+     * Delay before a hedge is sent until enough latencies of the request type are known.
+     */
+    @Builder.Default
+    private final Duration initialHedgeDelay = Duration.ofMillis(100);
+
+    /**
+     * Creates the default policy: 3 attempts within 5 seconds, with delays between 100 ms and 2 s, and no hedging.
+     *
+     * @return Default {@link RetryPolicy}
+     */
+    public static RetryPolicy defaults() {
+        return builder().build();
+    }
+}
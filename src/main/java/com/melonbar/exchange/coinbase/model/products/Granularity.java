@@ -1,5 +1,6 @@
 package com.melonbar.exchange.coinbase.model.products;
 
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
@@ -12,6 +13,7 @@ public enum Granularity {
     SIX_HOURS(21600),
     ONE_DAY(86400);
 
+    @Getter
     private final Integer seconds;
 
     @Override
@@ -1,12 +1,17 @@
 package com.melonbar.exchange.coinbase.model.products;
 
+import com.melonbar.core.model.ProductId;
 import com.melonbar.exchange.coinbase.annotation.QueryField;
+import com.melonbar.exchange.coinbase.annotation.RequestField;
 import com.melonbar.core.http.request.BaseRequest;
 import lombok.Builder;
 
 @Builder
 public class ProductOrderBookRequest extends BaseRequest {
 
+    @RequestField(index = 0)
+    private final ProductId productId;
+
     @QueryField(key = "level")
     private final Integer level;
 }
@@ -0,0 +1,37 @@
+package com.melonbar.exchange.coinbase.model.products;
+
+import com.melonbar.core.util.Guard;
+import com.melonbar.exchange.coinbase.util.FixedPoint;
+
+/**
+ * Fixed-point scales of a product: the number of decimals of its prices and of its sizes. Derived from the product's
+ * <code>quote_increment</code> and <code>base_increment</code>, so that every valid price and size is represented
+ * exactly.
+ *
+ * @param priceScale Number of decimals of prices
+ * @param sizeScale Number of decimals of sizes
+ * @see FixedPoint
+ */
+public record ProductScale(int priceScale, int sizeScale) {
+
+    /**
+     * Scales sufficient for every product, used when the increments of a product are unknown.
+     */
+    public static final ProductScale DEFAULT = new ProductScale(FixedPoint.WIRE_SCALE, FixedPoint.WIRE_SCALE);
+
+    /**
+     * Derives the scales of a product from its increments, e.g. <code>0.01</code> and <code>0.00000001</code> for
+     * BTC-USD give a price scale of 2 and a size scale of 8. Trailing zeros are ignored, as the exchange pads
+     * increments to 8 decimals, e.g. <code>0.01000000</code>.
+     *
+     * @param quoteIncrement Quote increment, the smallest price step
+     * @param baseIncrement Base increment, the smallest size step
+     * @return {@link ProductScale}
+     */
+    public static ProductScale fromIncrements(final String quoteIncrement, final String baseIncrement) {
+        Guard.nonNull(quoteIncrement, baseIncrement);
+        return new ProductScale(
+                FixedPoint.significantFractionDigits(quoteIncrement),
+                FixedPoint.significantFractionDigits(baseIncrement));
+    }
+}
@@ -0,0 +1,80 @@
+package com.melonbar.exchange.coinbase.model.products;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.melonbar.core.util.Guard;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide registry of {@link ProductScale}s by product id. Populated once from the products resource, after
+ * which fixed-point consumers (order books, trackers) use the exact scale of each product. Products that were never
+ * registered resolve to {@link ProductScale#DEFAULT}.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ProductScales {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Map<String, ProductScale> PRODUCT_SCALES = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the scales of the input product.
+     *
+     * @param productId Product id, e.g. <code>BTC-USD</code>
+     * @return Registered {@link ProductScale}, or {@link ProductScale#DEFAULT} if unknown
+     */
+    public static ProductScale get(final String productId) {
+        return PRODUCT_SCALES.getOrDefault(productId, ProductScale.DEFAULT);
+    }
+
+    /**
+     * Registers the scales of a product, replacing any previous registration.
+     *
+     * @param productId Product id, e.g. <code>BTC-USD</code>
+     * @param productScale {@link ProductScale}
+     */
+    public static void register(final String productId, final ProductScale productScale) {
+        Guard.nonNull(productId, productScale);
+        PRODUCT_SCALES.put(productId, productScale);
+    }
+
+    /**
+     * Registers the scales of every product listed in a products resource response body, i.e. a json array of
+     * objects each holding <code>id</code>, <code>quote_increment</code> and <code>base_increment</code>. Entries
+     * missing any of these are skipped.
+     *
+     * @param productsJson Products resource response body
+     * @return Number of products registered
+     * @throws IllegalArgumentException If the input is not a json array
+     */
+    public static int registerAll(final String productsJson) {
+        final JsonNode products;
+        try {
+            products = OBJECT_MAPPER.readTree(productsJson);
+        } catch (JsonProcessingException jsonProcessingException) {
+            throw new IllegalArgumentException("Could not parse products", jsonProcessingException);
+        }
+        if (products == null || !products.isArray()) {
+            throw new IllegalArgumentException("Expected json array of products");
+        }
+        int registered = 0;
+        for (final JsonNode product : products) {
+            final JsonNode id = product.get("id");
+            final JsonNode quoteIncrement = product.get("quote_increment");
+            final JsonNode baseIncrement = product.get("base_increment");
+            if (id == null || quoteIncrement == null || baseIncrement == null) {
+                log.debug("Skipping product without id or increments: {}", product);
+                continue;
+            }
+            register(id.asText(), ProductScale.fromIncrements(quoteIncrement.asText(), baseIncrement.asText()));
+            registered++;
+        }
+        return registered;
+    }
+}
@@ -0,0 +1,90 @@
+package com.melonbar.exchange.coinbase.rest;
+
+import com.melonbar.core.http.response.Response;
+import com.melonbar.exchange.coinbase.model.account.AccountsRequest;
+import com.melonbar.exchange.coinbase.model.currencies.CurrenciesRequest;
+import com.melonbar.exchange.coinbase.model.currencies.CurrencyByIdRequest;
+import com.melonbar.exchange.coinbase.model.fills.ListFillsRequest;
+import com.melonbar.exchange.coinbase.model.oracle.OracleRequest;
+import com.melonbar.exchange.coinbase.model.order.CancelAllOrdersRequest;
+import com.melonbar.exchange.coinbase.model.order.CancelOrderByApiKeyRequest;
+import com.melonbar.exchange.coinbase.model.order.CancelOrderByOrderIdRequest;
+import com.melonbar.exchange.coinbase.model.order.GetOrderByApiKeyRequest;
+import com.melonbar.exchange.coinbase.model.order.GetOrderByOrderIdRequest;
+import com.melonbar.exchange.coinbase.model.order.LimitOrderRequest;
+import com.melonbar.exchange.coinbase.model.order.ListOrdersRequest;
+import com.melonbar.exchange.coinbase.model.order.MarketOrderRequest;
+import com.melonbar.exchange.coinbase.model.products.ProductByIdRequest;
+import com.melonbar.exchange.coinbase.model.products.ProductCandlesRequest;
+import com.melonbar.exchange.coinbase.model.products.ProductOrderBookRequest;
+import com.melonbar.exchange.coinbase.model.products.ProductRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous Coinbase Pro REST client, mirroring the accounts, orders, fills, oracle and market data APIs. Each
+ * method dispatches its request without waiting for the response, so that many requests can be in flight at once.
+ *
+ * <p> The returned futures complete with the {@link Response} once its status is validated, or exceptionally with
+ * the {@link com.melonbar.exchange.coinbase.exception.BadRequestException} or
+ * {@link com.melonbar.exchange.coinbase.exception.TransientException} that the blocking client would have thrown,
+ * or with any failure to build or dispatch the request. Pagination is set on the request itself.
+ */
+public interface CoinbaseProAsyncRestClient {
+
+    // accounts
+
+    CompletableFuture<Response> listAccounts(final AccountsRequest accountsRequest);
+
+    CompletableFuture<Response> getAccount(final AccountsRequest accountsRequest);
+
+    CompletableFuture<Response> getAccountHistory(final AccountsRequest accountsRequest);
+
+    CompletableFuture<Response> getHolds(final AccountsRequest accountsRequest);
+
+    // orders
+
+    CompletableFuture<Response> placeLimitOrder(final LimitOrderRequest limitOrderRequest);
+
+    CompletableFuture<Response> placeMarketOrder(final MarketOrderRequest marketOrderRequest);
+
+    CompletableFuture<Response> cancelOrderByApiKey(final CancelOrderByApiKeyRequest cancelOrderByApiKeyRequest);
+
+    CompletableFuture<Response> cancelOrderByOrderId(final CancelOrderByOrderIdRequest cancelOrderByOrderIdRequest);
+
+    CompletableFuture<Response> cancelAllOrders(final CancelAllOrdersRequest cancelAllOrdersRequest);
+
+    CompletableFuture<Response> listOrders(final ListOrdersRequest listOrdersRequest);
+
+    CompletableFuture<Response> getOrderByApiKey(final GetOrderByApiKeyRequest getOrderByApiKeyRequest);
+
+    CompletableFuture<Response> getOrderByOrderId(final GetOrderByOrderIdRequest getOrderByOrderIdRequest);
+
+    // fills
+
+    CompletableFuture<Response> listFills(final ListFillsRequest listFillsRequest);
+
+    // oracle
+
+    CompletableFuture<Response> getOracle(final OracleRequest oracleRequest);
+
+    // market data
+
+    CompletableFuture<Response> getCurrencies(final CurrenciesRequest currenciesRequest);
+
+    CompletableFuture<Response> getCurrencyById(final CurrencyByIdRequest currencyByIdRequest);
+
+    CompletableFuture<Response> getProducts(final ProductRequest productRequest);
+
+    CompletableFuture<Response> getProductsById(final ProductByIdRequest productByIdRequest);
+
+    CompletableFuture<Response> getProductOrderBook(final ProductOrderBookRequest productOrderBookRequest);
+
+    CompletableFuture<Response> getProductTicker(final ProductByIdRequest productByIdRequest);
+
+    CompletableFuture<Response> getProductTrades(final ProductByIdRequest productByIdRequest);
+
+    CompletableFuture<Response> getProductCandles(final ProductCandlesRequest productCandlesRequest);
+
+    CompletableFuture<Response> getProduct24HourStats(final ProductByIdRequest productByIdRequest);
+}
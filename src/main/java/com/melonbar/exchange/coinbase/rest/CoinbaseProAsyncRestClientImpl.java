@@ -0,0 +1,207 @@
+package com.melonbar.exchange.coinbase.rest;
+
+import com.melonbar.core.http.Http;
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.core.http.response.Response;
+import com.melonbar.core.util.Guard;
+import com.melonbar.exchange.coinbase.enrichment.Enricher;
+import com.melonbar.exchange.coinbase.http.AsyncHttpClient;
+import com.melonbar.exchange.coinbase.http.HttpClientImpl;
+import com.melonbar.exchange.coinbase.model.account.AccountsRequest;
+import com.melonbar.exchange.coinbase.model.currencies.CurrenciesRequest;
+import com.melonbar.exchange.coinbase.model.currencies.CurrencyByIdRequest;
+import com.melonbar.exchange.coinbase.model.fills.ListFillsRequest;
+import com.melonbar.exchange.coinbase.model.oracle.OracleRequest;
+import com.melonbar.exchange.coinbase.model.order.CancelAllOrdersRequest;
+import com.melonbar.exchange.coinbase.model.order.CancelOrderByApiKeyRequest;
+import com.melonbar.exchange.coinbase.model.order.CancelOrderByOrderIdRequest;
+import com.melonbar.exchange.coinbase.model.order.GetOrderByApiKeyRequest;
+import com.melonbar.exchange.coinbase.model.order.GetOrderByOrderIdRequest;
+import com.melonbar.exchange.coinbase.model.order.LimitOrderRequest;
+import com.melonbar.exchange.coinbase.model.order.ListOrdersRequest;
+import com.melonbar.exchange.coinbase.model.order.MarketOrderRequest;
+import com.melonbar.exchange.coinbase.model.products.ProductByIdRequest;
+import com.melonbar.exchange.coinbase.model.products.ProductCandlesRequest;
+import com.melonbar.exchange.coinbase.model.products.ProductOrderBookRequest;
+import com.melonbar.exchange.coinbase.model.products.ProductRequest;
+import com.melonbar.exchange.coinbase.rest.api.resource.Resource;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link CoinbaseProAsyncRestClient} implementation, dispatching through an {@link AsyncHttpClient}. Each request
+ * is enriched, signed and handed to the HTTP client on the calling thread, which is cheap next to the round trip,
+ * and keeps the body bytes written during enrichment for signing. The status of the response is then validated, and
+ * the returned future completed, on the configured {@link Executor}, whether the request succeeded or failed, so
+ * that the stages callers compose on the future never run on the threads of the HTTP client.
+ *
+ * <p> Each method maps to the same {@link Http} method and {@link Resource} as the blocking APIs.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PROTECTED)
+public class CoinbaseProAsyncRestClientImpl implements CoinbaseProAsyncRestClient {
+
+    private final AsyncHttpClient httpClient;
+    private final Enricher requestEnricher;
+    private final Executor executor;
+
+    // accounts
+
+    @Override
+    public CompletableFuture<Response> listAccounts(final AccountsRequest accountsRequest) {
+        return dispatch(accountsRequest, Http.GET, Resource.ACCOUNT);
+    }
+
+    @Override
+    public CompletableFuture<Response> getAccount(final AccountsRequest accountsRequest) {
+        return dispatch(accountsRequest, Http.GET, Resource.ACCOUNT_BY_ID);
+    }
+
+    @Override
+    public CompletableFuture<Response> getAccountHistory(final AccountsRequest accountsRequest) {
+        return dispatch(accountsRequest, Http.GET, Resource.ACCOUNT_LEDGER);
+    }
+
+    @Override
+    public CompletableFuture<Response> getHolds(final AccountsRequest accountsRequest) {
+        return dispatch(accountsRequest, Http.GET, Resource.ACCOUNT_HOLDS);
+    }
+
+    // orders
+
+    @Override
+    public CompletableFuture<Response> placeLimitOrder(final LimitOrderRequest limitOrderRequest) {
+        return dispatch(limitOrderRequest, Http.POST, Resource.ORDER);
+    }
+
+    @Override
+    public CompletableFuture<Response> placeMarketOrder(final MarketOrderRequest marketOrderRequest) {
+        return dispatch(marketOrderRequest, Http.POST, Resource.ORDER);
+    }
+
+    @Override
+    public CompletableFuture<Response> cancelOrderByApiKey(
+            final CancelOrderByApiKeyRequest cancelOrderByApiKeyRequest) {
+        return dispatch(cancelOrderByApiKeyRequest, Http.DELETE, Resource.ORDER_BY_API_KEY);
+    }
+
+    @Override
+    public CompletableFuture<Response> cancelOrderByOrderId(
+            final CancelOrderByOrderIdRequest cancelOrderByOrderIdRequest) {
+        return dispatch(cancelOrderByOrderIdRequest, Http.DELETE, Resource.ORDER_BY_ORDER_ID);
+    }
+
+    @Override
+    public CompletableFuture<Response> cancelAllOrders(final CancelAllOrdersRequest cancelAllOrdersRequest) {
+        return dispatch(cancelAllOrdersRequest, Http.DELETE, Resource.ORDER);
+    }
+
+    @Override
+    public CompletableFuture<Response> listOrders(final ListOrdersRequest listOrdersRequest) {
+        return dispatch(listOrdersRequest, Http.GET, Resource.ORDER);
+    }
+
+    @Override
+    public CompletableFuture<Response> getOrderByApiKey(final GetOrderByApiKeyRequest getOrderByApiKeyRequest) {
+        return dispatch(getOrderByApiKeyRequest, Http.GET, Resource.ORDER_BY_API_KEY);
+    }
+
+    @Override
+    public CompletableFuture<Response> getOrderByOrderId(final GetOrderByOrderIdRequest getOrderByOrderIdRequest) {
+        return dispatch(getOrderByOrderIdRequest, Http.GET, Resource.ORDER_BY_API_KEY);
+    }
+
+    // fills
+
+    @Override
+    public CompletableFuture<Response> listFills(final ListFillsRequest listFillsRequest) {
+        return dispatch(listFillsRequest, Http.GET, Resource.FILLS);
+    }
+
+    // oracle
+
+    @Override
+    public CompletableFuture<Response> getOracle(final OracleRequest oracleRequest) {
+        return dispatch(oracleRequest, Http.GET, Resource.ORACLE);
+    }
+
+    // market data
+
+    @Override
+    public CompletableFuture<Response> getCurrencies(final CurrenciesRequest currenciesRequest) {
+        return dispatch(currenciesRequest, Http.GET, Resource.CURRENCY);
+    }
+
+    @Override
+    public CompletableFuture<Response> getCurrencyById(final CurrencyByIdRequest currencyByIdRequest) {
+        return dispatch(currencyByIdRequest, Http.GET, Resource.CURRENCY_BY_ID);
+    }
+
+    @Override
+    public CompletableFuture<Response> getProducts(final ProductRequest productRequest) {
+        return dispatch(productRequest, Http.GET, Resource.PRODUCT);
+    }
+
+    @Override
+    public CompletableFuture<Response> getProductsById(final ProductByIdRequest productByIdRequest) {
+        return dispatch(productByIdRequest, Http.GET, Resource.PRODUCT_BY_ID);
+    }
+
+    @Override
+    public CompletableFuture<Response> getProductOrderBook(final ProductOrderBookRequest productOrderBookRequest) {
+        return dispatch(productOrderBookRequest, Http.GET, Resource.PRODUCT_ORDER_BOOK);
+    }
+
+    @Override
+    public CompletableFuture<Response> getProductTicker(final ProductByIdRequest productByIdRequest) {
+        return dispatch(productByIdRequest, Http.GET, Resource.PRODUCT_TICKER);
+    }
+
+    @Override
+    public CompletableFuture<Response> getProductTrades(final ProductByIdRequest productByIdRequest) {
+        return dispatch(productByIdRequest, Http.GET, Resource.PRODUCT_TRADES);
+    }
+
+    @Override
+    public CompletableFuture<Response> getProductCandles(final ProductCandlesRequest productCandlesRequest) {
+        return dispatch(productCandlesRequest, Http.GET, Resource.PRODUCT_CANDLES);
+    }
+
+    @Override
+    public CompletableFuture<Response> getProduct24HourStats(final ProductByIdRequest productByIdRequest) {
+        return dispatch(productByIdRequest, Http.GET, Resource.PRODUCT_STATS);
+    }
+
+    /**
+     * Enriches and dispatches a request, and validates the status of its response on the executor.
+     *
+     * @param request Extension of {@link BaseRequest}
+     * @param method {@link Http} method
+     * @param resource {@link Resource} of the request
+     * @return {@link CompletableFuture} of the validated {@link Response}
+     */
+    private CompletableFuture<Response> dispatch(final BaseRequest request,
+                                                 final Http method,
+                                                 final Resource resource) {
+        try {
+            Guard.nonNull(request);
+            return httpClient
+                    .sendAsync(requestEnricher.enrichRequest(request, method, resource))
+                    // handle rather than thenApply, so that failures are also completed on the executor
+                    .handleAsync((httpResponse, throwable) -> {
+                        if (throwable != null) {
+                            throw throwable instanceof CompletionException completionException
+                                    ? completionException
+                                    : new CompletionException(throwable);
+                        }
+                        return HttpClientImpl.validateRequestStatus(httpResponse).body();
+                    }, executor);
+        } catch (RuntimeException exception) {
+            // invalid request, surfaced through the future like any other failure
+            return CompletableFuture.failedFuture(exception);
+        }
+    }
+}
@@ -10,13 +10,51 @@ import com.melonbar.exchange.coinbase.authentication.CoinbaseProAuthentication;
 import com.melonbar.exchange.coinbase.enrichment.Enricher;
 import com.melonbar.exchange.coinbase.enrichment.RequestEnricher;
 import com.melonbar.core.http.HttpClient;
+import com.melonbar.exchange.coinbase.http.AsyncHttpClient;
 import com.melonbar.exchange.coinbase.http.HttpClientImpl;
+import com.melonbar.exchange.coinbase.http.ratelimit.PriorityRequestQueue;
+import com.melonbar.exchange.coinbase.http.ratelimit.PriorityRequestScheduler;
+import com.melonbar.exchange.coinbase.http.resilience.ResilientHttpClient;
+import com.melonbar.exchange.coinbase.http.resilience.RetryPolicy;
+import com.melonbar.exchange.coinbase.http.ratelimit.RateLimiter;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * Factory class for providing {@link CoinbaseProRestClientImpl}.
+ * Factory class for providing {@link CoinbaseProRestClientImpl} and {@link CoinbaseProAsyncRestClientImpl}. Requests
+ * of the created clients go through a {@link PriorityRequestScheduler}, which hands out the default Coinbase Pro
+ * rate limit budgets of a {@link RateLimiter} to order cancellations and placements first, and through a
+ * {@link ResilientHttpClient}, which retries idempotent requests on transient failures as per a {@link RetryPolicy},
+ * {@link RetryPolicy#defaults()} unless one is provided.
+ *
+ * <p> The exchange enforces its budgets per API key and per IP address, so every client created without an explicit
+ * {@link PriorityRequestQueue} shares a single process-wide one, and its {@link RateLimiter} and dispatcher thread,
+ * see {@link #sharedRequestQueue()}. Clients created with their own queue, e.g. one per API key when several keys are
+ * used from distinct IP addresses, only share it with the clients it is passed to, and the caller closes it once
+ * they are no longer used.
  */
 public final class CoinbaseProRestClientFactory {
 
+    /**
+     * Gets the {@link RateLimiter} shared by all clients created without an explicit {@link PriorityRequestQueue}.
+     *
+     * @return Process-wide {@link RateLimiter}
+     */
+    public static RateLimiter sharedRateLimiter() {
+        return sharedRequestQueue().getRateLimiter();
+    }
+
+    /**
+     * Gets the {@link PriorityRequestQueue} shared by all clients created without an explicit one, whose dispatcher
+     * thread is started on first use and runs for the lifetime of the process. Must not be closed.
+     *
+     * @return Process-wide {@link PriorityRequestQueue}
+     */
+    public static PriorityRequestQueue sharedRequestQueue() {
+        return SharedRequestQueue.INSTANCE;
+    }
+
     /**
      * Creates basic Coinbase Pro client using user's API credentials. Provides the most basic barebones configuration
      * of the {@link CoinbaseProRestClientImpl}.
@@ -33,7 +71,33 @@ public final class CoinbaseProRestClientFactory {
     }
 
     public static CoinbaseProRestClient createClient(final Authentication authentication) {
-        final HttpClient httpClient = new HttpClientImpl(authentication, java.net.http.HttpClient.newHttpClient());
+        return createClient(authentication, RetryPolicy.defaults());
+    }
+
+    /**
+     * Creates Coinbase Pro client.
+     *
+     * @param authentication {@link Authentication} signing the requests
+     * @param retryPolicy {@link RetryPolicy} of the requests
+     * @return {@link CoinbaseProRestClient}
+     */
+    public static CoinbaseProRestClient createClient(final Authentication authentication,
+                                                     final RetryPolicy retryPolicy) {
+        return createClient(authentication, retryPolicy, sharedRequestQueue());
+    }
+
+    /**
+     * Creates Coinbase Pro client.
+     *
+     * @param authentication {@link Authentication} signing the requests
+     * @param retryPolicy {@link RetryPolicy} of the requests
+     * @param requestQueue {@link PriorityRequestQueue} of the budgets, shared with other clients of the same API key
+     * @return {@link CoinbaseProRestClient}
+     */
+    public static CoinbaseProRestClient createClient(final Authentication authentication,
+                                                     final RetryPolicy retryPolicy,
+                                                     final PriorityRequestQueue requestQueue) {
+        final HttpClient httpClient = createHttpClient(authentication, retryPolicy, requestQueue);
         final Enricher requestEnricher = new RequestEnricher();
 
         return new CoinbaseProRestClientImpl(
@@ -47,9 +111,9 @@ public final class CoinbaseProRestClientFactory {
     public static CoinbaseProRestClient createDebugClient(final String apiKey,
                                                           final String apiPassword,
                                                           final String apiSecretKey) {
-        final HttpClient httpClient = new HttpClientImpl(
-                new CoinbaseProAuthentication(apiKey, apiPassword, apiSecretKey),
-                java.net.http.HttpClient.newHttpClient());
+        final HttpClient httpClient = createHttpClient(
+                new CoinbaseProAuthentication(apiKey, apiPassword, apiSecretKey), RetryPolicy.defaults(),
+                sharedRequestQueue());
         final Enricher requestEnricher = new RequestEnricher();
 
         return new CoinbaseProDebugRestClient(
@@ -60,4 +124,99 @@ public final class CoinbaseProRestClientFactory {
                 new OracleApiImpl(httpClient, requestEnricher),
                 new MarketDataApiImpl(httpClient, requestEnricher));
     }
+
+    /**
+     * Creates asynchronous Coinbase Pro client using user's API credentials, completing its futures on the
+     * {@link ForkJoinPool#commonPool()}.
+     *
+     * @param apiKey API key
+     * @param apiPassword API password
+     * @param apiSecretKey API secret key
+     * @return {@link CoinbaseProAsyncRestClient}
+     */
+    public static CoinbaseProAsyncRestClient createAsyncClient(final String apiKey,
+                                                               final String apiPassword,
+                                                               final String apiSecretKey) {
+        return createAsyncClient(new CoinbaseProAuthentication(apiKey, apiPassword, apiSecretKey),
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates asynchronous Coinbase Pro client.
+     *
+     * @param authentication {@link Authentication} signing the requests
+     * @param executor {@link Executor} validating the responses and completing the returned futures
+     * @return {@link CoinbaseProAsyncRestClient}
+     */
+    public static CoinbaseProAsyncRestClient createAsyncClient(final Authentication authentication,
+                                                               final Executor executor) {
+        return createAsyncClient(authentication, executor, RetryPolicy.defaults());
+    }
+
+    /**
+     * Creates asynchronous Coinbase Pro client.
+     *
+     * @param authentication {@link Authentication} signing the requests
+     * @param executor {@link Executor} validating the responses and completing the returned futures
+     * @param retryPolicy {@link RetryPolicy} of the requests, e.g. hedging order book reads
+     * @return {@link CoinbaseProAsyncRestClient}
+     */
+    public static CoinbaseProAsyncRestClient createAsyncClient(final Authentication authentication,
+                                                               final Executor executor,
+                                                               final RetryPolicy retryPolicy) {
+        return createAsyncClient(authentication, executor, retryPolicy, sharedRequestQueue());
+    }
+
+    /**
+     * Creates asynchronous Coinbase Pro client.
+     *
+     * @param authentication {@link Authentication} signing the requests
+     * @param executor {@link Executor} validating the responses and completing the returned futures
+     * @param retryPolicy {@link RetryPolicy} of the requests, e.g. hedging order book reads
+     * @param requestQueue {@link PriorityRequestQueue} of the budgets, shared with other clients of the same API key
+     * @return {@link CoinbaseProAsyncRestClient}
+     */
+    public static CoinbaseProAsyncRestClient createAsyncClient(final Authentication authentication,
+                                                               final Executor executor,
+                                                               final RetryPolicy retryPolicy,
+                                                               final PriorityRequestQueue requestQueue) {
+        return new CoinbaseProAsyncRestClientImpl(createHttpClient(authentication, retryPolicy, requestQueue),
+                new RequestEnricher(), executor);
+    }
+
+    /**
+     * Creates the {@link AsyncHttpClient} underlying the clients of this factory, for components sending requests
+     * outside of a client, e.g. snapshot sources, so that they draw on the same budget. Uses the
+     * {@link #sharedRequestQueue() shared request queue} and {@link RetryPolicy#defaults()}.
+     *
+     * @param authentication {@link Authentication} signing the requests
+     * @return {@link AsyncHttpClient}
+     */
+    public static AsyncHttpClient createHttpClient(final Authentication authentication) {
+        return createHttpClient(authentication, RetryPolicy.defaults(), sharedRequestQueue());
+    }
+
+    /**
+     * Creates the {@link AsyncHttpClient} underlying the clients of this factory.
+     *
+     * @param authentication {@link Authentication} signing the requests
+     * @param retryPolicy {@link RetryPolicy} of the requests
+     * @param requestQueue {@link PriorityRequestQueue} of the budgets
+     * @return {@link AsyncHttpClient}
+     */
+    public static AsyncHttpClient createHttpClient(final Authentication authentication,
+                                                   final RetryPolicy retryPolicy,
+                                                   final PriorityRequestQueue requestQueue) {
+        return new ResilientHttpClient(
+                new PriorityRequestScheduler(
+                        new HttpClientImpl(authentication, java.net.http.HttpClient.newHttpClient()),
+                        requestQueue),
+                retryPolicy);
+    }
+
+    // holder, so that the dispatcher thread is only started once a client is created
+    private static final class SharedRequestQueue {
+
+        private static final PriorityRequestQueue INSTANCE = new PriorityRequestQueue(new RateLimiter());
+    }
 }
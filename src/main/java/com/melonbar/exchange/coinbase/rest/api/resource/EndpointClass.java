@@ -0,0 +1,32 @@
+package com.melonbar.exchange.coinbase.rest.api.resource;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Rate limit class of a {@link Resource}. Coinbase Pro throttles public and private endpoints separately, with a
+ * sustained rate and a burst allowance for each, per IP address for public endpoints and per API key for private
+ * endpoints. Requests over the limit are answered with <code>429 Too Many Requests</code>.
+ *
+ * @see <a href=https://docs.pro.coinbase.com/#rate-limits>https://docs.pro.coinbase.com/#rate-limits</a>
+ */
+@Getter
+@RequiredArgsConstructor
+public enum EndpointClass {
+
+    /**
+     * Market data endpoints, which are not authenticated.
+     */
+    PUBLIC(3, 6),
+
+    /**
+     * Authenticated endpoints.
+     */
+    PRIVATE(5, 10);
+
+    // sustained requests per second
+    private final double requestsPerSecond;
+
+    // requests allowed at once after a quiet period
+    private final int burst;
+}
@@ -5,13 +5,21 @@ import lombok.Getter;
 import org.apache.commons.lang3.Range;
 import org.apache.commons.lang3.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static com.melonbar.exchange.coinbase.rest.api.resource.EndpointClass.PRIVATE;
+import static com.melonbar.exchange.coinbase.rest.api.resource.EndpointClass.PUBLIC;
+
 /**
- * Enum containing information on resource authority. Each {@link Resource} is defined by its resource request path format and
- * the expected argument count. Currently there is only support for static argument counts (no optional args).
+ * Enum containing information on resource authority. Each {@link Resource} is defined by its resource request path
+ * format, the expected argument count and the {@link EndpointClass} it is rate limited with. Currently there is only
+ * support for static argument counts (no optional args).
+ *
+ * <p> The request path format is split into its literal segments once, when the enum is initialized, so that filling
+ * it in is a matter of appending segments and values, see {@link #appendRequestPath(StringBuilder, Object[], boolean)}.
  *
  * <p> TODO: Perform auto parsing on request path to determine expected args count range instead of relying on manual definition.
  */
@@ -21,50 +29,65 @@ public enum Resource {
      * Accounts API resources.
      * @see <a href=https://docs.pro.coinbase.com/#accounts>https://docs.pro.coinbase.com/#accounts</a>
      */
-    ACCOUNT             ("/accounts",           none()),
-    ACCOUNT_BY_ID       ("/accounts/{}",        expects(1)),
-    ACCOUNT_LEDGER      ("/accounts/{}/ledger", expects(1)),
-    ACCOUNT_HOLDS       ("/accounts/{}/holds",  expects(1)),
+    ACCOUNT             ("/accounts",            none(),      PRIVATE),
+    ACCOUNT_BY_ID       ("/accounts/{}",         expects(1),  PRIVATE),
+    ACCOUNT_LEDGER      ("/accounts/{}/ledger",  expects(1),  PRIVATE),
+    ACCOUNT_HOLDS       ("/accounts/{}/holds",   expects(1),  PRIVATE),
 
     /**
      * Orders API resources.
      * @see <a href=https://docs.pro.coinbase.com/#orders>https://docs.pro.coinbase.com/#orders</a>
      */
-    ORDER               ("/orders",             none()),
-    ORDER_BY_API_KEY    ("/orders/{}",          expects(1)),
-    ORDER_BY_ORDER_ID   ("/orders/client::{}",  expects(1)),
+    ORDER               ("/orders",              none(),      PRIVATE),
+    ORDER_BY_API_KEY    ("/orders/{}",           expects(1),  PRIVATE),
+    ORDER_BY_ORDER_ID   ("/orders/client::{}",   expects(1),  PRIVATE),
 
     /**
      * Fills API resources.
      */
-    FILLS               ("/fills",              none()),
+    FILLS               ("/fills",               none(),      PRIVATE),
 
     /**
      * Oracle API resources.
      */
-    ORACLE              ("/oracle",             none()),
+    ORACLE              ("/oracle",              none(),      PRIVATE),
 
     /**
      * Products API resources (not authenticated).
      */
-    PRODUCT             ("/products",           none()),
-    PRODUCT_BY_ID       ("/products/{}",        expects(1)),
-    PRODUCT_ORDER_BOOK  ("/products/{}/book",   expects(1)),
-    PRODUCT_TICKER      ("/products/{}/ticker", expects(1)),
-    PRODUCT_TRADES      ("/products/{}/trades", expects(1)),
-    PRODUCT_CANDLES     ("/products/{}/candles",expects(1)),
-    PRODUCT_STATS       ("/products/{}/stats",  expects(1)),
+    PRODUCT             ("/products",            none(),      PUBLIC),
+    PRODUCT_BY_ID       ("/products/{}",         expects(1),  PUBLIC),
+    PRODUCT_ORDER_BOOK  ("/products/{}/book",    expects(1),  PUBLIC),
+    PRODUCT_TICKER      ("/products/{}/ticker",  expects(1),  PUBLIC),
+    PRODUCT_TRADES      ("/products/{}/trades",  expects(1),  PUBLIC),
+    PRODUCT_CANDLES     ("/products/{}/candles", expects(1),  PUBLIC),
+    PRODUCT_STATS       ("/products/{}/stats",   expects(1),  PUBLIC),
 
     /**
      * Currencies API resources (not authenticated).
      */
-    CURRENCY            ("/currencies",         none()),
-    CURRENCY_BY_ID      ("/currencies/{}",      expects(1)),
+    CURRENCY            ("/currencies",          none(),      PUBLIC),
+    CURRENCY_BY_ID      ("/currencies/{}",       expects(1),  PUBLIC),
 
     /**
      * Time API resources (not authenticated).
      */
-    TIME                ("/time",               none());
+    TIME                ("/time",                none(),      PUBLIC);
+
+    // request path format delimiter, replaced with an arg
+    private static final String DELIMITER = "{}";
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    // ASCII characters allowed as is in a URI path segment: unreserved, sub-delimiters, colon and at sign
+    private static final boolean[] PATH_SAFE = new boolean[0x80];
+
+    static {
+        for (final char c : ("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-._~!$&'()*+,;=:@")
+                .toCharArray()) {
+            PATH_SAFE[c] = true;
+        }
+    }
 
 
     // resource request path format
@@ -73,16 +96,45 @@ public enum Resource {
     // args count range
     private final Range<Integer> argsRange;
 
+    // args count bounds, unboxed from the range
+    private final int minArgs;
+    private final int maxArgs;
+
+    // literal segments of the request path format, surrounding its delimiters
+    private final String[] segments;
+
+    // rate limit class
+    @Getter private final EndpointClass endpointClass;
+
+    // first segment of each request path format, e.g. "products", and its rate limit class, in declaration order
+    private static final String[] ROOTS;
+    private static final EndpointClass[] ROOT_ENDPOINT_CLASSES;
+
+    static {
+        final Resource[] resources = values();
+        ROOTS = new String[resources.length];
+        ROOT_ENDPOINT_CLASSES = new EndpointClass[resources.length];
+        for (int i = 0; i < resources.length; i++) {
+            ROOTS[i] = rootOf(resources[i].uri);
+            ROOT_ENDPOINT_CLASSES[i] = resources[i].endpointClass;
+        }
+    }
+
     /**
      * Initialize resource fields and validate the request path format and args range is valid.
      *
      * @param uri request path format
      * @param argsRange Expected args range
+     * @param endpointClass Rate limit class
      */
-    Resource(final String uri, final Range<Integer> argsRange) {
+    Resource(final String uri, final Range<Integer> argsRange, final EndpointClass endpointClass) {
         this.uri = uri;
+        this.endpointClass = endpointClass;
         this.argsRange = argsRange;
+        this.minArgs = argsRange.getMinimum();
+        this.maxArgs = argsRange.getMaximum();
         validate();
+        this.segments = uri.split(Pattern.quote(DELIMITER), -1);
     }
 
     /**
@@ -91,7 +143,7 @@ public enum Resource {
      * @return Maximum expected args, inclusive.
      */
     public int getMaxArgs() {
-        return argsRange.getMaximum();
+        return maxArgs;
     }
 
     /**
@@ -101,7 +153,7 @@ public enum Resource {
      * @return True if provided a valid args count, false otherwise
      */
     public boolean isValidArgsCount(final int count) {
-        return argsRange.contains(count);
+        return count >= minArgs && count <= maxArgs;
     }
 
     /**
@@ -122,11 +174,78 @@ public enum Resource {
      * @return Formatted request path
      */
     public String populateRequestPath(final Object[] args) {
-        if (isValidArgsCount(args)) {
-            return Format.format(uri, args);
+        return appendRequestPath(new StringBuilder(uri.length() + 32), args, false).toString();
+    }
+
+    /**
+     * Appends the request path, formatted with the provided args, to the target. Each delimiter is replaced with the
+     * <code>toString</code> of the arg at its position, optionally percent-encoded as a URI path segment, i.e. any
+     * character other than an unreserved or sub-delimiter character, <code>:</code> or <code>@</code> is replaced
+     * with the <code>%XX</code> escapes of its UTF-8 bytes. Encoding a value made of such characters only, e.g. a
+     * product id or a UUID, leaves it unchanged.
+     *
+     * @param target Destination, e.g. holding the request path being built
+     * @param args Args
+     * @param percentEncode True to percent-encode the args
+     * @return The input target
+     * @throws IllegalArgumentException If the number of args is invalid
+     */
+    public StringBuilder appendRequestPath(final StringBuilder target,
+                                           final Object[] args,
+                                           final boolean percentEncode) {
+        if (!isValidArgsCount(args.length)) {
+            throw new IllegalArgumentException(Format.format("Invalid args count for request path: [{}], args: {}",
+                    uri, Arrays.toString(args)));
+        }
+        target.append(segments[0]);
+        for (int i = 1; i < segments.length; i++) {
+            if (i > args.length) {
+                // optional arg not provided, the delimiter is left as is
+                target.append(DELIMITER);
+            } else if (percentEncode) {
+                appendPercentEncoded(target, String.valueOf(args[i - 1]));
+            } else {
+                target.append(args[i - 1]);
+            }
+            target.append(segments[i]);
+        }
+        return target;
+    }
+
+    /**
+     * Gets the rate limit class of a request path, from the resource of its first segment, e.g.
+     * {@link EndpointClass#PUBLIC} for <code>/products/BTC-USD/book?level=2</code>. Resources sharing a first
+     * segment share a rate limit class.
+     *
+     * @param requestPath Request path, may be null
+     * @return {@link EndpointClass} of the request path, {@link EndpointClass#PRIVATE} if it matches no resource
+     */
+    public static EndpointClass endpointClassOf(final String requestPath) {
+        if (requestPath == null) {
+            return PRIVATE;
         }
-        throw new IllegalArgumentException(Format.format("Invalid args count for request path: [{}], args: {}",
-                uri, Arrays.toString(args)));
+        final int start = requestPath.startsWith("/") ? 1 : 0;
+        for (int i = 0; i < ROOTS.length; i++) {
+            final String root = ROOTS[i];
+            final int end = start + root.length();
+            if (requestPath.startsWith(root, start)
+                    && (end == requestPath.length() || requestPath.charAt(end) == '/'
+                    || requestPath.charAt(end) == '?')) {
+                return ROOT_ENDPOINT_CLASSES[i];
+            }
+        }
+        return PRIVATE;
+    }
+
+    /**
+     * Gets the first segment of a request path format, without its leading slash.
+     *
+     * @param uri Request path format
+     * @return First segment
+     */
+    private static String rootOf(final String uri) {
+        final int end = uri.indexOf('/', 1);
+        return uri.substring(1, end < 0 ? uri.length() : end);
     }
 
     /**
@@ -160,6 +279,28 @@ public enum Resource {
         }
     }
 
+    /**
+     * Percent-encodes a value as a URI path segment, see RFC 3986 section 3.3.
+     *
+     * @param target Destination
+     * @param value Value to encode
+     */
+    private static void appendPercentEncoded(final StringBuilder target, final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80 && PATH_SAFE[c]) {
+                target.append(c);
+                continue;
+            }
+            // encode the whole code point, surrogate pairs included
+            final int end = Character.isHighSurrogate(c) && i + 1 < value.length() ? i + 2 : i + 1;
+            for (final byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                target.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+            }
+            i = end - 1;
+        }
+    }
+
     /**
      * Creates range between <code>i</code> and <code>j</code> inclusive.
      *
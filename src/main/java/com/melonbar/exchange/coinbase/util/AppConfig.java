@@ -7,9 +7,18 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
 
+/**
+ * Application configuration, read from <code>application.properties</code> on the classpath. Any key may be
+ * overridden with a system property of the same name, e.g.
+ * <code>-Dcoinbase_pro_websocket_feed_endpoint=ws://localhost:8025/</code> to point the websocket feed client at a
+ * {@link com.melonbar.exchange.coinbase.websocket.server.LocalFeedServer}.
+ */
 @Slf4j
 public final class AppConfig {
 
+    public static final String API_ENDPOINT_KEY = "coinbase_pro_authenticated_endpoint";
+    public static final String WEBSOCKET_FEED_ENDPOINT_KEY = "coinbase_pro_websocket_feed_endpoint";
+
     private static final String APP_CONFIG_FILE_NAME = "application.properties";
     private static final Properties PROPERTIES = new Properties();
 
@@ -25,14 +34,34 @@ public final class AppConfig {
         }
 
         // load basic endpoint values for Coinbase Pro
-        COINBASE_PRO_API_ENDPOINT = getValue("coinbase_pro_authenticated_endpoint");
-        COINBASE_PRO_WEBHOOK_FEED_ENDPOINT = getValue("coinbase_pro_websocket_feed_endpoint");
+        COINBASE_PRO_API_ENDPOINT = getValue(API_ENDPOINT_KEY);
+        COINBASE_PRO_WEBHOOK_FEED_ENDPOINT = getValue(WEBSOCKET_FEED_ENDPOINT_KEY);
     }
 
+    /**
+     * Gets a configuration value, giving precedence to a system property of the same name.
+     *
+     * @param key Configuration key
+     * @return Value, or null if neither a system property nor the properties file define it
+     */
     public static String getValue(final String key) {
         Guard.nonNull(key);
+        final String override = System.getProperty(key);
+        if (override != null) {
+            return override;
+        }
         synchronized (PROPERTIES) {
             return PROPERTIES.getProperty(key);
         }
     }
+
+    /**
+     * Gets the websocket feed endpoint at the time of the call. Unlike {@link #COINBASE_PRO_WEBHOOK_FEED_ENDPOINT},
+     * a system property set after this class was loaded is taken into account.
+     *
+     * @return Websocket feed endpoint
+     */
+    public static String websocketFeedEndpoint() {
+        return getValue(WEBSOCKET_FEED_ENDPOINT_KEY);
+    }
 }
@@ -0,0 +1,336 @@
+package com.melonbar.exchange.coinbase.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Helpers for fixed-point decimals: decimal values held as a <code>long</code> scaled by <code>10^scale</code>, e.g.
+ * <code>4388.01</code> at scale 8 is held as <code>438801000000</code>. Prices and sizes on Coinbase Pro never carry
+ * more than {@value #WIRE_SCALE} decimals, so a long at that scale represents any wire value exactly, while arithmetic
+ * and comparisons stay on primitives.
+ *
+ * <p> Parsing goes straight from characters or ASCII bytes to the scaled long, without intermediate {@link String}
+ * or {@link BigDecimal} instances. Parsing is exact: a value with non-zero digits beyond the requested scale, or one
+ * whose magnitude exceeds {@link Long#MAX_VALUE} once scaled, is rejected with an {@link ArithmeticException}
+ * rather than rounded.
+ *
+ * <p> Formatting with the same scale as the number of decimals of the original wire text reproduces that text
+ * exactly, see {@link #fractionDigits(CharSequence)}.
+ */
+public final class FixedPoint {
+
+    /**
+     * Number of decimals sufficient to represent every price and size on Coinbase Pro.
+     */
+    public static final int WIRE_SCALE = 8;
+
+    /**
+     * Largest supported scale, the number of decimal digits of {@link Long#MAX_VALUE} minus one.
+     */
+    public static final int MAX_SCALE = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Parses a plain decimal, e.g. <code>-4388.01</code>, into a fixed-point long.
+     *
+     * @param text Decimal characters
+     * @param scale Scale of the result
+     * @return Fixed-point value
+     * @throws NumberFormatException If the text is not a plain decimal
+     * @throws ArithmeticException If the value has more significant decimals than <code>scale</code>, or overflows
+     */
+    public static long parse(final CharSequence text, final int scale) {
+        return parse(text, 0, text.length(), scale);
+    }
+
+    /**
+     * Parses a plain decimal found in <code>text</code> between <code>start</code> (inclusive) and <code>end</code>
+     * (exclusive) into a fixed-point long.
+     *
+     * @param text Characters containing the decimal
+     * @param start Start index, inclusive
+     * @param end End index, exclusive
+     * @param scale Scale of the result
+     * @return Fixed-point value
+     * @throws NumberFormatException If the range is not a plain decimal
+     * @throws ArithmeticException If the value has more significant decimals than <code>scale</code>, or overflows
+     */
+    public static long parse(final CharSequence text, final int start, final int end, final int scale) {
+        checkScale(scale);
+        final boolean negative = start < end && text.charAt(start) == '-';
+        long value = 0;
+        int fractionDigits = -1;
+        boolean digits = false;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            final char c = text.charAt(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            value = accumulate(value, c, fractionDigits, scale, text, start, end);
+            digits = true;
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+        }
+        return finish(value, negative, digits, fractionDigits, scale, text, start, end);
+    }
+
+    /**
+     * Parses a plain decimal from a character array, e.g. as exposed by
+     * <code>JsonParser#getTextCharacters()</code>, into a fixed-point long.
+     *
+     * @param chars Character array
+     * @param offset Offset of the first character
+     * @param length Number of characters
+     * @param scale Scale of the result
+     * @return Fixed-point value
+     * @throws NumberFormatException If the characters are not a plain decimal
+     * @throws ArithmeticException If the value has more significant decimals than <code>scale</code>, or overflows
+     */
+    public static long parse(final char[] chars, final int offset, final int length, final int scale) {
+        checkScale(scale);
+        final int end = offset + length;
+        final boolean negative = length > 0 && chars[offset] == '-';
+        long value = 0;
+        int fractionDigits = -1;
+        boolean digits = false;
+        for (int i = negative ? offset + 1 : offset; i < end; i++) {
+            final char c = chars[i];
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            value = accumulate(value, c, fractionDigits, scale, null, offset, end);
+            digits = true;
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+        }
+        return finish(value, negative, digits, fractionDigits, scale, null, offset, end);
+    }
+
+    /**
+     * Parses a plain decimal from ASCII bytes, e.g. a raw UTF-8 message buffer, into a fixed-point long.
+     *
+     * @param bytes Byte array
+     * @param offset Offset of the first byte
+     * @param length Number of bytes
+     * @param scale Scale of the result
+     * @return Fixed-point value
+     * @throws NumberFormatException If the bytes are not a plain decimal
+     * @throws ArithmeticException If the value has more significant decimals than <code>scale</code>, or overflows
+     */
+    public static long parse(final byte[] bytes, final int offset, final int length, final int scale) {
+        checkScale(scale);
+        final int end = offset + length;
+        final boolean negative = length > 0 && bytes[offset] == '-';
+        long value = 0;
+        int fractionDigits = -1;
+        boolean digits = false;
+        for (int i = negative ? offset + 1 : offset; i < end; i++) {
+            final char c = (char) bytes[i];
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            value = accumulate(value, c, fractionDigits, scale, null, offset, end);
+            digits = true;
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+        }
+        return finish(value, negative, digits, fractionDigits, scale, null, offset, end);
+    }
+
+    /**
+     * Converts a {@link BigDecimal} into a fixed-point long.
+     *
+     * @param value {@link BigDecimal}
+     * @param scale Scale of the result
+     * @return Fixed-point value
+     * @throws ArithmeticException If the value has more significant decimals than <code>scale</code>, or overflows
+     */
+    public static long fromBigDecimal(final BigDecimal value, final int scale) {
+        checkScale(scale);
+        return value.movePointRight(scale).longValueExact();
+    }
+
+    /**
+     * Converts a fixed-point long into a {@link BigDecimal} of the same scale.
+     *
+     * @param value Fixed-point value
+     * @param scale Scale of the value
+     * @return {@link BigDecimal}
+     */
+    public static BigDecimal toBigDecimal(final long value, final int scale) {
+        return BigDecimal.valueOf(value, scale);
+    }
+
+    /**
+     * Converts a fixed-point long from one scale to another.
+     *
+     * @param value Fixed-point value
+     * @param fromScale Scale of the value
+     * @param toScale Scale of the result
+     * @return Fixed-point value at <code>toScale</code>
+     * @throws ArithmeticException If the conversion loses significant decimals, or overflows
+     */
+    public static long rescale(final long value, final int fromScale, final int toScale) {
+        checkScale(fromScale);
+        checkScale(toScale);
+        if (toScale >= fromScale) {
+            return Math.multiplyExact(value, POWERS_OF_TEN[toScale - fromScale]);
+        }
+        final long divisor = POWERS_OF_TEN[fromScale - toScale];
+        if (value % divisor != 0) {
+            throw new ArithmeticException("Rescaling " + value + " from scale " + fromScale + " to " + toScale
+                    + " loses precision");
+        }
+        return value / divisor;
+    }
+
+    /**
+     * Appends a fixed-point long as a plain decimal with exactly <code>scale</code> decimals, without allocating.
+     *
+     * @param builder Destination
+     * @param value Fixed-point value
+     * @param scale Scale of the value, also the number of decimals written
+     * @return <code>builder</code>
+     */
+    public static StringBuilder append(final StringBuilder builder, final long value, final int scale) {
+        checkScale(scale);
+        if (value < 0) {
+            builder.append('-');
+        }
+        final long divisor = POWERS_OF_TEN[scale];
+        // negate through the remainder and quotient separately, so that Long.MIN_VALUE does not overflow
+        final long integer = Math.abs(value / divisor);
+        final long fraction = Math.abs(value % divisor);
+        builder.append(integer);
+        if (scale > 0) {
+            builder.append('.');
+            for (int i = scale - 1; i >= 0; i--) {
+                builder.append((char) ('0' + (fraction / POWERS_OF_TEN[i]) % 10));
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Formats a fixed-point long as a plain decimal with exactly <code>scale</code> decimals.
+     *
+     * @param value Fixed-point value
+     * @param scale Scale of the value, also the number of decimals written
+     * @return Plain decimal string
+     */
+    public static String toString(final long value, final int scale) {
+        return append(new StringBuilder(24), value, scale).toString();
+    }
+
+    /**
+     * Counts the decimals of a plain decimal, e.g. 2 for <code>0.01</code> and 0 for <code>1</code>, including
+     * trailing zeros, i.e. the scale reproducing a wire value exactly.
+     *
+     * @param text Plain decimal
+     * @return Number of digits after the decimal point
+     */
+    public static int fractionDigits(final CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '.') {
+                return text.length() - i - 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Counts the significant decimals of a plain decimal, i.e. ignoring trailing zeros, e.g. 2 for
+     * <code>0.01000000</code> and 0 for <code>1.00</code>. Used to derive the scale of a product from its increments,
+     * which the exchange pads to 8 decimals.
+     *
+     * @param text Plain decimal
+     * @return Number of digits after the decimal point, up to the last non-zero one
+     */
+    public static int significantFractionDigits(final CharSequence text) {
+        final int fractionStart = text.length() - fractionDigits(text);
+        int end = text.length();
+        while (end > fractionStart && text.charAt(end - 1) == '0') {
+            end--;
+        }
+        return end - fractionStart;
+    }
+
+    /**
+     * Gets <code>10^exponent</code>.
+     *
+     * @param exponent Exponent, between zero and {@value #MAX_SCALE}
+     * @return Power of ten
+     */
+    public static long powerOfTen(final int exponent) {
+        checkScale(exponent);
+        return POWERS_OF_TEN[exponent];
+    }
+
+    private static long accumulate(final long value,
+                                   final char c,
+                                   final int fractionDigits,
+                                   final int scale,
+                                   final CharSequence text,
+                                   final int start,
+                                   final int end) {
+        final int digit = c - '0';
+        if (digit < 0 || digit > 9) {
+            throw new NumberFormatException("Not a plain decimal: " + describe(text, start, end, c));
+        }
+        if (fractionDigits >= scale) {
+            // beyond the requested scale, only zeros are acceptable
+            if (digit != 0) {
+                throw new ArithmeticException("Decimal has more than " + scale + " significant decimals: "
+                        + describe(text, start, end, c));
+            }
+            return value;
+        }
+        if (value > (Long.MAX_VALUE - digit) / 10) {
+            throw new ArithmeticException("Decimal overflows a fixed-point long at scale " + scale + ": "
+                    + describe(text, start, end, c));
+        }
+        return value * 10 + digit;
+    }
+
+    private static long finish(final long value,
+                               final boolean negative,
+                               final boolean digits,
+                               final int fractionDigits,
+                               final int scale,
+                               final CharSequence text,
+                               final int start,
+                               final int end) {
+        if (!digits) {
+            throw new NumberFormatException("Not a plain decimal: " + describe(text, start, end, '?'));
+        }
+        final int padding = scale - Math.max(fractionDigits, 0);
+        final long scaled = padding > 0 ? Math.multiplyExact(value, POWERS_OF_TEN[padding]) : value;
+        return negative ? -scaled : scaled;
+    }
+
+    private static String describe(final CharSequence text, final int start, final int end, final char c) {
+        return text != null ? "[" + text.subSequence(start, end) + "]" : "at character '" + c + "'";
+    }
+
+    private static void checkScale(final int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Scale must be between 0 and " + MAX_SCALE + ", got " + scale);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.melonbar.exchange.coinbase.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes flat json request bodies with the Jackson streaming API into a buffer reused by each thread, e.g.
+ * <pre>{@code
+ * final String body = JsonBodyWriter.start()
+ *         .field("side", "buy")
+ *         .field("price", new BigDecimal("4388.01"))
+ *         .finish();
+ * }</pre>
+ * Keys may repeat, which is how arrays are sent to Coinbase Pro, see {@link #fields(String, Object[])}. All values
+ * are written as json strings, as the exchange expects: numbers and booleans are written by the generator from
+ * their typed value and quoted, other values through their <code>toString</code>.
+ *
+ * <p> The UTF-8 bytes of the last body finished on a thread are kept, so that signing and sending the request on
+ * that thread reuses them through {@link #bytes(String)} rather than encoding the body again.
+ *
+ * <p> A writer is confined to its thread, and only writes one body at a time. A body abandoned midway, e.g. when a
+ * required field is missing, is discarded by the next {@link #start()}.
+ */
+public final class JsonBodyWriter {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .enable(JsonWriteFeature.WRITE_NUMBERS_AS_STRINGS)
+            .build();
+    private static final ThreadLocal<JsonBodyWriter> WRITERS = ThreadLocal.withInitial(JsonBodyWriter::new);
+    private static final byte[] NO_BYTES = new byte[0];
+    private static final int INITIAL_CAPACITY = 512;
+
+    private final ByteArrayBuilder buffer = new ByteArrayBuilder(INITIAL_CAPACITY);
+    private JsonGenerator generator;
+    private boolean writing;
+    private String lastBody;
+    private byte[] lastBytes;
+
+    private JsonBodyWriter() {
+    }
+
+    /**
+     * Starts a new body with the writer of the current thread.
+     *
+     * @return {@link JsonBodyWriter} of the current thread, positioned inside the body object
+     */
+    public static JsonBodyWriter start() {
+        final JsonBodyWriter writer = WRITERS.get();
+        try {
+            if (writer.writing || writer.generator == null) {
+                // the generator of an abandoned body is stuck inside its object
+                writer.buffer.reset();
+                writer.generator = JSON_FACTORY.createGenerator(writer.buffer);
+                writer.generator.setRootValueSeparator(null);
+            }
+            writer.writing = true;
+            writer.generator.writeStartObject();
+        } catch (IOException ioException) {
+            throw new UncheckedIOException("Failed to start json body", ioException);
+        }
+        return writer;
+    }
+
+    /**
+     * Gets the UTF-8 bytes of a body, reusing the bytes it was written as when it is the last body finished on the
+     * current thread.
+     *
+     * @param body Request body, may be null
+     * @return UTF-8 bytes, not to be modified
+     */
+    public static byte[] bytes(final String body) {
+        if (body == null || body.isEmpty()) {
+            return NO_BYTES;
+        }
+        final JsonBodyWriter writer = WRITERS.get();
+        return body == writer.lastBody ? writer.lastBytes : body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a string member.
+     *
+     * @param key Key
+     * @param value Non-null value
+     * @return This writer
+     */
+    public JsonBodyWriter field(final String key, final String value) {
+        try {
+            generator.writeStringField(key, value);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException("Failed to write json field " + key, ioException);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a decimal member, as a string in the format of {@link BigDecimal#toString()}.
+     *
+     * @param key Key
+     * @param value Non-null value
+     * @return This writer
+     */
+    public JsonBodyWriter field(final String key, final BigDecimal value) {
+        try {
+            generator.writeFieldName(key);
+            generator.writeNumber(value);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException("Failed to write json field " + key, ioException);
+        }
+        return this;
+    }
+
+    /**
+     * Writes an integer member, as a string.
+     *
+     * @param key Key
+     * @param value Value
+     * @return This writer
+     */
+    public JsonBodyWriter field(final String key, final long value) {
+        try {
+            generator.writeFieldName(key);
+            generator.writeNumber(value);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException("Failed to write json field " + key, ioException);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a boolean member, as a string.
+     *
+     * @param key Key
+     * @param value Value
+     * @return This writer
+     */
+    public JsonBodyWriter field(final String key, final boolean value) {
+        return field(key, value ? "true" : "false");
+    }
+
+    /**
+     * Writes a member of any type, dispatching on its runtime type. Arrays are written as repeated keys, other values
+     * without a typed writer through their <code>toString</code>.
+     *
+     * @param key Key
+     * @param value Non-null value
+     * @return This writer
+     */
+    public JsonBodyWriter field(final String key, final Object value) {
+        if (value instanceof String string) {
+            return field(key, string);
+        } else if (value instanceof BigDecimal decimal) {
+            return field(key, decimal);
+        } else if (value instanceof Long || value instanceof Integer) {
+            return field(key, ((Number) value).longValue());
+        } else if (value instanceof Boolean bool) {
+            return field(key, bool.booleanValue());
+        } else if (value instanceof Object[] values) {
+            return fields(key, values);
+        }
+        return field(key, value.toString());
+    }
+
+    /**
+     * Writes one member per element of an array, all with the same key.
+     *
+     * @param key Key
+     * @param values Non-null values
+     * @return This writer
+     */
+    public JsonBodyWriter fields(final String key, final Object[] values) {
+        for (final Object value : values) {
+            field(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * Completes the body.
+     *
+     * @return Jsonified body
+     */
+    public String finish() {
+        try {
+            generator.writeEndObject();
+            generator.flush();
+        } catch (IOException ioException) {
+            throw new UncheckedIOException("Failed to finish json body", ioException);
+        }
+        lastBytes = buffer.toByteArray();
+        buffer.reset();
+        writing = false;
+        lastBody = new String(lastBytes, StandardCharsets.UTF_8);
+        return lastBody;
+    }
+}
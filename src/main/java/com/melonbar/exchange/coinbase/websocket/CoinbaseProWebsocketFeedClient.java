@@ -2,9 +2,13 @@ package com.melonbar.exchange.coinbase.websocket;
 
 import com.melonbar.core.model.ProductId;
 import com.melonbar.exchange.coinbase.util.AppConfig;
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
 import com.melonbar.exchange.coinbase.websocket.message.SubscribeMessage;
 import com.melonbar.exchange.coinbase.websocket.message.model.Channel;
 import com.melonbar.exchange.coinbase.websocket.processing.AggregatedMessageHandler;
+import com.melonbar.exchange.coinbase.websocket.processing.ingest.BlockingWaitStrategy;
+import com.melonbar.exchange.coinbase.websocket.processing.ingest.ProductStripedIngestStage;
+import com.melonbar.exchange.coinbase.websocket.processing.ingest.WaitStrategy;
 import com.melonbar.exchange.coinbase.websocket.processing.tracking.Tracker;
 
 import javax.websocket.ClientEndpoint;
@@ -12,6 +16,7 @@ import javax.websocket.MessageHandler;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Session-based websocket feed client for Coinbase Pro.
@@ -21,6 +26,8 @@ import java.util.List;
 @ClientEndpoint
 public class CoinbaseProWebsocketFeedClient extends ReactiveWebsocketFeedClient {
 
+    private static final int DEFAULT_STRIPE_CAPACITY = 4096;
+
     /**
      * Internal constructor that invokes super constructor.
      *
@@ -51,6 +58,21 @@ public class CoinbaseProWebsocketFeedClient extends ReactiveWebsocketFeedClient
         }
     }
 
+    /**
+     * Add typed {@link MessageHandler.Whole}s, which receive inbound messages already decoded into <code>type</code>.
+     *
+     * @param type Message type to listen for
+     * @param messageHandlers {@link MessageHandler.Whole Handler(s)} to add
+     * @param <T> Extension of {@link FeedMessage}
+     */
+    @SafeVarargs
+    public final <T extends FeedMessage> void addMessageHandlers(final Class<T> type,
+                                                                 final MessageHandler.Whole<T>... messageHandlers) {
+        for (final MessageHandler.Whole<T> messageHandler : messageHandlers) {
+            addMessageHandler(type, messageHandler);
+        }
+    }
+
     /**
      * Register the input {@link Tracker}. The new {@link MessageHandler.Whole} is instantiated with
      * {@link Tracker#update}.
@@ -70,6 +92,7 @@ public class CoinbaseProWebsocketFeedClient extends ReactiveWebsocketFeedClient
         private final CoinbaseProWebsocketFeedClient coinbaseProWebsocketFeedClient;
         private final List<Channel> channels = new LinkedList<>();
         private final List<ProductId> productIds = new LinkedList<>();
+        private String endpoint;
 
         /**
          * Internal constructor for instantiating {@link Builder}.
@@ -92,6 +115,22 @@ public class CoinbaseProWebsocketFeedClient extends ReactiveWebsocketFeedClient
             return this;
         }
 
+        /**
+         * Wither for typed {@link MessageHandler.Whole}s. Each inbound message is decoded at most once, and the
+         * decoded instance is shared by all typed handlers.
+         *
+         * @param type Message type to listen for
+         * @param messageHandlers {@link MessageHandler.Whole}s
+         * @param <T> Extension of {@link FeedMessage}
+         * @return {@link Builder}
+         */
+        @SafeVarargs
+        public final <T extends FeedMessage> Builder withTypedMessageHandlers(
+                final Class<T> type, final MessageHandler.Whole<T>... messageHandlers) {
+            coinbaseProWebsocketFeedClient.addMessageHandlers(type, messageHandlers);
+            return this;
+        }
+
         /**
          * Wither for registering {@link Tracker}. Registers {@link Tracker#update} as a {@link MessageHandler.Whole}.
          * The same may be accomplished adding {@link Tracker#update} using {@link #withMessageHandlers}.
@@ -138,19 +177,89 @@ public class CoinbaseProWebsocketFeedClient extends ReactiveWebsocketFeedClient
             return this;
         }
 
+        /**
+         * Wither for a ring buffer ingest stage using a {@link BlockingWaitStrategy}.
+         *
+         * @param capacity Number of ring buffer slots, must be a power of two
+         * @return {@link CoinbaseProWebsocketFeedClient.Builder}
+         * @see #withRingBuffer(int, WaitStrategy)
+         */
+        public Builder withRingBuffer(final int capacity) {
+            return withRingBuffer(capacity, new BlockingWaitStrategy());
+        }
+
+        /**
+         * Wither for a ring buffer ingest stage. Handlers are then invoked on a dedicated consumer thread instead of
+         * the websocket read thread, which only publishes inbound messages to the ring buffer.
+         *
+         * @param capacity Number of ring buffer slots, must be a power of two
+         * @param waitStrategy {@link WaitStrategy} used by the consumer thread
+         * @return {@link CoinbaseProWebsocketFeedClient.Builder}
+         */
+        public Builder withRingBuffer(final int capacity, final WaitStrategy waitStrategy) {
+            coinbaseProWebsocketFeedClient.enableRingBuffer(capacity, waitStrategy);
+            return this;
+        }
+
+        /**
+         * Wither for per-product parallel handling, using stripes of
+         * {@value CoinbaseProWebsocketFeedClient#DEFAULT_STRIPE_CAPACITY} slots each with a
+         * {@link BlockingWaitStrategy}.
+         *
+         * @param stripes Number of stripes
+         * @return {@link CoinbaseProWebsocketFeedClient.Builder}
+         * @see #withProductStripes(int, int, Supplier)
+         */
+        public Builder withProductStripes(final int stripes) {
+            return withProductStripes(stripes, DEFAULT_STRIPE_CAPACITY, BlockingWaitStrategy::new);
+        }
+
+        /**
+         * Wither for per-product parallel handling. Inbound messages are sharded by product id onto
+         * <code>stripes</code> worker threads, preserving order within a product. Registered handlers are invoked
+         * concurrently from all stripes and must therefore be thread-safe. Replaces any
+         * {@link #withRingBuffer ring buffer} configured previously.
+         *
+         * @param stripes Number of stripes
+         * @param capacity Number of ring buffer slots per stripe, must be a power of two
+         * @param waitStrategy Supplies a {@link WaitStrategy} per stripe
+         * @return {@link CoinbaseProWebsocketFeedClient.Builder}
+         * @see ProductStripedIngestStage
+         */
+        public Builder withProductStripes(final int stripes,
+                                          final int capacity,
+                                          final Supplier<WaitStrategy> waitStrategy) {
+            coinbaseProWebsocketFeedClient.enableProductStripes(stripes, capacity, waitStrategy);
+            return this;
+        }
+
+        /**
+         * Wither for the websocket endpoint, e.g. that of a
+         * {@link com.melonbar.exchange.coinbase.websocket.server.LocalFeedServer} for load testing. Defaults to
+         * {@link AppConfig#websocketFeedEndpoint()}.
+         *
+         * @param endpoint Websocket endpoint URI
+         * @return {@link CoinbaseProWebsocketFeedClient.Builder}
+         */
+        public Builder withEndpoint(final String endpoint) {
+            this.endpoint = endpoint;
+            return this;
+        }
+
         /**
          * Finalizes initialization of {@link CoinbaseProWebsocketFeedClient} by creating the final 
          * {@link SubscribeMessage} based on the inputs from {@link #withChannels(Channel...)} and
          * {@link #withProducts(ProductId...)}.
          *
-         * <p> Establishes actual TCP connection with the websocket endpoint provided by {@link AppConfig}
-         * for Coinbase Pro. Once connection is established, the initiating {@link SubscribeMessage} is sent.
+         * <p> Establishes actual TCP connection with the websocket endpoint given to {@link #withEndpoint(String)},
+         * or else provided by {@link AppConfig} for Coinbase Pro. Once connection is established, the initiating
+         * {@link SubscribeMessage} is sent.
          * 
          * @return Active {@link CoinbaseProWebsocketFeedClient}
          */
         public CoinbaseProWebsocketFeedClient build() {
             // init TCP connection
-            coinbaseProWebsocketFeedClient.open(AppConfig.COINBASE_PRO_WEBHOOK_FEED_ENDPOINT);
+            coinbaseProWebsocketFeedClient.open(endpoint != null ? endpoint : AppConfig.websocketFeedEndpoint());
 
             // send subscription messages
             coinbaseProWebsocketFeedClient.sendMessage(
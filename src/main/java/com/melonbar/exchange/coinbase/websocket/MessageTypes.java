@@ -31,8 +31,9 @@ public final class MessageTypes {
     // L3
     public static final String RECEIVED_ORDER = "received";
     public static final String OPENED_ORDER = "open";
-    public static final String CLOSED_ORDER = "close";
+    public static final String CLOSED_ORDER = "done";
     public static final String MATCHED_ORDER = "match";
+    public static final String LAST_MATCH = "last_match";
     public static final String CHANGED_ORDER = "change";
     public static final String ACTIVATED_ORDER = "activate";
 
@@ -56,7 +57,7 @@ public final class MessageTypes {
             case RECEIVED_ORDER -> ReceivedOrderMessage.class;
             case OPENED_ORDER -> OpenedOrderMessage.class;
             case CLOSED_ORDER -> ClosedOrderMessage.class;
-            case MATCHED_ORDER -> MatchedOrderMessage.class;
+            case MATCHED_ORDER, LAST_MATCH -> MatchedOrderMessage.class;
             case CHANGED_ORDER -> ChangedOrderMessage.class;
             case ACTIVATED_ORDER -> ActivatedOrderMessage.class;
             default -> throw new IllegalStateException("Unexpected type: " + type);
@@ -1,8 +1,16 @@
 package com.melonbar.exchange.coinbase.websocket;
 
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
 import com.melonbar.exchange.coinbase.websocket.message.Message;
 import com.melonbar.exchange.coinbase.websocket.processing.AggregatedMessageHandler;
 import com.melonbar.exchange.coinbase.websocket.processing.StringMessageHandler;
+import com.melonbar.exchange.coinbase.websocket.processing.TypedMessageDispatcher;
+import com.melonbar.exchange.coinbase.websocket.processing.ingest.BatchMessageHandler;
+import com.melonbar.exchange.coinbase.websocket.processing.ingest.IngestMetrics;
+import com.melonbar.exchange.coinbase.websocket.processing.ingest.IngestStage;
+import com.melonbar.exchange.coinbase.websocket.processing.ingest.ProductStripedIngestStage;
+import com.melonbar.exchange.coinbase.websocket.processing.ingest.RingBufferIngestStage;
+import com.melonbar.exchange.coinbase.websocket.processing.ingest.WaitStrategy;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -18,6 +26,8 @@ import javax.websocket.Session;
 import javax.websocket.WebSocketContainer;
 import java.io.IOException;
 import java.net.URI;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Abstract websocket feed client that "reacts" to inbound messages. Reactions defined by implementations of
@@ -26,6 +36,14 @@ import java.net.URI;
  * native websocket message type. Currently this implementation only accepts handling of {@link String} websocket
  * messages, enforced by usage of {@link StringMessageHandler}.
  *
+ * <p> Typed handlers, which accept decoded {@link FeedMessage}s, are routed through a single
+ * {@link TypedMessageDispatcher} so that each inbound message is decoded at most once regardless of how many typed
+ * handlers are registered.
+ *
+ * <p> By default, handlers run inline on the websocket container's read thread. An optional {@link IngestStage} may
+ * be placed in between, in which case the session only publishes to the stage and handlers run on the stage's
+ * consumer thread(s), so that slow handlers do not back up the socket.
+ *
  * <p> Extensions of this class are intended for synchronous access. However, implementations of {@link MessageHandler}
  * may be written asynchronously.
  */
@@ -34,17 +52,22 @@ import java.net.URI;
 public abstract class ReactiveWebsocketFeedClient implements WebsocketFeedClient {
 
     private final AggregatedMessageHandler<String> aggregatedMessageHandler;
+    private final TypedMessageDispatcher typedMessageDispatcher;
     private Session session;
 
     @Setter(AccessLevel.PROTECTED)
     private int bufferSize;
 
+    @Setter(AccessLevel.PROTECTED)
+    private IngestStage ingestStage;
+
     /**
      * Protected constructor that initializes {@link AggregatedMessageHandler}, which is registered once a
      * {@link Session} is created in {@link #onOpenConnection(Session)}.
      */
     protected ReactiveWebsocketFeedClient() {
         aggregatedMessageHandler = AggregatedMessageHandler.create();
+        typedMessageDispatcher = new TypedMessageDispatcher();
     }
 
     /**
@@ -58,7 +81,12 @@ public abstract class ReactiveWebsocketFeedClient implements WebsocketFeedClient
     public void onOpenConnection(final Session session) {
         log.info("Opening new websocket feed session [{}]", session.getId());
         this.session = session;
-        this.session.addMessageHandler(String.class, aggregatedMessageHandler);
+        if (ingestStage != null) {
+            ingestStage.start();
+            this.session.addMessageHandler(String.class, ingestStage);
+        } else {
+            this.session.addMessageHandler(String.class, aggregatedMessageHandler);
+        }
     }
 
     /**
@@ -94,7 +122,8 @@ public abstract class ReactiveWebsocketFeedClient implements WebsocketFeedClient
     }
 
     /**
-     * Closes the existing {@link Session} with closure reason {@link CloseReason.CloseCodes#NORMAL_CLOSURE}.
+     * Closes the existing {@link Session} with closure reason {@link CloseReason.CloseCodes#NORMAL_CLOSURE}. If an
+     * {@link IngestStage} is in use, it is halted once the messages already published to it have been handled.
      */
     @Override
     public void close() {
@@ -109,6 +138,46 @@ public abstract class ReactiveWebsocketFeedClient implements WebsocketFeedClient
         } catch (IOException ioException) {
             log.warn("Could not close connection for session with ID: [{}]", session.getId());
         }
+        if (ingestStage != null) {
+            ingestStage.halt();
+        }
+    }
+
+    /**
+     * Places a {@link RingBufferIngestStage} between the websocket read thread and the member
+     * {@link AggregatedMessageHandler}. Must be invoked before the session is opened.
+     *
+     * @param capacity Number of ring buffer slots, must be a power of two
+     * @param waitStrategy {@link WaitStrategy} used by the consumer thread
+     */
+    protected void enableRingBuffer(final int capacity, final WaitStrategy waitStrategy) {
+        setIngestStage(new RingBufferIngestStage(
+                "websocket-feed-ingest", capacity, waitStrategy, BatchMessageHandler.of(aggregatedMessageHandler)));
+    }
+
+    /**
+     * Places a {@link ProductStripedIngestStage} between the websocket read thread and the member
+     * {@link AggregatedMessageHandler}, which is then invoked concurrently from every stripe, with messages of any one
+     * product always handled in order by the same stripe. Must be invoked before the session is opened.
+     *
+     * @param stripes Number of stripes
+     * @param capacity Number of ring buffer slots per stripe, must be a power of two
+     * @param waitStrategy Supplies a {@link WaitStrategy} per stripe
+     */
+    protected void enableProductStripes(final int stripes,
+                                        final int capacity,
+                                        final Supplier<WaitStrategy> waitStrategy) {
+        setIngestStage(new ProductStripedIngestStage(
+                "websocket-feed-ingest", stripes, capacity, waitStrategy, aggregatedMessageHandler));
+    }
+
+    /**
+     * Gets the {@link IngestMetrics} of the {@link IngestStage} in use, if any.
+     *
+     * @return {@link IngestMetrics}, or empty if handlers run inline on the websocket read thread
+     */
+    public Optional<IngestMetrics> getIngestMetrics() {
+        return Optional.ofNullable(ingestStage).map(IngestStage::getMetrics);
     }
 
     /**
@@ -131,4 +200,35 @@ public abstract class ReactiveWebsocketFeedClient implements WebsocketFeedClient
     public void addMessageHandler(final MessageHandler.Whole<String> messageHandler) {
         aggregatedMessageHandler.addMessageHandler(messageHandler);
     }
+
+    /**
+     * Removes a {@link MessageHandler.Whole} from member instance of
+     * {@link AggregatedMessageHandler aggregatedMessageHandler}. Safe to invoke while messages are being handled.
+     *
+     * @param messageHandler Message handler to remove
+     * @return True if the handler was registered and has been removed, false otherwise
+     */
+    public boolean removeMessageHandler(final MessageHandler.Whole<String> messageHandler) {
+        return aggregatedMessageHandler.removeMessageHandler(messageHandler);
+    }
+
+    /**
+     * Adds a typed {@link MessageHandler.Whole} to the member {@link TypedMessageDispatcher}. The dispatcher itself is
+     * only registered to the member {@link AggregatedMessageHandler} once the first typed handler is added, so that
+     * clients using only {@link String} handlers never pay for decoding.
+     *
+     * @param type Message type to listen for
+     * @param messageHandler Typed message handler to register
+     * @param <T> Extension of {@link FeedMessage}
+     */
+    @Override
+    public <T extends FeedMessage> void addMessageHandler(final Class<T> type,
+                                                          final MessageHandler.Whole<T> messageHandler) {
+        synchronized (typedMessageDispatcher) {
+            if (typedMessageDispatcher.isEmpty()) {
+                aggregatedMessageHandler.addMessageHandler(typedMessageDispatcher);
+            }
+            typedMessageDispatcher.addMessageHandler(type, messageHandler);
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.melonbar.exchange.coinbase.websocket;
 
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
 import com.melonbar.exchange.coinbase.websocket.message.Message;
 
 import javax.websocket.CloseReason;
@@ -52,4 +53,13 @@ public interface WebsocketFeedClient {
      * @param messageHandler {@link MessageHandler.Whole}
      */
     void addMessageHandler(final MessageHandler.Whole<String> messageHandler);
+
+    /**
+     * Adds {@link MessageHandler.Whole} that handles inbound messages decoded into the input {@link FeedMessage} type.
+     *
+     * @param type Message type to listen for
+     * @param messageHandler {@link MessageHandler.Whole}
+     * @param <T> Extension of {@link FeedMessage}
+     */
+    <T extends FeedMessage> void addMessageHandler(final Class<T> type, final MessageHandler.Whole<T> messageHandler);
 }
@@ -2,8 +2,10 @@ package com.melonbar.exchange.coinbase.websocket.message;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+@Getter
 @NoArgsConstructor
 @AllArgsConstructor
 public class ErrorMessage extends FeedMessage {
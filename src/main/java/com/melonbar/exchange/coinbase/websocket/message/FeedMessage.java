@@ -15,6 +15,7 @@ import com.melonbar.exchange.coinbase.websocket.message.full.ClosedOrderMessage;
 import com.melonbar.exchange.coinbase.websocket.message.full.MatchedOrderMessage;
 import com.melonbar.exchange.coinbase.websocket.message.full.OpenedOrderMessage;
 import com.melonbar.exchange.coinbase.websocket.message.full.ReceivedOrderMessage;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +33,7 @@ import org.joda.time.DateTime;
  * @see JsonMessageMapper For json marshalling/unmarshalling logic
  */
 @Slf4j
+@Getter
 @SuperBuilder
 @NoArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -53,7 +55,8 @@ import org.joda.time.DateTime;
         @JsonSubTypes.Type(value = ReceivedOrderMessage.class,  name = MessageTypes.RECEIVED_ORDER),
         @JsonSubTypes.Type(value = OpenedOrderMessage.class,    name = MessageTypes.OPENED_ORDER),
         @JsonSubTypes.Type(value = ClosedOrderMessage.class,    name = MessageTypes.CLOSED_ORDER),
-        @JsonSubTypes.Type(value = MatchedOrderMessage.class,   name = MessageTypes.MATCHED_ORDER),
+        @JsonSubTypes.Type(value = MatchedOrderMessage.class,   name = MessageTypes.MATCHED_ORDER,
+                names = MessageTypes.LAST_MATCH),
         @JsonSubTypes.Type(value = ChangedOrderMessage.class,   name = MessageTypes.CHANGED_ORDER),
         @JsonSubTypes.Type(value = ActivatedOrderMessage.class, name = MessageTypes.ACTIVATED_ORDER),
 })
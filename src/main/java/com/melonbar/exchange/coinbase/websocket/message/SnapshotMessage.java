@@ -3,9 +3,11 @@ package com.melonbar.exchange.coinbase.websocket.message;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.melonbar.exchange.coinbase.websocket.message.model.L2OrderTuple;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
+@Getter
 @SuperBuilder
 @NoArgsConstructor
 @AllArgsConstructor
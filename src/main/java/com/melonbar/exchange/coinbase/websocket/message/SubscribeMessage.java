@@ -5,9 +5,11 @@ import com.melonbar.core.model.ProductId;
 import com.melonbar.exchange.coinbase.websocket.message.model.Channel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
+@Getter
 @SuperBuilder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -3,8 +3,10 @@ package com.melonbar.exchange.coinbase.websocket.message;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.melonbar.exchange.coinbase.websocket.message.model.Channel;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+@Getter
 @NoArgsConstructor
 @AllArgsConstructor
 public class SubscriptionsMessage extends FeedMessage {
@@ -3,11 +3,13 @@ package com.melonbar.exchange.coinbase.websocket.message;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
 import java.math.BigDecimal;
 
+@Getter
 @SuperBuilder
 @NoArgsConstructor
 @AllArgsConstructor
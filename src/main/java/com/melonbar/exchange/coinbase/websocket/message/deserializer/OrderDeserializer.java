@@ -1,30 +1,158 @@
 package com.melonbar.exchange.coinbase.websocket.message.deserializer;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.melonbar.core.util.Format;
+import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
+import com.melonbar.exchange.coinbase.util.FixedPoint;
+import com.melonbar.exchange.coinbase.websocket.message.model.L2Levels;
 import com.melonbar.exchange.coinbase.websocket.message.model.L2OrderTuple;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 
+/**
+ * Deserializes a level 2 tuple, <code>[price, size]</code> as found in snapshots or <code>[side, price, size]</code>
+ * as found in updates, by reading its tokens straight from the {@link JsonParser} without building a tree.
+ *
+ * <p> Besides the {@link L2OrderTuple} binding, {@link #readLevels} decodes a whole array of tuples into a
+ * caller-provided {@link L2Levels} buffer, parsing prices and sizes from the parser's character buffer into
+ * fixed-point longs. This is the path used to decode snapshots without materializing any tuple.
+ */
 @Slf4j
 public class OrderDeserializer extends JsonDeserializer<L2OrderTuple> {
 
     @Override
     public L2OrderTuple deserialize(final JsonParser jsonParser, final DeserializationContext __)
             throws IOException {
-        final String text = jsonParser.readValueAsTree()
-                .toString()
-                .replaceAll("\"", "");
-        if (StringUtils.isEmpty(text) || (text.charAt(0) != '[' && text.charAt(text.length()-1) != ']')) {
-            throw new IllegalArgumentException(
-                    Format.format("Unexpected json string provided for [{}] deserialization: [{}]",
-                            this.getClass().getName(), text));
-        }
-        return L2OrderTuple.valueOf(
-                text.substring(1, text.length()-1).split(L2OrderTuple.DELIMITER));
-    }
-}
\ No newline at end of file
+        expect(jsonParser, JsonToken.START_ARRAY);
+        final String first = nextString(jsonParser);
+        final String second = nextString(jsonParser);
+        if (jsonParser.nextToken() == JsonToken.END_ARRAY) {
+            return L2OrderTuple.builder()
+                    .price(new BigDecimal(first))
+                    .size(new BigDecimal(second))
+                    .build();
+        }
+        final L2OrderTuple tuple = L2OrderTuple.builder()
+                .side(side(first))
+                .price(new BigDecimal(second))
+                .size(new BigDecimal(currentString(jsonParser)))
+                .build();
+        if (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+            throw unexpected(jsonParser, "end of tuple");
+        }
+        return tuple;
+    }
+
+    /**
+     * Reads an array of level 2 tuples into the input buffer, leaving the parser on the closing token of the array.
+     * Tuples of two elements take <code>defaultSide</code>, tuples of three take the side of their first element.
+     *
+     * @param jsonParser {@link JsonParser} positioned on the opening token of the array
+     * @param defaultSide Side of two-element tuples, may be null when all tuples hold their side
+     * @param levels Destination buffer, whose scales are used to parse prices and sizes
+     * @throws IOException If reading from the parser fails
+     * @throws IllegalArgumentException If the array does not hold level 2 tuples
+     * @throws ArithmeticException If a price or size has more decimals than the buffer's scales
+     */
+    public static void readLevels(final JsonParser jsonParser, final OrderSide defaultSide, final L2Levels levels)
+            throws IOException {
+        expect(jsonParser, JsonToken.START_ARRAY);
+        while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+            readLevel(jsonParser, defaultSide, levels);
+        }
+    }
+
+    /**
+     * Reads a single level 2 tuple into the input buffer, leaving the parser on the closing token of the tuple.
+     *
+     * @param jsonParser {@link JsonParser} positioned on the opening token of the tuple
+     * @param defaultSide Side of a two-element tuple, may be null when the tuple holds its side
+     * @param levels Destination buffer, whose scales are used to parse prices and sizes
+     * @throws IOException If reading from the parser fails
+     * @throws IllegalArgumentException If the tuple is malformed
+     * @throws ArithmeticException If a price or size has more decimals than the buffer's scales
+     */
+    public static void readLevel(final JsonParser jsonParser, final OrderSide defaultSide, final L2Levels levels)
+            throws IOException {
+        expect(jsonParser, JsonToken.START_ARRAY);
+        OrderSide side = defaultSide;
+        nextStringToken(jsonParser);
+        if (isLetter(jsonParser)) {
+            side = side(jsonParser);
+            nextStringToken(jsonParser);
+        }
+        if (side == null) {
+            throw unexpected(jsonParser, "side");
+        }
+        final long price = parse(jsonParser, levels.getPriceScale());
+        nextStringToken(jsonParser);
+        final long size = parse(jsonParser, levels.getSizeScale());
+        if (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+            throw unexpected(jsonParser, "end of tuple");
+        }
+        levels.add(side, price, size);
+    }
+
+    private static long parse(final JsonParser jsonParser, final int scale) throws IOException {
+        return FixedPoint.parse(
+                jsonParser.getTextCharacters(), jsonParser.getTextOffset(), jsonParser.getTextLength(), scale);
+    }
+
+    private static boolean isLetter(final JsonParser jsonParser) throws IOException {
+        return jsonParser.getTextLength() > 0
+                && Character.isLetter(jsonParser.getTextCharacters()[jsonParser.getTextOffset()]);
+    }
+
+    private static OrderSide side(final JsonParser jsonParser) throws IOException {
+        final char[] chars = jsonParser.getTextCharacters();
+        final int offset = jsonParser.getTextOffset();
+        final int length = jsonParser.getTextLength();
+        if (length == 3 && chars[offset] == 'b' && chars[offset + 1] == 'u' && chars[offset + 2] == 'y') {
+            return OrderSide.BUY;
+        }
+        if (length == 4 && chars[offset] == 's' && chars[offset + 1] == 'e' && chars[offset + 2] == 'l'
+                && chars[offset + 3] == 'l') {
+            return OrderSide.SELL;
+        }
+        return side(jsonParser.getText());
+    }
+
+    private static OrderSide side(final String text) {
+        return OrderSide.valueOf(text.toUpperCase());
+    }
+
+    private static void expect(final JsonParser jsonParser, final JsonToken token) throws IOException {
+        if (jsonParser.currentToken() != token) {
+            throw unexpected(jsonParser, token.asString());
+        }
+    }
+
+    private static void nextStringToken(final JsonParser jsonParser) throws IOException {
+        if (jsonParser.nextToken() != JsonToken.VALUE_STRING) {
+            throw unexpected(jsonParser, "string element");
+        }
+    }
+
+    private static String nextString(final JsonParser jsonParser) throws IOException {
+        nextStringToken(jsonParser);
+        return jsonParser.getText();
+    }
+
+    private static String currentString(final JsonParser jsonParser) throws IOException {
+        if (jsonParser.currentToken() != JsonToken.VALUE_STRING) {
+            throw unexpected(jsonParser, "string element");
+        }
+        return jsonParser.getText();
+    }
+
+    private static IllegalArgumentException unexpected(final JsonParser jsonParser, final String expected) {
+        return new IllegalArgumentException(
+                Format.format("Unexpected json for level 2 tuple, expected {} but got [{}] at {}",
+                        expected, jsonParser.currentToken(), jsonParser.getCurrentLocation()));
+    }
+}
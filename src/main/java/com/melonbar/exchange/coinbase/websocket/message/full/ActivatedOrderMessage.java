@@ -3,10 +3,12 @@ package com.melonbar.exchange.coinbase.websocket.message.full;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.melonbar.exchange.coinbase.model.order.flag.OrderStop;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 
+@Getter
 @NoArgsConstructor
 @AllArgsConstructor
 public class ActivatedOrderMessage extends FullFeedMessage {
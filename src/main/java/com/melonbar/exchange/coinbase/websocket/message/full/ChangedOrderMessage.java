@@ -2,10 +2,12 @@ package com.melonbar.exchange.coinbase.websocket.message.full;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 
+@Getter
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChangedOrderMessage extends FullFeedMessage {
@@ -0,0 +1,108 @@
+package com.melonbar.exchange.coinbase.websocket.message.model;
+
+import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer of level 2 price levels, the primitive counterpart of an array of {@link L2OrderTuple}. Prices and
+ * sizes are held as {@link com.melonbar.exchange.coinbase.util.FixedPoint fixed-point} longs in parallel arrays,
+ * so that a snapshot of tens of thousands of levels is decoded without allocating per level.
+ *
+ * <p> A buffer is meant to be {@link #clear() cleared} and refilled for every message; its arrays only grow. Not
+ * thread-safe.
+ */
+public class L2Levels {
+
+    @Getter
+    private final int priceScale;
+    @Getter
+    private final int sizeScale;
+    private OrderSide[] sides;
+    private long[] prices;
+    private long[] sizes;
+    private int count;
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param priceScale Number of decimals kept for prices
+     * @param sizeScale Number of decimals kept for sizes
+     * @param initialCapacity Initial number of levels that fit without growing
+     */
+    public L2Levels(final int priceScale, final int sizeScale, final int initialCapacity) {
+        this.priceScale = priceScale;
+        this.sizeScale = sizeScale;
+        final int capacity = Math.max(initialCapacity, 1);
+        this.sides = new OrderSide[capacity];
+        this.prices = new long[capacity];
+        this.sizes = new long[capacity];
+    }
+
+    /**
+     * Appends a level.
+     *
+     * @param side Side of the level
+     * @param price Fixed-point price
+     * @param size Fixed-point size
+     */
+    public void add(final OrderSide side, final long price, final long size) {
+        if (count == prices.length) {
+            final int capacity = count << 1;
+            sides = Arrays.copyOf(sides, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+        sides[count] = side;
+        prices[count] = price;
+        sizes[count] = size;
+        count++;
+    }
+
+    /**
+     * Gets the side of a level.
+     *
+     * @param index Level index, in insertion order
+     * @return {@link OrderSide}
+     */
+    public OrderSide side(final int index) {
+        return sides[index];
+    }
+
+    /**
+     * Gets the price of a level.
+     *
+     * @param index Level index, in insertion order
+     * @return Fixed-point price
+     */
+    public long price(final int index) {
+        return prices[index];
+    }
+
+    /**
+     * Gets the size of a level.
+     *
+     * @param index Level index, in insertion order
+     * @return Fixed-point size
+     */
+    public long size(final int index) {
+        return sizes[index];
+    }
+
+    /**
+     * Gets the number of levels in the buffer.
+     *
+     * @return Level count
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Empties the buffer, keeping its capacity.
+     */
+    public void clear() {
+        count = 0;
+    }
+}
@@ -4,10 +4,12 @@ import com.fasterxml.jackson.annotation.JsonValue;
 import com.melonbar.core.util.Guard;
 import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
 import lombok.Builder;
+import lombok.Getter;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 
+@Getter
 @Builder
 public class L2OrderTuple {
 
@@ -6,24 +6,39 @@ import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.websocket.MessageHandler;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Handles aggregations of {@link MessageHandler.Whole}. Only invoked on the retrieval of whole messages.
  * A single instance is thread-safe, and may be used across multiple threads for messaging handling.
  *
+ * <p> Registered handlers are held in a copy-on-write array snapshot. Registration and removal publish a new array
+ * using compare-and-set, so neither blocks message delivery, and delivery itself is a volatile read of the current
+ * snapshot followed by plain iteration. Handlers added or removed during an in-flight delivery take effect from the
+ * next message onwards.
+ *
+ * <p> Each handler is invoked in isolation: an exception thrown by one handler is logged and does not prevent
+ * delivery to the handlers after it.
+ *
  * @param <T> Message type to be processed
  */
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class AggregatedMessageHandler<T> implements MessageHandler.Whole<T> {
 
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<AggregatedMessageHandler, MessageHandler.Whole[]> HANDLERS =
+            AtomicReferenceFieldUpdater.newUpdater(
+                    AggregatedMessageHandler.class, MessageHandler.Whole[].class, "messageHandlers");
+
+    private static final MessageHandler.Whole<?>[] EMPTY = new MessageHandler.Whole<?>[0];
+
     /**
-     * Basic container for multiple message handlers. Uses {@link ArrayList} to take advantage of spacial locality
-     * as this container will be iterated through frequently.
+     * Current snapshot of message handlers. Uses a plain array to take advantage of spacial locality as this
+     * container will be iterated through frequently. Never mutated once published.
      */
-    private final List<Whole<T>> messageHandlers = new ArrayList<>(10);
+    private volatile MessageHandler.Whole<?>[] messageHandlers = EMPTY;
 
     /**
      * Creates an empty {@link AggregatedMessageHandler} instance.
@@ -37,15 +52,21 @@ public class AggregatedMessageHandler<T> implements MessageHandler.Whole<T> {
 
     /**
      * Invokes all {@link MessageHandler.Whole#onMessage(T message)} aggregated by this instance in a thread-safe
-     * manner. Invocation occurs following the same order they were added in.
+     * manner. Invocation occurs following the same order they were added in. An exception thrown by a handler is
+     * logged and delivery continues with the next handler.
      *
      * @param message Inbound message
      */
     @Override
+    @SuppressWarnings("unchecked")
     public void onMessage(final T message) {
-        synchronized (messageHandlers) {
-            for (final MessageHandler.Whole<T> handler : messageHandlers) {
-                handler.onMessage(message);
+        final MessageHandler.Whole<?>[] handlers = messageHandlers;
+        for (final MessageHandler.Whole<?> handler : handlers) {
+            try {
+                ((MessageHandler.Whole<T>) handler).onMessage(message);
+            } catch (Exception exception) {
+                log.warn("Handler [{}] threw exception, continuing delivery to remaining handlers",
+                        handler.getClass().getName(), exception);
             }
         }
     }
@@ -62,8 +83,54 @@ public class AggregatedMessageHandler<T> implements MessageHandler.Whole<T> {
             log.warn("Adding handler [{}] to itself will cause recursive message handler invocations!",
                     this.getClass().getName());
         }
-        synchronized (messageHandlers) {
-            messageHandlers.add(messageHandler);
+        MessageHandler.Whole<?>[] current;
+        MessageHandler.Whole<?>[] updated;
+        do {
+            current = messageHandlers;
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = messageHandler;
+        } while (!HANDLERS.compareAndSet(this, current, updated));
+    }
+
+    /**
+     * Removes the first registration of the input {@link MessageHandler.Whole}, compared by identity. The order of
+     * the remaining handlers is conserved.
+     *
+     * @param messageHandler {@link MessageHandler.Whole} to be removed
+     * @return True if the handler was registered and has been removed, false otherwise
+     */
+    public boolean removeMessageHandler(final MessageHandler.Whole<T> messageHandler) {
+        Guard.nonNull(messageHandler);
+        MessageHandler.Whole<?>[] current;
+        MessageHandler.Whole<?>[] updated;
+        do {
+            current = messageHandlers;
+            final int index = indexOf(current, messageHandler);
+            if (index < 0) {
+                return false;
+            }
+            updated = new MessageHandler.Whole<?>[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        } while (!HANDLERS.compareAndSet(this, current, updated));
+        return true;
+    }
+
+    /**
+     * Gets the number of currently registered handlers.
+     *
+     * @return Handler count
+     */
+    public int size() {
+        return messageHandlers.length;
+    }
+
+    private static int indexOf(final MessageHandler.Whole<?>[] handlers, final MessageHandler.Whole<?> target) {
+        for (int i = 0; i < handlers.length; i++) {
+            if (handlers[i] == target) {
+                return i;
+            }
         }
+        return -1;
     }
 }
@@ -1,6 +1,7 @@
 package com.melonbar.exchange.coinbase.websocket.processing;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.melonbar.core.model.ProductId;
 import com.melonbar.core.util.Guard;
 import com.melonbar.core.util.JsonUtils;
 import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
@@ -127,6 +128,21 @@ public final class MessageHandlers {
                 messageHandler);
     }
 
+    /**
+     * Guards a typed {@link MessageHandler.Whole} so that it is only invoked for decoded messages of the input
+     * {@link ProductId}. Intended for use with typed handlers, where the product ID has already been decoded.
+     *
+     * @param productId Expected product ID
+     * @param messageHandler Typed handler
+     * @param <T> Extension of {@link FeedMessage}
+     * @return {@link PredicatedMessageHandler}
+     */
+    public static <T extends FeedMessage> PredicatedMessageHandler<T> byProduct(
+            final ProductId productId, final MessageHandler.Whole<T> messageHandler) {
+        Guard.nonNull(productId, messageHandler);
+        return predicated((message) -> productId.equals(message.getProductId()), messageHandler);
+    }
+
     /**
      * Returns special {@link Builder} for varargs input for {@link MessageHandler.Whole}. Final built result
      * is an array of {@link MessageHandler.Whole}.
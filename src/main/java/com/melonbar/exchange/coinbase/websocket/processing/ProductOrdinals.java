@@ -0,0 +1,179 @@
+package com.melonbar.exchange.coinbase.websocket.processing;
+
+import com.melonbar.core.util.Guard;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+
+/**
+ * Process-wide registry assigning each product id a small, dense, stable ordinal, in order of first appearance.
+ * Ordinals let per-product state live in plain arrays indexed by ordinal rather than in hash maps keyed by product id,
+ * and let raw messages be routed per product without materializing the product id as a {@link String}.
+ *
+ * <p> Lookups read an immutable open-addressing table snapshot and are lock-free and allocation-free. Registration of
+ * a new product copies the table under a lock, which only happens once per product for the lifetime of the process.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ProductOrdinals {
+
+    /**
+     * Key of the product id field in inbound feed messages, including the enclosing quotes.
+     */
+    private static final String PRODUCT_ID_KEY = "\"product_id\"";
+
+    private static volatile Table table = Table.EMPTY;
+
+    /**
+     * Gets the ordinal of the input product id, registering it if seen for the first time.
+     *
+     * @param productId Product id, e.g. <code>BTC-USD</code>
+     * @return Ordinal
+     */
+    public static int ordinal(final String productId) {
+        Guard.nonNull(productId);
+        return ordinal(productId, 0, productId.length());
+    }
+
+    /**
+     * Looks up the ordinal of the input product id without registering it, e.g. for reads that must not grow the
+     * registry with ids that were never seen on the feed.
+     *
+     * @param productId Product id, e.g. <code>BTC-USD</code>
+     * @return Ordinal, or -1 if the product id has not been registered
+     */
+    public static int find(final String productId) {
+        Guard.nonNull(productId);
+        return table.find(productId, 0, productId.length(), hash(productId, 0, productId.length()));
+    }
+
+    /**
+     * Gets the ordinal of the product id found in <code>source</code> between <code>start</code> (inclusive) and
+     * <code>end</code> (exclusive), registering it if seen for the first time. Only allocates on registration.
+     *
+     * @param source Characters containing the product id
+     * @param start Start index, inclusive
+     * @param end End index, exclusive
+     * @return Ordinal
+     */
+    public static int ordinal(final CharSequence source, final int start, final int end) {
+        final int hash = hash(source, start, end);
+        final int ordinal = table.find(source, start, end, hash);
+        return ordinal >= 0 ? ordinal : register(source.subSequence(start, end).toString(), hash);
+    }
+
+    /**
+     * Gets the ordinal of the product id of the input raw json feed message, without decoding the message.
+     *
+     * @param message Raw json message
+     * @return Ordinal, or -1 if the message has no product id
+     */
+    public static int ordinalOfMessage(final String message) {
+        final int keyIndex = message.indexOf(PRODUCT_ID_KEY);
+        if (keyIndex < 0) {
+            return -1;
+        }
+        int start = keyIndex + PRODUCT_ID_KEY.length();
+        while (start < message.length() && message.charAt(start) != '"') {
+            // skip the colon and any whitespace before the value
+            if (message.charAt(start) != ':' && !Character.isWhitespace(message.charAt(start))) {
+                return -1;
+            }
+            start++;
+        }
+        final int end = message.indexOf('"', ++start);
+        return end < 0 ? -1 : ordinal(message, start, end);
+    }
+
+    /**
+     * Gets the product id registered with the input ordinal.
+     *
+     * @param ordinal Ordinal
+     * @return Product id
+     * @throws IndexOutOfBoundsException If no product id has been registered with the ordinal
+     */
+    public static String productId(final int ordinal) {
+        return table.productIds[ordinal];
+    }
+
+    /**
+     * Gets the number of registered product ids. Every ordinal is smaller than this number.
+     *
+     * @return Number of registered product ids
+     */
+    public static int size() {
+        return table.productIds.length;
+    }
+
+    private static synchronized int register(final String productId, final int hash) {
+        final Table current = table;
+        final int existing = current.find(productId, 0, productId.length(), hash);
+        if (existing >= 0) {
+            return existing;
+        }
+        table = current.with(productId);
+        return current.productIds.length;
+    }
+
+    private static int hash(final CharSequence source, final int start, final int end) {
+        // same as String#hashCode, so registered keys can be hashed either way
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean regionEquals(final String key, final CharSequence source, final int start, final int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != source.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Immutable snapshot of registrations. Slots hold the ordinal of the key at the same index, with empty slots
+     * having a null key.
+     */
+    private record Table(String[] keys, int[] ordinals, String[] productIds) {
+
+        private static final Table EMPTY = new Table(new String[8], new int[8], new String[0]);
+
+        private int find(final CharSequence source, final int start, final int end, final int hash) {
+            final int mask = keys.length - 1;
+            for (int slot = hash & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                if (regionEquals(keys[slot], source, start, end)) {
+                    return ordinals[slot];
+                }
+            }
+            return -1;
+        }
+
+        private Table with(final String productId) {
+            final String[] updatedProductIds = Arrays.copyOf(productIds, productIds.length + 1);
+            updatedProductIds[productIds.length] = productId;
+            // keep the load factor at or below one half
+            int capacity = keys.length;
+            while (capacity < updatedProductIds.length * 2) {
+                capacity <<= 1;
+            }
+            final String[] updatedKeys = new String[capacity];
+            final int[] updatedOrdinals = new int[capacity];
+            for (int ordinal = 0; ordinal < updatedProductIds.length; ordinal++) {
+                final String key = updatedProductIds[ordinal];
+                int slot = hash(key, 0, key.length()) & (capacity - 1);
+                while (updatedKeys[slot] != null) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                updatedKeys[slot] = key;
+                updatedOrdinals[slot] = ordinal;
+            }
+            return new Table(updatedKeys, updatedOrdinals, updatedProductIds);
+        }
+    }
+}
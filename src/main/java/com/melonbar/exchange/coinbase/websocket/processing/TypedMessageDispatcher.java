@@ -0,0 +1,178 @@
+package com.melonbar.exchange.coinbase.websocket.processing;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.melonbar.core.util.Guard;
+import com.melonbar.core.util.JsonUtils;
+import com.melonbar.exchange.coinbase.websocket.MessageTypes;
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
+import com.melonbar.exchange.coinbase.websocket.message.deserializer.JsonMessageMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.websocket.MessageHandler;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Dispatch stage that decodes each inbound json message exactly once and routes the shared {@link FeedMessage}
+ * instance to typed {@link MessageHandler.Whole}s. The <code>type</code> field is extracted once per message,
+ * resolved through {@link MessageTypes#evaluateMessageType}, and used to look up the route in a table indexed by
+ * the concrete {@link FeedMessage} subtype. Messages are only unmarshalled when at least one handler is registered
+ * for their type, so unused types cost a single field extraction.
+ *
+ * <p> Handlers registered against a supertype, e.g. {@link FeedMessage} or
+ * {@link com.melonbar.exchange.coinbase.websocket.message.full.FullFeedMessage FullFeedMessage}, receive every
+ * concrete subtype assignable to it. Within a route, handlers are invoked in the order they were registered.
+ *
+ * <p> Registration and removal are thread-safe and may happen while messages are being dispatched. The dispatch
+ * path itself only performs a volatile read of the current route table.
+ */
+@Slf4j
+public class TypedMessageDispatcher implements MessageHandler.Whole<String> {
+
+    /**
+     * All concrete {@link FeedMessage} subtypes, as declared by {@link JsonSubTypes} on {@link FeedMessage}.
+     */
+    private static final List<Class<?>> MESSAGE_TYPES = Arrays.stream(
+                    FeedMessage.class.getAnnotation(JsonSubTypes.class).value())
+            .<Class<?>>map(JsonSubTypes.Type::value)
+            .distinct()
+            .toList();
+
+    private final List<Registration<?>> registrations = new LinkedList<>();
+
+    /**
+     * Route table, rebuilt on every registration and replaced atomically. Never mutated once published.
+     */
+    private volatile Map<Class<?>, AggregatedMessageHandler<FeedMessage>> routes = new IdentityHashMap<>();
+
+    /**
+     * Extracts the message type, decodes the message once into its concrete {@link FeedMessage} subtype, and
+     * invokes all handlers routed to that subtype. Messages with a missing or unknown type, or for which no handler
+     * is registered, are dropped without being decoded.
+     *
+     * @param message Inbound json message
+     */
+    @Override
+    public void onMessage(final String message) {
+        final String type = JsonUtils.extractField(FeedMessage.TYPE_FIELD, message);
+        if (type == null) {
+            return;
+        }
+
+        final Class<? extends FeedMessage> messageType;
+        try {
+            messageType = MessageTypes.evaluateMessageType(type);
+        } catch (IllegalStateException illegalStateException) {
+            log.debug("Dropping message with unknown type [{}]", type);
+            return;
+        }
+
+        final AggregatedMessageHandler<FeedMessage> route = routes.get(messageType);
+        if (route != null) {
+            decode(message, messageType).ifPresent(route::onMessage);
+        }
+    }
+
+    /**
+     * Decodes the input json message into its concrete {@link FeedMessage} subtype. Only invoked for messages that
+     * have a route.
+     *
+     * @param message Inbound json message
+     * @param messageType Concrete {@link FeedMessage} subtype to decode into
+     * @return Decoded message, or empty if the message could not be decoded
+     */
+    Optional<? extends FeedMessage> decode(final String message, final Class<? extends FeedMessage> messageType) {
+        return JsonMessageMapper.jsonToObject(message, messageType);
+    }
+
+    /**
+     * Registers a typed {@link MessageHandler.Whole}. The handler is routed every decoded message whose concrete
+     * type is assignable to <code>type</code>.
+     *
+     * @param type Message type to listen for
+     * @param messageHandler Typed handler
+     * @param <T> Extension of {@link FeedMessage}
+     */
+    public <T extends FeedMessage> void addMessageHandler(final Class<T> type,
+                                                          final MessageHandler.Whole<T> messageHandler) {
+        Guard.nonNull(type, messageHandler);
+        synchronized (registrations) {
+            registrations.add(new Registration<>(type, messageHandler));
+            routes = buildRoutes();
+        }
+    }
+
+    /**
+     * Removes the first registration of the input typed {@link MessageHandler.Whole} for <code>type</code>, compared
+     * by identity, and rebuilds the route table. Types left without any handler are no longer decoded.
+     *
+     * @param type Message type the handler was registered for
+     * @param messageHandler Typed handler to remove
+     * @param <T> Extension of {@link FeedMessage}
+     * @return True if the handler was registered and has been removed, false otherwise
+     */
+    public <T extends FeedMessage> boolean removeMessageHandler(final Class<T> type,
+                                                                final MessageHandler.Whole<T> messageHandler) {
+        Guard.nonNull(type, messageHandler);
+        synchronized (registrations) {
+            final Iterator<Registration<?>> iterator = registrations.iterator();
+            while (iterator.hasNext()) {
+                final Registration<?> registration = iterator.next();
+                if (registration.type() == type && registration.handler() == messageHandler) {
+                    iterator.remove();
+                    routes = buildRoutes();
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether any typed handler has been registered.
+     *
+     * @return True if no handlers are registered, false otherwise
+     */
+    public boolean isEmpty() {
+        synchronized (registrations) {
+            return registrations.isEmpty();
+        }
+    }
+
+    /**
+     * Builds a new route table from the current registrations. Must be invoked while holding the
+     * <code>registrations</code> monitor.
+     *
+     * @return Route table keyed by concrete {@link FeedMessage} subtype
+     */
+    private Map<Class<?>, AggregatedMessageHandler<FeedMessage>> buildRoutes() {
+        final Map<Class<?>, AggregatedMessageHandler<FeedMessage>> newRoutes = new IdentityHashMap<>();
+        for (final Class<?> messageType : MESSAGE_TYPES) {
+            for (final Registration<?> registration : registrations) {
+                if (registration.type().isAssignableFrom(messageType)) {
+                    newRoutes.computeIfAbsent(messageType, __ -> AggregatedMessageHandler.create())
+                            .addMessageHandler(registration::onMessage);
+                }
+            }
+        }
+        return newRoutes;
+    }
+
+    /**
+     * Pairs a typed handler with the type it was registered for, and performs the narrowing cast on invocation.
+     * The cast is safe since routes only contain registrations whose type is assignable from the route's type.
+     *
+     * @param <T> Extension of {@link FeedMessage}
+     */
+    private static record Registration<T extends FeedMessage>(Class<T> type, MessageHandler.Whole<T> handler) {
+
+        void onMessage(final FeedMessage message) {
+            handler.onMessage(type.cast(message));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+/**
+ * Listener notified when the best bid or best ask of an order book changes, in price or in size. Invoked on the
+ * thread applying the update, once per applied message rather than once per changed level.
+ *
+ * @param <B> Order book type
+ */
+@FunctionalInterface
+public interface BestPriceListener<B> {
+
+    /**
+     * Invoked after an update changed the top of the book. Prices and sizes are fixed-point, as held by the book.
+     *
+     * @param book Updated order book
+     * @param bestBid Best bid price, or {@link BookSide#NO_PRICE} if there are no bids
+     * @param bestAsk Best ask price, or {@link BookSide#NO_PRICE} if there are no asks
+     */
+    void onBestPriceChange(final B book, final long bestBid, final long bestAsk);
+}
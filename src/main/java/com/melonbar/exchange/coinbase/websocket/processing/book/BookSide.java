@@ -0,0 +1,580 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * One side of an order book, holding aggregate size per price level. Prices and sizes are fixed-point longs, i.e.
+ * decimal values scaled by a power of ten fixed by the owning book.
+ *
+ * <p> Levels are kept in an AVL tree laid out in pooled parallel primitive arrays, addressed by node index, each node
+ * also counting the levels in its subtree. Its height stays below 1.45 log2(n + 2), so that for a side of n levels:
+ * <ul>
+ *     <li>updating the size of an existing level is O(log n), one descent and no rebalancing;</li>
+ *     <li>creating or removing a level is O(log n), one descent plus at most one rotation per node on the path back,
+ *     wherever the level is on the side;</li>
+ *     <li>reading the best price or size is O(1), the best node being cached after every structural change;</li>
+ *     <li>reading the level at a given distance from the top is O(log n), using the subtree counts, and copying the
+ *     k best levels through {@link #top} is O(k + log n).</li>
+ * </ul>
+ * Removed nodes are recycled through a free list, so no allocation happens unless the number of levels outgrows the
+ * current capacity, at which point the arrays double.
+ *
+ * <p> Snapshots are loaded in bulk through {@link #append} and {@link #finishAppend()}: levels are appended unsorted
+ * to a staging area, then put in order once and built into a balanced tree bottom-up. Loading n levels into an empty
+ * side costs O(n) when they arrive sorted in either direction, as snapshots do, and O(n log n) otherwise, rather
+ * than one descent and rebalancing per level.
+ *
+ * <p> Internally, bid prices are stored as is and ask prices negated, so that on both sides the best price is the
+ * greatest key.
+ *
+ * <p> Not thread-safe, a book side must only be accessed by the thread applying its updates.
+ */
+public class BookSide {
+
+    /**
+     * Returned by price accessors when the side is empty.
+     */
+    public static final long NO_PRICE = -1L;
+
+    /**
+     * Node zero is a sentinel standing for an empty subtree, with a height and a count of zero.
+     */
+    private static final int NIL = 0;
+
+    /**
+     * Upper bound on the height of any AVL tree addressable with <code>int</code> node indexes.
+     */
+    private static final int MAX_HEIGHT = 48;
+
+    @Getter
+    private final OrderSide side;
+    private final long sign;
+
+    private long[] keys;
+    private long[] sizes;
+    private int[] lefts;
+    private int[] rights;
+    private int[] heights;
+    private int[] counts;
+    private int root = NIL;
+    private int best = NIL;
+    /**
+     * Head of the free list of removed nodes, linked through {@link #lefts}.
+     */
+    private int free = NIL;
+    /**
+     * Lowest node index never used since the last {@link #clear()}.
+     */
+    private int unused = 1;
+
+    /**
+     * Path of the in-order walk of {@link #top}, preallocated so that reading the book allocates nothing.
+     */
+    private final int[] path = new int[MAX_HEIGHT];
+
+    private long[] appendedKeys;
+    private long[] appendedSizes;
+    /**
+     * Number of levels appended and not yet merged by {@link #finishAppend()}.
+     */
+    private int appended;
+
+    /**
+     * Creates an empty book side.
+     *
+     * @param side {@link OrderSide#BUY} for bids, {@link OrderSide#SELL} for asks
+     * @param initialCapacity Initial number of levels that fit without growing
+     */
+    public BookSide(final OrderSide side, final int initialCapacity) {
+        this.side = side;
+        this.sign = side == OrderSide.BUY ? 1L : -1L;
+        final int capacity = Math.max(initialCapacity, 1) + 1;
+        this.keys = new long[capacity];
+        this.sizes = new long[capacity];
+        this.lefts = new int[capacity];
+        this.rights = new int[capacity];
+        this.heights = new int[capacity];
+        this.counts = new int[capacity];
+        this.appendedKeys = new long[capacity - 1];
+        this.appendedSizes = new long[capacity - 1];
+    }
+
+    /**
+     * Sets the aggregate size of a price level, replacing the previous size. A size of zero removes the level.
+     *
+     * @param price Price
+     * @param size New aggregate size, zero to remove the level
+     * @return Previous aggregate size, zero if the level did not exist
+     */
+    public long set(final long price, final long size) {
+        return setKey(price * sign, size);
+    }
+
+    /**
+     * Adds a signed delta to the aggregate size of a price level, creating the level if needed and removing it once
+     * its size drops to zero or below.
+     *
+     * @param price Price
+     * @param delta Size to add, negative to subtract
+     * @return New aggregate size, zero if the level was removed
+     */
+    public long add(final long price, final long delta) {
+        final long key = price * sign;
+        final int node = find(key);
+        if (node != NIL) {
+            final long size = sizes[node] + delta;
+            if (size <= 0) {
+                remove(key);
+                return 0;
+            }
+            sizes[node] = size;
+            return size;
+        }
+        if (delta > 0) {
+            insert(key, delta);
+            return delta;
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the aggregate size at the input price.
+     *
+     * @param price Price
+     * @return Aggregate size, zero if there is no such level
+     */
+    public long sizeAt(final long price) {
+        final int node = find(price * sign);
+        return node != NIL ? sizes[node] : 0;
+    }
+
+    /**
+     * Gets the best price, i.e. the highest bid or lowest ask.
+     *
+     * @return Best price, or {@link #NO_PRICE} if the side is empty
+     */
+    public long bestPrice() {
+        return best == NIL ? NO_PRICE : keys[best] * sign;
+    }
+
+    /**
+     * Gets the aggregate size at the best price.
+     *
+     * @return Best size, or zero if the side is empty
+     */
+    public long bestSize() {
+        return best == NIL ? 0 : sizes[best];
+    }
+
+    /**
+     * Gets the price of the level at the input distance from the top of the book.
+     *
+     * @param level Level, zero being the best
+     * @return Price
+     * @throws IndexOutOfBoundsException If <code>level</code> is not smaller than {@link #depth()}
+     */
+    public long price(final int level) {
+        return keys[select(level)] * sign;
+    }
+
+    /**
+     * Gets the aggregate size of the level at the input distance from the top of the book.
+     *
+     * @param level Level, zero being the best
+     * @return Aggregate size
+     * @throws IndexOutOfBoundsException If <code>level</code> is not smaller than {@link #depth()}
+     */
+    public long size(final int level) {
+        return sizes[select(level)];
+    }
+
+    /**
+     * Copies up to <code>prices.length</code> of the best levels into the input arrays, best first.
+     *
+     * @param prices Receives the level prices
+     * @param sizes Receives the level sizes, must be at least as long as <code>prices</code>
+     * @return Number of levels copied
+     */
+    public int top(final long[] prices, final long[] sizes) {
+        final int levels = Math.min(prices.length, depth());
+        // reverse in-order walk, greatest key first
+        int top = 0;
+        int node = root;
+        for (int level = 0; level < levels; level++) {
+            while (node != NIL) {
+                path[top++] = node;
+                node = rights[node];
+            }
+            node = path[--top];
+            prices[level] = keys[node] * sign;
+            sizes[level] = this.sizes[node];
+            node = lefts[node];
+        }
+        return levels;
+    }
+
+    /**
+     * Gets the number of price levels.
+     *
+     * @return Number of levels
+     */
+    public int depth() {
+        return counts[root];
+    }
+
+    /**
+     * Checks whether this side has no levels.
+     *
+     * @return True if empty
+     */
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+
+    /**
+     * Removes all levels, retaining the allocated capacity.
+     */
+    public void clear() {
+        root = NIL;
+        best = NIL;
+        free = NIL;
+        unused = 1;
+        appended = 0;
+    }
+
+    /**
+     * Appends a level as part of a bulk load, without keeping the side sorted. Levels may be appended in any order;
+     * the side must neither be read nor updated until {@link #finishAppend()} is invoked.
+     *
+     * @param price Price
+     * @param size Aggregate size, levels with a size of zero or below are discarded
+     */
+    public void append(final long price, final long size) {
+        if (appended == appendedKeys.length) {
+            appendedKeys = Arrays.copyOf(appendedKeys, appended << 1);
+            appendedSizes = Arrays.copyOf(appendedSizes, appended << 1);
+        }
+        appendedKeys[appended] = price * sign;
+        appendedSizes[appended] = size;
+        appended++;
+    }
+
+    /**
+     * Merges the levels appended since the last invocation into the side. An appended price that is already on the
+     * side, or that was appended more than once, keeps the size appended last, as if each level had been
+     * {@link #set} in turn.
+     *
+     * <p> When the side is empty, as after {@link #clear()}, the levels are sorted and built into a balanced tree at
+     * once; otherwise each of the m appended levels is set in turn, in O(m log n).
+     */
+    public void finishAppend() {
+        if (appended == 0) {
+            return;
+        }
+        final int count = appended;
+        appended = 0;
+        if (root != NIL) {
+            for (int i = 0; i < count; i++) {
+                setKey(appendedKeys[i], Math.max(appendedSizes[i], 0));
+            }
+            return;
+        }
+        if (!isAscending(count)) {
+            if (isStrictlyDescending(count)) {
+                reverse(count);
+            } else {
+                sort(count);
+            }
+        }
+        // keep the last of equal prices, and drop empty levels
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (i + 1 < count && appendedKeys[i + 1] == appendedKeys[i]) {
+                continue;
+            }
+            if (appendedSizes[i] > 0) {
+                appendedKeys[kept] = appendedKeys[i];
+                appendedSizes[kept] = appendedSizes[i];
+                kept++;
+            }
+        }
+        ensureCapacity(kept + 1);
+        root = build(0, kept);
+        best = greatest(root);
+    }
+
+    private long setKey(final long key, final long size) {
+        final int node = find(key);
+        if (node != NIL) {
+            final long previous = sizes[node];
+            if (size == 0) {
+                remove(key);
+            } else {
+                sizes[node] = size;
+            }
+            return previous;
+        }
+        if (size != 0) {
+            insert(key, size);
+        }
+        return 0;
+    }
+
+    private int find(final long key) {
+        int node = root;
+        while (node != NIL && keys[node] != key) {
+            node = key < keys[node] ? lefts[node] : rights[node];
+        }
+        return node;
+    }
+
+    /**
+     * Finds the node at the input distance from the greatest key, using the subtree counts.
+     */
+    private int select(final int level) {
+        if (level < 0 || level >= depth()) {
+            throw new IndexOutOfBoundsException("Level " + level + " out of bounds for depth " + depth());
+        }
+        int node = root;
+        int remaining = level;
+        while (true) {
+            final int greater = counts[rights[node]];
+            if (remaining < greater) {
+                node = rights[node];
+            } else if (remaining == greater) {
+                return node;
+            } else {
+                remaining -= greater + 1;
+                node = lefts[node];
+            }
+        }
+    }
+
+    private void insert(final long key, final long size) {
+        root = insert(root, key, size);
+        best = greatest(root);
+    }
+
+    private int insert(final int node, final long key, final long size) {
+        if (node == NIL) {
+            return allocate(key, size);
+        }
+        // the child is assigned once the descent returns, as allocating it may have grown the arrays
+        if (key < keys[node]) {
+            final int left = insert(lefts[node], key, size);
+            lefts[node] = left;
+        } else {
+            final int right = insert(rights[node], key, size);
+            rights[node] = right;
+        }
+        return rebalance(node);
+    }
+
+    private void remove(final long key) {
+        root = remove(root, key);
+        best = greatest(root);
+    }
+
+    private int remove(final int node, final long key) {
+        if (key < keys[node]) {
+            lefts[node] = remove(lefts[node], key);
+        } else if (key > keys[node]) {
+            rights[node] = remove(rights[node], key);
+        } else if (lefts[node] == NIL || rights[node] == NIL) {
+            final int child = lefts[node] != NIL ? lefts[node] : rights[node];
+            release(node);
+            return child;
+        } else {
+            // take over the level of the in-order successor, and remove the successor node instead
+            int successor = rights[node];
+            while (lefts[successor] != NIL) {
+                successor = lefts[successor];
+            }
+            keys[node] = keys[successor];
+            sizes[node] = sizes[successor];
+            rights[node] = removeLeast(rights[node]);
+        }
+        return rebalance(node);
+    }
+
+    private int removeLeast(final int node) {
+        if (lefts[node] == NIL) {
+            final int child = rights[node];
+            release(node);
+            return child;
+        }
+        lefts[node] = removeLeast(lefts[node]);
+        return rebalance(node);
+    }
+
+    private int rebalance(final int node) {
+        update(node);
+        final int balance = heights[lefts[node]] - heights[rights[node]];
+        if (balance > 1) {
+            final int left = lefts[node];
+            if (heights[lefts[left]] < heights[rights[left]]) {
+                lefts[node] = rotateLeft(left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            final int right = rights[node];
+            if (heights[rights[right]] < heights[lefts[right]]) {
+                rights[node] = rotateRight(right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private int rotateRight(final int node) {
+        final int left = lefts[node];
+        lefts[node] = rights[left];
+        rights[left] = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private int rotateLeft(final int node) {
+        final int right = rights[node];
+        rights[node] = lefts[right];
+        lefts[right] = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private void update(final int node) {
+        heights[node] = Math.max(heights[lefts[node]], heights[rights[node]]) + 1;
+        counts[node] = counts[lefts[node]] + counts[rights[node]] + 1;
+    }
+
+    private int greatest(final int subtree) {
+        int node = subtree;
+        if (node != NIL) {
+            while (rights[node] != NIL) {
+                node = rights[node];
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Builds a balanced subtree from the sorted appended levels in <code>[from, to)</code>.
+     */
+    private int build(final int from, final int to) {
+        if (from == to) {
+            return NIL;
+        }
+        final int middle = (from + to) >>> 1;
+        final int node = allocate(appendedKeys[middle], appendedSizes[middle]);
+        lefts[node] = build(from, middle);
+        rights[node] = build(middle + 1, to);
+        update(node);
+        return node;
+    }
+
+    private int allocate(final long key, final long size) {
+        final int node;
+        if (free != NIL) {
+            node = free;
+            free = lefts[node];
+        } else {
+            ensureCapacity(unused + 1);
+            node = unused++;
+        }
+        keys[node] = key;
+        sizes[node] = size;
+        lefts[node] = NIL;
+        rights[node] = NIL;
+        heights[node] = 1;
+        counts[node] = 1;
+        return node;
+    }
+
+    private void release(final int node) {
+        lefts[node] = free;
+        free = node;
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > keys.length) {
+            final int grown = Math.max(capacity, keys.length << 1);
+            keys = Arrays.copyOf(keys, grown);
+            sizes = Arrays.copyOf(sizes, grown);
+            lefts = Arrays.copyOf(lefts, grown);
+            rights = Arrays.copyOf(rights, grown);
+            heights = Arrays.copyOf(heights, grown);
+            counts = Arrays.copyOf(counts, grown);
+        }
+    }
+
+    private boolean isAscending(final int count) {
+        for (int i = 1; i < count; i++) {
+            if (appendedKeys[i] < appendedKeys[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isStrictlyDescending(final int count) {
+        for (int i = 1; i < count; i++) {
+            if (appendedKeys[i] >= appendedKeys[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void reverse(final int count) {
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            final long key = appendedKeys[i];
+            appendedKeys[i] = appendedKeys[j];
+            appendedKeys[j] = key;
+            final long size = appendedSizes[i];
+            appendedSizes[i] = appendedSizes[j];
+            appendedSizes[j] = size;
+        }
+    }
+
+    /**
+     * Stable bottom-up merge sort of the first <code>count</code> appended levels by key, so that equal keys keep the
+     * order they were appended in.
+     */
+    private void sort(final int count) {
+        long[] sourceKeys = appendedKeys;
+        long[] sourceSizes = appendedSizes;
+        long[] targetKeys = new long[appendedKeys.length];
+        long[] targetSizes = new long[appendedSizes.length];
+        for (int width = 1; width < count; width <<= 1) {
+            for (int low = 0; low < count; low += width << 1) {
+                final int middle = Math.min(low + width, count);
+                final int high = Math.min(low + (width << 1), count);
+                int left = low;
+                int right = middle;
+                for (int i = low; i < high; i++) {
+                    if (left < middle && (right >= high || sourceKeys[left] <= sourceKeys[right])) {
+                        targetKeys[i] = sourceKeys[left];
+                        targetSizes[i] = sourceSizes[left++];
+                    } else {
+                        targetKeys[i] = sourceKeys[right];
+                        targetSizes[i] = sourceSizes[right++];
+                    }
+                }
+            }
+            final long[] swapKeys = sourceKeys;
+            final long[] swapSizes = sourceSizes;
+            sourceKeys = targetKeys;
+            sourceSizes = targetSizes;
+            targetKeys = swapKeys;
+            targetSizes = swapSizes;
+        }
+        appendedKeys = sourceKeys;
+        appendedSizes = sourceSizes;
+    }
+}
@@ -0,0 +1,92 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
+import com.melonbar.exchange.coinbase.util.FixedPoint;
+import com.melonbar.exchange.coinbase.websocket.MessageTypes;
+import com.melonbar.exchange.coinbase.websocket.message.deserializer.OrderDeserializer;
+import com.melonbar.exchange.coinbase.websocket.message.model.L2Levels;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Decodes raw level2 channel messages, <code>snapshot</code> and <code>l2update</code>, straight into a reusable
+ * {@link L2Levels} buffer with the Jackson streaming API. Unlike binding to
+ * {@link com.melonbar.exchange.coinbase.websocket.message.SnapshotMessage}, no tuple, {@link java.math.BigDecimal}
+ * or {@link String} is created per level, which matters for snapshots of tens of thousands of levels.
+ *
+ * <p> Prices and sizes are decoded at {@value FixedPoint#WIRE_SCALE} decimals, enough for any wire value, and are
+ * rescaled by the book they are applied to. The product id is not decoded, callers resolve it from the raw message
+ * with {@link com.melonbar.exchange.coinbase.websocket.processing.ProductOrdinals#ordinalOfMessage}.
+ *
+ * <p> Not thread-safe, a decoder holds the levels of the last decoded message.
+ */
+public class L2MessageDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int INITIAL_CAPACITY = 1024;
+
+    @Getter
+    private final L2Levels levels = new L2Levels(FixedPoint.WIRE_SCALE, FixedPoint.WIRE_SCALE, INITIAL_CAPACITY);
+    @Getter
+    private boolean snapshot;
+
+    /**
+     * Decodes the input raw message, replacing the levels of the previously decoded message.
+     *
+     * @param message Raw json message
+     * @return True if the message is a <code>snapshot</code> or an <code>l2update</code>, false otherwise, in which
+     *         case the message is only read up to its type
+     * @throws IllegalArgumentException If a level is malformed
+     * @throws UncheckedIOException If the message is not valid json
+     */
+    public boolean decode(final String message) {
+        levels.clear();
+        snapshot = false;
+        boolean level2 = false;
+        try (JsonParser parser = JSON_FACTORY.createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                // field names are canonicalized by the parser, so comparing them does not allocate
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "type" -> {
+                        snapshot = textEquals(parser, MessageTypes.SNAPSHOT);
+                        level2 = snapshot || textEquals(parser, MessageTypes.L2_UPDATE);
+                        if (!level2) {
+                            return false;
+                        }
+                    }
+                    case "bids" -> OrderDeserializer.readLevels(parser, OrderSide.BUY, levels);
+                    case "asks" -> OrderDeserializer.readLevels(parser, OrderSide.SELL, levels);
+                    case "changes" -> OrderDeserializer.readLevels(parser, null, levels);
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException ioException) {
+            throw new UncheckedIOException("Failed to decode level2 message", ioException);
+        }
+        return level2;
+    }
+
+    private static boolean textEquals(final JsonParser parser, final String expected) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING || parser.getTextLength() != expected.length()) {
+            return false;
+        }
+        final char[] chars = parser.getTextCharacters();
+        final int offset = parser.getTextOffset();
+        for (int i = 0; i < expected.length(); i++) {
+            if (chars[offset + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,132 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
+import com.melonbar.exchange.coinbase.util.FixedPoint;
+import com.melonbar.exchange.coinbase.websocket.message.L2UpdateMessage;
+import com.melonbar.exchange.coinbase.websocket.message.SnapshotMessage;
+import com.melonbar.exchange.coinbase.websocket.message.model.L2Levels;
+import com.melonbar.exchange.coinbase.websocket.message.model.L2OrderTuple;
+
+/**
+ * Aggregated (level 2) order book of a single product, maintained from the <code>snapshot</code> and
+ * <code>l2update</code> messages of the level2 channel.
+ *
+ * <p> Books are fed either decoded messages, or, to avoid materializing a tuple per level, {@link L2Levels} decoded
+ * from the raw message by {@link L2MessageDecoder}. Applying an update never allocates, unless a side outgrows its
+ * capacity. {@link BestPriceListener}s are notified once per applied message, and only if the best bid or best ask
+ * changed.
+ *
+ * @see OrderBook For the fixed-point representation and threading constraints
+ */
+public class L2OrderBook extends OrderBook<L2OrderBook> {
+
+    /**
+     * Creates an empty order book.
+     *
+     * @param productId Product id, e.g. <code>BTC-USD</code>
+     * @param priceScale Number of decimals kept for prices
+     * @param sizeScale Number of decimals kept for sizes
+     */
+    public L2OrderBook(final String productId, final int priceScale, final int sizeScale) {
+        super(productId, priceScale, sizeScale);
+    }
+
+    /**
+     * Replaces the whole book with the content of the input snapshot. Levels are bulk loaded, see
+     * {@link BookSide#append}.
+     *
+     * @param snapshotMessage {@link SnapshotMessage}
+     */
+    public void applySnapshot(final SnapshotMessage snapshotMessage) {
+        getBids().clear();
+        getAsks().clear();
+        if (snapshotMessage.getBids() != null) {
+            for (final L2OrderTuple bid : snapshotMessage.getBids()) {
+                getBids().append(toPrice(bid.getPrice()), toSize(bid.getSize()));
+            }
+        }
+        if (snapshotMessage.getAsks() != null) {
+            for (final L2OrderTuple ask : snapshotMessage.getAsks()) {
+                getAsks().append(toPrice(ask.getPrice()), toSize(ask.getSize()));
+            }
+        }
+        getBids().finishAppend();
+        getAsks().finishAppend();
+        notifyIfTopChanged();
+    }
+
+    /**
+     * Applies all changes of the input update. Each change replaces the aggregate size of its level, with a size of
+     * zero removing the level.
+     *
+     * @param l2UpdateMessage {@link L2UpdateMessage}
+     */
+    public void applyUpdate(final L2UpdateMessage l2UpdateMessage) {
+        if (l2UpdateMessage.getChanges() == null) {
+            return;
+        }
+        for (final L2OrderTuple change : l2UpdateMessage.getChanges()) {
+            side(change.getSide()).set(toPrice(change.getPrice()), toSize(change.getSize()));
+        }
+        notifyIfTopChanged();
+    }
+
+    /**
+     * Replaces the whole book with the input levels, as decoded from a snapshot by {@link L2MessageDecoder}. Levels
+     * are bulk loaded, see {@link BookSide#append}.
+     *
+     * @param levels {@link L2Levels}, rescaled to the scales of this book if they differ
+     * @throws ArithmeticException If a level has more decimals than the scales of this book
+     */
+    public void applySnapshot(final L2Levels levels) {
+        getBids().clear();
+        getAsks().clear();
+        apply(levels, true);
+        getBids().finishAppend();
+        getAsks().finishAppend();
+        notifyIfTopChanged();
+    }
+
+    /**
+     * Applies all input levels, as decoded from an update by {@link L2MessageDecoder}. Each level replaces the
+     * aggregate size of its price, with a size of zero removing the level.
+     *
+     * @param levels {@link L2Levels}, rescaled to the scales of this book if they differ
+     * @throws ArithmeticException If a level has more decimals than the scales of this book
+     */
+    public void applyUpdate(final L2Levels levels) {
+        apply(levels, false);
+        notifyIfTopChanged();
+    }
+
+    /**
+     * Applies a single level change using fixed-point values.
+     *
+     * @param side Side of the level
+     * @param price Fixed-point price
+     * @param size Fixed-point aggregate size, zero to remove the level
+     */
+    public void update(final OrderSide side, final long price, final long size) {
+        side(side).set(price, size);
+        notifyIfTopChanged();
+    }
+
+    private void apply(final L2Levels levels, final boolean append) {
+        final int priceScale = levels.getPriceScale();
+        final int sizeScale = levels.getSizeScale();
+        final boolean rescale = priceScale != getPriceScale() || sizeScale != getSizeScale();
+        for (int i = 0; i < levels.count(); i++) {
+            final long price = rescale
+                    ? FixedPoint.rescale(levels.price(i), priceScale, getPriceScale())
+                    : levels.price(i);
+            final long size = rescale
+                    ? FixedPoint.rescale(levels.size(i), sizeScale, getSizeScale())
+                    : levels.size(i);
+            if (append) {
+                side(levels.side(i)).append(price, size);
+            } else {
+                side(levels.side(i)).set(price, size);
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import com.melonbar.core.model.ProductId;
+import com.melonbar.core.util.Guard;
+import com.melonbar.exchange.coinbase.model.products.ProductScale;
+import com.melonbar.exchange.coinbase.model.products.ProductScales;
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
+import com.melonbar.exchange.coinbase.websocket.message.L2UpdateMessage;
+import com.melonbar.exchange.coinbase.websocket.message.SnapshotMessage;
+import com.melonbar.exchange.coinbase.websocket.processing.ProductOrdinals;
+import com.melonbar.exchange.coinbase.websocket.processing.tracking.Tracker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Maintains an {@link L2OrderBook} per product from the decoded messages of the level2 channel. Intended to be
+ * registered as a typed handler for both {@link SnapshotMessage} and {@link L2UpdateMessage}, e.g.
+ * <pre>{@code
+ * builder.withTypedMessageHandlers(SnapshotMessage.class, tracker::update)
+ *        .withTypedMessageHandlers(L2UpdateMessage.class, tracker::update);
+ * }</pre>
+ * or, to decode level2 messages without materializing a tuple per level, as a raw message handler
+ * <pre>{@code
+ * builder.withMessageHandlers(tracker::updateFromJson);
+ * }</pre>
+ *
+ * <p> A book is created on the first snapshot of its product; updates received before it are ignored. Books for
+ * different products may be updated from different threads, but messages of any one product must be delivered by a
+ * single thread at a time, which holds for both inline delivery and product-striped ingest.
+ */
+@Slf4j
+public class L2OrderBookTracker implements Tracker<FeedMessage> {
+
+    private final ProductScale productScale;
+    private final Map<ProductId, L2OrderBook> orderBooks = new ConcurrentHashMap<>();
+    private final List<BestPriceListener<L2OrderBook>> bestPriceListeners = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<L2MessageDecoder> decoders = ThreadLocal.withInitial(L2MessageDecoder::new);
+
+    /**
+     * Books indexed by {@link ProductOrdinals product ordinal}, for lookups from raw messages. Copied on write under
+     * the listener lock, like {@link #orderBooks}.
+     */
+    private volatile L2OrderBook[] orderBooksByOrdinal = new L2OrderBook[0];
+
+    /**
+     * Creates a tracker whose books use the scales of their product, as registered in {@link ProductScales}.
+     */
+    public L2OrderBookTracker() {
+        this(null);
+    }
+
+    /**
+     * Creates a tracker whose books all use the input scales.
+     *
+     * @param productScale {@link ProductScale}, or null to use the scales registered in {@link ProductScales}
+     */
+    public L2OrderBookTracker(final ProductScale productScale) {
+        this.productScale = productScale;
+    }
+
+    /**
+     * Applies an inbound {@link SnapshotMessage} or {@link L2UpdateMessage} to the book of its product. Other message
+     * types are ignored.
+     *
+     * @param message Inbound decoded message
+     */
+    @Override
+    public void update(final FeedMessage message) {
+        if (message.getProductId() == null) {
+            return;
+        }
+        if (message instanceof SnapshotMessage snapshotMessage) {
+            L2OrderBook orderBook = orderBooks.get(message.getProductId());
+            if (orderBook == null) {
+                orderBook = createOrderBook(message.getProductId());
+            }
+            orderBook.applySnapshot(snapshotMessage);
+        } else if (message instanceof L2UpdateMessage l2UpdateMessage) {
+            final L2OrderBook orderBook = orderBooks.get(message.getProductId());
+            if (orderBook == null) {
+                log.debug("Dropping l2update for [{}] received before its snapshot", message.getProductId());
+                return;
+            }
+            orderBook.applyUpdate(l2UpdateMessage);
+        }
+    }
+
+    /**
+     * Decodes an inbound raw <code>snapshot</code> or <code>l2update</code> message with an {@link L2MessageDecoder}
+     * and applies it to the book of its product, without binding the message to a {@link FeedMessage}. Other message
+     * types are ignored after reading their type.
+     *
+     * @param message Inbound raw json message
+     */
+    public void updateFromJson(final String message) {
+        final int ordinal = ProductOrdinals.ordinalOfMessage(message);
+        if (ordinal < 0) {
+            return;
+        }
+        final L2MessageDecoder decoder = decoders.get();
+        if (!decoder.decode(message)) {
+            return;
+        }
+        final L2OrderBook[] byOrdinal = orderBooksByOrdinal;
+        L2OrderBook orderBook = ordinal < byOrdinal.length ? byOrdinal[ordinal] : null;
+        if (decoder.isSnapshot()) {
+            if (orderBook == null) {
+                final String[] currencies = ProductOrdinals.productId(ordinal).split(ProductId.DELIMITER);
+                orderBook = createOrderBook(ProductId.of(currencies[0], currencies[1]));
+            }
+            orderBook.applySnapshot(decoder.getLevels());
+        } else if (orderBook == null) {
+            log.debug("Dropping l2update for [{}] received before its snapshot", ProductOrdinals.productId(ordinal));
+        } else {
+            orderBook.applyUpdate(decoder.getLevels());
+        }
+    }
+
+    /**
+     * Gets the book of the input product.
+     *
+     * @param productId {@link ProductId}
+     * @return {@link L2OrderBook}, or empty if no snapshot has been received for the product
+     */
+    public Optional<L2OrderBook> getOrderBook(final ProductId productId) {
+        return Optional.ofNullable(orderBooks.get(productId));
+    }
+
+    /**
+     * Registers a {@link BestPriceListener} on the books of all products, including those created later on.
+     *
+     * @param listener {@link BestPriceListener}
+     */
+    public void addBestPriceListener(final BestPriceListener<L2OrderBook> listener) {
+        Guard.nonNull(listener);
+        synchronized (bestPriceListeners) {
+            bestPriceListeners.add(listener);
+            orderBooks.values().forEach(orderBook -> orderBook.addBestPriceListener(listener));
+        }
+    }
+
+    private L2OrderBook createOrderBook(final ProductId productId) {
+        // under the listener lock, so that a listener added concurrently is registered exactly once
+        synchronized (bestPriceListeners) {
+            return orderBooks.computeIfAbsent(productId, __ -> {
+                final ProductScale scale = productScale != null
+                        ? productScale
+                        : ProductScales.get(productId.toString());
+                final L2OrderBook orderBook = new L2OrderBook(
+                        productId.toString(), scale.priceScale(), scale.sizeScale());
+                bestPriceListeners.forEach(orderBook::addBestPriceListener);
+                indexByOrdinal(ProductOrdinals.ordinal(productId.toString()), orderBook);
+                return orderBook;
+            });
+        }
+    }
+
+    private void indexByOrdinal(final int ordinal, final L2OrderBook orderBook) {
+        final L2OrderBook[] updated = Arrays.copyOf(orderBooksByOrdinal,
+                Math.max(orderBooksByOrdinal.length, ordinal + 1));
+        updated[ordinal] = orderBook;
+        orderBooksByOrdinal = updated;
+    }
+}
@@ -0,0 +1,449 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
+import com.melonbar.exchange.coinbase.websocket.message.full.ChangedOrderMessage;
+import com.melonbar.exchange.coinbase.websocket.message.full.ClosedOrderMessage;
+import com.melonbar.exchange.coinbase.websocket.message.full.MatchedOrderMessage;
+import com.melonbar.exchange.coinbase.websocket.message.full.OpenedOrderMessage;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Order-by-order (level 3) book of a single product, maintained from the <code>open</code>, <code>match</code>,
+ * <code>change</code> and <code>done</code> messages of the full channel.
+ *
+ * <p> Orders are keyed by their UUID held as two longs in an {@link OrderIdIndex}. Order and price level state lives
+ * in pooled parallel primitive arrays, addressed by slot; freed slots are recycled through free lists, so the steady
+ * state of the full channel allocates nothing. Each price level keeps its orders in an intrusive doubly-linked FIFO
+ * queue, giving time priority within the level.
+ *
+ * <p> Opening, matching, changing and closing an order are O(1) with respect to the order book: one hash lookup on
+ * the order id, one on the price when a level is created or removed, and constant-time queue linking. Aggregate
+ * sizes per level are additionally maintained in the {@link BookSide}s, where creating or removing a level costs
+ * O(log n) in the number of levels on the side. While a snapshot is being loaded, between {@link #beginSnapshot()}
+ * and {@link #setSnapshotSequence}, the aggregates are not maintained per order; they are rebuilt once from the price
+ * levels when the load completes, using {@link BookSide#append}.
+ *
+ * <p> Messages of other types, and messages for orders not on the book (e.g. matches against orders that were never
+ * opened, such as those filled on receipt), are ignored.
+ *
+ * @see OrderBook For the fixed-point representation and threading constraints
+ */
+public class L3OrderBook extends OrderBook<L3OrderBook> {
+
+    private static final int NIL = -1;
+    private static final int DEFAULT_EXPECTED_ORDERS = 1 << 16;
+
+    private final OrderIdIndex orderIndex;
+    private final LongIntHashMap bidLevels;
+    private final LongIntHashMap askLevels;
+
+    // order pool, indexed by order slot
+    private long[] orderIdHighs;
+    private long[] orderIdLows;
+    private long[] orderSizes;
+    private int[] orderLevels;
+    private int[] orderNext;
+    private int[] orderPrev;
+    private int freeOrder = NIL;
+    private int orderHighWater;
+
+    // level pool, indexed by level slot
+    private long[] levelPrices;
+    private boolean[] levelIsBid;
+    private int[] levelHeads;
+    private int[] levelTails;
+    private int[] levelCounts;
+    private int freeLevel = NIL;
+    private int levelHighWater;
+
+    /**
+     * True between {@link #beginSnapshot()} and {@link #setSnapshotSequence}, while the {@link BookSide}s are stale.
+     */
+    private boolean loadingSnapshot;
+
+    /**
+     * Sequence of the last applied message, or of the snapshot the book was loaded from.
+     */
+    @Getter
+    private long sequence = -1L;
+
+    /**
+     * Creates an empty order book sized for {@value #DEFAULT_EXPECTED_ORDERS} resting orders.
+     *
+     * @param productId Product id, e.g. <code>BTC-USD</code>
+     * @param priceScale Number of decimals kept for prices
+     * @param sizeScale Number of decimals kept for sizes
+     */
+    public L3OrderBook(final String productId, final int priceScale, final int sizeScale) {
+        this(productId, priceScale, sizeScale, DEFAULT_EXPECTED_ORDERS);
+    }
+
+    /**
+     * Creates an empty order book.
+     *
+     * @param productId Product id, e.g. <code>BTC-USD</code>
+     * @param priceScale Number of decimals kept for prices
+     * @param sizeScale Number of decimals kept for sizes
+     * @param expectedOrders Number of resting orders that fit without growing
+     */
+    public L3OrderBook(final String productId, final int priceScale, final int sizeScale, final int expectedOrders) {
+        super(productId, priceScale, sizeScale);
+        final int orders = Math.max(expectedOrders, 16);
+        final int levels = Math.max(orders / 8, 16);
+        orderIndex = new OrderIdIndex(orders);
+        bidLevels = new LongIntHashMap(levels);
+        askLevels = new LongIntHashMap(levels);
+        orderIdHighs = new long[orders];
+        orderIdLows = new long[orders];
+        orderSizes = new long[orders];
+        orderLevels = new int[orders];
+        orderNext = new int[orders];
+        orderPrev = new int[orders];
+        levelPrices = new long[levels];
+        levelIsBid = new boolean[levels];
+        levelHeads = new int[levels];
+        levelTails = new int[levels];
+        levelCounts = new int[levels];
+    }
+
+    /**
+     * Applies an inbound full channel message. Messages not older than the current {@link #getSequence() sequence}
+     * are applied; older ones are ignored, since they are already reflected by the book.
+     *
+     * @param message Inbound decoded message
+     * @return True if the message was applied, false if it was ignored as stale
+     */
+    public boolean apply(final FeedMessage message) {
+        final Long messageSequence = message.getSequence();
+        if (messageSequence != null) {
+            if (messageSequence <= sequence) {
+                return false;
+            }
+            sequence = messageSequence;
+        }
+        if (message instanceof OpenedOrderMessage opened) {
+            final String orderId = opened.getOrderId();
+            open(OrderIdIndex.high(orderId), OrderIdIndex.low(orderId), opened.getSide(),
+                    toPrice(opened.getPrice()), toSize(opened.getRemainingOrderSize()));
+        } else if (message instanceof MatchedOrderMessage matched) {
+            final String makerOrderId = matched.getMakerOrderId();
+            match(OrderIdIndex.high(makerOrderId), OrderIdIndex.low(makerOrderId), toSize(matched.getOrderSize()));
+        } else if (message instanceof ChangedOrderMessage changed && changed.getNewOrderSize() != null) {
+            final String orderId = changed.getOrderId();
+            change(OrderIdIndex.high(orderId), OrderIdIndex.low(orderId), toSize(changed.getNewOrderSize()));
+        } else if (message instanceof ClosedOrderMessage closed) {
+            final String orderId = closed.getOrderId();
+            done(OrderIdIndex.high(orderId), OrderIdIndex.low(orderId));
+        }
+        notifyIfTopChanged();
+        return true;
+    }
+
+    /**
+     * Adds a resting order to the back of the queue of its price level.
+     *
+     * @param orderIdHigh High 64 bits of the order id
+     * @param orderIdLow Low 64 bits of the order id
+     * @param side Side of the order
+     * @param price Fixed-point price
+     * @param size Fixed-point size
+     * @return True if added, false if an order with the same id is already on the book
+     */
+    public boolean open(final long orderIdHigh,
+                        final long orderIdLow,
+                        final OrderSide side,
+                        final long price,
+                        final long size) {
+        final int order = allocateOrder();
+        if (!orderIndex.putIfAbsent(orderIdHigh, orderIdLow, order)) {
+            releaseOrder(order);
+            return false;
+        }
+        final boolean isBid = side == OrderSide.BUY;
+        final LongIntHashMap levels = isBid ? bidLevels : askLevels;
+        int level = levels.get(price);
+        if (level == LongIntHashMap.MISSING) {
+            level = allocateLevel(price, isBid);
+            levels.put(price, level);
+        }
+        orderIdHighs[order] = orderIdHigh;
+        orderIdLows[order] = orderIdLow;
+        orderSizes[order] = size;
+        orderLevels[order] = level;
+        orderNext[order] = NIL;
+        orderPrev[order] = levelTails[level];
+        if (levelTails[level] == NIL) {
+            levelHeads[level] = order;
+        } else {
+            orderNext[levelTails[level]] = order;
+        }
+        levelTails[level] = order;
+        levelCounts[level]++;
+        if (!loadingSnapshot) {
+            side(side).add(price, size);
+        }
+        return true;
+    }
+
+    /**
+     * Reduces the size of a resting order by a matched size. The order stays on the book until it is closed, even if
+     * its remaining size reaches zero.
+     *
+     * @param orderIdHigh High 64 bits of the maker order id
+     * @param orderIdLow Low 64 bits of the maker order id
+     * @param size Fixed-point matched size
+     * @return True if the order is on the book
+     */
+    public boolean match(final long orderIdHigh, final long orderIdLow, final long size) {
+        final int order = orderIndex.get(orderIdHigh, orderIdLow);
+        if (order == OrderIdIndex.MISSING) {
+            return false;
+        }
+        final long matched = Math.min(size, orderSizes[order]);
+        orderSizes[order] -= matched;
+        final int level = orderLevels[order];
+        (levelIsBid[level] ? getBids() : getAsks()).add(levelPrices[level], -matched);
+        return true;
+    }
+
+    /**
+     * Changes the size of a resting order, keeping its place in the queue.
+     *
+     * @param orderIdHigh High 64 bits of the order id
+     * @param orderIdLow Low 64 bits of the order id
+     * @param newSize Fixed-point new size
+     * @return True if the order is on the book
+     */
+    public boolean change(final long orderIdHigh, final long orderIdLow, final long newSize) {
+        final int order = orderIndex.get(orderIdHigh, orderIdLow);
+        if (order == OrderIdIndex.MISSING) {
+            return false;
+        }
+        final long delta = newSize - orderSizes[order];
+        orderSizes[order] = newSize;
+        final int level = orderLevels[order];
+        (levelIsBid[level] ? getBids() : getAsks()).add(levelPrices[level], delta);
+        return true;
+    }
+
+    /**
+     * Removes a resting order from the book.
+     *
+     * @param orderIdHigh High 64 bits of the order id
+     * @param orderIdLow Low 64 bits of the order id
+     * @return True if the order was on the book
+     */
+    public boolean done(final long orderIdHigh, final long orderIdLow) {
+        final int order = orderIndex.remove(orderIdHigh, orderIdLow);
+        if (order == OrderIdIndex.MISSING) {
+            return false;
+        }
+        final int level = orderLevels[order];
+        final long price = levelPrices[level];
+        final boolean isBid = levelIsBid[level];
+        (isBid ? getBids() : getAsks()).add(price, -orderSizes[order]);
+
+        final int next = orderNext[order];
+        final int prev = orderPrev[order];
+        if (prev == NIL) {
+            levelHeads[level] = next;
+        } else {
+            orderNext[prev] = next;
+        }
+        if (next == NIL) {
+            levelTails[level] = prev;
+        } else {
+            orderPrev[next] = prev;
+        }
+        if (--levelCounts[level] == 0) {
+            (isBid ? bidLevels : askLevels).remove(price);
+            releaseLevel(level);
+        }
+        releaseOrder(order);
+        return true;
+    }
+
+    /**
+     * Removes all orders and resets the sequence, e.g. before loading a fresh snapshot.
+     */
+    public void clear() {
+        orderIndex.clear();
+        bidLevels.clear();
+        askLevels.clear();
+        getBids().clear();
+        getAsks().clear();
+        freeOrder = NIL;
+        orderHighWater = 0;
+        freeLevel = NIL;
+        levelHighWater = 0;
+        sequence = -1L;
+        loadingSnapshot = false;
+    }
+
+    /**
+     * Removes all orders and starts loading a snapshot. Orders are then added through {@link #open}, best price
+     * first and in time priority within each level, and the load is completed by {@link #setSnapshotSequence}. No
+     * other updates may be applied in between.
+     */
+    public void beginSnapshot() {
+        clear();
+        loadingSnapshot = true;
+    }
+
+    /**
+     * Sets the sequence the book reflects, after loading a snapshot through {@link #open}. Completes a load started
+     * by {@link #beginSnapshot()}, rebuilding the aggregate sizes of both {@link BookSide}s from the price levels.
+     *
+     * @param sequence Snapshot sequence
+     */
+    public void setSnapshotSequence(final long sequence) {
+        if (loadingSnapshot) {
+            loadingSnapshot = false;
+            rebuildSides();
+        }
+        this.sequence = sequence;
+        notifyIfTopChanged();
+    }
+
+    /**
+     * Gets the remaining size of a resting order.
+     *
+     * @param orderId Order id UUID
+     * @return Fixed-point remaining size, or -1 if the order is not on the book
+     */
+    public long orderSize(final CharSequence orderId) {
+        final int order = orderIndex.get(OrderIdIndex.high(orderId), OrderIdIndex.low(orderId));
+        return order == OrderIdIndex.MISSING ? -1 : orderSizes[order];
+    }
+
+    /**
+     * Gets the number of resting orders.
+     *
+     * @return Number of orders
+     */
+    public int orderCount() {
+        return orderIndex.size();
+    }
+
+    /**
+     * Gets the number of resting orders at a price level.
+     *
+     * @param side Side of the level
+     * @param price Fixed-point price
+     * @return Number of orders, zero if there is no such level
+     */
+    public int orderCount(final OrderSide side, final long price) {
+        final int level = (side == OrderSide.BUY ? bidLevels : askLevels).get(price);
+        return level == LongIntHashMap.MISSING ? 0 : levelCounts[level];
+    }
+
+    /**
+     * Visits the resting orders of a price level in time priority, oldest first.
+     *
+     * @param side Side of the level
+     * @param price Fixed-point price
+     * @param visitor {@link OrderVisitor}
+     */
+    public void forEachOrder(final OrderSide side, final long price, final OrderVisitor visitor) {
+        final int level = (side == OrderSide.BUY ? bidLevels : askLevels).get(price);
+        if (level == LongIntHashMap.MISSING) {
+            return;
+        }
+        for (int order = levelHeads[level]; order != NIL; order = orderNext[order]) {
+            visitor.visit(orderIdHighs[order], orderIdLows[order], orderSizes[order]);
+        }
+    }
+
+    /**
+     * Parses the high 64 bits of an order id.
+     *
+     * @param orderId Order id UUID
+     * @return High 64 bits
+     */
+    public static long orderIdHigh(final CharSequence orderId) {
+        return OrderIdIndex.high(orderId);
+    }
+
+    /**
+     * Parses the low 64 bits of an order id.
+     *
+     * @param orderId Order id UUID
+     * @return Low 64 bits
+     */
+    public static long orderIdLow(final CharSequence orderId) {
+        return OrderIdIndex.low(orderId);
+    }
+
+    private void rebuildSides() {
+        getBids().clear();
+        getAsks().clear();
+        // levels are allocated in snapshot order, best first, so each side is appended in reverse sorted order
+        for (int level = 0; level < levelHighWater; level++) {
+            if (levelCounts[level] == 0) {
+                continue;
+            }
+            long size = 0;
+            for (int order = levelHeads[level]; order != NIL; order = orderNext[order]) {
+                size += orderSizes[order];
+            }
+            (levelIsBid[level] ? getBids() : getAsks()).append(levelPrices[level], size);
+        }
+        getBids().finishAppend();
+        getAsks().finishAppend();
+    }
+
+    private int allocateOrder() {
+        if (freeOrder != NIL) {
+            final int order = freeOrder;
+            freeOrder = orderNext[order];
+            return order;
+        }
+        if (orderHighWater == orderSizes.length) {
+            final int capacity = orderSizes.length << 1;
+            orderIdHighs = Arrays.copyOf(orderIdHighs, capacity);
+            orderIdLows = Arrays.copyOf(orderIdLows, capacity);
+            orderSizes = Arrays.copyOf(orderSizes, capacity);
+            orderLevels = Arrays.copyOf(orderLevels, capacity);
+            orderNext = Arrays.copyOf(orderNext, capacity);
+            orderPrev = Arrays.copyOf(orderPrev, capacity);
+        }
+        return orderHighWater++;
+    }
+
+    private void releaseOrder(final int order) {
+        orderNext[order] = freeOrder;
+        freeOrder = order;
+    }
+
+    private int allocateLevel(final long price, final boolean isBid) {
+        final int level;
+        if (freeLevel != NIL) {
+            level = freeLevel;
+            freeLevel = levelHeads[level];
+        } else {
+            if (levelHighWater == levelPrices.length) {
+                final int capacity = levelPrices.length << 1;
+                levelPrices = Arrays.copyOf(levelPrices, capacity);
+                levelIsBid = Arrays.copyOf(levelIsBid, capacity);
+                levelHeads = Arrays.copyOf(levelHeads, capacity);
+                levelTails = Arrays.copyOf(levelTails, capacity);
+                levelCounts = Arrays.copyOf(levelCounts, capacity);
+            }
+            level = levelHighWater++;
+        }
+        levelPrices[level] = price;
+        levelIsBid[level] = isBid;
+        levelHeads[level] = NIL;
+        levelTails[level] = NIL;
+        levelCounts[level] = 0;
+        return level;
+    }
+
+    private void releaseLevel(final int level) {
+        levelHeads[level] = freeLevel;
+        freeLevel = level;
+    }
+}
@@ -0,0 +1,394 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import com.melonbar.core.model.ProductId;
+import com.melonbar.core.util.Format;
+import com.melonbar.core.util.Guard;
+import com.melonbar.exchange.coinbase.model.products.ProductScale;
+import com.melonbar.exchange.coinbase.model.products.ProductScales;
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
+import com.melonbar.exchange.coinbase.websocket.message.full.FullFeedMessage;
+import com.melonbar.exchange.coinbase.websocket.processing.tracking.Tracker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maintains an {@link L3OrderBook} per product from the decoded messages of the full channel. Intended to be
+ * registered as a typed handler for {@link FullFeedMessage}, which routes every full channel message type to it.
+ *
+ * <p> Every message is checked against the last applied sequence of its product. Messages not newer than it are
+ * dropped as duplicates. A message skipping one or more sequence numbers is a gap, after which the book no longer
+ * reflects the exchange. When a {@link SnapshotSource} is provided, the tracker then resynchronizes the product:
+ * <ol>
+ *     <li>live messages of the product are buffered, starting with the one revealing the gap</li>
+ *     <li>a fresh level 3 snapshot is fetched asynchronously</li>
+ *     <li>the book is loaded from the snapshot, buffered messages not newer than the snapshot are discarded, and the
+ *     remaining ones are replayed in order</li>
+ * </ol>
+ * The first message of a product is treated like a gap, so that books start from a snapshot. Without a
+ * {@link SnapshotSource}, books start empty, and gaps are counted and logged but otherwise ignored.
+ *
+ * <p> A failed fetch, or a snapshot too old to connect to the buffered messages, e.g. one served from the
+ * exchange's cache, is retried after an exponential backoff with jitter, starting at
+ * {@link #DEFAULT_INITIAL_RETRY_DELAY} and capped at {@link #DEFAULT_MAX_RETRY_DELAY}, rather than on the next
+ * message, so that a failing or rate limited source is not hammered by the feed. The backoff is reset once a snapshot
+ * is applied. Messages keep being buffered meanwhile.
+ *
+ * <p> Books for different products may be updated from different threads, but messages of any one product must be
+ * delivered by a single thread at a time, which holds for both inline delivery and product-striped ingest. Snapshots
+ * are installed from the thread completing the fetch, under the lock of the product's state.
+ */
+@Slf4j
+public class L3OrderBookTracker implements Tracker<FeedMessage> {
+
+    /**
+     * Default maximum number of messages buffered per product while resynchronizing.
+     */
+    public static final int DEFAULT_MAX_BUFFERED = 1 << 16;
+
+    /**
+     * Default delay before retrying the first failed snapshot fetch of a resync, doubled on each further failure.
+     */
+    public static final Duration DEFAULT_INITIAL_RETRY_DELAY = Duration.ofMillis(500);
+
+    /**
+     * Default longest delay before retrying a failed snapshot fetch.
+     */
+    public static final Duration DEFAULT_MAX_RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final ProductScale productScale;
+    private final SnapshotSource snapshotSource;
+    private final int maxBuffered;
+    private final long initialRetryDelayNanos;
+    private final long maxRetryDelayNanos;
+    private final Map<ProductId, ProductState> productStates = new ConcurrentHashMap<>();
+    private final List<BestPriceListener<L3OrderBook>> bestPriceListeners = new CopyOnWriteArrayList<>();
+
+    private final LongAdder gaps = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+    private final AtomicLong resyncsInProgress = new AtomicLong();
+    private final AtomicLong totalResyncNanos = new AtomicLong();
+    private final AtomicLong maxResyncNanos = new AtomicLong();
+
+    /**
+     * Creates a tracker without resynchronization, whose books use the scales of their product, as registered in
+     * {@link ProductScales}.
+     */
+    public L3OrderBookTracker() {
+        this(null, null);
+    }
+
+    /**
+     * Creates a tracker resynchronizing from the input {@link SnapshotSource}, whose books use the scales of their
+     * product, as registered in {@link ProductScales}.
+     *
+     * @param snapshotSource {@link SnapshotSource}
+     */
+    public L3OrderBookTracker(final SnapshotSource snapshotSource) {
+        this(null, snapshotSource);
+    }
+
+    /**
+     * Creates a tracker whose books all use the input scales.
+     *
+     * @param productScale {@link ProductScale}, or null to use the scales registered in {@link ProductScales}
+     * @param snapshotSource {@link SnapshotSource}, or null to disable resynchronization
+     */
+    public L3OrderBookTracker(final ProductScale productScale, final SnapshotSource snapshotSource) {
+        this(productScale, snapshotSource, DEFAULT_MAX_BUFFERED);
+    }
+
+    /**
+     * Creates a tracker whose books all use the input scales.
+     *
+     * @param productScale {@link ProductScale}, or null to use the scales registered in {@link ProductScales}
+     * @param snapshotSource {@link SnapshotSource}, or null to disable resynchronization
+     * @param maxBuffered Maximum number of messages buffered per product while resynchronizing, the buffer is
+     *                    discarded if exceeded, leading to another snapshot being fetched
+     */
+    public L3OrderBookTracker(final ProductScale productScale,
+                              final SnapshotSource snapshotSource,
+                              final int maxBuffered) {
+        this(productScale, snapshotSource, maxBuffered, DEFAULT_INITIAL_RETRY_DELAY, DEFAULT_MAX_RETRY_DELAY);
+    }
+
+    /**
+     * Creates a tracker whose books all use the input scales.
+     *
+     * @param productScale {@link ProductScale}, or null to use the scales registered in {@link ProductScales}
+     * @param snapshotSource {@link SnapshotSource}, or null to disable resynchronization
+     * @param maxBuffered Maximum number of messages buffered per product while resynchronizing
+     * @param initialRetryDelay Delay before retrying the first failed snapshot fetch of a resync
+     * @param maxRetryDelay Longest delay before retrying a failed snapshot fetch
+     */
+    public L3OrderBookTracker(final ProductScale productScale,
+                              final SnapshotSource snapshotSource,
+                              final int maxBuffered,
+                              final Duration initialRetryDelay,
+                              final Duration maxRetryDelay) {
+        Guard.nonNull(initialRetryDelay, maxRetryDelay);
+        if (initialRetryDelay.isNegative() || maxRetryDelay.compareTo(initialRetryDelay) < 0) {
+            throw new IllegalArgumentException(Format.format("Invalid snapshot retry delays, initial {} and max {}",
+                    initialRetryDelay, maxRetryDelay));
+        }
+        this.productScale = productScale;
+        this.snapshotSource = snapshotSource;
+        this.maxBuffered = maxBuffered;
+        this.initialRetryDelayNanos = initialRetryDelay.toNanos();
+        this.maxRetryDelayNanos = maxRetryDelay.toNanos();
+    }
+
+    /**
+     * Applies an inbound full channel message to the book of its product, subject to sequencing.
+     *
+     * @param message Inbound decoded message
+     */
+    @Override
+    public void update(final FeedMessage message) {
+        if (message.getProductId() == null || message.getSequence() == null) {
+            return;
+        }
+        ProductState productState = productStates.get(message.getProductId());
+        if (productState == null) {
+            productState = createProductState(message.getProductId());
+        }
+        productState.onMessage(message);
+    }
+
+    /**
+     * Gets the book of the input product. The book must only be read from the thread delivering the product's
+     * messages, e.g. from a {@link BestPriceListener}.
+     *
+     * @param productId {@link ProductId}
+     * @return {@link L3OrderBook}, or empty if no message has been received for the product
+     */
+    public Optional<L3OrderBook> getOrderBook(final ProductId productId) {
+        return Optional.ofNullable(productStates.get(productId)).map(ProductState::getOrderBook);
+    }
+
+    /**
+     * Checks whether the book of the input product currently reflects an uninterrupted sequence of messages.
+     *
+     * @param productId {@link ProductId}
+     * @return True if the product's book is in sync, false if unknown or resynchronizing
+     */
+    public boolean isInSync(final ProductId productId) {
+        final ProductState productState = productStates.get(productId);
+        return productState != null && productState.isInSync();
+    }
+
+    /**
+     * Gets the cumulative {@link SequencingMetrics} across all products.
+     *
+     * @return {@link SequencingMetrics}
+     */
+    public SequencingMetrics getSequencingMetrics() {
+        return new SequencingMetrics(
+                gaps.sum(),
+                duplicates.sum(),
+                resyncs.sum(),
+                resyncsInProgress.get(),
+                totalResyncNanos.get(),
+                maxResyncNanos.get());
+    }
+
+    /**
+     * Registers a {@link BestPriceListener} on the books of all products, including those created later on.
+     *
+     * @param listener {@link BestPriceListener}
+     */
+    public void addBestPriceListener(final BestPriceListener<L3OrderBook> listener) {
+        Guard.nonNull(listener);
+        synchronized (bestPriceListeners) {
+            bestPriceListeners.add(listener);
+            productStates.values().forEach(productState -> productState.getOrderBook().addBestPriceListener(listener));
+        }
+    }
+
+    private ProductState createProductState(final ProductId productId) {
+        // under the listener lock, so that a listener added concurrently is registered exactly once
+        synchronized (bestPriceListeners) {
+            return productStates.computeIfAbsent(productId, __ -> {
+                final ProductScale scale = productScale != null
+                        ? productScale
+                        : ProductScales.get(productId.toString());
+                final L3OrderBook orderBook = new L3OrderBook(
+                        productId.toString(), scale.priceScale(), scale.sizeScale());
+                bestPriceListeners.forEach(orderBook::addBestPriceListener);
+                return new ProductState(productId, orderBook);
+            });
+        }
+    }
+
+    /**
+     * Sequencing state of a single product. Guarded by its own monitor, which is only ever contended while a
+     * snapshot is being installed.
+     */
+    private class ProductState {
+
+        private final ProductId productId;
+        private final L3OrderBook orderBook;
+        private final ArrayDeque<FeedMessage> buffer = new ArrayDeque<>();
+        private boolean inSync;
+        private boolean resyncing;
+        // true while a fetch is in flight or a retry is scheduled
+        private boolean fetchInFlight;
+        private int failedFetches;
+        private long resyncStartNanos;
+
+        private ProductState(final ProductId productId, final L3OrderBook orderBook) {
+            this.productId = productId;
+            this.orderBook = orderBook;
+        }
+
+        private L3OrderBook getOrderBook() {
+            return orderBook;
+        }
+
+        private synchronized boolean isInSync() {
+            return inSync;
+        }
+
+        private synchronized void onMessage(final FeedMessage message) {
+            if (resyncing) {
+                bufferMessage(message);
+                requestSnapshot();
+                return;
+            }
+            final long sequence = message.getSequence();
+            final long lastSequence = orderBook.getSequence();
+            if (lastSequence >= 0 && sequence <= lastSequence) {
+                duplicates.increment();
+                return;
+            }
+            if (lastSequence >= 0 && sequence == lastSequence + 1) {
+                orderBook.apply(message);
+                return;
+            }
+            if (lastSequence >= 0) {
+                gaps.increment();
+                log.warn("Sequence gap for [{}], expected {} but got {}", productId, lastSequence + 1, sequence);
+            }
+            if (snapshotSource == null) {
+                // nothing to resynchronize from, carry on from the current message
+                inSync = lastSequence < 0;
+                orderBook.apply(message);
+                return;
+            }
+            inSync = false;
+            resyncing = true;
+            resyncStartNanos = System.nanoTime();
+            resyncsInProgress.incrementAndGet();
+            bufferMessage(message);
+            requestSnapshot();
+        }
+
+        private void bufferMessage(final FeedMessage message) {
+            if (buffer.size() >= maxBuffered) {
+                log.warn("Resync buffer for [{}] exceeded {} messages, discarding it", productId, maxBuffered);
+                buffer.clear();
+            }
+            buffer.addLast(message);
+        }
+
+        private void requestSnapshot() {
+            if (fetchInFlight) {
+                return;
+            }
+            fetchInFlight = true;
+            snapshotSource.fetch(productId, orderBook.getPriceScale(), orderBook.getSizeScale())
+                    .whenComplete(this::onSnapshot);
+        }
+
+        private synchronized void onSnapshot(final OrderBookSnapshot snapshot, final Throwable throwable) {
+            if (throwable != null) {
+                scheduleRetry("Failed to fetch order book snapshot", throwable);
+                return;
+            }
+            while (!buffer.isEmpty() && buffer.peekFirst().getSequence() <= snapshot.getSequence()) {
+                buffer.pollFirst();
+            }
+            if (!buffer.isEmpty() && buffer.peekFirst().getSequence() != snapshot.getSequence() + 1) {
+                // buffered messages no longer connect to the snapshot, e.g. after discarding an overflowing buffer
+                scheduleRetry(Format.format("Snapshot {} predates buffered sequence {}", snapshot.getSequence(),
+                        buffer.peekFirst().getSequence()), null);
+                return;
+            }
+            fetchInFlight = false;
+            failedFetches = 0;
+            snapshot.loadInto(orderBook);
+            FeedMessage message;
+            while ((message = buffer.pollFirst()) != null) {
+                final long expected = orderBook.getSequence() + 1;
+                if (message.getSequence() < expected) {
+                    duplicates.increment();
+                } else if (message.getSequence() == expected) {
+                    orderBook.apply(message);
+                } else {
+                    gaps.increment();
+                    log.warn("Sequence gap for [{}] while replaying, expected {} but got {}",
+                            productId, expected, message.getSequence());
+                    buffer.addFirst(message);
+                    requestSnapshot();
+                    return;
+                }
+            }
+            final long duration = System.nanoTime() - resyncStartNanos;
+            resyncing = false;
+            inSync = true;
+            resyncs.increment();
+            resyncsInProgress.decrementAndGet();
+            totalResyncNanos.addAndGet(duration);
+            maxResyncNanos.accumulateAndGet(duration, Math::max);
+            log.info("Resynchronized [{}] at sequence {} with {} orders in {} ms",
+                    productId, orderBook.getSequence(), orderBook.orderCount(), duration / 1_000_000);
+        }
+
+        /**
+         * Schedules another fetch after an unusable one, keeping further messages from requesting one meanwhile.
+         *
+         * @param reason Why the fetch is unusable, for the log
+         * @param throwable Failure of the fetch, or null if it returned a stale snapshot
+         */
+        private void scheduleRetry(final String reason, final Throwable throwable) {
+            final long delayNanos = retryDelayNanos(failedFetches++);
+            log.warn("{} for [{}], attempt {}, retrying in {} ms", reason, productId, failedFetches,
+                    TimeUnit.NANOSECONDS.toMillis(delayNanos), throwable);
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(this::retrySnapshot);
+        }
+
+        private synchronized void retrySnapshot() {
+            fetchInFlight = false;
+            if (resyncing) {
+                requestSnapshot();
+            }
+        }
+
+        /**
+         * Computes the backoff before a retry, with equal jitter: half the exponential delay, plus a random share of
+         * the other half, so that products failing together do not retry in lockstep.
+         *
+         * @param failures Number of fetches failed in a row before this one
+         * @return Delay in nanoseconds
+         */
+        private long retryDelayNanos(final int failures) {
+            // shifting further would overflow
+            final long cappedNanos = failures < Long.numberOfLeadingZeros(initialRetryDelayNanos) - 1
+                    ? Math.min(initialRetryDelayNanos << failures, maxRetryDelayNanos)
+                    : maxRetryDelayNanos;
+            return cappedNanos / 2 + ThreadLocalRandom.current().nextLong(cappedNanos / 2 + 1);
+        }
+    }
+}
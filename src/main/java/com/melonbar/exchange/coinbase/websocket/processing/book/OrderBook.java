@@ -0,0 +1,175 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import com.melonbar.core.util.Guard;
+import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
+import com.melonbar.exchange.coinbase.util.FixedPoint;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Base of the order books of a single product. Holds the aggregate size per price level of both sides, the
+ * fixed-point scales, and notifies {@link BestPriceListener}s when the top of the book changes.
+ *
+ * <p> Prices and sizes are held as {@link FixedPoint fixed-point} longs: the decimal value multiplied by
+ * <code>10^scale</code>, with separate scales for prices and sizes. A scale at least as large as the number of
+ * decimals of the product's quote and base increments represents every wire value exactly; a wire value with more
+ * decimals than the scale is rejected with an {@link ArithmeticException} rather than silently rounded.
+ *
+ * <p> Not thread-safe, a book must only be updated and read by a single thread at a time, typically the thread
+ * handling its product's messages.
+ *
+ * @param <B> Concrete order book type, passed to {@link BestPriceListener}s
+ */
+public abstract class OrderBook<B extends OrderBook<B>> {
+
+    private static final int INITIAL_DEPTH = 1024;
+
+    @SuppressWarnings("rawtypes")
+    private static final BestPriceListener[] NO_LISTENERS = new BestPriceListener[0];
+
+    @Getter
+    private final String productId;
+    @Getter
+    private final int priceScale;
+    @Getter
+    private final int sizeScale;
+    @Getter
+    private final BookSide bids = new BookSide(OrderSide.BUY, INITIAL_DEPTH);
+    @Getter
+    private final BookSide asks = new BookSide(OrderSide.SELL, INITIAL_DEPTH);
+
+    @SuppressWarnings("unchecked")
+    private volatile BestPriceListener<B>[] listeners = NO_LISTENERS;
+
+    private long topBidPrice = BookSide.NO_PRICE;
+    private long topBidSize;
+    private long topAskPrice = BookSide.NO_PRICE;
+    private long topAskSize;
+
+    /**
+     * Creates an empty order book.
+     *
+     * @param productId Product id, e.g. <code>BTC-USD</code>
+     * @param priceScale Number of decimals kept for prices
+     * @param sizeScale Number of decimals kept for sizes
+     */
+    protected OrderBook(final String productId, final int priceScale, final int sizeScale) {
+        Guard.nonNull(productId);
+        this.productId = productId;
+        this.priceScale = priceScale;
+        this.sizeScale = sizeScale;
+    }
+
+    /**
+     * Registers a {@link BestPriceListener}.
+     *
+     * @param listener {@link BestPriceListener}
+     */
+    public synchronized void addBestPriceListener(final BestPriceListener<B> listener) {
+        Guard.nonNull(listener);
+        final BestPriceListener<B>[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Gets the best bid price.
+     *
+     * @return Fixed-point best bid, or {@link BookSide#NO_PRICE} if there are no bids
+     */
+    public long bestBid() {
+        return bids.bestPrice();
+    }
+
+    /**
+     * Gets the best ask price.
+     *
+     * @return Fixed-point best ask, or {@link BookSide#NO_PRICE} if there are no asks
+     */
+    public long bestAsk() {
+        return asks.bestPrice();
+    }
+
+    /**
+     * Gets the side of the book holding orders of the input {@link OrderSide}.
+     *
+     * @param side {@link OrderSide}
+     * @return Bids for {@link OrderSide#BUY}, asks for {@link OrderSide#SELL}
+     */
+    public BookSide side(final OrderSide side) {
+        return side == OrderSide.BUY ? bids : asks;
+    }
+
+    /**
+     * Converts a fixed-point price held by this book into a {@link BigDecimal}.
+     *
+     * @param price Fixed-point price
+     * @return {@link BigDecimal} price
+     */
+    public BigDecimal priceOf(final long price) {
+        return FixedPoint.toBigDecimal(price, priceScale);
+    }
+
+    /**
+     * Converts a fixed-point size held by this book into a {@link BigDecimal}.
+     *
+     * @param size Fixed-point size
+     * @return {@link BigDecimal} size
+     */
+    public BigDecimal sizeOf(final long size) {
+        return FixedPoint.toBigDecimal(size, sizeScale);
+    }
+
+    /**
+     * Converts a {@link BigDecimal} price into this book's fixed-point representation.
+     *
+     * @param price {@link BigDecimal} price
+     * @return Fixed-point price
+     * @throws ArithmeticException If the price has more decimals than the price scale
+     */
+    public long toPrice(final BigDecimal price) {
+        return FixedPoint.fromBigDecimal(price, priceScale);
+    }
+
+    /**
+     * Converts a {@link BigDecimal} size into this book's fixed-point representation.
+     *
+     * @param size {@link BigDecimal} size
+     * @return Fixed-point size
+     * @throws ArithmeticException If the size has more decimals than the size scale
+     */
+    public long toSize(final BigDecimal size) {
+        return FixedPoint.fromBigDecimal(size, sizeScale);
+    }
+
+    /**
+     * Notifies the {@link BestPriceListener}s if the best price or size of either side changed since the last
+     * notification. Implementations invoke this once after applying each message.
+     */
+    @SuppressWarnings("unchecked")
+    protected void notifyIfTopChanged() {
+        final long bidPrice = bids.bestPrice();
+        final long bidSize = bids.bestSize();
+        final long askPrice = asks.bestPrice();
+        final long askSize = asks.bestSize();
+        if (bidPrice == topBidPrice && bidSize == topBidSize && askPrice == topAskPrice && askSize == topAskSize) {
+            return;
+        }
+        topBidPrice = bidPrice;
+        topBidSize = bidSize;
+        topAskPrice = askPrice;
+        topAskSize = askSize;
+        for (final BestPriceListener<B> listener : listeners) {
+            listener.onBestPriceChange((B) this, bidPrice, askPrice);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return productId + " " + (bids.isEmpty() ? "-" : priceOf(bids.bestPrice()).toPlainString())
+                + " / " + (asks.isEmpty() ? "-" : priceOf(asks.bestPrice()).toPlainString())
+                + " (" + bids.depth() + " bids, " + asks.depth() + " asks)";
+    }
+}
@@ -0,0 +1,163 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.melonbar.core.util.Format;
+import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
+import com.melonbar.exchange.coinbase.util.FixedPoint;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Level 3 order book snapshot, as returned by the REST order book resource with <code>level=3</code>, held in
+ * primitive arrays ready to be {@link #loadInto loaded} into an {@link L3OrderBook}.
+ *
+ * <p> Snapshots of liquid products hold tens of thousands of orders, so the response is read with the Jackson
+ * streaming API rather than bound to a tree, and prices and sizes are parsed into their fixed-point form straight
+ * from the parser's character buffer.
+ */
+public class OrderBookSnapshot {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Getter
+    private final long sequence;
+    private final Orders bids;
+    private final Orders asks;
+
+    private OrderBookSnapshot(final long sequence, final Orders bids, final Orders asks) {
+        this.sequence = sequence;
+        this.bids = bids;
+        this.asks = asks;
+    }
+
+    /**
+     * Parses a level 3 order book response body. Each order is an array of price, size and order id.
+     *
+     * @param json Response body
+     * @param priceScale Number of decimals kept for prices
+     * @param sizeScale Number of decimals kept for sizes
+     * @return {@link OrderBookSnapshot}
+     * @throws IllegalArgumentException If the body is not a level 3 order book
+     */
+    public static OrderBookSnapshot parse(final String json, final int priceScale, final int sizeScale) {
+        long sequence = -1L;
+        Orders bids = new Orders(0);
+        Orders asks = new Orders(0);
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Expected order book object, got: " + abbreviate(json));
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "sequence" -> sequence = parser.getValueAsLong();
+                    case "bids" -> bids = parseOrders(parser, priceScale, sizeScale);
+                    case "asks" -> asks = parseOrders(parser, priceScale, sizeScale);
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException ioException) {
+            throw new UncheckedIOException("Failed to parse order book snapshot", ioException);
+        }
+        if (sequence < 0) {
+            throw new IllegalArgumentException("Order book snapshot has no sequence: " + abbreviate(json));
+        }
+        return new OrderBookSnapshot(sequence, bids, asks);
+    }
+
+    /**
+     * Replaces the content of the input book with this snapshot, and sets its sequence to the snapshot sequence.
+     *
+     * @param orderBook {@link L3OrderBook}
+     */
+    public void loadInto(final L3OrderBook orderBook) {
+        orderBook.beginSnapshot();
+        bids.loadInto(orderBook, OrderSide.BUY);
+        asks.loadInto(orderBook, OrderSide.SELL);
+        orderBook.setSnapshotSequence(sequence);
+    }
+
+    /**
+     * Gets the number of orders in the snapshot.
+     *
+     * @return Number of bids and asks
+     */
+    public int orderCount() {
+        return bids.count + asks.count;
+    }
+
+    private static Orders parseOrders(final JsonParser parser, final int priceScale, final int sizeScale)
+            throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Expected array of orders, got " + parser.currentToken());
+        }
+        final Orders orders = new Orders(1024);
+        while (parser.nextToken() == JsonToken.START_ARRAY) {
+            parser.nextToken();
+            final long price = FixedPoint.parse(
+                    parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength(), priceScale);
+            parser.nextToken();
+            final long size = FixedPoint.parse(
+                    parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength(), sizeScale);
+            parser.nextToken();
+            final String orderId = parser.getText();
+            orders.add(OrderIdIndex.high(orderId), OrderIdIndex.low(orderId), price, size);
+            // skip any trailing elements
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                parser.skipChildren();
+            }
+        }
+        return orders;
+    }
+
+    private static String abbreviate(final String json) {
+        return json.length() > 256 ? Format.format("{}...", json.substring(0, 256)) : json;
+    }
+
+    /**
+     * Orders of one side, in parallel primitive arrays.
+     */
+    private static class Orders {
+
+        private long[] highs;
+        private long[] lows;
+        private long[] prices;
+        private long[] sizes;
+        private int count;
+
+        private Orders(final int capacity) {
+            highs = new long[capacity];
+            lows = new long[capacity];
+            prices = new long[capacity];
+            sizes = new long[capacity];
+        }
+
+        private void add(final long high, final long low, final long price, final long size) {
+            if (count == highs.length) {
+                final int capacity = Math.max(count << 1, 16);
+                highs = Arrays.copyOf(highs, capacity);
+                lows = Arrays.copyOf(lows, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+            }
+            highs[count] = high;
+            lows[count] = low;
+            prices[count] = price;
+            sizes[count] = size;
+            count++;
+        }
+
+        private void loadInto(final L3OrderBook orderBook, final OrderSide side) {
+            // snapshot lists orders in time priority within each level, so queue order is preserved
+            for (int i = 0; i < count; i++) {
+                orderBook.open(highs[i], lows[i], side, prices[i], sizes[i]);
+            }
+        }
+    }
+}
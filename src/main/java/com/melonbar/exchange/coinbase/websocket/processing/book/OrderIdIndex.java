@@ -0,0 +1,172 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from 128-bit order ids to non-negative <code>int</code> order slots. Order ids are UUIDs,
+ * stored as their high and low 64 bits rather than as {@link String}s, so that lookups neither allocate nor hash
+ * character data. Uses linear probing with backward-shift deletion, keeping probe sequences short under the constant
+ * open/done churn of the full channel.
+ */
+class OrderIdIndex {
+
+    static final int MISSING = -1;
+
+    private long[] highs;
+    private long[] lows;
+    /**
+     * Values offset by one, so that zero marks an empty slot.
+     */
+    private int[] values;
+    private int mask;
+    private int size;
+
+    OrderIdIndex(final int expectedSize) {
+        final int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        highs = new long[capacity];
+        lows = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    int get(final long high, final long low) {
+        for (int slot = hash(high, low) & mask; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (highs[slot] == high && lows[slot] == low) {
+                return values[slot] - 1;
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Associates the input order id with the input value, unless the order id is already present.
+     *
+     * @return True if added, false if the order id was already present
+     */
+    boolean putIfAbsent(final long high, final long low, final int value) {
+        int slot = hash(high, low) & mask;
+        for (; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (highs[slot] == high && lows[slot] == low) {
+                return false;
+            }
+        }
+        highs[slot] = high;
+        lows[slot] = low;
+        values[slot] = value + 1;
+        if (++size * 2 > values.length) {
+            grow();
+        }
+        return true;
+    }
+
+    int remove(final long high, final long low) {
+        for (int slot = hash(high, low) & mask; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (highs[slot] == high && lows[slot] == low) {
+                final int value = values[slot] - 1;
+                shiftBack(slot);
+                size--;
+                return value;
+            }
+        }
+        return MISSING;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == 0) {
+                break;
+            }
+            // move the entry into the gap unless its home slot lies cyclically within (gap, slot]
+            final int home = hash(highs[slot], lows[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                highs[gap] = highs[slot];
+                lows[gap] = lows[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        values[gap] = 0;
+    }
+
+    private void grow() {
+        final long[] oldHighs = highs;
+        final long[] oldLows = lows;
+        final int[] oldValues = values;
+        highs = new long[oldHighs.length << 1];
+        lows = new long[oldLows.length << 1];
+        values = new int[oldValues.length << 1];
+        mask = values.length - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = hash(oldHighs[i], oldLows[i]) & mask;
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                highs[slot] = oldHighs[i];
+                lows[slot] = oldLows[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(final long high, final long low) {
+        // UUIDs are already random, folding both halves is enough
+        return LongIntHashMap.hash(high ^ Long.rotateLeft(low, 32));
+    }
+
+    /**
+     * Parses the high 64 bits of a UUID in canonical <code>8-4-4-4-12</code> form.
+     *
+     * @param orderId UUID characters
+     * @return High 64 bits
+     * @throws IllegalArgumentException If <code>orderId</code> is not a UUID
+     */
+    static long high(final CharSequence orderId) {
+        checkFormat(orderId);
+        // 8-4-4 hex digits before the third dash
+        return (parseHex(orderId, 0, 8) << 32) | (parseHex(orderId, 9, 13) << 16) | parseHex(orderId, 14, 18);
+    }
+
+    /**
+     * Parses the low 64 bits of a UUID in canonical <code>8-4-4-4-12</code> form.
+     *
+     * @param orderId UUID characters
+     * @return Low 64 bits
+     * @throws IllegalArgumentException If <code>orderId</code> is not a UUID
+     */
+    static long low(final CharSequence orderId) {
+        checkFormat(orderId);
+        // 4-12 hex digits after the third dash
+        return (parseHex(orderId, 19, 23) << 48) | parseHex(orderId, 24, 36);
+    }
+
+    private static void checkFormat(final CharSequence orderId) {
+        if (orderId.length() != 36 || orderId.charAt(8) != '-' || orderId.charAt(13) != '-'
+                || orderId.charAt(18) != '-' || orderId.charAt(23) != '-') {
+            throw new IllegalArgumentException("Not a UUID: " + orderId);
+        }
+    }
+
+    private static long parseHex(final CharSequence source, final int start, final int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            final int digit = Character.digit(source.charAt(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Not a UUID: " + source);
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+}
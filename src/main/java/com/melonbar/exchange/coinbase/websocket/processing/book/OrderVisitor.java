@@ -0,0 +1,17 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+/**
+ * Visitor over the resting orders of a price level of an {@link L3OrderBook}, in time priority.
+ */
+@FunctionalInterface
+public interface OrderVisitor {
+
+    /**
+     * Visits a single resting order.
+     *
+     * @param orderIdHigh High 64 bits of the order id
+     * @param orderIdLow Low 64 bits of the order id
+     * @param size Fixed-point remaining size
+     */
+    void visit(final long orderIdHigh, final long orderIdLow, final long size);
+}
@@ -0,0 +1,94 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import com.melonbar.core.http.HttpClient;
+import com.melonbar.core.http.response.Response;
+import com.melonbar.core.model.ProductId;
+import com.melonbar.core.util.Guard;
+import com.melonbar.exchange.coinbase.authentication.Authentication;
+import com.melonbar.exchange.coinbase.authentication.NoAuthentication;
+import com.melonbar.exchange.coinbase.enrichment.RequestEnricher;
+import com.melonbar.exchange.coinbase.model.products.ProductOrderBookRequest;
+import com.melonbar.exchange.coinbase.rest.CoinbaseProRestClientFactory;
+import com.melonbar.exchange.coinbase.rest.api.marketdata.MarketDataApi;
+import com.melonbar.exchange.coinbase.rest.api.marketdata.MarketDataApiImpl;
+import com.melonbar.exchange.coinbase.rest.api.resource.Resource;
+import com.melonbar.exchange.coinbase.exception.TransientException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link SnapshotSource} fetching level 3 snapshots from {@link Resource#PRODUCT_ORDER_BOOK} through
+ * {@link MarketDataApi#getProductOrderBook}. The blocking request and the parsing of the response both run on the
+ * provided {@link Executor}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RestSnapshotSource implements SnapshotSource {
+
+    private static final int FULL_ORDER_BOOK_LEVEL = 3;
+
+    private final MarketDataApi marketDataApi;
+    private final Executor executor;
+
+    /**
+     * Creates a source using an unauthenticated {@link MarketDataApi}, as the order book resource is public, sending
+     * through the rate limiting and retry layers of
+     * {@link CoinbaseProRestClientFactory#createHttpClient(Authentication)}, so that snapshots share the budget of the
+     * other clients.
+     *
+     * @return {@link RestSnapshotSource}
+     */
+    public static RestSnapshotSource create() {
+        return create(CoinbaseProRestClientFactory.createHttpClient(new NoAuthentication()), newFetchExecutor());
+    }
+
+    /**
+     * Creates a source using an unauthenticated {@link MarketDataApi}.
+     *
+     * @param httpClient {@link HttpClient} sending the requests, typically rate limited
+     * @param executor {@link Executor} running the blocking requests, which must not be shared with latency sensitive
+     *                 work such as feed handling
+     * @return {@link RestSnapshotSource}
+     */
+    public static RestSnapshotSource create(final HttpClient httpClient, final Executor executor) {
+        Guard.nonNull(httpClient, executor);
+        return new RestSnapshotSource(new MarketDataApiImpl(httpClient, new RequestEnricher()), executor);
+    }
+
+    /**
+     * Creates the executor of {@link #create()}, a single daemon thread, as snapshot requests are serialized by the
+     * rate limit of public endpoints anyway.
+     *
+     * @return {@link Executor}
+     */
+    private static Executor newFetchExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "coinbase-pro-snapshot-fetcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CompletableFuture<OrderBookSnapshot> fetch(final ProductId productId,
+                                                      final int priceScale,
+                                                      final int sizeScale) {
+        Guard.nonNull(productId);
+        return CompletableFuture.supplyAsync(() -> {
+            log.info("Fetching level {} order book snapshot for [{}]", FULL_ORDER_BOOK_LEVEL, productId);
+            final Response response = marketDataApi.getProductOrderBook(
+                    ProductOrderBookRequest.builder()
+                            .productId(productId)
+                            .level(FULL_ORDER_BOOK_LEVEL)
+                            .build());
+            if (response == null || response.content() == null) {
+                throw new TransientException("Received no order book snapshot for " + productId);
+            }
+            return OrderBookSnapshot.parse(response.content(), priceScale, sizeScale);
+        }, executor);
+    }
+}
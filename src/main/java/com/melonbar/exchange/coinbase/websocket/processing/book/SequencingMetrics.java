@@ -0,0 +1,28 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+/**
+ * Cumulative sequencing metrics of an {@link L3OrderBookTracker}, across all products.
+ *
+ * @param gaps Number of sequence gaps detected, i.e. messages skipping at least one sequence number
+ * @param duplicates Number of messages dropped for not being newer than the last applied sequence
+ * @param resyncs Number of completed resynchronizations from a snapshot
+ * @param resyncsInProgress Number of products currently buffering messages while awaiting a snapshot
+ * @param totalResyncNanos Total time spent resynchronizing, from gap detection to replay completion
+ * @param maxResyncNanos Longest single resynchronization
+ */
+public record SequencingMetrics(long gaps,
+                                long duplicates,
+                                long resyncs,
+                                long resyncsInProgress,
+                                long totalResyncNanos,
+                                long maxResyncNanos) {
+
+    /**
+     * Gets the mean duration of a resynchronization.
+     *
+     * @return Mean duration in nanoseconds, zero if no resynchronization completed
+     */
+    public long meanResyncNanos() {
+        return resyncs == 0 ? 0 : totalResyncNanos / resyncs;
+    }
+}
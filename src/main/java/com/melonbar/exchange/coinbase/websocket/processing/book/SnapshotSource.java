@@ -0,0 +1,23 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import com.melonbar.core.model.ProductId;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous source of {@link OrderBookSnapshot}s, used to resynchronize an order book after a sequence gap.
+ */
+@FunctionalInterface
+public interface SnapshotSource {
+
+    /**
+     * Fetches a fresh level 3 snapshot of the input product. Must not block the calling thread, which is typically
+     * the thread handling inbound feed messages.
+     *
+     * @param productId {@link ProductId}
+     * @param priceScale Number of decimals kept for prices
+     * @param sizeScale Number of decimals kept for sizes
+     * @return {@link CompletableFuture} completed with the snapshot, or exceptionally if it could not be fetched
+     */
+    CompletableFuture<OrderBookSnapshot> fetch(final ProductId productId, final int priceScale, final int sizeScale);
+}
@@ -0,0 +1,29 @@
+package com.melonbar.exchange.coinbase.websocket.processing.candle;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+
+/**
+ * Single OHLCV bar, in the shape returned by the product candles resource.
+ *
+ * @param time Start of the bucket, in epoch seconds
+ * @param low Lowest traded price
+ * @param high Highest traded price
+ * @param open Price of the first trade
+ * @param close Price of the last trade
+ * @param volume Traded volume, in base currency
+ */
+public record Candle(long time, BigDecimal low, BigDecimal high, BigDecimal open, BigDecimal close,
+                     BigDecimal volume) {
+
+    /**
+     * Serializes the bar as <code>[time, low, high, open, close, volume]</code>, as in the candles resource.
+     *
+     * @return Bar as an array of numbers
+     */
+    @JsonValue
+    public Object[] toJson() {
+        return new Object[]{time, low, high, open, close, volume};
+    }
+}
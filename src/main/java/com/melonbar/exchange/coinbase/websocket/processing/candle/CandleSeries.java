@@ -0,0 +1,164 @@
+package com.melonbar.exchange.coinbase.websocket.processing.candle;
+
+import com.melonbar.exchange.coinbase.model.products.Granularity;
+import lombok.Getter;
+
+/**
+ * Live OHLCV bars of one product at one {@link Granularity}, held in a ring of parallel primitive arrays. Prices and
+ * sizes are {@link com.melonbar.exchange.coinbase.util.FixedPoint fixed-point} longs at the scales of the owning
+ * {@link CandleTracker}.
+ *
+ * <p> Only the latest {@link #getCapacity() capacity} bars are kept, older bars are overwritten as new buckets open.
+ * As with the candles resource, buckets without trades have no bar. Recording a trade never allocates.
+ *
+ * <p> Not thread-safe, guarded by the owning {@link CandleTracker}.
+ */
+public class CandleSeries {
+
+    @Getter
+    private final Granularity granularity;
+    @Getter
+    private final int capacity;
+    private final long bucketSeconds;
+    private final long[] times;
+    private final long[] opens;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] closes;
+    private final long[] volumes;
+    /**
+     * Index of the latest bar, -1 while no trade has been recorded.
+     */
+    private int head = -1;
+    private int count;
+
+    /**
+     * Creates an empty series.
+     *
+     * @param granularity Bucket width
+     * @param capacity Number of bars kept
+     */
+    public CandleSeries(final Granularity granularity, final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+        this.granularity = granularity;
+        this.capacity = capacity;
+        this.bucketSeconds = granularity.getSeconds();
+        this.times = new long[capacity];
+        this.opens = new long[capacity];
+        this.highs = new long[capacity];
+        this.lows = new long[capacity];
+        this.closes = new long[capacity];
+        this.volumes = new long[capacity];
+    }
+
+    /**
+     * Records a trade into the bar of its bucket, opening a new bar if the trade starts a new bucket. Trades older
+     * than the latest bar are ignored, since trades are expected in trade id order.
+     *
+     * @param epochSeconds Trade time, in epoch seconds
+     * @param price Fixed-point trade price
+     * @param size Fixed-point trade size
+     * @return True if the trade was recorded, false if it was older than the latest bar
+     */
+    public boolean record(final long epochSeconds, final long price, final long size) {
+        final long bucket = epochSeconds - Math.floorMod(epochSeconds, bucketSeconds);
+        if (head >= 0 && bucket == times[head]) {
+            highs[head] = Math.max(highs[head], price);
+            lows[head] = Math.min(lows[head], price);
+            closes[head] = price;
+            volumes[head] += size;
+            return true;
+        }
+        if (head >= 0 && bucket < times[head]) {
+            return false;
+        }
+        head = head + 1 == capacity ? 0 : head + 1;
+        count = Math.min(count + 1, capacity);
+        times[head] = bucket;
+        opens[head] = price;
+        highs[head] = price;
+        lows[head] = price;
+        closes[head] = price;
+        volumes[head] = size;
+        return true;
+    }
+
+    /**
+     * Gets the number of bars currently held.
+     *
+     * @return Bar count, at most {@link #getCapacity()}
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Gets the bucket start of a bar.
+     *
+     * @param age Age of the bar, zero for the latest
+     * @return Bucket start, in epoch seconds
+     */
+    public long time(final int age) {
+        return times[index(age)];
+    }
+
+    /**
+     * Gets the open of a bar.
+     *
+     * @param age Age of the bar, zero for the latest
+     * @return Fixed-point open price
+     */
+    public long open(final int age) {
+        return opens[index(age)];
+    }
+
+    /**
+     * Gets the high of a bar.
+     *
+     * @param age Age of the bar, zero for the latest
+     * @return Fixed-point high price
+     */
+    public long high(final int age) {
+        return highs[index(age)];
+    }
+
+    /**
+     * Gets the low of a bar.
+     *
+     * @param age Age of the bar, zero for the latest
+     * @return Fixed-point low price
+     */
+    public long low(final int age) {
+        return lows[index(age)];
+    }
+
+    /**
+     * Gets the close of a bar.
+     *
+     * @param age Age of the bar, zero for the latest
+     * @return Fixed-point close price
+     */
+    public long close(final int age) {
+        return closes[index(age)];
+    }
+
+    /**
+     * Gets the volume of a bar.
+     *
+     * @param age Age of the bar, zero for the latest
+     * @return Fixed-point volume
+     */
+    public long volume(final int age) {
+        return volumes[index(age)];
+    }
+
+    private int index(final int age) {
+        if (age < 0 || age >= count) {
+            throw new IndexOutOfBoundsException("Bar age " + age + " out of bounds for " + count + " bars");
+        }
+        final int index = head - age;
+        return index < 0 ? index + capacity : index;
+    }
+}
@@ -0,0 +1,249 @@
+package com.melonbar.exchange.coinbase.websocket.processing.candle;
+
+import com.melonbar.core.model.ProductId;
+import com.melonbar.exchange.coinbase.model.products.Granularity;
+import com.melonbar.exchange.coinbase.model.products.ProductScale;
+import com.melonbar.exchange.coinbase.model.products.ProductScales;
+import com.melonbar.exchange.coinbase.util.FixedPoint;
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
+import com.melonbar.exchange.coinbase.websocket.message.TickerMessage;
+import com.melonbar.exchange.coinbase.websocket.message.full.MatchedOrderMessage;
+import com.melonbar.exchange.coinbase.websocket.processing.tracking.Tracker;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains live OHLCV bars of every {@link Granularity} at once, per product, from the trades carried by
+ * {@link MatchedOrderMessage}s of the full or matches channels and {@link TickerMessage}s of the ticker channel.
+ * Intended to be registered as a typed handler for either or both, e.g.
+ * <pre>{@code
+ * builder.withTypedMessageHandlers(MatchedOrderMessage.class, tracker::update)
+ *        .withTypedMessageHandlers(TickerMessage.class, tracker::update);
+ * }</pre>
+ *
+ * <p> Matches are the source of truth: every trade is published as a match, including the
+ * <code>last_match</code> sent on subscription, whereas tickers may skip trades. Tickers are therefore only used as a
+ * fallback, for products that have not received a match within the last {@value #MATCH_TIMEOUT_SECONDS} seconds
+ * of trade time. Trades are deduplicated by trade id against a window of the last {@value #TRADE_WINDOW} ids, so
+ * subscribing to both channels does not count a trade twice, while trades arriving slightly out of order are still
+ * counted. Each trade updates one {@link CandleSeries} per granularity, without allocating. {@link #getCandles}
+ * returns bars in the shape of the product candles resource, newest first, making polling that resource unnecessary
+ * for products tracked since before the requested range.
+ *
+ * <p> Updates of a product and reads of its bars are serialized by a per-product lock, products are independent.
+ */
+@Slf4j
+public class CandleTracker implements Tracker<FeedMessage> {
+
+    /**
+     * Default number of bars kept per product and granularity, the most the candles resource returns at once.
+     */
+    public static final int DEFAULT_CAPACITY = 300;
+
+    /**
+     * Number of most recent trade ids remembered per product for deduplication, a power of two.
+     */
+    static final int TRADE_WINDOW = 1024;
+
+    /**
+     * Trade time after the last match from which tickers of the same product are recorded again.
+     */
+    static final long MATCH_TIMEOUT_SECONDS = 60;
+
+    private static final Granularity[] GRANULARITIES = Granularity.values();
+
+    private final int capacity;
+    private final Map<ProductId, ProductCandles> productCandles = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a tracker keeping {@value #DEFAULT_CAPACITY} bars per product and granularity.
+     */
+    public CandleTracker() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a tracker keeping the input number of bars per product and granularity.
+     *
+     * @param capacity Number of bars kept per product and granularity
+     */
+    public CandleTracker(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Records the trade of an inbound {@link MatchedOrderMessage} or {@link TickerMessage}. Other message types,
+     * messages missing any of trade id, time, price or size, and tickers of products whose matches are being
+     * received, are ignored.
+     *
+     * @param message Inbound decoded message
+     */
+    @Override
+    public void update(final FeedMessage message) {
+        if (message instanceof MatchedOrderMessage matchedOrderMessage) {
+            record(message.getProductId(), matchedOrderMessage.getTradeId(), message.getTime(),
+                    matchedOrderMessage.getPrice(), matchedOrderMessage.getOrderSize(), true);
+        } else if (message instanceof TickerMessage tickerMessage) {
+            record(message.getProductId(), tickerMessage.getTradeId(), message.getTime(),
+                    tickerMessage.getPrice(), tickerMessage.getLastSize(), false);
+        }
+    }
+
+    /**
+     * Gets the bars of a product at the input granularity, newest first, as returned by the candles resource. The
+     * newest bar is still open and keeps changing until its bucket ends.
+     *
+     * @param productId {@link ProductId}
+     * @param granularity {@link Granularity}
+     * @return Bars, empty if no trade has been recorded for the product
+     */
+    public List<Candle> getCandles(final ProductId productId, final Granularity granularity) {
+        final ProductCandles candles = productCandles.get(productId);
+        return candles == null ? Collections.emptyList() : candles.toCandles(granularity);
+    }
+
+    /**
+     * Gets the bars of a product at the input granularity whose bucket starts within the input range, newest first,
+     * as returned by the candles resource for the same <code>start</code> and <code>end</code>.
+     *
+     * @param productId {@link ProductId}
+     * @param granularity {@link Granularity}
+     * @param start Start of the range, inclusive
+     * @param end End of the range, inclusive
+     * @return Bars within the range
+     */
+    public List<Candle> getCandles(final ProductId productId,
+                                   final Granularity granularity,
+                                   final DateTime start,
+                                   final DateTime end) {
+        final long startSeconds = start.getMillis() / 1000;
+        final long endSeconds = end.getMillis() / 1000;
+        final List<Candle> candles = new ArrayList<>();
+        for (final Candle candle : getCandles(productId, granularity)) {
+            if (candle.time() >= startSeconds && candle.time() <= endSeconds) {
+                candles.add(candle);
+            }
+        }
+        return candles;
+    }
+
+    private void record(final ProductId productId,
+                        final Long tradeId,
+                        final DateTime time,
+                        final BigDecimal price,
+                        final BigDecimal size,
+                        final boolean match) {
+        if (productId == null || tradeId == null || time == null || price == null || size == null) {
+            return;
+        }
+        productCandles.computeIfAbsent(productId, this::createProductCandles)
+                .record(tradeId, time.getMillis() / 1000, price, size, match);
+    }
+
+    private ProductCandles createProductCandles(final ProductId productId) {
+        return new ProductCandles(ProductScales.get(productId.toString()), capacity);
+    }
+
+    /**
+     * Series of every granularity of one product, and the recently recorded trade ids.
+     */
+    private static class ProductCandles {
+
+        private final int priceScale;
+        private final int sizeScale;
+        private final CandleSeries[] series = new CandleSeries[GRANULARITIES.length];
+
+        /**
+         * Bitset of the recorded trade ids within {@link #TRADE_WINDOW} of the highest one, indexed by trade id
+         * modulo the window.
+         */
+        private final long[] recentTradeIds = new long[TRADE_WINDOW / Long.SIZE];
+        private long highestTradeId = -1L;
+        private long lastMatchSeconds = Long.MIN_VALUE;
+
+        private ProductCandles(final ProductScale productScale, final int capacity) {
+            this.priceScale = productScale.priceScale();
+            this.sizeScale = productScale.sizeScale();
+            for (final Granularity granularity : GRANULARITIES) {
+                series[granularity.ordinal()] = new CandleSeries(granularity, capacity);
+            }
+        }
+
+        private synchronized void record(final long tradeId,
+                                         final long epochSeconds,
+                                         final BigDecimal price,
+                                         final BigDecimal size,
+                                         final boolean match) {
+            if (match) {
+                lastMatchSeconds = Math.max(lastMatchSeconds, epochSeconds);
+            } else if (lastMatchSeconds != Long.MIN_VALUE
+                    && epochSeconds - lastMatchSeconds < MATCH_TIMEOUT_SECONDS) {
+                return;
+            }
+            if (tradeId < 0 || tradeId <= highestTradeId - TRADE_WINDOW) {
+                log.debug("Ignoring trade [{}] too far behind the latest trade [{}] to deduplicate", tradeId,
+                        highestTradeId);
+                return;
+            }
+            if (tradeId <= highestTradeId && isRecorded(tradeId)) {
+                return;
+            }
+            final long fixedPrice = FixedPoint.fromBigDecimal(price, priceScale);
+            final long fixedSize = FixedPoint.fromBigDecimal(size, sizeScale);
+            markRecorded(tradeId);
+            for (final CandleSeries candleSeries : series) {
+                if (!candleSeries.record(epochSeconds, fixedPrice, fixedSize)) {
+                    log.debug("Ignoring trade [{}] older than the latest [{}] bar", tradeId,
+                            candleSeries.getGranularity());
+                }
+            }
+        }
+
+        private boolean isRecorded(final long tradeId) {
+            final int bit = (int) (tradeId & (TRADE_WINDOW - 1));
+            return (recentTradeIds[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        private void markRecorded(final long tradeId) {
+            if (tradeId > highestTradeId) {
+                // forget the ids the window slides past
+                if (tradeId - highestTradeId >= TRADE_WINDOW) {
+                    Arrays.fill(recentTradeIds, 0L);
+                } else {
+                    for (long id = highestTradeId + 1; id < tradeId; id++) {
+                        final int bit = (int) (id & (TRADE_WINDOW - 1));
+                        recentTradeIds[bit >>> 6] &= ~(1L << bit);
+                    }
+                }
+                highestTradeId = tradeId;
+            }
+            final int bit = (int) (tradeId & (TRADE_WINDOW - 1));
+            recentTradeIds[bit >>> 6] |= 1L << bit;
+        }
+
+        private synchronized List<Candle> toCandles(final Granularity granularity) {
+            final CandleSeries candleSeries = series[granularity.ordinal()];
+            final List<Candle> candles = new ArrayList<>(candleSeries.count());
+            for (int age = 0; age < candleSeries.count(); age++) {
+                candles.add(new Candle(candleSeries.time(age),
+                        FixedPoint.toBigDecimal(candleSeries.low(age), priceScale),
+                        FixedPoint.toBigDecimal(candleSeries.high(age), priceScale),
+                        FixedPoint.toBigDecimal(candleSeries.open(age), priceScale),
+                        FixedPoint.toBigDecimal(candleSeries.close(age), priceScale),
+                        FixedPoint.toBigDecimal(candleSeries.volume(age), sizeScale)));
+            }
+            return candles;
+        }
+    }
+}
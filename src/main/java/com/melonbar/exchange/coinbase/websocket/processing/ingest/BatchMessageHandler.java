@@ -0,0 +1,34 @@
+package com.melonbar.exchange.coinbase.websocket.processing.ingest;
+
+import javax.websocket.MessageHandler;
+
+/**
+ * Consumer of messages drained from an {@link IngestStage}. Messages are delivered in batches of everything that was
+ * published since the consumer last caught up, which lets implementations defer expensive work (e.g. flushing,
+ * publishing derived state) to the end of a batch.
+ *
+ * @param <T> Message type
+ */
+@FunctionalInterface
+public interface BatchMessageHandler<T> {
+
+    /**
+     * Handles a single message of the current batch.
+     *
+     * @param message Message
+     * @param sequence Sequence number of the message within the ingest stage
+     * @param endOfBatch True if this is the last message currently available
+     */
+    void onMessage(final T message, final long sequence, final boolean endOfBatch);
+
+    /**
+     * Adapts a {@link MessageHandler.Whole}, which has no notion of batches, into a {@link BatchMessageHandler}.
+     *
+     * @param messageHandler {@link MessageHandler.Whole}
+     * @param <T> Message type
+     * @return {@link BatchMessageHandler} delegating every message to <code>messageHandler</code>
+     */
+    static <T> BatchMessageHandler<T> of(final MessageHandler.Whole<T> messageHandler) {
+        return (message, sequence, endOfBatch) -> messageHandler.onMessage(message);
+    }
+}
@@ -0,0 +1,25 @@
+package com.melonbar.exchange.coinbase.websocket.processing.ingest;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link WaitStrategy} that spins on the producer cursor. Gives the lowest latency, at the cost of occupying a core
+ * for as long as the consumer is running. Should only be used when the consumer thread can be pinned to a core that
+ * is not needed by anything else.
+ */
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public long waitFor(final long sequence, final Sequence cursor, final BooleanSupplier running) {
+        long available;
+        while ((available = cursor.get()) < sequence && running.getAsBoolean()) {
+            Thread.onSpinWait();
+        }
+        return available;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        // never blocks
+    }
+}
@@ -0,0 +1,45 @@
+package com.melonbar.exchange.coinbase.websocket.processing.ingest;
+
+/**
+ * Point-in-time metrics of an {@link IngestStage}. Rates are averaged over the interval since the previous call to
+ * {@link IngestStage#getMetrics()}.
+ *
+ * <p> A queue depth that keeps growing towards the capacity, or a non-zero stall count, means the consumer is
+ * falling behind the feed, and the websocket read thread will soon be blocked on a full buffer.
+ *
+ * @param capacity Total number of slots
+ * @param queueDepth Messages published but not yet consumed
+ * @param published Total messages published
+ * @param consumed Total messages consumed
+ * @param producerStalls Number of times the producer found the buffer full and had to wait
+ * @param dropped Messages dropped because the buffer was full while the stage was not running
+ * @param publishRate Messages published per second
+ * @param consumeRate Messages consumed per second
+ */
+public record IngestMetrics(long capacity,
+                            long queueDepth,
+                            long published,
+                            long consumed,
+                            long producerStalls,
+                            long dropped,
+                            double publishRate,
+                            double consumeRate) {
+
+    /**
+     * Combines the metrics of independent stages, e.g. the stripes of a {@link ProductStripedIngestStage}.
+     *
+     * @param other Metrics of another stage
+     * @return Summed metrics
+     */
+    public IngestMetrics plus(final IngestMetrics other) {
+        return new IngestMetrics(
+                capacity + other.capacity,
+                queueDepth + other.queueDepth,
+                published + other.published,
+                consumed + other.consumed,
+                producerStalls + other.producerStalls,
+                dropped + other.dropped,
+                publishRate + other.publishRate,
+                consumeRate + other.consumeRate);
+    }
+}
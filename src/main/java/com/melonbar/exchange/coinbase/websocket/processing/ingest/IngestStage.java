@@ -0,0 +1,38 @@
+package com.melonbar.exchange.coinbase.websocket.processing.ingest;
+
+import javax.websocket.MessageHandler;
+
+/**
+ * Decouples the websocket container's read thread from message handling. Messages passed to
+ * {@link #onMessage(Object)} are handed off to one or more consumer threads, so that a slow handler no longer
+ * applies back-pressure to the TCP socket until the stage itself is full.
+ *
+ * <p> A stage must be {@link #start() started} before messages are published to it.
+ */
+public interface IngestStage extends MessageHandler.Whole<String> {
+
+    /**
+     * Starts the consumer thread(s). Has no effect if the stage is already running.
+     */
+    void start();
+
+    /**
+     * Stops the consumer thread(s) after draining the messages already published. Has no effect if the stage is not
+     * running. The stage may be started again afterwards.
+     */
+    void halt();
+
+    /**
+     * Gets whether the consumer thread(s) are running.
+     *
+     * @return True if running
+     */
+    boolean isRunning();
+
+    /**
+     * Gets the current {@link IngestMetrics}.
+     *
+     * @return {@link IngestMetrics}
+     */
+    IngestMetrics getMetrics();
+}
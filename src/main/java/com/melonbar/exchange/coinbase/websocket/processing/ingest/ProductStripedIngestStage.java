@@ -0,0 +1,125 @@
+package com.melonbar.exchange.coinbase.websocket.processing.ingest;
+
+import com.melonbar.core.util.Guard;
+import com.melonbar.exchange.coinbase.websocket.processing.ProductOrdinals;
+
+import javax.websocket.MessageHandler;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * {@link IngestStage} that shards inbound messages by product onto a fixed number of stripes, each being a
+ * {@link RingBufferIngestStage} with its own consumer thread. All messages of a product land on the same stripe, so
+ * ordering is preserved within a product while different products are handled in parallel.
+ *
+ * <p> The stripe of a message is its {@link ProductOrdinals product ordinal} modulo the number of stripes. Since
+ * ordinals are dense and assigned in order of first appearance, products are spread evenly across stripes. Messages
+ * without a product id (e.g. subscription acknowledgements) are handled by the first stripe.
+ *
+ * <p> The shared handler is invoked concurrently from every stripe, so it must be thread-safe. Handlers keeping
+ * per-product state need no further synchronization, since any one product is only ever handled by a single stripe.
+ */
+public class ProductStripedIngestStage implements IngestStage {
+
+    private final RingBufferIngestStage[] stripes;
+
+    /**
+     * Creates a new stage with <code>stripes</code> ring buffers of <code>capacity</code> slots each. Consumer threads
+     * are not started until {@link #start()} is invoked.
+     *
+     * @param name Name of the stage, stripe consumer threads are named with the stripe index appended
+     * @param stripes Number of stripes, typically no more than the number of available cores
+     * @param capacity Number of slots per stripe, must be a power of two
+     * @param waitStrategy Supplies a {@link WaitStrategy} per stripe
+     * @param messageHandler Thread-safe handler shared by all stripes
+     */
+    public ProductStripedIngestStage(final String name,
+                                     final int stripes,
+                                     final int capacity,
+                                     final Supplier<WaitStrategy> waitStrategy,
+                                     final MessageHandler.Whole<String> messageHandler) {
+        Guard.nonNull(name, waitStrategy, messageHandler);
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Number of stripes must be positive, got " + stripes);
+        }
+        this.stripes = new RingBufferIngestStage[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new RingBufferIngestStage(
+                    name + "-" + i, capacity, waitStrategy.get(), BatchMessageHandler.of(messageHandler));
+        }
+    }
+
+    /**
+     * Publishes the input message to the stripe of its product. Must only be invoked from a single thread at a time.
+     *
+     * @param message Inbound message
+     */
+    @Override
+    public void onMessage(final String message) {
+        stripes[stripeOf(ProductOrdinals.ordinalOfMessage(message))].onMessage(message);
+    }
+
+    @Override
+    public void start() {
+        for (final RingBufferIngestStage stripe : stripes) {
+            stripe.start();
+        }
+    }
+
+    @Override
+    public void halt() {
+        for (final RingBufferIngestStage stripe : stripes) {
+            stripe.halt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stripes[0].isRunning();
+    }
+
+    /**
+     * Gets the {@link IngestMetrics} summed over all stripes.
+     *
+     * @return {@link IngestMetrics}
+     */
+    @Override
+    public IngestMetrics getMetrics() {
+        return Arrays.stream(getStripeMetrics())
+                .reduce(IngestMetrics::plus)
+                .orElseThrow();
+    }
+
+    /**
+     * Gets the {@link IngestMetrics} of each stripe, indexed by stripe. Useful to spot a hot product saturating its
+     * stripe while the others are idle.
+     *
+     * @return {@link IngestMetrics} per stripe
+     */
+    public IngestMetrics[] getStripeMetrics() {
+        final IngestMetrics[] metrics = new IngestMetrics[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            metrics[i] = stripes[i].getMetrics();
+        }
+        return metrics;
+    }
+
+    /**
+     * Gets the number of stripes.
+     *
+     * @return Number of stripes
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Gets the stripe handling the product with the input ordinal.
+     *
+     * @param ordinal {@link ProductOrdinals Product ordinal}, or negative if the message has no product
+     * @return Stripe index
+     */
+    public int stripeOf(final int ordinal) {
+        return ordinal < 0 ? 0 : ordinal % stripes.length;
+    }
+}
@@ -0,0 +1,213 @@
+package com.melonbar.exchange.coinbase.websocket.processing.ingest;
+
+import com.melonbar.core.util.Guard;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-producer, single-consumer {@link IngestStage} backed by a pre-allocated ring buffer, in the style of the
+ * LMAX Disruptor. The websocket read thread is the only producer: publishing a message stores a reference into the
+ * next slot and advances the producer cursor, without locks or allocation. A dedicated daemon thread consumes
+ * everything published since it last caught up, as one batch, and hands each message to a
+ * {@link BatchMessageHandler}.
+ *
+ * <p> When the buffer is full the producer parks until the consumer frees a slot, which is counted as a stall in
+ * {@link IngestMetrics}. Back-pressure only reaches the socket once the buffer's capacity is exhausted. A producer
+ * waiting on a full buffer gives up once the stage is not running, e.g. after {@link #halt()}, and drops the message
+ * rather than waiting on a consumer that will never free a slot.
+ *
+ * <p> The capacity must be a power of two, so that slot indices can be derived from sequences with a mask.
+ */
+@Slf4j
+public class RingBufferIngestStage implements IngestStage {
+
+    private final String[] entries;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final BatchMessageHandler<String> messageHandler;
+    @Getter
+    private final String name;
+
+    /**
+     * Highest published sequence, written only by the producer.
+     */
+    private final Sequence cursor = new Sequence(-1L);
+
+    /**
+     * Highest consumed sequence, written only by the consumer.
+     */
+    private final Sequence consumed = new Sequence(-1L);
+
+    /**
+     * Producer-local cache of {@link #consumed}, avoids reading the consumer's cache line on every publish.
+     */
+    private long cachedConsumed = -1L;
+
+    private volatile long producerStalls;
+    private volatile long droppedMessages;
+    private volatile boolean running;
+    private Thread consumerThread;
+
+    private long lastMetricsNanos = System.nanoTime();
+    private long lastPublished;
+    private long lastConsumed;
+
+    /**
+     * Creates a new stage. The consumer thread is not started until {@link #start()} is invoked.
+     *
+     * @param name Name of the stage, used to name the consumer thread
+     * @param capacity Number of slots, must be a positive power of two
+     * @param waitStrategy {@link WaitStrategy} used by the consumer
+     * @param messageHandler {@link BatchMessageHandler} invoked on the consumer thread
+     */
+    public RingBufferIngestStage(final String name,
+                                 final int capacity,
+                                 final WaitStrategy waitStrategy,
+                                 final BatchMessageHandler<String> messageHandler) {
+        Guard.nonNull(name, waitStrategy, messageHandler);
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a positive power of 2, got " + capacity);
+        }
+        this.name = name;
+        this.entries = new String[capacity];
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+        this.messageHandler = messageHandler;
+    }
+
+    /**
+     * Publishes the input message to the next slot. Must only be invoked from a single thread at a time, which is
+     * guaranteed for the message handler of a websocket session. Parks while the buffer is full, and drops the
+     * message if the stage is not running while it waits.
+     *
+     * @param message Inbound message
+     */
+    @Override
+    public void onMessage(final String message) {
+        final long next = cursor.get() + 1;
+        final long wrapPoint = next - entries.length;
+        if (wrapPoint > cachedConsumed) {
+            long minimum;
+            boolean stalled = false;
+            while (wrapPoint > (minimum = consumed.get())) {
+                if (!running) {
+                    droppedMessages++;
+                    log.debug("Ingest stage [{}] is not running and its buffer is full, dropping message", name);
+                    return;
+                }
+                if (!stalled) {
+                    stalled = true;
+                    producerStalls++;
+                }
+                LockSupport.parkNanos(1L);
+            }
+            cachedConsumed = minimum;
+        }
+        entries[(int) next & mask] = message;
+        cursor.set(next);
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        consumerThread = new Thread(this::consume, name);
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+    }
+
+    @Override
+    public synchronized void halt() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        waitStrategy.signalAllWhenBlocking();
+        try {
+            consumerThread.join();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for ingest stage [{}] to drain", name);
+        }
+        consumerThread = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Gets the number of messages published but not yet consumed.
+     *
+     * @return Queue depth
+     */
+    public long getQueueDepth() {
+        return cursor.get() - consumed.get();
+    }
+
+    /**
+     * Gets the current {@link IngestMetrics}. Rates are computed over the interval since the previous invocation.
+     *
+     * @return {@link IngestMetrics}
+     */
+    @Override
+    public synchronized IngestMetrics getMetrics() {
+        final long now = System.nanoTime();
+        final long consumedCount = consumed.get() + 1;
+        final long publishedCount = cursor.get() + 1;
+        final double elapsedSeconds = Math.max(now - lastMetricsNanos, 1L) / 1e9;
+        final IngestMetrics metrics = new IngestMetrics(
+                entries.length,
+                publishedCount - consumedCount,
+                publishedCount,
+                consumedCount,
+                producerStalls,
+                droppedMessages,
+                (publishedCount - lastPublished) / elapsedSeconds,
+                (consumedCount - lastConsumed) / elapsedSeconds);
+        lastMetricsNanos = now;
+        lastPublished = publishedCount;
+        lastConsumed = consumedCount;
+        return metrics;
+    }
+
+    private void consume() {
+        long next = consumed.get() + 1;
+        while (true) {
+            final long available;
+            try {
+                available = waitStrategy.waitFor(next, cursor, this::isRunning);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                log.warn("Ingest stage [{}] consumer interrupted, stopping", name);
+                return;
+            }
+            if (available < next) {
+                // halted, and everything published before halting has been drained
+                if (cursor.get() < next) {
+                    return;
+                }
+                continue;
+            }
+            for (long sequence = next; sequence <= available; sequence++) {
+                final int index = (int) sequence & mask;
+                try {
+                    messageHandler.onMessage(entries[index], sequence, sequence == available);
+                } catch (Exception exception) {
+                    log.warn("Ingest stage [{}] handler threw exception for sequence {}",
+                            name, sequence, exception);
+                }
+                // release the reference so consumed messages can be collected
+                entries[index] = null;
+            }
+            consumed.set(available);
+            next = available + 1;
+        }
+    }
+}
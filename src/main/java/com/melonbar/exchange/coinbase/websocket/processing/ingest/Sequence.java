@@ -0,0 +1,71 @@
+package com.melonbar.exchange.coinbase.websocket.processing.ingest;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Cache-line padded sequence counter shared between the producer and consumer of an {@link IngestStage}. Padding on
+ * both sides of the value keeps the producer and consumer sequences from sharing a cache line, which would otherwise
+ * cause false sharing on every publish.
+ *
+ * <p> Reads use acquire semantics and writes use release semantics, which is sufficient for the single-writer
+ * ownership each sequence has.
+ */
+public class Sequence extends SequenceRhsPadding {
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException reflectiveOperationException) {
+            throw new ExceptionInInitializerError(reflectiveOperationException);
+        }
+    }
+
+    /**
+     * Creates a sequence with the input initial value.
+     *
+     * @param initialValue Initial value
+     */
+    public Sequence(final long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    /**
+     * Gets the current value with acquire semantics.
+     *
+     * @return Current value
+     */
+    public long get() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    /**
+     * Sets the value with release semantics. Only the owner of this sequence may invoke this.
+     *
+     * @param value New value
+     */
+    public void set(final long value) {
+        VALUE.setRelease(this, value);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
+
+@SuppressWarnings("unused")
+class SequenceLhsPadding {
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+class SequenceValue extends SequenceLhsPadding {
+    protected long value;
+}
+
+@SuppressWarnings("unused")
+class SequenceRhsPadding extends SequenceValue {
+    protected long p9, p10, p11, p12, p13, p14, p15;
+}
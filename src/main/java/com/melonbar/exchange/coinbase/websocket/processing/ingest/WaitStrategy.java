@@ -0,0 +1,34 @@
+package com.melonbar.exchange.coinbase.websocket.processing.ingest;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Strategy used by the consumer of an {@link IngestStage} to wait for the producer to publish new messages. The
+ * choice of strategy trades consumer latency against CPU usage:
+ * <ul>
+ *     <li>{@link BlockingWaitStrategy}: parks the consumer, lowest CPU usage, highest wake-up latency</li>
+ *     <li>{@link YieldingWaitStrategy}: spins briefly then yields, low latency without monopolizing a core</li>
+ *     <li>{@link BusySpinWaitStrategy}: spins continuously, lowest latency, occupies a full core</li>
+ * </ul>
+ */
+public interface WaitStrategy {
+
+    /**
+     * Waits until the input <code>cursor</code> reaches at least <code>sequence</code>, or until
+     * <code>running</code> no longer holds.
+     *
+     * @param sequence Sequence being waited for
+     * @param cursor Producer cursor
+     * @param running Checked while waiting, waiting is abandoned once false
+     * @return Highest available sequence, which is smaller than <code>sequence</code> if waiting was abandoned
+     * @throws InterruptedException If the waiting thread is interrupted
+     */
+    long waitFor(final long sequence, final Sequence cursor, final BooleanSupplier running)
+            throws InterruptedException;
+
+    /**
+     * Invoked by the producer after publishing, to wake up any consumer blocked in {@link #waitFor}. No-op for
+     * strategies that never block.
+     */
+    void signalAllWhenBlocking();
+}
@@ -0,0 +1,32 @@
+package com.melonbar.exchange.coinbase.websocket.processing.ingest;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link WaitStrategy} that spins for a bounded number of attempts, then yields the thread between checks of the
+ * producer cursor. A good compromise between latency and CPU usage when there are more cores than busy threads.
+ */
+public class YieldingWaitStrategy implements WaitStrategy {
+
+    private static final int SPIN_TRIES = 100;
+
+    @Override
+    public long waitFor(final long sequence, final Sequence cursor, final BooleanSupplier running) {
+        int counter = SPIN_TRIES;
+        long available;
+        while ((available = cursor.get()) < sequence && running.getAsBoolean()) {
+            if (counter > 0) {
+                counter--;
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        // never blocks
+    }
+}
@@ -0,0 +1,326 @@
+package com.melonbar.exchange.coinbase.websocket.processing.journal;
+
+import com.melonbar.core.util.Guard;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.websocket.MessageHandler;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of raw inbound websocket frames, for post-mortems and replay. Registered as a message handler,
+ * it appends every message with its receive time, in epoch nanoseconds, to rolling memory-mapped segment files named
+ * <code>&lt;name&gt;-&lt;index&gt;.journal</code>, see {@link JournalFormat} for the record layout, e.g.
+ * <pre>{@code
+ * builder.withMessageHandlers(new FeedJournal(Path.of("journal"), "full", FsyncPolicy.onRoll()));
+ * }</pre>
+ *
+ * <p> Appending encodes the message as UTF-8 straight into the mapped segment, without allocating, and never
+ * performs I/O on the appending thread: a daemon maintenance thread creates the next segment ahead of time and
+ * forces segments according to the {@link FsyncPolicy}. Only if a roll happens before the next segment is ready is
+ * it created inline, which is counted in {@link JournalMetrics}. Messages larger than a segment are dropped and
+ * counted as well.
+ *
+ * <p> Appends are serialized, but the journal is meant to be fed by a single thread, e.g. the websocket read thread
+ * or an ingest consumer, where the lock is uncontended. Segments of a previous run in the same directory are never
+ * overwritten, numbering continues after the highest existing index.
+ */
+@Slf4j
+public class FeedJournal implements MessageHandler.Whole<String>, Closeable {
+
+    /**
+     * Default segment size, 256 MiB.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 256 << 20;
+
+    @Getter
+    private final Path directory;
+    @Getter
+    private final String name;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final ScheduledExecutorService maintenance;
+    private final AtomicReference<JournalSegment> nextSegment = new AtomicReference<>();
+
+    /**
+     * Epoch and monotonic clock readings taken together, from which receive times are derived without allocating.
+     */
+    private final long baseEpochNanos = System.currentTimeMillis() * 1_000_000L;
+    private final long baseNanoTime = System.nanoTime();
+
+    private volatile JournalSegment activeSegment;
+    private MappedByteBuffer buffer;
+    private int position;
+    private boolean closed;
+
+    private volatile long records;
+    private volatile long bytes;
+    private volatile long dropped;
+    private volatile long segments;
+    private volatile long inlineSegmentCreations;
+
+    /**
+     * Opens a new journal, creating the directory and the first segment.
+     *
+     * @param directory Directory holding the segment files
+     * @param name Prefix of the segment file names
+     * @param segmentSize Size of each segment file in bytes, a multiple of 8
+     * @param fsyncPolicy {@link FsyncPolicy}
+     * @throws UncheckedIOException If the directory or the first segment cannot be created
+     */
+    public FeedJournal(final Path directory, final String name, final int segmentSize, final FsyncPolicy fsyncPolicy) {
+        Guard.nonNull(directory, name, fsyncPolicy);
+        if (segmentSize <= JournalFormat.SEGMENT_HEADER_SIZE + JournalFormat.RECORD_HEADER_SIZE
+                || segmentSize % JournalFormat.ALIGNMENT != 0) {
+            throw new IllegalArgumentException(
+                    "Segment size must be a multiple of " + JournalFormat.ALIGNMENT + " fitting a record, got "
+                            + segmentSize);
+        }
+        this.directory = directory;
+        this.name = name;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "feed-journal-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Files.createDirectories(directory);
+            final long firstIndex = nextIndex();
+            activate(JournalSegment.create(segmentPath(firstIndex), firstIndex, segmentSize));
+        } catch (IOException ioException) {
+            maintenance.shutdownNow();
+            throw new UncheckedIOException("Failed to open journal [" + name + "] in " + directory, ioException);
+        }
+        if (fsyncPolicy.mode() == FsyncPolicy.Mode.PERIODIC) {
+            final long intervalNanos = fsyncPolicy.interval().toNanos();
+            maintenance.scheduleWithFixedDelay(this::forceActiveSegment, intervalNanos, intervalNanos,
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Opens a new journal with {@link #DEFAULT_SEGMENT_SIZE} segments.
+     *
+     * @param directory Directory holding the segment files
+     * @param name Prefix of the segment file names
+     * @param fsyncPolicy {@link FsyncPolicy}
+     */
+    public FeedJournal(final Path directory, final String name, final FsyncPolicy fsyncPolicy) {
+        this(directory, name, DEFAULT_SEGMENT_SIZE, fsyncPolicy);
+    }
+
+    /**
+     * Appends the input message, stamped with the current time.
+     *
+     * @param message Inbound raw message
+     */
+    @Override
+    public void onMessage(final String message) {
+        append(message, epochNanos());
+    }
+
+    /**
+     * Appends the input message with an explicit receive time.
+     *
+     * @param message Raw message
+     * @param receiveEpochNanos Receive time, in epoch nanoseconds
+     * @return True if the message was appended, false if it was dropped
+     */
+    public synchronized boolean append(final String message, final long receiveEpochNanos) {
+        if (closed) {
+            dropped++;
+            return false;
+        }
+        // UTF-8 takes at most 3 bytes per char, surrogate pairs take 4 bytes for 2 chars
+        final long maxRecordSize = JournalFormat.RECORD_HEADER_SIZE + 3L * message.length();
+        if (maxRecordSize > segmentSize - JournalFormat.SEGMENT_HEADER_SIZE) {
+            log.warn("Dropping message of {} chars, larger than journal [{}] segments", message.length(), name);
+            dropped++;
+            return false;
+        }
+        if (position + maxRecordSize > segmentSize) {
+            roll();
+        }
+        final int start = position;
+        final int end = encode(message, buffer, start + JournalFormat.RECORD_HEADER_SIZE);
+        buffer.putLong(start + 4, receiveEpochNanos);
+        // published last, a reader seeing the length sees the whole record
+        JournalFormat.INT.setRelease(buffer, start, end - start);
+        position = JournalFormat.align(end);
+        records++;
+        bytes += position - start;
+        return true;
+    }
+
+    /**
+     * Gets the current time in epoch nanoseconds, as stamped on appended messages.
+     *
+     * @return Epoch nanoseconds
+     */
+    public long epochNanos() {
+        return baseEpochNanos + (System.nanoTime() - baseNanoTime);
+    }
+
+    /**
+     * Gets the cumulative metrics of this journal.
+     *
+     * @return {@link JournalMetrics}
+     */
+    public JournalMetrics getMetrics() {
+        return new JournalMetrics(records, bytes, dropped, segments, inlineSegmentCreations);
+    }
+
+    /**
+     * Stops appending, forces the active segment unless the policy is {@link FsyncPolicy.Mode#NONE}, and removes the
+     * segment prepared ahead of time if it was never used. Messages received afterwards are dropped.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        maintenance.shutdown();
+        try {
+            maintenance.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        if (fsyncPolicy.mode() != FsyncPolicy.Mode.NONE) {
+            activeSegment.force();
+        }
+        final JournalSegment unused = nextSegment.getAndSet(null);
+        if (unused != null) {
+            try {
+                unused.delete();
+            } catch (IOException ioException) {
+                log.warn("Failed to delete unused journal segment {}", unused.getPath(), ioException);
+            }
+        }
+    }
+
+    private void roll() {
+        final JournalSegment previous = activeSegment;
+        // waits for a preparation in progress rather than racing it for the same file
+        synchronized (nextSegment) {
+            JournalSegment next = nextSegment.getAndSet(null);
+            if (next == null) {
+                inlineSegmentCreations++;
+                try {
+                    next = JournalSegment.create(segmentPath(previous.getIndex() + 1), previous.getIndex() + 1,
+                            segmentSize);
+                } catch (IOException ioException) {
+                    throw new UncheckedIOException("Failed to roll journal [" + name + "]", ioException);
+                }
+            }
+            activate(next);
+        }
+        if (fsyncPolicy.mode() != FsyncPolicy.Mode.NONE) {
+            maintenance.execute(previous::force);
+        }
+    }
+
+    private void activate(final JournalSegment segment) {
+        activeSegment = segment;
+        buffer = segment.getBuffer();
+        position = JournalFormat.SEGMENT_HEADER_SIZE;
+        segments++;
+        maintenance.execute(() -> prepare(segment.getIndex() + 1));
+    }
+
+    private void prepare(final long index) {
+        synchronized (nextSegment) {
+            if (activeSegment.getIndex() + 1 != index || nextSegment.get() != null) {
+                // already created inline by a roll
+                return;
+            }
+            try {
+                nextSegment.set(JournalSegment.create(segmentPath(index), index, segmentSize));
+            } catch (IOException ioException) {
+                // rolling will retry inline and surface the failure if it persists
+                log.warn("Failed to prepare journal segment {} of [{}]", index, name, ioException);
+            }
+        }
+    }
+
+    private void forceActiveSegment() {
+        try {
+            activeSegment.force();
+        } catch (Exception exception) {
+            log.warn("Failed to force journal [{}]", name, exception);
+        }
+    }
+
+    private Path segmentPath(final long index) {
+        return directory.resolve(JournalFormat.segmentFileName(name, index));
+    }
+
+    private long nextIndex() throws IOException {
+        final String prefix = name + "-";
+        long next = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                final String fileName = file.getFileName().toString();
+                if (fileName.startsWith(prefix) && fileName.endsWith(JournalFormat.SEGMENT_SUFFIX)) {
+                    final String index = fileName.substring(prefix.length(),
+                            fileName.length() - JournalFormat.SEGMENT_SUFFIX.length());
+                    if (!index.isEmpty() && index.chars().allMatch(Character::isDigit)) {
+                        next = Math.max(next, Long.parseLong(index) + 1);
+                    }
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Encodes the message as UTF-8 into the buffer. Unpaired surrogates are replaced with <code>?</code>, as done by
+     * {@link String#getBytes}.
+     *
+     * @return Offset following the last written byte
+     */
+    private static int encode(final String message, final MappedByteBuffer buffer, final int offset) {
+        int position = offset;
+        final int length = message.length();
+        for (int i = 0; i < length; i++) {
+            final char c = message.charAt(i);
+            if (c < 0x80) {
+                buffer.put(position++, (byte) c);
+            } else if (c < 0x800) {
+                buffer.put(position++, (byte) (0xC0 | (c >> 6)));
+                buffer.put(position++, (byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                final boolean pair = Character.isHighSurrogate(c)
+                        && i + 1 < length && Character.isLowSurrogate(message.charAt(i + 1));
+                if (pair) {
+                    final int codePoint = Character.toCodePoint(c, message.charAt(++i));
+                    buffer.put(position++, (byte) (0xF0 | (codePoint >> 18)));
+                    buffer.put(position++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put(position++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put(position++, (byte) (0x80 | (codePoint & 0x3F)));
+                } else {
+                    buffer.put(position++, (byte) '?');
+                }
+            } else {
+                buffer.put(position++, (byte) (0xE0 | (c >> 12)));
+                buffer.put(position++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put(position++, (byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        return position;
+    }
+}
@@ -0,0 +1,102 @@
+package com.melonbar.exchange.coinbase.websocket.processing.journal;
+
+import com.melonbar.core.util.Guard;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.websocket.MessageHandler;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a journal recorded by {@link FeedJournal} into a message handler, in place of a live websocket session.
+ * The handler is whatever the live client would be given, e.g. an
+ * {@link com.melonbar.exchange.coinbase.websocket.processing.AggregatedMessageHandler} of trackers, a
+ * {@link com.melonbar.exchange.coinbase.websocket.processing.TypedMessageDispatcher} or an
+ * {@link com.melonbar.exchange.coinbase.websocket.processing.ingest.IngestStage}, which makes it possible to
+ * reproduce incidents offline and to measure handler throughput on recorded message mixes.
+ *
+ * <p> Messages are delivered on the calling thread, in journal order, with exactly the recorded content, so two
+ * replays of the same journal into the same handler graph are identical. The {@link ReplaySpeed} only affects
+ * pacing: paced replays wait until the recorded offset of each message from the first one, divided by the speed
+ * multiplier, has elapsed; short waits spin and longer ones park.
+ *
+ * <p> As with {@link com.melonbar.exchange.coinbase.websocket.processing.AggregatedMessageHandler}, an exception
+ * thrown by the handler is logged and counted, and the replay continues.
+ */
+@Slf4j
+public class FeedReplayer {
+
+    /**
+     * Waits shorter than this are spun rather than parked, since parking may oversleep by tens of microseconds.
+     */
+    private static final long SPIN_THRESHOLD_NANOS = 50_000L;
+
+    private final Path directory;
+    private final String name;
+    private final MessageHandler.Whole<String> messageHandler;
+    private final ReplaySpeed speed;
+
+    /**
+     * Creates a replayer. Nothing is read until {@link #replay()} is invoked.
+     *
+     * @param directory Directory holding the journal segment files
+     * @param name Prefix of the segment file names
+     * @param messageHandler Handler receiving the replayed messages
+     * @param speed {@link ReplaySpeed}
+     */
+    public FeedReplayer(final Path directory,
+                        final String name,
+                        final MessageHandler.Whole<String> messageHandler,
+                        final ReplaySpeed speed) {
+        Guard.nonNull(directory, name, messageHandler, speed);
+        this.directory = directory;
+        this.name = name;
+        this.messageHandler = messageHandler;
+        this.speed = speed;
+    }
+
+    /**
+     * Replays the whole journal, returning once every message has been delivered. May be invoked repeatedly, each
+     * run reading the journal from the start.
+     *
+     * @return {@link ReplayResult}
+     */
+    public ReplayResult replay() {
+        final JournalReader reader = JournalReader.open(directory, name);
+        final long startNanos = System.nanoTime();
+        long firstRecordNanos = 0;
+        long messages = 0;
+        long bytes = 0;
+        long handlerFailures = 0;
+        while (reader.next()) {
+            if (speed.isPaced()) {
+                if (messages == 0) {
+                    firstRecordNanos = reader.getReceiveEpochNanos();
+                }
+                awaitUntil(startNanos
+                        + (long) ((reader.getReceiveEpochNanos() - firstRecordNanos) / speed.multiplier()));
+            }
+            try {
+                messageHandler.onMessage(reader.getMessage());
+            } catch (Exception exception) {
+                handlerFailures++;
+                log.warn("Handler [{}] threw exception replaying message [{}]",
+                        messageHandler.getClass().getName(), reader.getMessage(), exception);
+            }
+            messages++;
+            bytes += reader.getPayloadLength();
+        }
+        return new ReplayResult(messages, bytes, handlerFailures, System.nanoTime() - startNanos);
+    }
+
+    private static void awaitUntil(final long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.melonbar.exchange.coinbase.websocket.processing.journal;
+
+import java.time.Duration;
+
+/**
+ * When a {@link FeedJournal} forces its memory-mapped segments to storage. Forcing always happens on the journal's
+ * maintenance thread, never on the thread appending records, so the policy trades durability against I/O load
+ * without slowing down the feed.
+ *
+ * <p> Records are visible to readers of the segment files as soon as they are appended, regardless of the policy;
+ * forcing only matters if the host, rather than the process, goes down.
+ *
+ * @param mode {@link Mode}
+ * @param interval Interval between forces, only used by {@link Mode#PERIODIC}
+ */
+public record FsyncPolicy(Mode mode, Duration interval) {
+
+    /**
+     * Forcing modes.
+     */
+    public enum Mode {
+        /**
+         * Never force, dirty pages are written back whenever the operating system decides.
+         */
+        NONE,
+        /**
+         * Force a segment once it is full and the journal moved on to the next one.
+         */
+        ON_ROLL,
+        /**
+         * Force the active segment at a fixed interval, and full segments on roll.
+         */
+        PERIODIC
+    }
+
+    /**
+     * Creates a policy that never forces segments.
+     *
+     * @return {@link FsyncPolicy}
+     */
+    public static FsyncPolicy none() {
+        return new FsyncPolicy(Mode.NONE, Duration.ZERO);
+    }
+
+    /**
+     * Creates a policy that forces each segment once full.
+     *
+     * @return {@link FsyncPolicy}
+     */
+    public static FsyncPolicy onRoll() {
+        return new FsyncPolicy(Mode.ON_ROLL, Duration.ZERO);
+    }
+
+    /**
+     * Creates a policy that forces the active segment at the input interval, bounding the data lost on a host
+     * failure to roughly one interval.
+     *
+     * @param interval Interval between forces, must be positive
+     * @return {@link FsyncPolicy}
+     */
+    public static FsyncPolicy periodic(final Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Fsync interval must be positive, got " + interval);
+        }
+        return new FsyncPolicy(Mode.PERIODIC, interval);
+    }
+}
@@ -0,0 +1,45 @@
+package com.melonbar.exchange.coinbase.websocket.processing.journal;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Layout of journal segment files. All values are little-endian.
+ *
+ * <pre>
+ * segment: magic (int) | version (int) | record*
+ * record:  length (int) | receive time, epoch nanos (long) | payload, UTF-8 (length - 12 bytes) | padding
+ * </pre>
+ *
+ * <p> Records start at 8-byte aligned offsets, the length of a record includes its header but not its padding. The
+ * length is written last, with release semantics, so a reader mapping the same file that observes a non-zero length
+ * also observes the complete record. Segment files are zero-filled when created, so a zero length marks the end of
+ * the written records.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class JournalFormat {
+
+    static final int MAGIC = 0x4A464243; // "CBFJ" read little-endian
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 12;
+    static final int ALIGNMENT = 8;
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    /**
+     * Int view of a byte buffer, used to publish and read record lengths with release and acquire semantics.
+     */
+    static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    static int align(final int size) {
+        return (size + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    static String segmentFileName(final String name, final long index) {
+        return String.format("%s-%020d%s", name, index, SEGMENT_SUFFIX);
+    }
+}
@@ -0,0 +1,19 @@
+package com.melonbar.exchange.coinbase.websocket.processing.journal;
+
+/**
+ * Cumulative metrics of a {@link FeedJournal}.
+ *
+ * @param records Number of records appended
+ * @param bytes Number of bytes appended, including record headers and padding
+ * @param dropped Number of messages not journaled, because they did not fit in an empty segment or the journal was
+ *                closed
+ * @param segments Number of segments written to, including the active one
+ * @param inlineSegmentCreations Number of rolls that had to create the next segment on the appending thread,
+ *                               because the maintenance thread had not prepared it in time
+ */
+public record JournalMetrics(long records,
+                             long bytes,
+                             long dropped,
+                             long segments,
+                             long inlineSegmentCreations) {
+}
@@ -0,0 +1,127 @@
+package com.melonbar.exchange.coinbase.websocket.processing.journal;
+
+import com.melonbar.core.util.Guard;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Sequential reader of the segments written by a {@link FeedJournal}, in index order. Each segment is memory-mapped
+ * read-only and its records are read in place, so reading is bound by the storage rather than by copying; the only
+ * per-record allocation is the {@link String} of the message, decoded from a reused byte array.
+ *
+ * <p> The segments to read are listed when the reader is opened. A segment ends at its first zero length, i.e. past
+ * the last record published when it was mapped, so the active segment of a running journal may be read as well.
+ *
+ * <p> Not thread-safe.
+ */
+public class JournalReader {
+
+    private final List<Path> segments;
+    private int segmentIndex = -1;
+    private MappedByteBuffer buffer;
+    private int position;
+    private byte[] payload = new byte[4096];
+
+    @Getter
+    private String message;
+    @Getter
+    private long receiveEpochNanos;
+    @Getter
+    private int payloadLength;
+
+    private JournalReader(final List<Path> segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * Opens a reader over all segments of a journal.
+     *
+     * @param directory Directory holding the segment files
+     * @param name Prefix of the segment file names
+     * @return {@link JournalReader}
+     * @throws UncheckedIOException If the directory cannot be listed
+     */
+    public static JournalReader open(final Path directory, final String name) {
+        Guard.nonNull(directory, name);
+        final String prefix = name + "-";
+        try (Stream<Path> files = Files.list(directory)) {
+            // indices are zero-padded, so lexicographic order is index order
+            return new JournalReader(files
+                    .filter(file -> {
+                        final String fileName = file.getFileName().toString();
+                        return fileName.startsWith(prefix) && fileName.endsWith(JournalFormat.SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList());
+        } catch (IOException ioException) {
+            throw new UncheckedIOException("Failed to list journal [" + name + "] in " + directory, ioException);
+        }
+    }
+
+    /**
+     * Gets the number of segments this reader covers.
+     *
+     * @return Segment count
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Advances to the next record, making its message and receive time available.
+     *
+     * @return True if a record was read, false once all segments are exhausted
+     * @throws UncheckedIOException If a segment cannot be mapped
+     * @throws IllegalStateException If a segment is not a journal segment
+     */
+    public boolean next() {
+        while (buffer == null || !hasRecord()) {
+            if (++segmentIndex >= segments.size()) {
+                buffer = null;
+                return false;
+            }
+            map(segments.get(segmentIndex));
+        }
+        final int length = (int) JournalFormat.INT.getAcquire(buffer, position);
+        payloadLength = length - JournalFormat.RECORD_HEADER_SIZE;
+        receiveEpochNanos = buffer.getLong(position + 4);
+        if (payload.length < payloadLength) {
+            payload = new byte[Math.max(payloadLength, payload.length << 1)];
+        }
+        buffer.get(position + JournalFormat.RECORD_HEADER_SIZE, payload, 0, payloadLength);
+        message = new String(payload, 0, payloadLength, StandardCharsets.UTF_8);
+        position = JournalFormat.align(position + length);
+        return true;
+    }
+
+    private boolean hasRecord() {
+        return position + JournalFormat.RECORD_HEADER_SIZE <= buffer.capacity()
+                && (int) JournalFormat.INT.getAcquire(buffer, position) != 0;
+    }
+
+    private void map(final Path segment) {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException("Failed to map journal segment " + segment, ioException);
+        }
+        if (buffer.capacity() < JournalFormat.SEGMENT_HEADER_SIZE
+                || buffer.getInt(0) != JournalFormat.MAGIC || buffer.getInt(4) != JournalFormat.VERSION) {
+            throw new IllegalStateException(
+                    "Not a version " + JournalFormat.VERSION + " journal segment: " + segment);
+        }
+        position = JournalFormat.SEGMENT_HEADER_SIZE;
+    }
+}
@@ -0,0 +1,67 @@
+package com.melonbar.exchange.coinbase.websocket.processing.journal;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A single memory-mapped segment file of a {@link FeedJournal}. The mapping stays valid after the channel used to
+ * create it is closed, and is released once the segment is garbage collected.
+ */
+class JournalSegment {
+
+    @Getter
+    private final Path path;
+    @Getter
+    private final long index;
+    @Getter
+    private final MappedByteBuffer buffer;
+
+    private JournalSegment(final Path path, final long index, final MappedByteBuffer buffer) {
+        this.path = path;
+        this.index = index;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates and maps a new zero-filled segment file, and writes its header.
+     *
+     * @param path Path of the file, which must not exist
+     * @param index Index of the segment
+     * @param size Size of the file in bytes
+     * @return {@link JournalSegment}
+     * @throws IOException If the file exists or cannot be created
+     */
+    static JournalSegment create(final Path path, final long index, final int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, JournalFormat.MAGIC);
+            buffer.putInt(4, JournalFormat.VERSION);
+            return new JournalSegment(path, index, buffer);
+        }
+    }
+
+    /**
+     * Forces the content of the segment to storage.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Deletes the segment file, used for segments prepared but never written to.
+     *
+     * @throws IOException If the file cannot be deleted
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+}
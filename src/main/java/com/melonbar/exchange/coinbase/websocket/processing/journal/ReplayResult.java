@@ -0,0 +1,21 @@
+package com.melonbar.exchange.coinbase.websocket.processing.journal;
+
+/**
+ * Outcome of a {@link FeedReplayer#replay()} run.
+ *
+ * @param messages Number of messages delivered
+ * @param bytes Number of UTF-8 payload bytes delivered
+ * @param handlerFailures Number of messages whose handler threw an exception
+ * @param elapsedNanos Wall-clock duration of the run
+ */
+public record ReplayResult(long messages, long bytes, long handlerFailures, long elapsedNanos) {
+
+    /**
+     * Gets the sustained delivery rate.
+     *
+     * @return Messages per second, zero for an empty run
+     */
+    public double messagesPerSecond() {
+        return elapsedNanos == 0 ? 0 : messages * 1e9 / elapsedNanos;
+    }
+}
@@ -0,0 +1,54 @@
+package com.melonbar.exchange.coinbase.websocket.processing.journal;
+
+/**
+ * Pace at which a {@link FeedReplayer} delivers journaled messages, relative to the receive times recorded in the
+ * journal.
+ *
+ * @param multiplier Speed-up over the recorded pace, e.g. 1 for real time and 10 for ten times faster, or
+ *                   {@link Double#POSITIVE_INFINITY} to deliver messages as fast as the handlers accept them
+ */
+public record ReplaySpeed(double multiplier) {
+
+    public ReplaySpeed {
+        if (!(multiplier > 0)) {
+            throw new IllegalArgumentException("Replay speed multiplier must be positive, got " + multiplier);
+        }
+    }
+
+    /**
+     * Delivers messages back to back, without pacing.
+     *
+     * @return {@link ReplaySpeed}
+     */
+    public static ReplaySpeed asFastAsPossible() {
+        return new ReplaySpeed(Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Delivers messages with the same spacing as they were received.
+     *
+     * @return {@link ReplaySpeed}
+     */
+    public static ReplaySpeed realTime() {
+        return new ReplaySpeed(1);
+    }
+
+    /**
+     * Delivers messages with their recorded spacing divided by the input multiplier.
+     *
+     * @param multiplier Speed-up over the recorded pace
+     * @return {@link ReplaySpeed}
+     */
+    public static ReplaySpeed times(final double multiplier) {
+        return new ReplaySpeed(multiplier);
+    }
+
+    /**
+     * Whether messages are paced at all.
+     *
+     * @return False for {@link #asFastAsPossible()}, true otherwise
+     */
+    public boolean isPaced() {
+        return multiplier != Double.POSITIVE_INFINITY;
+    }
+}
@@ -1,16 +1,21 @@
 package com.melonbar.exchange.coinbase.websocket.processing.tracking;
 
 import com.melonbar.core.model.ProductId;
-import com.melonbar.core.util.JsonUtils;
-import lombok.AllArgsConstructor;
+import com.melonbar.exchange.coinbase.util.FixedPoint;
+import com.melonbar.exchange.coinbase.websocket.processing.ProductOrdinals;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Uses inbound ticker messages to track the prices of various products in quote currency. May be used as a
@@ -21,124 +26,350 @@ import java.util.concurrent.ConcurrentHashMap;
  * ticker messages. Real-time accurate tracking relies on active websocket feed connection(s). This tracker will
  * store the last received valid price update, meaning prices may be accessed after a connection is terminated.
  *
+ * <p> Each message is scanned once for its <code>product_id</code>, <code>sequence</code> and <code>price</code>,
+ * and the price is parsed into a {@link FixedPoint fixed-point} long at {@value FixedPoint#WIRE_SCALE} decimals,
+ * alongside the number of decimals it had on the wire so that {@link #getPrice} can reproduce the wire value exactly.
+ * Products are mapped to their {@link ProductOrdinals ordinal}, each owning a slot allocated on its first message,
+ * so that steady-state updates do not allocate. Slots are guarded by a seqlock: writers make the slot version odd
+ * while writing, and readers retry until they observe the same even version before and after reading, which gives
+ * them a consistent price and sequence pair without locking.
+ *
  * <p> TODO: Timestamp tracking by product on the last received update to allow for stale price detection.
  */
 @Slf4j
-@Getter
 public class PriceTracker implements Tracker<String> {
 
+    /**
+     * Fixed-point price reported for products without a tracked price.
+     */
+    public static final long NO_PRICE = -1L;
+
+    private static final BigDecimal NO_VALUE = BigDecimal.valueOf(-1);
+
     private static final String SEQUENCE_FIELD = "sequence";
     private static final String PRICE_FIELD = "price";
     private static final String PRODUCT_ID_FIELD = "product_id";
-    private static final PriceRecord NO_VALUE = new PriceRecord(BigDecimal.valueOf(-1), -1);
 
-    private final Map<String, PriceRecord> priceRecords = new ConcurrentHashMap<>();
+    /**
+     * Slots indexed by product ordinal, copied on write when a product is seen for the first time. Slots themselves
+     * are never replaced, so no update is lost to a concurrent copy.
+     */
+    private volatile PriceSlot[] slots = new PriceSlot[0];
 
     /**
      * Upon receiving a message, first extract the sequence number. A sequence number is valid if the last stored
      * sequence for a particular product is smaller. State update is thread-safe and effectively a no-op when the
-     * product ID or sequence ID is invalid, or during any {@link Exception}.
-     *
-     * <p> Note that the product IDs are stored as strings as opposed to instances of {@link ProductId}.
+     * product ID or price is missing, the sequence ID is invalid, or during any {@link Exception}.
      *
      * @param message Inbound websocket message
      */
     public void update(final String message) {
         try {
-            final String productId = getProductId(message);
-            final long sequence = getSequence(message);
-            /*
-             * May update the price record for a given valid product ID provided the sequence number
-             * is greater than the previously stored sequence number for the product ID.
-             */
-            if (productId != null && isValidSequence(priceRecords.get(productId), sequence)) {
-                priceRecords.put(productId,
-                        new PriceRecord(getPrice(message), sequence));
+            int productStart = -1;
+            int productEnd = -1;
+            int priceStart = -1;
+            int priceEnd = -1;
+            long sequence = -1L;
+            int depth = 0;
+            int i = 0;
+            while (i < message.length()) {
+                final char c = message.charAt(i);
+                if (c == '"') {
+                    final int keyEnd = endOfString(message, i + 1);
+                    final int colon = skipWhitespace(message, keyEnd + 1);
+                    if (depth != 1 || colon >= message.length() || message.charAt(colon) != ':') {
+                        // a string value, or a key of a nested object
+                        i = keyEnd + 1;
+                        continue;
+                    }
+                    final int valueStart = skipWhitespace(message, colon + 1);
+                    if (valueStart < message.length()
+                            && (message.charAt(valueStart) == '{' || message.charAt(valueStart) == '[')) {
+                        // nested value, scanned by the main loop to keep track of depth
+                        i = valueStart;
+                        continue;
+                    }
+                    final boolean quoted = valueStart < message.length() && message.charAt(valueStart) == '"';
+                    final int start = quoted ? valueStart + 1 : valueStart;
+                    final int end = quoted ? endOfString(message, start) : endOfLiteral(message, start);
+                    if (isKey(message, i + 1, keyEnd, PRODUCT_ID_FIELD)) {
+                        productStart = start;
+                        productEnd = end;
+                    } else if (isKey(message, i + 1, keyEnd, PRICE_FIELD)) {
+                        priceStart = start;
+                        priceEnd = end;
+                    } else if (isKey(message, i + 1, keyEnd, SEQUENCE_FIELD)) {
+                        sequence = Long.parseLong(message, start, end, 10);
+                    }
+                    i = quoted ? end + 1 : end;
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+                i++;
+            }
+            if (productStart < 0 || priceStart < 0) {
+                return;
             }
+            // parse before touching the slot, so that a bad price does not pollute the last good known price
+            final long price = FixedPoint.parse(message, priceStart, priceEnd, FixedPoint.WIRE_SCALE);
+            slot(ProductOrdinals.ordinal(message, productStart, productEnd))
+                    .write(price, fractionDigits(message, priceStart, priceEnd), sequence);
         } catch (Exception exception) {
             log.warn("Got exception during price tracking update, message: [{}]", message, exception);
         }
     }
 
     /**
-     * Get the latest-recorded price for the input {@link ProductId}.
+     * Get the latest-recorded price for the input {@link ProductId}, with the scale it had on the wire, e.g.
+     * <code>2400.50</code> rather than <code>2400.50000000</code>. Products that were never seen on the feed are
+     * looked up without being registered in {@link ProductOrdinals}.
      *
      * @param productId {@link ProductId}
      * @return Current price if present, otherwise <code>BigDecimal.valueOf(-1)</code>
      */
     public BigDecimal getPrice(final ProductId productId) {
-        return priceRecords.getOrDefault(productId.toString(), NO_VALUE).price;
+        final PriceReading reading = new PriceReading();
+        if (!read(ProductOrdinals.find(productId.toString()), reading)) {
+            return NO_VALUE;
+        }
+        return FixedPoint.toBigDecimal(reading.getPrice(), FixedPoint.WIRE_SCALE)
+                .setScale(reading.getScale(), RoundingMode.UNNECESSARY);
     }
 
     /**
-     * Returns the set of currently-tracked product IDs.
+     * Reads the latest-recorded price and sequence of a product into a caller-provided {@link PriceReading}, without
+     * allocating or locking. The pair is consistent, i.e. the price is the one recorded with the sequence.
      *
-     * @return Set of tracked product IDs
+     * @param ordinal Product ordinal, see {@link ProductOrdinals#ordinal(String)}
+     * @param reading Destination, left untouched if no price is tracked for the product
+     * @return True if a price is tracked for the product, false otherwise
      */
-    public Set<String> getTrackedProductIds() {
-        return priceRecords.keySet();
+    public boolean read(final int ordinal, final PriceReading reading) {
+        final PriceSlot[] current = slots;
+        if (ordinal < 0 || ordinal >= current.length || current[ordinal] == null) {
+            return false;
+        }
+        return current[ordinal].read(reading);
     }
 
     /**
-     * Determines if the input sequence qualifies the inbound message for price update when compared with the
-     * target {@link PriceRecord}.
+     * Returns the latest-recorded price and sequence of every tracked product, keyed by product ID. The map is a
+     * snapshot taken on each call, not a live view of the tracker.
      *
-     * @param record Current record
-     * @param sequence Inbound sequence number
-     * @return True if sequence qualifies inbound message, false otherwise
+     * @return Unmodifiable map of product IDs to their {@link PriceRecord}
      */
-    private boolean isValidSequence(final PriceRecord record, final long sequence) {
-        return record == null || record.compareTo(sequence) < 0;
+    public Map<String, PriceRecord> getPriceRecords() {
+        final PriceSlot[] current = slots;
+        final Map<String, PriceRecord> priceRecords = new HashMap<>();
+        final PriceReading reading = new PriceReading();
+        for (int ordinal = 0; ordinal < current.length; ordinal++) {
+            if (current[ordinal] != null && current[ordinal].read(reading)) {
+                priceRecords.put(ProductOrdinals.productId(ordinal), new PriceRecord(
+                        FixedPoint.toBigDecimal(reading.getPrice(), FixedPoint.WIRE_SCALE)
+                                .setScale(reading.getScale(), RoundingMode.UNNECESSARY),
+                        reading.getSequence()));
+            }
+        }
+        return Collections.unmodifiableMap(priceRecords);
     }
 
     /**
-     * Extract product ID value from json message
+     * Returns the set of currently-tracked product IDs.
      *
-     * @param message Json message
-     * @return Product ID as {@link String}
+     * @return Set of tracked product IDs
      */
-    private String getProductId(final String message) {
-        return JsonUtils.extractField(PRODUCT_ID_FIELD, message);
+    public Set<String> getTrackedProductIds() {
+        final PriceSlot[] current = slots;
+        final Set<String> productIds = new HashSet<>();
+        for (int ordinal = 0; ordinal < current.length; ordinal++) {
+            if (current[ordinal] != null) {
+                productIds.add(ProductOrdinals.productId(ordinal));
+            }
+        }
+        return Collections.unmodifiableSet(productIds);
+    }
+
+    private PriceSlot slot(final int ordinal) {
+        final PriceSlot[] current = slots;
+        if (ordinal < current.length && current[ordinal] != null) {
+            return current[ordinal];
+        }
+        return createSlot(ordinal);
+    }
+
+    private synchronized PriceSlot createSlot(final int ordinal) {
+        final PriceSlot[] current = slots;
+        if (ordinal < current.length && current[ordinal] != null) {
+            return current[ordinal];
+        }
+        final PriceSlot[] updated = Arrays.copyOf(current, Math.max(current.length, ordinal + 1));
+        updated[ordinal] = new PriceSlot();
+        slots = updated;
+        return updated[ordinal];
+    }
+
+    private static boolean isKey(final String message, final int start, final int end, final String key) {
+        return end - start == key.length() && message.regionMatches(start, key, 0, key.length());
+    }
+
+    private static int endOfString(final String message, final int start) {
+        int i = start;
+        while (i < message.length() && message.charAt(i) != '"') {
+            // skip escaped characters, including escaped quotes
+            i += message.charAt(i) == '\\' ? 2 : 1;
+        }
+        return i;
+    }
+
+    private static int endOfLiteral(final String message, final int start) {
+        int i = start;
+        while (i < message.length()) {
+            final char c = message.charAt(i);
+            if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int fractionDigits(final String message, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (message.charAt(i) == '.') {
+                return end - i - 1;
+            }
+        }
+        return 0;
+    }
+
+    private static int skipWhitespace(final String message, final int start) {
+        int i = start;
+        while (i < message.length() && Character.isWhitespace(message.charAt(i))) {
+            i++;
+        }
+        return i;
     }
 
     /**
-     * Extract price value from json message.
+     * Immutable snapshot of the last known price and corresponding sequence number of a product.
      *
-     * @param message Json message
-     * @return Price as {@link BigDecimal}
-     * @throws NullPointerException When price extraction failed to panic out of state update
+     * @param price Last known price, with its wire scale
+     * @param sequence Sequence number of the message carrying the price
      */
-    private BigDecimal getPrice(final String message) {
-        return new BigDecimal(
-                // should avoid polluting the last good known price, so throw exception during failure
-                Objects.requireNonNull(
-                        JsonUtils.extractField(PRICE_FIELD, message)));
+    public record PriceRecord(BigDecimal price, long sequence) {
     }
 
     /**
-     * Extract sequence number from json message.
-     *
-     * @param message Json message
-     * @return Sequence number
+     * Mutable holder of a price and its sequence, meant to be reused across {@link #read} calls.
      */
-    private long getSequence(final String message) {
-        return Long.parseLong(
-                JsonUtils.extractField(SEQUENCE_FIELD, message, "-1"));
+    @Getter
+    public static class PriceReading {
+
+        /**
+         * Fixed-point price at {@value FixedPoint#WIRE_SCALE} decimals.
+         */
+        private long price = NO_PRICE;
+
+        /**
+         * Number of decimals the price had on the wire.
+         */
+        private int scale = FixedPoint.WIRE_SCALE;
+        private long sequence = -1L;
     }
 
     /**
-     * Immutable internal data structure that is comparable to {@link Long}, for sequence number comparison. Stores
-     * the last known price and corresponding sequence number.
+     * Last known price and sequence number of one product, guarded by a seqlock.
      */
-    @AllArgsConstructor
-    private static class PriceRecord implements Comparable<Long> {
+    private static class PriceSlot {
 
-        protected BigDecimal price;
-        protected long sequence;
+        private static final VarHandle VERSION;
+        private static final VarHandle PRICE;
+        private static final VarHandle SCALE;
+        private static final VarHandle SEQUENCE;
 
-        @Override
-        public int compareTo(Long other) {
-            return Long.compare(sequence, other);
+        static {
+            try {
+                final MethodHandles.Lookup lookup = MethodHandles.lookup();
+                VERSION = lookup.findVarHandle(PriceSlot.class, "version", long.class);
+                PRICE = lookup.findVarHandle(PriceSlot.class, "price", long.class);
+                SCALE = lookup.findVarHandle(PriceSlot.class, "scale", int.class);
+                SEQUENCE = lookup.findVarHandle(PriceSlot.class, "sequence", long.class);
+            } catch (ReflectiveOperationException reflectiveOperationException) {
+                throw new ExceptionInInitializerError(reflectiveOperationException);
+            }
+        }
+
+        @SuppressWarnings("unused")
+        private long version;
+        @SuppressWarnings("unused")
+        private long price = NO_PRICE;
+        @SuppressWarnings("unused")
+        private int scale = FixedPoint.WIRE_SCALE;
+        @SuppressWarnings("unused")
+        private long sequence = Long.MIN_VALUE;
+
+        /**
+         * Records the input price if its sequence is greater than the recorded sequence. Concurrent writers of the
+         * same slot are serialized by moving the version from even to odd with a compare-and-set.
+         *
+         * @param price Fixed-point price
+         * @param scale Number of decimals of the price on the wire
+         * @param sequence Sequence number of the message carrying the price
+         */
+        private void write(final long price, final int scale, final long sequence) {
+            long version;
+            do {
+                version = (long) VERSION.getAcquire(this);
+                if ((version & 1L) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                if ((long) SEQUENCE.getOpaque(this) >= sequence) {
+                    return;
+                }
+            } while ((version & 1L) != 0 || !VERSION.compareAndSet(this, version, version + 1));
+            try {
+                if ((long) SEQUENCE.getOpaque(this) < sequence) {
+                    PRICE.setOpaque(this, price);
+                    SCALE.setOpaque(this, scale);
+                    SEQUENCE.setOpaque(this, sequence);
+                }
+            } finally {
+                VERSION.setRelease(this, version + 2);
+            }
+        }
+
+        /**
+         * Reads a consistent price and sequence pair, retrying while a write is in progress.
+         *
+         * @return False if nothing has been recorded yet, in which case the reading is left untouched
+         */
+        private boolean read(final PriceReading reading) {
+            while (true) {
+                final long version = (long) VERSION.getAcquire(this);
+                if ((version & 1L) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                final long price = (long) PRICE.getOpaque(this);
+                final int scale = (int) SCALE.getOpaque(this);
+                final long sequence = (long) SEQUENCE.getOpaque(this);
+                // keep the reads above from moving after the version check below
+                VarHandle.acquireFence();
+                if ((long) VERSION.getOpaque(this) == version) {
+                    if (sequence == Long.MIN_VALUE) {
+                        return false;
+                    }
+                    reading.price = price;
+                    reading.scale = scale;
+                    reading.sequence = sequence;
+                    return true;
+                }
+            }
         }
     }
 }
@@ -0,0 +1,27 @@
+package com.melonbar.exchange.coinbase.websocket.server;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cumulative metrics of a {@link LocalFeedServer}, over all sessions.
+ *
+ * @param sessions Number of currently open sessions
+ * @param messagesSent Number of messages streamed, excluding replies to subscriptions
+ * @param streamingNanos Time between the start of the first stream and the last message sent
+ * @param targetMessagesPerSecond Configured rate of each stream, zero if unlimited
+ */
+public record FeedServerMetrics(int sessions,
+                                long messagesSent,
+                                long streamingNanos,
+                                int targetMessagesPerSecond) {
+
+    /**
+     * Gets the rate actually sustained. Sends block once the client stops reading and the socket buffers fill up,
+     * so when below the target this is the rate the client keeps up with.
+     *
+     * @return Messages per second, zero before any message is sent
+     */
+    public double messagesPerSecond() {
+        return streamingNanos > 0 ? messagesSent * (double) TimeUnit.SECONDS.toNanos(1) / streamingNanos : 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.melonbar.exchange.coinbase.websocket.server;
+
+/**
+ * Supplies the raw messages a {@link LocalFeedServer} streams to one subscribed session, in order. A new source is
+ * created for every subscription, so implementations need not be thread-safe.
+ */
+@FunctionalInterface
+public interface FeedSource {
+
+    /**
+     * Gets the next message to stream.
+     *
+     * @return Raw json message, or null once the source is exhausted, which ends the stream of the session
+     */
+    String next();
+}
@@ -0,0 +1,50 @@
+package com.melonbar.exchange.coinbase.websocket.server;
+
+import com.melonbar.core.util.Guard;
+import com.melonbar.exchange.coinbase.websocket.processing.journal.FeedJournal;
+import com.melonbar.exchange.coinbase.websocket.processing.journal.JournalReader;
+
+import java.nio.file.Path;
+
+/**
+ * {@link FeedSource} streaming the messages recorded by a {@link FeedJournal}, in journal order and with their
+ * recorded content. The recorded timing is not reproduced, streams are paced by the {@link LocalFeedServer}.
+ */
+public class JournalFeedSource implements FeedSource {
+
+    private final Path directory;
+    private final String name;
+    private final boolean loop;
+    private JournalReader reader;
+    private boolean readSincePassStart;
+
+    /**
+     * Creates a source over all segments of a journal.
+     *
+     * @param directory Directory holding the segment files
+     * @param name Prefix of the segment file names
+     * @param loop Whether to start over once the journal is exhausted, for streams longer than the recording
+     */
+    public JournalFeedSource(final Path directory, final String name, final boolean loop) {
+        Guard.nonNull(directory, name);
+        this.directory = directory;
+        this.name = name;
+        this.loop = loop;
+        this.reader = JournalReader.open(directory, name);
+    }
+
+    @Override
+    public String next() {
+        if (reader.next()) {
+            readSincePassStart = true;
+            return reader.getMessage();
+        }
+        if (!loop || !readSincePassStart) {
+            // an empty journal would otherwise be reopened forever
+            return null;
+        }
+        reader = JournalReader.open(directory, name);
+        readSincePassStart = false;
+        return next();
+    }
+}
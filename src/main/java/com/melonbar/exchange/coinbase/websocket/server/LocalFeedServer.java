@@ -0,0 +1,304 @@
+package com.melonbar.exchange.coinbase.websocket.server;
+
+import com.melonbar.core.util.Guard;
+import com.melonbar.exchange.coinbase.websocket.message.ErrorMessage;
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
+import com.melonbar.exchange.coinbase.websocket.message.SubscribeMessage;
+import com.melonbar.exchange.coinbase.websocket.message.SubscriptionsMessage;
+import com.melonbar.exchange.coinbase.websocket.message.deserializer.JsonMessageMapper;
+import com.melonbar.exchange.coinbase.websocket.message.model.Channel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.servlets.DefaultServlet;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.websocket.server.WsSci;
+
+import javax.servlet.ServletException;
+import javax.websocket.CloseReason;
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.Session;
+import javax.websocket.server.ServerContainer;
+import javax.websocket.server.ServerEndpointConfig;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Local stand-in for the Coinbase Pro websocket feed, for load and latency testing of the client and its handlers
+ * without touching the exchange. It runs an embedded Tomcat websocket endpoint which answers a
+ * <code>subscribe</code> message with a <code>subscriptions</code> message, then streams the messages of a
+ * {@link FeedSource} created for that subscription, e.g.
+ * <pre>{@code
+ * try (LocalFeedServer server = new LocalFeedServer(0, subscription ->
+ *         SyntheticFeedSource.forSubscription(subscription, SyntheticFeedSource.UNBOUNDED), 200_000)) {
+ *     CoinbaseProWebsocketFeedClient.builder()
+ *             .withEndpoint(server.getEndpoint())
+ *             ...
+ * }
+ * }</pre>
+ * A client built without an explicit endpoint may be redirected with the
+ * <code>coinbase_pro_websocket_feed_endpoint</code> system property, see
+ * {@link com.melonbar.exchange.coinbase.util.AppConfig}.
+ *
+ * <p> Each subscribed session is streamed by its own daemon thread, at the configured rate or as fast as possible.
+ * Messages are sent with the blocking remote, so once the client falls behind and the socket buffers fill up, the
+ * stream slows down to the rate the client sustains, which {@link FeedServerMetrics} reports next to the target.
+ */
+@Slf4j
+public class LocalFeedServer implements Closeable {
+
+    /**
+     * Path of the feed endpoint.
+     */
+    public static final String PATH = "/";
+
+    /**
+     * Waits shorter than this are spun rather than parked, since parking may oversleep by tens of microseconds.
+     */
+    private static final long SPIN_THRESHOLD_NANOS = 50_000L;
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+    private static final String DEFAULT_SERVLET = "default";
+
+    private final Function<SubscribeMessage, FeedSource> sources;
+    private final int messagesPerSecond;
+    private final Path baseDirectory;
+    private final Tomcat tomcat;
+    private final Set<FeedSession> sessions = ConcurrentHashMap.newKeySet();
+    private final LongAdder messagesSent = new LongAdder();
+    private final AtomicLong firstStreamNanos = new AtomicLong(NOT_STARTED);
+    private volatile long lastSendNanos;
+
+    @Getter
+    private final int port;
+
+    /**
+     * Starts a server listening on localhost.
+     *
+     * @param port Port to listen on, or zero for any free port, see {@link #getPort()}
+     * @param sources Creates the {@link FeedSource} streamed to a session, given its subscription
+     * @param messagesPerSecond Rate of each stream, or zero to stream as fast as the client reads
+     * @throws IllegalStateException If the server fails to start
+     */
+    public LocalFeedServer(final int port,
+                           final Function<SubscribeMessage, FeedSource> sources,
+                           final int messagesPerSecond) {
+        Guard.nonNull(sources);
+        if (messagesPerSecond < 0) {
+            throw new IllegalArgumentException("Rate must not be negative, got " + messagesPerSecond);
+        }
+        this.sources = sources;
+        this.messagesPerSecond = messagesPerSecond;
+        try {
+            this.baseDirectory = Files.createTempDirectory("local-feed-server");
+        } catch (IOException ioException) {
+            throw new UncheckedIOException("Failed to create local feed server directory", ioException);
+        }
+        this.tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDirectory.toString());
+        tomcat.setHostname("localhost");
+        tomcat.setPort(port);
+        final Context context = tomcat.addContext("", baseDirectory.toString());
+        // upgrades are performed by a filter, which only runs for requests mapped to a servlet
+        Tomcat.addServlet(context, DEFAULT_SERVLET, new DefaultServlet());
+        context.addServletMappingDecoded(PATH, DEFAULT_SERVLET);
+        context.addServletContainerInitializer(new WsSci(), null);
+        // runs after WsSci, which publishes the server container
+        context.addServletContainerInitializer((classes, servletContext) -> {
+            final ServerContainer serverContainer =
+                    (ServerContainer) servletContext.getAttribute(ServerContainer.class.getName());
+            try {
+                serverContainer.addEndpoint(ServerEndpointConfig.Builder.create(FeedSession.class, PATH)
+                        .configurator(new ServerEndpointConfig.Configurator() {
+                            @Override
+                            public <T> T getEndpointInstance(final Class<T> endpointClass) {
+                                return endpointClass.cast(new FeedSession());
+                            }
+                        })
+                        .build());
+            } catch (DeploymentException deploymentException) {
+                throw new ServletException("Failed to deploy local feed endpoint", deploymentException);
+            }
+        }, null);
+        try {
+            tomcat.getConnector();
+            tomcat.start();
+        } catch (LifecycleException lifecycleException) {
+            close();
+            throw new IllegalStateException("Failed to start local feed server", lifecycleException);
+        }
+        this.port = tomcat.getConnector().getLocalPort();
+        log.info("Local feed server listening on {} at {} messages/s", getEndpoint(), messagesPerSecond);
+    }
+
+    /**
+     * Gets the websocket endpoint URI clients connect to.
+     *
+     * @return Endpoint URI, e.g. <code>ws://localhost:8025/</code>
+     */
+    public String getEndpoint() {
+        return "ws://localhost:" + port + PATH;
+    }
+
+    /**
+     * Gets the cumulative metrics of this server.
+     *
+     * @return {@link FeedServerMetrics}
+     */
+    public FeedServerMetrics getMetrics() {
+        final long first = firstStreamNanos.get();
+        final long streamingNanos = first == NOT_STARTED ? 0 : Math.max(0, lastSendNanos - first);
+        return new FeedServerMetrics(sessions.size(), messagesSent.sum(), streamingNanos, messagesPerSecond);
+    }
+
+    /**
+     * Stops streaming, closes all sessions and stops the server.
+     */
+    @Override
+    public void close() {
+        sessions.forEach(FeedSession::stop);
+        try {
+            tomcat.stop();
+            tomcat.destroy();
+        } catch (LifecycleException lifecycleException) {
+            log.warn("Failed to stop local feed server", lifecycleException);
+        }
+        try (Stream<Path> files = Files.walk(baseDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException ioException) {
+            log.warn("Failed to delete local feed server directory {}", baseDirectory, ioException);
+        }
+    }
+
+    private static void awaitUntil(final long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Server side of one client connection. Replies are sent from the container thread delivering the inbound
+     * message and the stream from a dedicated thread, so sends are serialized on the session.
+     */
+    private class FeedSession extends Endpoint implements MessageHandler.Whole<String> {
+
+        private Session session;
+        private Thread streamer;
+        private volatile boolean stopped;
+
+        @Override
+        public void onOpen(final Session session, final EndpointConfig endpointConfig) {
+            this.session = session;
+            sessions.add(this);
+            session.addMessageHandler(String.class, this);
+        }
+
+        @Override
+        public void onClose(final Session session, final CloseReason closeReason) {
+            stopped = true;
+            sessions.remove(this);
+        }
+
+        @Override
+        public void onError(final Session session, final Throwable throwable) {
+            log.debug("Local feed session [{}] failed", session.getId(), throwable);
+        }
+
+        @Override
+        public void onMessage(final String message) {
+            final Optional<? extends FeedMessage> feedMessage = JsonMessageMapper.jsonToObject(message);
+            if (feedMessage.isEmpty() || !(feedMessage.get() instanceof SubscribeMessage subscribeMessage)) {
+                send(JsonMessageMapper.objectToJson(new ErrorMessage("Unsupported message: " + message)));
+                return;
+            }
+            send(JsonMessageMapper.objectToJson(new SubscriptionsMessage(subscribedChannels(subscribeMessage))));
+            synchronized (this) {
+                if (streamer == null) {
+                    final FeedSource source = sources.apply(subscribeMessage);
+                    streamer = new Thread(() -> stream(source), "local-feed-" + session.getId());
+                    streamer.setDaemon(true);
+                    streamer.start();
+                }
+            }
+        }
+
+        private void stream(final FeedSource source) {
+            final long startNanos = System.nanoTime();
+            firstStreamNanos.compareAndSet(NOT_STARTED, startNanos);
+            final long intervalNanos = messagesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / messagesPerSecond : 0;
+            long sent = 0;
+            String message;
+            while (!stopped && (message = source.next()) != null) {
+                if (intervalNanos > 0) {
+                    awaitUntil(startNanos + sent * intervalNanos);
+                }
+                if (!send(message)) {
+                    return;
+                }
+                sent++;
+                messagesSent.increment();
+                lastSendNanos = System.nanoTime();
+            }
+            log.info("Local feed session [{}] streamed {} messages", session.getId(), sent);
+        }
+
+        private boolean send(final String message) {
+            try {
+                synchronized (session) {
+                    session.getBasicRemote().sendText(message);
+                }
+                return true;
+            } catch (IOException | IllegalStateException exception) {
+                log.debug("Local feed session [{}] closed while sending", session.getId(), exception);
+                stopped = true;
+                return false;
+            }
+        }
+
+        private void stop() {
+            stopped = true;
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "Local feed server closing"));
+            } catch (IOException ioException) {
+                log.debug("Failed to close local feed session [{}]", session.getId(), ioException);
+            }
+        }
+
+        /**
+         * Echoes the subscribed channels, giving channels without products of their own the top-level products,
+         * as the exchange does.
+         */
+        private Channel[] subscribedChannels(final SubscribeMessage subscribeMessage) {
+            final Channel[] channels = new Channel[subscribeMessage.getChannels().length];
+            for (int i = 0; i < channels.length; i++) {
+                final Channel channel = subscribeMessage.getChannels()[i];
+                channels[i] = new Channel(channel.getName(),
+                        channel.getProductIds() != null && channel.getProductIds().length > 0
+                                ? channel.getProductIds()
+                                : subscribeMessage.getProductIds());
+            }
+            return channels;
+        }
+    }
+}
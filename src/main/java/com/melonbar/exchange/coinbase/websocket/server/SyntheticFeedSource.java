@@ -0,0 +1,101 @@
+package com.melonbar.exchange.coinbase.websocket.server;
+
+import com.melonbar.core.model.ProductId;
+import com.melonbar.core.util.Guard;
+import com.melonbar.exchange.coinbase.util.FixedPoint;
+import com.melonbar.exchange.coinbase.websocket.MessageTypes;
+import com.melonbar.exchange.coinbase.websocket.message.SubscribeMessage;
+import com.melonbar.exchange.coinbase.websocket.message.model.Channel;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link FeedSource} generating <code>ticker</code> messages, cycling through its products. Every product has its
+ * own increasing sequence and trade id, and its price zigzags one cent at a time within a dollar, so that sequence
+ * gaps are never reported and trackers see a price change on every message.
+ */
+public class SyntheticFeedSource implements FeedSource {
+
+    /**
+     * Message count of a source that is never exhausted.
+     */
+    public static final long UNBOUNDED = -1L;
+
+    private static final int PRICE_SCALE = 2;
+    private static final long BASE_PRICE = 10_000_00L;
+    private static final int PRICE_RANGE = 100;
+    private static final String LAST_SIZE = "0.01000000";
+
+    private final String[] productIds;
+    private final long[] sequences;
+    private final long messages;
+    private final StringBuilder builder = new StringBuilder(256);
+    private long generated;
+
+    /**
+     * Creates a source of messages for the input products.
+     *
+     * @param productIds Products to cycle through, at least one
+     * @param messages Number of messages to generate, or {@link #UNBOUNDED}
+     */
+    public SyntheticFeedSource(final List<ProductId> productIds, final long messages) {
+        Guard.nonNull(productIds);
+        if (productIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one product is required");
+        }
+        this.productIds = productIds.stream().map(ProductId::toString).toArray(String[]::new);
+        this.sequences = new long[productIds.size()];
+        this.messages = messages;
+    }
+
+    /**
+     * Creates a source of messages for the products of a subscription, i.e. its top-level products and those of its
+     * channels, defaulting to {@link ProductId#BTC_USD} if none is given.
+     *
+     * @param subscribeMessage {@link SubscribeMessage}
+     * @param messages Number of messages to generate, or {@link #UNBOUNDED}
+     * @return {@link SyntheticFeedSource}
+     */
+    public static SyntheticFeedSource forSubscription(final SubscribeMessage subscribeMessage, final long messages) {
+        final Set<ProductId> productIds = new LinkedHashSet<>(Arrays.asList(subscribeMessage.getProductIds()));
+        for (final Channel channel : subscribeMessage.getChannels()) {
+            if (channel.getProductIds() != null) {
+                productIds.addAll(Arrays.asList(channel.getProductIds()));
+            }
+        }
+        productIds.remove(null);
+        return new SyntheticFeedSource(
+                productIds.isEmpty() ? List.of(ProductId.BTC_USD) : List.copyOf(productIds), messages);
+    }
+
+    @Override
+    public String next() {
+        if (messages != UNBOUNDED && generated >= messages) {
+            return null;
+        }
+        final int product = (int) (generated++ % productIds.length);
+        final long sequence = ++sequences[product];
+        final long step = sequence % (2 * PRICE_RANGE);
+        final long price = BASE_PRICE + (step < PRICE_RANGE ? step : 2 * PRICE_RANGE - step);
+        builder.setLength(0);
+        builder.append("{\"type\":\"").append(MessageTypes.TICKER)
+                .append("\",\"trade_id\":").append(sequence)
+                .append(",\"sequence\":").append(sequence)
+                .append(",\"time\":\"").append(Instant.now())
+                .append("\",\"product_id\":\"").append(productIds[product])
+                .append("\",\"price\":\"");
+        FixedPoint.append(builder, price, PRICE_SCALE)
+                .append("\",\"side\":\"").append((sequence & 1) == 0 ? "buy" : "sell")
+                .append("\",\"last_size\":\"").append(LAST_SIZE)
+                .append("\",\"best_bid\":\"");
+        FixedPoint.append(builder, price - 1, PRICE_SCALE)
+                .append("\",\"best_ask\":\"");
+        FixedPoint.append(builder, price, PRICE_SCALE)
+                .append("\"}");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.melonbar.exchange.coinbase.authentication;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class HmacSignerTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("not-a-real-secret".getBytes());
+
+    private static String expectedSignature(final String prehash) throws Exception {
+        final Mac mac = Mac.getInstance(HmacSigner.HMAC_SHA256);
+        mac.init(new SecretKeySpec(Base64.getDecoder().decode(SECRET), HmacSigner.HMAC_SHA256));
+        return Base64.getEncoder().encodeToString(mac.doFinal(prehash.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testSignatureMatchesPrehashMac() throws Exception {
+        final HmacSigner signer = new HmacSigner(SECRET);
+        final String body = "{\"side\":\"buy\",\"note\":\"\u00e9\"}";
+
+        Assert.assertEquals(signer.sign("1617307200", "POST", "/orders", body.getBytes(StandardCharsets.UTF_8)),
+                expectedSignature("1617307200POST/orders" + body));
+        Assert.assertEquals(signer.sign("1617307200", "GET", "/accounts", new byte[0]),
+                expectedSignature("1617307200GET/accounts"));
+        // non-ascii path and a prehash longer than the initial buffer
+        final String longPath = "/orders/\u00e9" + "a".repeat(1000);
+        Assert.assertEquals(signer.sign("1617307200", "GET", longPath, new byte[0]),
+                expectedSignature("1617307200GET" + longPath));
+        Assert.assertEquals(signer.sign("1617307200", "GET", "/accounts", new byte[0]),
+                expectedSignature("1617307200GET/accounts"));
+    }
+
+    @Test
+    public void testConcurrentSignatures() throws Exception {
+        final HmacSigner signer = new HmacSigner(SECRET);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                final String requestPath = "/orders/" + i;
+                results.add(executor.submit(() -> {
+                    final String expected = expectedSignature("1617307200DELETE" + requestPath);
+                    for (int j = 0; j < 100; j++) {
+                        if (!expected.equals(signer.sign("1617307200", "DELETE", requestPath, new byte[0]))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (final Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSecret() {
+        new HmacSigner("not base64!");
+    }
+}
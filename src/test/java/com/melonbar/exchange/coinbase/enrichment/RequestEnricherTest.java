@@ -0,0 +1,178 @@
+package com.melonbar.exchange.coinbase.enrichment;
+
+import com.melonbar.core.http.Http;
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.core.model.ProductId;
+import com.melonbar.exchange.coinbase.annotation.BodyField;
+import com.melonbar.exchange.coinbase.annotation.QueryField;
+import com.melonbar.exchange.coinbase.annotation.RequestField;
+import com.melonbar.exchange.coinbase.exception.InvalidRequestException;
+import com.melonbar.exchange.coinbase.model.order.CancelOrderByOrderIdRequest;
+import com.melonbar.exchange.coinbase.model.order.GetOrderByOrderIdRequest;
+import com.melonbar.exchange.coinbase.model.order.LimitOrderRequest;
+import com.melonbar.exchange.coinbase.model.order.ListOrdersRequest;
+import com.melonbar.exchange.coinbase.model.order.flag.OrderStatus;
+import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
+import com.melonbar.exchange.coinbase.model.products.Granularity;
+import com.melonbar.exchange.coinbase.model.products.ProductCandlesRequest;
+import com.melonbar.exchange.coinbase.rest.api.resource.Resource;
+import com.melonbar.exchange.coinbase.util.AppConfig;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+public class RequestEnricherTest {
+
+    private static final UUID CLIENT_OID = UUID.fromString("d50ec984-77a8-460a-b958-66f114b0de9b");
+
+    private final RequestEnricher requestEnricher = new RequestEnricher();
+    private final RequestEnricher reflectiveEnricher = new RequestEnricher(false);
+
+    @Test
+    public void testBodyFields() {
+        final LimitOrderRequest request = requestEnricher.enrichRequest(LimitOrderRequest.builder()
+                .side(OrderSide.BUY)
+                .productId(ProductId.BTC_USD)
+                .price(new BigDecimal("4388.01"))
+                .size(new BigDecimal("0.01"))
+                .orderId(CLIENT_OID)
+                .build(), Http.POST, Resource.ORDER);
+
+        Assert.assertEquals(request.getMethod(), Http.POST);
+        Assert.assertEquals(request.getRequestPath(), "/orders");
+        Assert.assertEquals(request.getUri(), AppConfig.COINBASE_PRO_API_ENDPOINT + "/orders");
+        Assert.assertEquals(request.getBody(), "{\"side\":\"" + OrderSide.BUY + "\",\"product_id\":\"BTC-USD\","
+                + "\"price\":\"4388.01\",\"size\":\"0.01\",\"type\":\"limit\",\"client_oid\":\"" + CLIENT_OID + "\"}");
+    }
+
+    @Test
+    public void testPathAndQueryFields() {
+        final CancelOrderByOrderIdRequest cancel = requestEnricher.enrichRequest(CancelOrderByOrderIdRequest.builder()
+                .orderId("abc")
+                .productId("BTC-USD")
+                .build(), Http.DELETE, Resource.ORDER_BY_ORDER_ID);
+        Assert.assertEquals(cancel.getRequestPath(), "/orders/client::abc?product_id=BTC-USD");
+        Assert.assertEquals(cancel.getBody(), "");
+
+        final ProductCandlesRequest candles = requestEnricher.enrichRequest(ProductCandlesRequest.builder()
+                .productId(ProductId.BTC_USD)
+                .granularity(Granularity.ONE_HOUR)
+                .build(), Http.GET, Resource.PRODUCT_CANDLES);
+        Assert.assertEquals(candles.getRequestPath(), "/products/BTC-USD/candles?granularity=3600");
+    }
+
+    @Test
+    public void testRepeatedEnrichmentIsStable() {
+        final GetOrderByOrderIdRequest request = GetOrderByOrderIdRequest.builder().orderId("abc").build();
+        for (int i = 0; i < 3; i++) {
+            requestEnricher.enrichRequest(request, Http.GET, Resource.ORDER_BY_ORDER_ID);
+            Assert.assertEquals(request.getRequestPath(), "/orders/client::abc");
+        }
+    }
+
+    @Test(expectedExceptions = InvalidRequestException.class)
+    public void testMissingPathParameter() {
+        requestEnricher.enrichRequest(GetOrderByOrderIdRequest.builder().build(), Http.GET,
+                Resource.ORDER_BY_ORDER_ID);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testMissingRequiredBodyField() {
+        requestEnricher.enrichRequest(LimitOrderRequest.builder().side(OrderSide.BUY).build(), Http.POST,
+                Resource.ORDER);
+    }
+
+    @DataProvider
+    public Object[][] requests() {
+        return new Object[][] {
+                {(Supplier<BaseRequest>) () -> LimitOrderRequest.builder()
+                        .side(OrderSide.SELL)
+                        .productId(ProductId.BTC_USD)
+                        .price(new BigDecimal("4388.01"))
+                        .size(new BigDecimal("0.01"))
+                        .build(), Http.POST, Resource.ORDER},
+                {(Supplier<BaseRequest>) () -> ProductCandlesRequest.builder()
+                        .productId(ProductId.BTC_USD)
+                        .granularity(Granularity.ONE_HOUR)
+                        .build(), Http.GET, Resource.PRODUCT_CANDLES},
+                {(Supplier<BaseRequest>) () -> ListOrdersRequest.builder()
+                        .orderStatuses(new OrderStatus[] {OrderStatus.OPEN})
+                        .productId("BTC-USD")
+                        .build(), Http.GET, Resource.ORDER},
+                {(Supplier<BaseRequest>) () -> new ChildRequest("a\"b", "c", null), Http.POST, Resource.ORDER},
+                {(Supplier<BaseRequest>) () -> new ChildRequest(null, null, new String[] {"x", "y"}), Http.POST,
+                        Resource.ORDER},
+                {(Supplier<BaseRequest>) () -> new EncodedPathRequest("a/b c"), Http.GET, Resource.ACCOUNT_BY_ID}
+        };
+    }
+
+    @Test(dataProvider = "requests")
+    public void testGeneratedEnricherMatchesReflection(final Supplier<BaseRequest> request,
+                                                        final Http method,
+                                                        final Resource resource) {
+        final BaseRequest generated = requestEnricher.enrichRequest(request.get(), method, resource);
+        final BaseRequest reflective = reflectiveEnricher.enrichRequest(request.get(), method, resource);
+
+        Assert.assertNotNull(GeneratedEnrichers.find(generated.getClass()));
+        Assert.assertEquals(generated.getRequestPath(), reflective.getRequestPath());
+        Assert.assertEquals(generated.getBody(), reflective.getBody());
+        Assert.assertEquals(generated.getUri(), reflective.getUri());
+    }
+
+    @Test
+    public void testGeneratedEnricherOfNestedInheritedRequest() {
+        Assert.assertEquals(GeneratedEnrichers.find(ChildRequest.class).getClass().getName(),
+                RequestEnricherTest.class.getName() + "_ChildRequest" + GeneratedEnrichers.SUFFIX);
+
+        final ChildRequest request = requestEnricher.enrichRequest(new ChildRequest("a", "b", new String[] {"x"}),
+                Http.POST, Resource.ORDER);
+        Assert.assertEquals(request.getRequestPath(), "/orders?parent=b");
+        Assert.assertEquals(request.getBody(), "{\"values\":\"x\",\"parent\":\"a\"}");
+    }
+
+    @Test
+    public void testPercentEncodedPathParameter() {
+        final EncodedPathRequest request = requestEnricher.enrichRequest(new EncodedPathRequest("a/b c"), Http.GET,
+                Resource.ACCOUNT_BY_ID);
+        Assert.assertEquals(request.getRequestPath(), "/accounts/a%2Fb%20c");
+    }
+
+    static class EncodedPathRequest extends BaseRequest {
+
+        @RequestField(index = 0, percentEncode = true)
+        private final String accountId;
+
+        EncodedPathRequest(final String accountId) {
+            this.accountId = accountId;
+        }
+    }
+
+    abstract static class ParentRequest extends BaseRequest {
+
+        @BodyField(key = "parent")
+        private final String parent;
+
+        @QueryField(key = "parent")
+        private final String parentQuery;
+
+        ParentRequest(final String parent, final String parentQuery) {
+            this.parent = parent;
+            this.parentQuery = parentQuery;
+        }
+    }
+
+    static class ChildRequest extends ParentRequest {
+
+        @BodyField(key = "values")
+        private final String[] values;
+
+        ChildRequest(final String parent, final String parentQuery, final String[] values) {
+            super(parent, parentQuery);
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.melonbar.exchange.coinbase.http.ratelimit;
+
+import com.melonbar.core.http.Http;
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.core.http.response.Response;
+import com.melonbar.exchange.coinbase.exception.RateLimitExceededException;
+import com.melonbar.exchange.coinbase.http.AsyncHttpClient;
+import com.melonbar.exchange.coinbase.rest.api.resource.EndpointClass;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PriorityRequestSchedulerTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private RateLimiter rateLimiter;
+    private PriorityRequestScheduler scheduler;
+
+    private static BaseRequest request(final Http method, final String requestPath) {
+        final BaseRequest request = new BaseRequest() { };
+        request.setMethod(method);
+        request.setRequestPath(requestPath);
+        return request;
+    }
+
+    @BeforeMethod
+    public void setUp() {
+        clock.set(0);
+        sent.clear();
+        rateLimiter = new RateLimiter(Duration.ofSeconds(1), clock::get);
+        scheduler = new PriorityRequestScheduler(new RecordingHttpClient(), rateLimiter, false);
+    }
+
+    private void exhaustPrivateBudget() {
+        while (rateLimiter.tryAcquire(EndpointClass.PRIVATE) == 0) {
+            // take the burst
+        }
+    }
+
+    @Test
+    public void testSendsImmediatelyWithinBudget() {
+        Assert.assertTrue(scheduler.sendAsync(request(Http.GET, "/accounts")).isDone());
+        Assert.assertEquals(sent, List.of("/accounts"));
+        Assert.assertEquals(scheduler.getQueueDepth(EndpointClass.PRIVATE), 0);
+    }
+
+    @Test
+    public void testReleasesByPriority() {
+        exhaustPrivateBudget();
+        final List<CompletableFuture<HttpResponse<Response>>> responses = new ArrayList<>();
+        responses.add(scheduler.sendAsync(request(Http.GET, "/fills")));
+        responses.add(scheduler.sendAsync(request(Http.POST, "/orders")));
+        responses.add(scheduler.sendAsync(request(Http.DELETE, "/orders/abc")));
+        Assert.assertEquals(scheduler.getQueueDepth(EndpointClass.PRIVATE), 3);
+
+        // private budget refills a token every 200 ms
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(scheduler.dispatchPending(), 200 * MILLI - clock.get() % (200 * MILLI));
+            clock.addAndGet(200 * MILLI);
+            scheduler.dispatchPending();
+        }
+
+        Assert.assertEquals(sent, List.of("/orders/abc", "/orders", "/fills"));
+        responses.forEach(response -> Assert.assertTrue(response.isDone()));
+        Assert.assertEquals(rateLimiter.getMetrics(EndpointClass.PRIVATE).queued(), 3);
+        Assert.assertEquals(rateLimiter.getMetrics(EndpointClass.PRIVATE).maxQueueWaitNanos(), 600 * MILLI);
+    }
+
+    @Test
+    public void testLowPriorityIsNotStarved() {
+        exhaustPrivateBudget();
+        scheduler.sendAsync(request(Http.GET, "/accounts"));
+        clock.addAndGet(100 * MILLI);
+        // arrives later but is more urgent than the read, which may be delayed up to 500 ms
+        scheduler.sendAsync(request(Http.POST, "/orders"));
+        clock.addAndGet(450 * MILLI);
+        // the read has now waited its max delay, and goes ahead of a new cancellation
+        scheduler.sendAsync(request(Http.DELETE, "/orders/abc"));
+
+        scheduler.dispatchPending();
+
+        Assert.assertEquals(sent, List.of("/orders", "/accounts"));
+        clock.addAndGet(200 * MILLI);
+        scheduler.dispatchPending();
+        Assert.assertEquals(sent, List.of("/orders", "/accounts", "/orders/abc"));
+    }
+
+    @Test
+    public void testRejectsAfterMaxQueueWait() {
+        exhaustPrivateBudget();
+        final CompletableFuture<HttpResponse<Response>> response = scheduler.sendAsync(request(Http.GET, "/fills"));
+        clock.addAndGet(1500 * MILLI);
+
+        scheduler.dispatchPending();
+
+        final CompletionException failure = Assert.expectThrows(CompletionException.class, response::join);
+        Assert.assertTrue(failure.getCause() instanceof RateLimitExceededException);
+        Assert.assertTrue(sent.isEmpty());
+        Assert.assertEquals(rateLimiter.getMetrics(EndpointClass.PRIVATE).rejected(), 1);
+    }
+
+    @Test
+    public void testDispatcherReleasesBlockingRequests() {
+        final PriorityRequestScheduler dispatching =
+                new PriorityRequestScheduler(new RecordingHttpClient(), new RateLimiter(Duration.ofSeconds(1)));
+        try {
+            // public budget: burst of 6, then 3 per second
+            for (int i = 0; i < 8; i++) {
+                dispatching.send(request(Http.GET, "/products/BTC-USD/ticker"));
+            }
+            Assert.assertEquals(sent.size(), 8);
+        } finally {
+            dispatching.close();
+        }
+    }
+
+    @Test
+    public void testSchedulersShareQueue() {
+        final PriorityRequestQueue queue = new PriorityRequestQueue(rateLimiter, false);
+        final PriorityRequestScheduler reads = new PriorityRequestScheduler(new RecordingHttpClient(), queue);
+        final PriorityRequestScheduler orders = new PriorityRequestScheduler(new RecordingHttpClient(), queue);
+        exhaustPrivateBudget();
+        reads.sendAsync(request(Http.GET, "/fills"));
+        orders.sendAsync(request(Http.DELETE, "/orders/abc"));
+        Assert.assertEquals(reads.getQueueDepth(EndpointClass.PRIVATE), 2);
+
+        // closing a scheduler sharing the queue leaves the requests of the others queued
+        reads.close();
+        clock.addAndGet(200 * MILLI);
+        queue.dispatchPending();
+
+        Assert.assertEquals(sent, List.of("/orders/abc"));
+        Assert.assertEquals(orders.getQueueDepth(EndpointClass.PRIVATE), 1);
+    }
+
+    /**
+     * Records the request path of each request sent.
+     */
+    private class RecordingHttpClient implements AsyncHttpClient {
+
+        @Override
+        public HttpResponse<Response> send(final BaseRequest request) {
+            sent.add(request.getRequestPath());
+            return null;
+        }
+
+        @Override
+        public CompletableFuture<HttpResponse<Response>> sendAsync(final BaseRequest request) {
+            sent.add(request.getRequestPath());
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
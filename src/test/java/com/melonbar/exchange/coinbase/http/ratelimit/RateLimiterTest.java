@@ -0,0 +1,103 @@
+package com.melonbar.exchange.coinbase.http.ratelimit;
+
+import com.melonbar.exchange.coinbase.exception.RateLimitExceededException;
+import com.melonbar.exchange.coinbase.rest.api.resource.EndpointClass;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong();
+    private RateLimiter rateLimiter;
+
+    @BeforeMethod
+    public void setUp() {
+        clock.set(0);
+        rateLimiter = new RateLimiter(Duration.ofSeconds(1), clock::get);
+    }
+
+    @Test
+    public void testBurstThenQueueAtRate() {
+        // private: 5 per second, burst of 10
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(rateLimiter.reserve(EndpointClass.PRIVATE), 0);
+        }
+        Assert.assertEquals(rateLimiter.reserve(EndpointClass.PRIVATE), SECOND / 5);
+        Assert.assertEquals(rateLimiter.reserve(EndpointClass.PRIVATE), 2 * SECOND / 5);
+
+        // budgets are separate
+        Assert.assertEquals(rateLimiter.reserve(EndpointClass.PUBLIC), 0);
+
+        final RateLimitMetrics metrics = rateLimiter.getMetrics(EndpointClass.PRIVATE);
+        Assert.assertEquals(metrics.availableTokens(), -2, 1e-9);
+        Assert.assertEquals(metrics.acquired(), 12);
+        Assert.assertEquals(metrics.queued(), 2);
+        Assert.assertEquals(metrics.maxQueueWaitNanos(), 2 * SECOND / 5);
+        Assert.assertEquals(metrics.averageQueueWaitNanos(), 3 * SECOND / 10);
+    }
+
+    @Test
+    public void testRefillIsCappedAtBurst() {
+        for (int i = 0; i < 6; i++) {
+            rateLimiter.reserve(EndpointClass.PUBLIC);
+        }
+        clock.addAndGet(SECOND);
+        Assert.assertEquals(rateLimiter.getMetrics(EndpointClass.PUBLIC).availableTokens(), 3, 1e-9);
+
+        clock.addAndGet(10 * SECOND);
+        Assert.assertEquals(rateLimiter.getMetrics(EndpointClass.PUBLIC).availableTokens(), 6, 1e-9);
+    }
+
+    @Test
+    public void testRejectsOverMaxQueueWait() {
+        // public: 3 per second, burst of 6, so 3 more requests fit in the one second of queue wait
+        for (int i = 0; i < 9; i++) {
+            rateLimiter.reserve(EndpointClass.PUBLIC);
+        }
+        Assert.expectThrows(RateLimitExceededException.class, () -> rateLimiter.reserve(EndpointClass.PUBLIC));
+
+        final CompletableFuture<Void> rejected = rateLimiter.acquireAsync(EndpointClass.PUBLIC);
+        Assert.assertTrue(rejected.isCompletedExceptionally());
+        Assert.assertEquals(rateLimiter.getMetrics(EndpointClass.PUBLIC).rejected(), 2);
+        Assert.assertEquals(rateLimiter.getMetrics(EndpointClass.PUBLIC).acquired(), 9);
+    }
+
+    @Test
+    public void testThrottleAndRecover() {
+        rateLimiter.onResponse(EndpointClass.PRIVATE, 429);
+
+        final RateLimitMetrics throttled = rateLimiter.getMetrics(EndpointClass.PRIVATE);
+        Assert.assertEquals(throttled.requestsPerSecond(), 2.5, 1e-9);
+        Assert.assertEquals(throttled.availableTokens(), 0, 1e-9);
+        Assert.assertEquals(throttled.throttled(), 1);
+        // no burst left after a 429, the next request waits for a token at the lowered rate
+        Assert.assertEquals(rateLimiter.reserve(EndpointClass.PRIVATE), SECOND * 2 / 5);
+
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.onResponse(EndpointClass.PRIVATE, 200);
+        }
+        Assert.assertEquals(rateLimiter.getMetrics(EndpointClass.PRIVATE).requestsPerSecond(), 5, 1e-9);
+        Assert.assertEquals(rateLimiter.getMetrics(EndpointClass.PUBLIC).throttled(), 0);
+    }
+
+    @Test
+    public void testAcquireAsyncCompletesAfterWait() throws Exception {
+        final RateLimiter systemClockLimiter = new RateLimiter(Duration.ofSeconds(1));
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(systemClockLimiter.acquireAsync(EndpointClass.PRIVATE).isDone());
+        }
+        final long start = System.nanoTime();
+        final CompletableFuture<Void> queued = systemClockLimiter.acquireAsync(EndpointClass.PRIVATE);
+
+        queued.get(1, TimeUnit.SECONDS);
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+}
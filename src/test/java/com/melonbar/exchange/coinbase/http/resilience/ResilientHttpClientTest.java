@@ -0,0 +1,221 @@
+package com.melonbar.exchange.coinbase.http.resilience;
+
+import com.melonbar.core.http.Http;
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.core.http.response.Response;
+import com.melonbar.exchange.coinbase.annotation.BodyField;
+import com.melonbar.exchange.coinbase.exception.BadRequestException;
+import com.melonbar.exchange.coinbase.exception.RateLimitExceededException;
+import com.melonbar.exchange.coinbase.exception.TransientException;
+import com.melonbar.exchange.coinbase.http.AsyncHttpClient;
+import com.melonbar.exchange.coinbase.http.ratelimit.RateLimitedHttpClient;
+import com.melonbar.exchange.coinbase.http.ratelimit.RateLimiter;
+import com.melonbar.exchange.coinbase.rest.api.resource.EndpointClass;
+import com.melonbar.exchange.coinbase.testutil.FakeHttpResponse;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class ResilientHttpClientTest {
+
+    private static final RetryPolicy FAST_RETRIES = RetryPolicy.builder()
+            .baseDelay(Duration.ofMillis(1))
+            .maxDelay(Duration.ofMillis(5))
+            .build();
+
+    private static BaseRequest request(final Http method, final String body) {
+        final BaseRequest request = new OrderBookRequest();
+        request.setMethod(method);
+        request.setRequestPath("/orders");
+        request.setBody(body);
+        return request;
+    }
+
+    private static Supplier<CompletableFuture<HttpResponse<Response>>> status(final int statusCode) {
+        return () -> CompletableFuture.completedFuture(new FakeHttpResponse(statusCode));
+    }
+
+    private static Supplier<CompletableFuture<HttpResponse<Response>>> failure(final Throwable throwable) {
+        return () -> CompletableFuture.failedFuture(throwable);
+    }
+
+    @Test
+    public void testRetriesIdempotentRequests() {
+        final ScriptedHttpClient httpClient = new ScriptedHttpClient(List.of(
+                status(503), failure(new HttpTimeoutException("timed out")), status(200)));
+        final ResilientHttpClient client = new ResilientHttpClient(httpClient, FAST_RETRIES);
+
+        Assert.assertEquals(client.send(request(Http.DELETE, "")).statusCode(), 200);
+        Assert.assertEquals(httpClient.attempts.get(), 3);
+        Assert.assertEquals(client.getRetries(), 2);
+    }
+
+    @Test
+    public void testOrdersAreOnlyRetriedWithClientOid() {
+        final ScriptedHttpClient httpClient = new ScriptedHttpClient(List.of(status(500), status(500), status(201)));
+        final ResilientHttpClient client = new ResilientHttpClient(httpClient, FAST_RETRIES);
+
+        // the key alone, e.g. in another value, does not make an order idempotent
+        Assert.expectThrows(TransientException.class, () -> client.send(
+                order(null, "{\"side\":\"buy\",\"stp\":\"client_oid\"}")));
+        Assert.assertEquals(httpClient.attempts.get(), 1);
+
+        Assert.assertEquals(client.send(order(UUID.randomUUID(), "{\"side\":\"buy\"}")).statusCode(), 201);
+        Assert.assertEquals(httpClient.attempts.get(), 3);
+    }
+
+    @Test
+    public void testDoesNotRetryLocalRateLimitRejections() {
+        final ScriptedHttpClient httpClient = new ScriptedHttpClient(List.of(
+                failure(new RateLimitExceededException("rejected", true)), status(200)));
+        final ResilientHttpClient client = new ResilientHttpClient(httpClient, FAST_RETRIES);
+
+        Assert.expectThrows(RateLimitExceededException.class, () -> client.send(request(Http.GET, "")));
+        Assert.assertEquals(httpClient.attempts.get(), 1);
+        Assert.assertEquals(client.getRetries(), 0);
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() {
+        final ScriptedHttpClient httpClient = new ScriptedHttpClient(List.of(
+                failure(new IOException("connection reset")), status(502), status(429), status(200)));
+        final ResilientHttpClient client = new ResilientHttpClient(httpClient, FAST_RETRIES);
+
+        // the last response is returned as is, and validated by blocking dispatch
+        Assert.assertEquals(client.sendAsync(request(Http.GET, "")).join().statusCode(), 429);
+        Assert.assertEquals(httpClient.attempts.get(), 3);
+    }
+
+    @Test
+    public void testDoesNotRetryBadRequests() {
+        final ScriptedHttpClient httpClient = new ScriptedHttpClient(List.of(status(400), status(200)));
+        final ResilientHttpClient client = new ResilientHttpClient(httpClient, FAST_RETRIES);
+
+        Assert.expectThrows(BadRequestException.class, () -> client.send(request(Http.GET, "")));
+        Assert.assertEquals(httpClient.attempts.get(), 1);
+    }
+
+    @Test
+    public void testRetriesStopAtDeadline() {
+        final ScriptedHttpClient httpClient = new ScriptedHttpClient(List.of(status(503), status(200)));
+        final ResilientHttpClient client = new ResilientHttpClient(httpClient, RetryPolicy.builder()
+                .baseDelay(Duration.ofMillis(200))
+                .deadline(Duration.ofMillis(100))
+                .build());
+
+        Assert.assertEquals(client.sendAsync(request(Http.GET, "")).join().statusCode(), 503);
+        Assert.assertEquals(httpClient.attempts.get(), 1);
+    }
+
+    @Test
+    public void testHedgesSlowReads() {
+        // the first attempt never completes
+        final ScriptedHttpClient httpClient = new ScriptedHttpClient(List.of(CompletableFuture::new, status(200)));
+        final ResilientHttpClient client = new ResilientHttpClient(httpClient, RetryPolicy.builder()
+                .hedgedRequests(Set.of(OrderBookRequest.class))
+                .initialHedgeDelay(Duration.ofMillis(10))
+                .build());
+
+        final long startNanos = System.nanoTime();
+        Assert.assertEquals(client.send(request(Http.GET, "")).statusCode(), 200);
+        Assert.assertTrue(System.nanoTime() - startNanos < TimeUnit.SECONDS.toNanos(1));
+        Assert.assertEquals(httpClient.attempts.get(), 2);
+        Assert.assertEquals(client.getHedges(), 1);
+        Assert.assertEquals(client.getRetries(), 0);
+    }
+
+    @Test
+    public void testDoesNotHedgeWhileRateLimited() {
+        final ScriptedHttpClient httpClient = new ScriptedHttpClient(List.of(status(200)));
+        final RateLimiter rateLimiter = new RateLimiter();
+        while (rateLimiter.reserve(EndpointClass.PRIVATE) == 0) {
+            // take the burst, the request below waits for the next token
+        }
+        final ResilientHttpClient client = new ResilientHttpClient(
+                new RateLimitedHttpClient(httpClient, rateLimiter), RetryPolicy.builder()
+                        .hedgedRequests(Set.of(OrderBookRequest.class))
+                        .initialHedgeDelay(Duration.ofMillis(1))
+                        .build());
+
+        Assert.assertEquals(client.send(request(Http.GET, "")).statusCode(), 200);
+        Assert.assertEquals(httpClient.attempts.get(), 1);
+        Assert.assertEquals(client.getHedges(), 0);
+    }
+
+    @Test
+    public void testHedgeDelayFollowsLatencyPercentile() {
+        final LatencyTracker tracker = new LatencyTracker();
+        Assert.assertEquals(tracker.percentile(0.95, 7), 7);
+
+        for (int i = 1; i <= 100; i++) {
+            tracker.record(i);
+        }
+        Assert.assertEquals(tracker.percentile(0.95, 7), 95);
+        Assert.assertEquals(tracker.percentile(0.5, 7), 50);
+    }
+
+    /**
+     * Request type of the tests.
+     */
+    static class OrderBookRequest extends BaseRequest {
+    }
+
+    /**
+     * Order request type of the tests, with an optional client order id.
+     */
+    static class OrderRequest extends BaseRequest {
+
+        @BodyField(key = "client_oid")
+        private final UUID orderId;
+
+        OrderRequest(final UUID orderId) {
+            this.orderId = orderId;
+        }
+    }
+
+    private static BaseRequest order(final UUID orderId, final String body) {
+        final BaseRequest request = new OrderRequest(orderId);
+        request.setMethod(Http.POST);
+        request.setRequestPath("/orders");
+        request.setBody(body);
+        return request;
+    }
+
+    /**
+     * Answers each attempt with the next scripted outcome, then with the last one.
+     */
+    private static class ScriptedHttpClient implements AsyncHttpClient {
+
+        private final ConcurrentLinkedQueue<Supplier<CompletableFuture<HttpResponse<Response>>>> outcomes;
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        ScriptedHttpClient(final List<Supplier<CompletableFuture<HttpResponse<Response>>>> outcomes) {
+            this.outcomes = new ConcurrentLinkedQueue<>(outcomes);
+        }
+
+        @Override
+        public HttpResponse<Response> send(final BaseRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<HttpResponse<Response>> sendAsync(final BaseRequest request) {
+            attempts.incrementAndGet();
+            final Supplier<CompletableFuture<HttpResponse<Response>>> outcome =
+                    outcomes.size() > 1 ? outcomes.poll() : outcomes.peek();
+            return outcome.get();
+        }
+    }
+}
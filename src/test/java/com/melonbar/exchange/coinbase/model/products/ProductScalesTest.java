@@ -0,0 +1,22 @@
+package com.melonbar.exchange.coinbase.model.products;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProductScalesTest {
+
+    @Test
+    public void testScalesFromPaddedIncrements() {
+        // increments as served by the products resource, padded to 8 decimals
+        final int registered = ProductScales.registerAll("[{\"id\":\"BTC-USDC\",\"quote_increment\":\"0.01000000\","
+                + "\"base_increment\":\"0.00000001\"},{\"id\":\"ETH-DAI\",\"quote_increment\":\"0.01000000\","
+                + "\"base_increment\":\"0.00010000\"},{\"id\":\"LTC-GBP\",\"quote_increment\":\"1.00000000\","
+                + "\"base_increment\":\"1\"}]");
+
+        Assert.assertEquals(registered, 3);
+        Assert.assertEquals(ProductScales.get("BTC-USDC"), new ProductScale(2, 8));
+        Assert.assertEquals(ProductScales.get("ETH-DAI"), new ProductScale(2, 4));
+        Assert.assertEquals(ProductScales.get("LTC-GBP"), new ProductScale(0, 0));
+        Assert.assertEquals(ProductScale.fromIncrements("0.01", "0.00000001"), new ProductScale(2, 8));
+    }
+}
@@ -0,0 +1,146 @@
+package com.melonbar.exchange.coinbase.rest;
+
+import com.melonbar.core.http.Http;
+import com.melonbar.core.http.request.BaseRequest;
+import com.melonbar.core.http.response.Response;
+import com.melonbar.exchange.coinbase.enrichment.RequestEnricher;
+import com.melonbar.exchange.coinbase.exception.BadRequestException;
+import com.melonbar.exchange.coinbase.exception.InvalidRequestException;
+import com.melonbar.exchange.coinbase.exception.TransientException;
+import com.melonbar.exchange.coinbase.http.AsyncHttpClient;
+import com.melonbar.exchange.coinbase.model.order.GetOrderByOrderIdRequest;
+import com.melonbar.exchange.coinbase.testutil.FakeHttpResponse;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CoinbaseProAsyncRestClientImplTest {
+
+    private static GetOrderByOrderIdRequest orderRequest() {
+        return GetOrderByOrderIdRequest.builder().orderId("abc").build();
+    }
+
+    private static Throwable failureOf(final CompletableFuture<Response> future) {
+        try {
+            future.join();
+        } catch (CompletionException completionException) {
+            return completionException.getCause();
+        }
+        throw new AssertionError("Future completed normally");
+    }
+
+    @Test
+    public void testResponsesCompleteOnExecutor() {
+        final FakeHttpClient httpClient = new FakeHttpClient(200);
+        final AtomicInteger executions = new AtomicInteger();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final CoinbaseProAsyncRestClient client = new CoinbaseProAsyncRestClientImpl(httpClient,
+                    new RequestEnricher(), runnable -> {
+                        executions.incrementAndGet();
+                        executor.execute(runnable);
+                    });
+
+            final Response response = client.getOrderByOrderId(orderRequest()).join();
+
+            Assert.assertEquals(response.content(), "200");
+            Assert.assertEquals(executions.get(), 1);
+            Assert.assertEquals(httpClient.requests.size(), 1);
+            Assert.assertEquals(httpClient.requests.get(0).getMethod(), Http.GET);
+            Assert.assertEquals(httpClient.requests.get(0).getRequestPath(), "/orders/abc");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailuresCompleteOnExecutor() {
+        final FakeHttpClient httpClient = new FakeHttpClient(new TransientException("connection reset"));
+        final AtomicInteger executions = new AtomicInteger();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final CoinbaseProAsyncRestClient client = new CoinbaseProAsyncRestClientImpl(httpClient,
+                    new RequestEnricher(), runnable -> {
+                        executions.incrementAndGet();
+                        executor.execute(runnable);
+                    });
+
+            final Throwable failure = failureOf(client.getOrderByOrderId(orderRequest()));
+
+            Assert.assertTrue(failure instanceof TransientException);
+            Assert.assertEquals(failure.getMessage(), "connection reset");
+            Assert.assertEquals(executions.get(), 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStatusValidationFailsFuture() {
+        final CoinbaseProAsyncRestClient badRequestClient =
+                new CoinbaseProAsyncRestClientImpl(new FakeHttpClient(400), new RequestEnricher(), Runnable::run);
+        final CoinbaseProAsyncRestClient serverErrorClient =
+                new CoinbaseProAsyncRestClientImpl(new FakeHttpClient(503), new RequestEnricher(), Runnable::run);
+
+        Assert.assertTrue(failureOf(badRequestClient.getOrderByOrderId(orderRequest())) instanceof BadRequestException);
+        Assert.assertTrue(failureOf(serverErrorClient.getOrderByOrderId(orderRequest())) instanceof TransientException);
+    }
+
+    @Test
+    public void testInvalidRequestFailsFuture() {
+        final FakeHttpClient httpClient = new FakeHttpClient(200);
+        final CoinbaseProAsyncRestClient client =
+                new CoinbaseProAsyncRestClientImpl(httpClient, new RequestEnricher(), Runnable::run);
+
+        // missing path parameter
+        final CompletableFuture<Response> future =
+                client.getOrderByOrderId(GetOrderByOrderIdRequest.builder().build());
+
+        Assert.assertTrue(failureOf(future) instanceof InvalidRequestException);
+        Assert.assertTrue(httpClient.requests.isEmpty());
+    }
+
+    /**
+     * Answers every request with a fixed status code, and its code as the content, or fails every request.
+     */
+    private static class FakeHttpClient implements AsyncHttpClient {
+
+        private final int statusCode;
+        private final RuntimeException failure;
+        private final List<BaseRequest> requests = new ArrayList<>();
+
+        FakeHttpClient(final int statusCode) {
+            this.statusCode = statusCode;
+            this.failure = null;
+        }
+
+        FakeHttpClient(final RuntimeException failure) {
+            this.statusCode = -1;
+            this.failure = failure;
+        }
+
+        @Override
+        public HttpResponse<Response> send(final BaseRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<HttpResponse<Response>> sendAsync(final BaseRequest request) {
+            requests.add(request);
+            return CompletableFuture.supplyAsync(() -> {
+                if (failure != null) {
+                    throw failure;
+                }
+                return new FakeHttpResponse(statusCode);
+            });
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.melonbar.exchange.coinbase.rest.api.resource;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ResourceTest {
+
+    @Test
+    public void testPopulateRequestPath() {
+        Assert.assertEquals(Resource.ORDER.populateRequestPath(new Object[0]), "/orders");
+        Assert.assertEquals(Resource.ORDER_BY_ORDER_ID.populateRequestPath(new Object[] {"abc"}),
+                "/orders/client::abc");
+        Assert.assertEquals(Resource.PRODUCT_CANDLES.populateRequestPath(new Object[] {"BTC-USD"}),
+                "/products/BTC-USD/candles");
+    }
+
+    @Test
+    public void testAppendRequestPath() {
+        final StringBuilder requestPath = new StringBuilder("https://host");
+
+        Assert.assertSame(Resource.PRODUCT_ORDER_BOOK.appendRequestPath(requestPath, new Object[] {"BTC-USD"}, false),
+                requestPath);
+        Assert.assertEquals(requestPath.toString(), "https://host/products/BTC-USD/book");
+    }
+
+    @Test
+    public void testAppendPercentEncodedRequestPath() {
+        Assert.assertEquals(Resource.ACCOUNT_BY_ID.appendRequestPath(new StringBuilder(),
+                new Object[] {"a/b?c d%\u00e9\uD83D\uDE00"}, true).toString(),
+                "/accounts/a%2Fb%3Fc%20d%25%C3%A9%F0%9F%98%80");
+        // safe characters are left as is
+        Assert.assertEquals(Resource.ORDER_BY_API_KEY.appendRequestPath(new StringBuilder(),
+                new Object[] {"AZaz09-._~!$&'()*+,;=:@"}, true).toString(),
+                "/orders/AZaz09-._~!$&'()*+,;=:@");
+    }
+
+    @Test
+    public void testEndpointClassOf() {
+        Assert.assertEquals(Resource.endpointClassOf("/products/BTC-USD/book?level=2"), EndpointClass.PUBLIC);
+        Assert.assertEquals(Resource.endpointClassOf("/currencies"), EndpointClass.PUBLIC);
+        Assert.assertEquals(Resource.endpointClassOf("/time"), EndpointClass.PUBLIC);
+        Assert.assertEquals(Resource.endpointClassOf("/orders/client::abc?product_id=BTC-USD"), EndpointClass.PRIVATE);
+        Assert.assertEquals(Resource.endpointClassOf("/accounts"), EndpointClass.PRIVATE);
+        // unknown or partial first segments default to the private budget
+        Assert.assertEquals(Resource.endpointClassOf("/timeline"), EndpointClass.PRIVATE);
+        Assert.assertEquals(Resource.endpointClassOf(null), EndpointClass.PRIVATE);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidArgsCount() {
+        Resource.PRODUCT_BY_ID.appendRequestPath(new StringBuilder(), new Object[0], false);
+    }
+}
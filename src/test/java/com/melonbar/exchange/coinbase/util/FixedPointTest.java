@@ -0,0 +1,99 @@
+package com.melonbar.exchange.coinbase.util;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class FixedPointTest {
+
+    @DataProvider
+    public Object[][] decimals() {
+        return new Object[][]{
+                {"4388.01", 8, 438_801_000_000L},
+                {"4388.01000000", 8, 438_801_000_000L},
+                {"0.00000001", 8, 1L},
+                {"-12.5", 2, -1_250L},
+                {"1", 0, 1L},
+                {"10.", 1, 100L},
+                {".5", 1, 5L},
+                {"92233720368.54775807", 8, Long.MAX_VALUE},
+                {"-92233720368.54775807", 8, -Long.MAX_VALUE}
+        };
+    }
+
+    @Test(dataProvider = "decimals")
+    public void testParse(final String text, final int scale, final long expected) {
+        final byte[] bytes = ("[\"" + text + "\"]").getBytes(StandardCharsets.US_ASCII);
+        final char[] chars = ("[\"" + text + "\"]").toCharArray();
+
+        Assert.assertEquals(FixedPoint.parse(text, scale), expected);
+        Assert.assertEquals(FixedPoint.parse(bytes, 2, text.length(), scale), expected);
+        Assert.assertEquals(FixedPoint.parse(chars, 2, text.length(), scale), expected);
+        Assert.assertEquals(FixedPoint.parse("x" + text + "x", 1, text.length() + 1, scale), expected);
+        Assert.assertEquals(FixedPoint.parse(text, scale), FixedPoint.fromBigDecimal(new BigDecimal(text), scale));
+    }
+
+    @DataProvider
+    public Object[][] inexact() {
+        return new Object[][]{
+                {"0.000000001", 8},
+                {"1.05", 1},
+                {"92233720368.54775808", 8},
+                {"-92233720368.54775808", 8},
+                {"100000000000000000000", 0}
+        };
+    }
+
+    @Test(dataProvider = "inexact", expectedExceptions = ArithmeticException.class)
+    public void testParseRejectsInexact(final String text, final int scale) {
+        FixedPoint.parse(text, scale);
+    }
+
+    @DataProvider
+    public Object[][] malformed() {
+        return new Object[][]{{""}, {"-"}, {"."}, {"1.2.3"}, {"1e5"}, {"abc"}, {" 1"}};
+    }
+
+    @Test(dataProvider = "malformed", expectedExceptions = NumberFormatException.class)
+    public void testParseRejectsMalformed(final String text) {
+        FixedPoint.parse(text, 8);
+    }
+
+    @Test
+    public void testTrailingZeroesBeyondScaleAreExact() {
+        Assert.assertEquals(FixedPoint.parse("1.50000000000", 1), 15L);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            final int scale = random.nextInt(FixedPoint.MAX_SCALE + 1);
+            final long value = random.nextLong() % Long.MAX_VALUE;
+            final String text = FixedPoint.toString(value, scale);
+
+            Assert.assertEquals(FixedPoint.fractionDigits(text), scale);
+            Assert.assertEquals(FixedPoint.parse(text, scale), value);
+            Assert.assertEquals(FixedPoint.toBigDecimal(value, scale), new BigDecimal(text));
+        }
+    }
+
+    @Test
+    public void testFormat() {
+        Assert.assertEquals(FixedPoint.toString(438_801_000_000L, 8), "4388.01000000");
+        Assert.assertEquals(FixedPoint.toString(-5L, 2), "-0.05");
+        Assert.assertEquals(FixedPoint.toString(7L, 0), "7");
+    }
+
+    @Test
+    public void testRescale() {
+        Assert.assertEquals(FixedPoint.rescale(438_801L, 2, 8), 438_801_000_000L);
+        Assert.assertEquals(FixedPoint.rescale(438_801_000_000L, 8, 2), 438_801L);
+        Assert.expectThrows(ArithmeticException.class, () -> FixedPoint.rescale(438_801L, 2, 1));
+        Assert.expectThrows(ArithmeticException.class, () -> FixedPoint.rescale(Long.MAX_VALUE, 0, 1));
+    }
+}
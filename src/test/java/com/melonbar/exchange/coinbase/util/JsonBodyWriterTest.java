@@ -0,0 +1,55 @@
+package com.melonbar.exchange.coinbase.util;
+
+import com.melonbar.core.model.ProductId;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+public class JsonBodyWriterTest {
+
+    @Test
+    public void testTypedValuesAreWrittenAsStrings() {
+        final String body = JsonBodyWriter.start()
+                .field("product_id", (Object) ProductId.BTC_USD)
+                .field("price", new BigDecimal("4388.01"))
+                .field("size", (Object) new BigDecimal("1E-8"))
+                .field("count", 42L)
+                .field("post_only", true)
+                .field("note", "say \"hi\"\n\u00e9")
+                .finish();
+
+        Assert.assertEquals(body, "{\"product_id\":\"BTC-USD\",\"price\":\"4388.01\",\"size\":\"1E-8\","
+                + "\"count\":\"42\",\"post_only\":\"true\",\"note\":\"say \\\"hi\\\"\\n\u00e9\"}");
+    }
+
+    @Test
+    public void testArraysRepeatTheirKey() {
+        final String body = JsonBodyWriter.start()
+                .field("status", (Object) new Object[] {"open", "pending"})
+                .fields("id", new Object[] {1, 2L})
+                .finish();
+
+        Assert.assertEquals(body, "{\"status\":\"open\",\"status\":\"pending\",\"id\":\"1\",\"id\":\"2\"}");
+    }
+
+    @Test
+    public void testAbandonedBodyIsDiscarded() {
+        JsonBodyWriter.start().field("side", "buy");
+
+        Assert.assertEquals(JsonBodyWriter.start().field("side", "sell").finish(), "{\"side\":\"sell\"}");
+        Assert.assertEquals(JsonBodyWriter.start().finish(), "{}");
+    }
+
+    @Test
+    public void testBytesOfLastBodyAreReused() {
+        final String body = JsonBodyWriter.start().field("note", "\u00e9").finish();
+
+        Assert.assertSame(JsonBodyWriter.bytes(body), JsonBodyWriter.bytes(body));
+        Assert.assertEquals(JsonBodyWriter.bytes(body), body.getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(JsonBodyWriter.bytes(new String(body)), body.getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(JsonBodyWriter.bytes(""), new byte[0]);
+        Assert.assertEquals(JsonBodyWriter.bytes(null), new byte[0]);
+    }
+}
@@ -0,0 +1,100 @@
+package com.melonbar.exchange.coinbase.websocket.processing;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.websocket.MessageHandler;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AggregatedMessageHandlerTest {
+
+    @Test
+    public void testHandlersInvokedInRegistrationOrder() {
+        final List<Integer> invocations = new ArrayList<>();
+        final AggregatedMessageHandler<String> aggregate = AggregatedMessageHandler.create();
+        for (int i = 0; i < 5; i++) {
+            final int id = i;
+            aggregate.addMessageHandler(message -> invocations.add(id));
+        }
+
+        aggregate.onMessage("message");
+
+        Assert.assertEquals(invocations, List.of(0, 1, 2, 3, 4));
+    }
+
+    @Test
+    public void testRemoveMessageHandler() {
+        final List<String> invocations = new ArrayList<>();
+        final MessageHandler.Whole<String> first = message -> invocations.add("first");
+        final MessageHandler.Whole<String> second = message -> invocations.add("second");
+        final MessageHandler.Whole<String> third = message -> invocations.add("third");
+        final AggregatedMessageHandler<String> aggregate = MessageHandlers.aggregate(first, second, third);
+
+        Assert.assertTrue(aggregate.removeMessageHandler(second));
+        Assert.assertFalse(aggregate.removeMessageHandler(second));
+        aggregate.onMessage("message");
+
+        Assert.assertEquals(invocations, List.of("first", "third"));
+        Assert.assertEquals(aggregate.size(), 2);
+    }
+
+    @Test
+    public void testThrowingHandlerDoesNotAbortDelivery() {
+        final List<String> invocations = new ArrayList<>();
+        final AggregatedMessageHandler<String> aggregate = MessageHandlers.aggregate(
+                message -> invocations.add("before"),
+                message -> {
+                    throw new IllegalStateException("expected");
+                },
+                message -> invocations.add("after"));
+
+        aggregate.onMessage("message");
+
+        Assert.assertEquals(invocations, List.of("before", "after"));
+    }
+
+    @Test
+    public void testConcurrentRegistrationDuringDelivery() throws InterruptedException {
+        final int threads = 8;
+        final int registrationsPerThread = 100;
+        final AtomicLong delivered = new AtomicLong();
+        final AggregatedMessageHandler<String> aggregate = AggregatedMessageHandler.create();
+        final List<MessageHandler.Whole<String>> handlers = Collections.synchronizedList(new ArrayList<>());
+        final ExecutorService executorService = Executors.newFixedThreadPool(threads + 1);
+        final CountDownLatch registered = new CountDownLatch(threads);
+
+        // keep delivering while handlers are being registered from other threads
+        executorService.submit(() -> {
+            while (registered.getCount() > 0) {
+                aggregate.onMessage("message");
+            }
+        });
+        for (int i = 0; i < threads; i++) {
+            executorService.submit(() -> {
+                for (int j = 0; j < registrationsPerThread; j++) {
+                    final MessageHandler.Whole<String> handler = message -> delivered.incrementAndGet();
+                    handlers.add(handler);
+                    aggregate.addMessageHandler(handler);
+                }
+                registered.countDown();
+            });
+        }
+        Assert.assertTrue(registered.await(10, TimeUnit.SECONDS));
+        executorService.shutdown();
+        Assert.assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+
+        // no registration may be lost to a racing compare-and-set
+        Assert.assertEquals(aggregate.size(), threads * registrationsPerThread);
+        for (final MessageHandler.Whole<String> handler : handlers) {
+            Assert.assertTrue(aggregate.removeMessageHandler(handler));
+        }
+        Assert.assertEquals(aggregate.size(), 0);
+    }
+}
@@ -0,0 +1,119 @@
+package com.melonbar.exchange.coinbase.websocket.processing;
+
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
+import com.melonbar.exchange.coinbase.websocket.message.TickerMessage;
+import com.melonbar.exchange.coinbase.websocket.message.full.ClosedOrderMessage;
+import com.melonbar.exchange.coinbase.websocket.message.full.FullFeedMessage;
+import com.melonbar.exchange.coinbase.websocket.message.full.MatchedOrderMessage;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.websocket.MessageHandler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class TypedMessageDispatcherTest {
+
+    private static final String TICKER = "{\"type\":\"ticker\",\"sequence\":1,\"product_id\":\"BTC-USD\","
+            + "\"price\":\"100.5\",\"trade_id\":7}";
+    private static final String MATCH = "{\"type\":\"match\",\"sequence\":2,\"product_id\":\"BTC-USD\","
+            + "\"price\":\"100.5\",\"size\":\"1\",\"trade_id\":8}";
+    private static final String DONE = "{\"type\":\"done\",\"sequence\":3,\"product_id\":\"BTC-USD\","
+            + "\"order_id\":\"d50ec984-77a8-460a-b958-66f114b0de9b\",\"reason\":\"filled\"}";
+
+    @Test
+    public void testSupertypeHandlerReceivesSubtypes() {
+        final List<FeedMessage> all = new ArrayList<>();
+        final List<FullFeedMessage> full = new ArrayList<>();
+        final List<MatchedOrderMessage> matches = new ArrayList<>();
+        final TypedMessageDispatcher dispatcher = new TypedMessageDispatcher();
+        dispatcher.addMessageHandler(FeedMessage.class, all::add);
+        dispatcher.addMessageHandler(FullFeedMessage.class, full::add);
+        dispatcher.addMessageHandler(MatchedOrderMessage.class, matches::add);
+
+        dispatcher.onMessage(TICKER);
+        dispatcher.onMessage(MATCH);
+        dispatcher.onMessage(DONE);
+
+        Assert.assertEquals(all.size(), 3);
+        Assert.assertTrue(all.get(0) instanceof TickerMessage);
+        Assert.assertEquals(full.size(), 2);
+        Assert.assertTrue(full.get(1) instanceof ClosedOrderMessage);
+        Assert.assertEquals(matches.size(), 1);
+        Assert.assertEquals(matches.get(0).getTradeId(), Long.valueOf(8));
+        // every handler on a route observes the same decoded instance
+        Assert.assertSame(all.get(1), matches.get(0));
+    }
+
+    @Test
+    public void testUnknownAndUnmappedTypesIgnored() {
+        final List<FeedMessage> received = new ArrayList<>();
+        final CountingDispatcher dispatcher = new CountingDispatcher();
+        dispatcher.addMessageHandler(FeedMessage.class, received::add);
+
+        dispatcher.onMessage("{\"type\":\"not_a_type\",\"sequence\":1}");
+        dispatcher.onMessage("{\"sequence\":1,\"product_id\":\"BTC-USD\"}");
+        dispatcher.onMessage("not json");
+
+        Assert.assertTrue(received.isEmpty());
+        Assert.assertEquals(dispatcher.decoded, 0);
+    }
+
+    @Test
+    public void testMessageWithoutRouteNeverDecoded() {
+        final List<TickerMessage> tickers = new ArrayList<>();
+        final CountingDispatcher dispatcher = new CountingDispatcher();
+        dispatcher.onMessage(TICKER);
+        dispatcher.addMessageHandler(TickerMessage.class, tickers::add);
+
+        dispatcher.onMessage(MATCH);
+        dispatcher.onMessage(DONE);
+        Assert.assertEquals(dispatcher.decoded, 0);
+
+        dispatcher.onMessage(TICKER);
+        Assert.assertEquals(dispatcher.decoded, 1);
+        Assert.assertEquals(tickers.size(), 1);
+    }
+
+    @Test
+    public void testRemoveMessageHandlerRebuildsRoutes() {
+        final List<String> invocations = new ArrayList<>();
+        final MessageHandler.Whole<FeedMessage> all = message -> invocations.add("all");
+        final MessageHandler.Whole<MatchedOrderMessage> matches = message -> invocations.add("match");
+        final CountingDispatcher dispatcher = new CountingDispatcher();
+        dispatcher.addMessageHandler(FeedMessage.class, all);
+        dispatcher.addMessageHandler(MatchedOrderMessage.class, matches);
+
+        dispatcher.onMessage(MATCH);
+        Assert.assertEquals(invocations, List.of("all", "match"));
+
+        Assert.assertTrue(dispatcher.removeMessageHandler(FeedMessage.class, all));
+        Assert.assertFalse(dispatcher.removeMessageHandler(FeedMessage.class, all));
+        invocations.clear();
+        dispatcher.onMessage(MATCH);
+        dispatcher.onMessage(TICKER);
+        Assert.assertEquals(invocations, List.of("match"));
+        Assert.assertEquals(dispatcher.decoded, 2);
+
+        Assert.assertTrue(dispatcher.removeMessageHandler(MatchedOrderMessage.class, matches));
+        Assert.assertTrue(dispatcher.isEmpty());
+        dispatcher.onMessage(MATCH);
+        Assert.assertEquals(invocations, List.of("match"));
+        Assert.assertEquals(dispatcher.decoded, 2);
+    }
+
+    /**
+     * Counts how many messages actually reach the decoder.
+     */
+    private static class CountingDispatcher extends TypedMessageDispatcher {
+
+        private int decoded;
+
+        @Override
+        Optional<? extends FeedMessage> decode(final String message, final Class<? extends FeedMessage> messageType) {
+            decoded++;
+            return super.decode(message, messageType);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import com.melonbar.core.model.ProductId;
+import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
+import com.melonbar.exchange.coinbase.websocket.message.L2UpdateMessage;
+import com.melonbar.exchange.coinbase.websocket.message.SnapshotMessage;
+import com.melonbar.exchange.coinbase.websocket.message.deserializer.JsonMessageMapper;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class L2OrderBookTest {
+
+    private static final String SNAPSHOT = "{\"type\":\"snapshot\",\"product_id\":\"BTC-USD\","
+            + "\"bids\":[[\"10101.10\",\"0.45054140\"],[\"10101.00\",\"1.5\"]],"
+            + "\"asks\":[[\"10102.55\",\"0.57753524\"],[\"10103.00\",\"2\"]]}";
+
+    @DataProvider
+    public Object[][] sides() {
+        return new Object[][]{{OrderSide.BUY}, {OrderSide.SELL}};
+    }
+
+    @Test(dataProvider = "sides")
+    public void testBookSideMatchesReference(final OrderSide side) {
+        final BookSide bookSide = new BookSide(side, 4);
+        // reference ordered best first
+        final TreeMap<Long, Long> reference = side == OrderSide.BUY
+                ? new TreeMap<>((a, b) -> Long.compare(b, a))
+                : new TreeMap<>();
+        final Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            final long price = 1_000 + random.nextInt(200);
+            final long size = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(1_000);
+            final Long previous = size == 0 ? reference.remove(price) : reference.put(price, size);
+            Assert.assertEquals(bookSide.set(price, size), previous == null ? 0 : previous.longValue());
+        }
+
+        Assert.assertEquals(bookSide.depth(), reference.size());
+        int level = 0;
+        for (final var entry : reference.entrySet()) {
+            Assert.assertEquals(bookSide.price(level), entry.getKey().longValue());
+            Assert.assertEquals(bookSide.size(level), entry.getValue().longValue());
+            level++;
+        }
+        Assert.assertEquals(bookSide.bestPrice(), reference.firstKey().longValue());
+        Assert.assertEquals(bookSide.bestSize(), reference.firstEntry().getValue().longValue());
+
+        final long[] prices = new long[reference.size() + 1];
+        final long[] sizes = new long[prices.length];
+        Assert.assertEquals(bookSide.top(prices, sizes), reference.size());
+        level = 0;
+        for (final var entry : reference.entrySet()) {
+            Assert.assertEquals(prices[level], entry.getKey().longValue());
+            Assert.assertEquals(sizes[level], entry.getValue().longValue());
+            level++;
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void testDeepLevelChurn() {
+        final int levels = 200_000;
+        final BookSide bids = new BookSide(OrderSide.BUY, 16);
+        for (int i = 0; i < levels; i++) {
+            bids.set(1_000_000 + i, 1);
+        }
+        // creating and removing levels at the bottom of a deep side, the worst case for a sorted array
+        for (int i = 0; i < levels; i++) {
+            bids.set(i, 1);
+            bids.add(i, -1);
+        }
+
+        Assert.assertEquals(bids.depth(), levels);
+        Assert.assertEquals(bids.bestPrice(), 1_000_000 + levels - 1);
+        Assert.assertEquals(bids.price(levels - 1), 1_000_000);
+    }
+
+    @Test(dataProvider = "sides")
+    public void testBookSideAppendMatchesSet(final OrderSide side) {
+        final BookSide appended = new BookSide(side, 4);
+        final BookSide set = new BookSide(side, 4);
+        final Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            // unsorted, with repeated prices and removals, on top of the levels of the previous round
+            for (int i = 0; i < 1_000; i++) {
+                final long price = 1_000 + random.nextInt(500);
+                final long size = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(1_000);
+                appended.append(price, size);
+                set.set(price, size);
+            }
+            appended.finishAppend();
+
+            Assert.assertEquals(appended.depth(), set.depth());
+            for (int level = 0; level < set.depth(); level++) {
+                Assert.assertEquals(appended.price(level), set.price(level));
+                Assert.assertEquals(appended.size(level), set.size(level));
+            }
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void testLargeSnapshotInWireOrder() {
+        final int levels = 200_000;
+        final StringBuilder snapshot = new StringBuilder(
+                "{\"type\":\"snapshot\",\"product_id\":\"BTC-USD\",\"bids\":[");
+        for (int i = 0; i < levels; i++) {
+            snapshot.append(i > 0 ? "," : "").append("[\"").append(levels - i).append(".00\",\"1\"]");
+        }
+        snapshot.append("],\"asks\":[");
+        for (int i = 0; i < levels; i++) {
+            snapshot.append(i > 0 ? "," : "").append("[\"").append(levels + 1 + i).append(".00\",\"2\"]");
+        }
+        final String json = snapshot.append("]}").toString();
+        final L2MessageDecoder decoder = new L2MessageDecoder();
+        Assert.assertTrue(decoder.decode(json));
+        final L2OrderBook raw = new L2OrderBook("BTC-USD", 2, 8);
+        final L2OrderBook decoded = new L2OrderBook("BTC-USD", 2, 8);
+
+        // best level first on both sides, the order that used to shift the whole side on every level
+        raw.applySnapshot(decoder.getLevels());
+        decoded.applySnapshot(decode(json, SnapshotMessage.class));
+
+        for (final L2OrderBook orderBook : List.of(raw, decoded)) {
+            Assert.assertEquals(orderBook.getBids().depth(), levels);
+            Assert.assertEquals(orderBook.getAsks().depth(), levels);
+            Assert.assertEquals(orderBook.bestBid(), levels * 100L);
+            Assert.assertEquals(orderBook.bestAsk(), (levels + 1) * 100L);
+            Assert.assertEquals(orderBook.getBids().price(levels - 1), 100);
+            Assert.assertEquals(orderBook.getAsks().size(levels - 1), 200_000_000);
+        }
+    }
+
+    @Test
+    public void testBookSideAdd() {
+        final BookSide bids = new BookSide(OrderSide.BUY, 1);
+
+        Assert.assertEquals(bids.add(100, 5), 5);
+        Assert.assertEquals(bids.add(100, 3), 8);
+        Assert.assertEquals(bids.add(100, -8), 0);
+        Assert.assertTrue(bids.isEmpty());
+        Assert.assertEquals(bids.bestPrice(), BookSide.NO_PRICE);
+    }
+
+    @Test
+    public void testSnapshotAndUpdates() {
+        final L2OrderBook orderBook = new L2OrderBook("BTC-USD", 2, 8);
+        final List<long[]> bestPrices = new ArrayList<>();
+        orderBook.addBestPriceListener((book, bestBid, bestAsk) -> bestPrices.add(new long[]{bestBid, bestAsk}));
+
+        orderBook.applySnapshot(decode(SNAPSHOT, SnapshotMessage.class));
+        Assert.assertEquals(orderBook.bestBid(), 1010110);
+        Assert.assertEquals(orderBook.bestAsk(), 1010255);
+        Assert.assertEquals(orderBook.getBids().bestSize(), 45054140);
+        Assert.assertEquals(bestPrices.size(), 1);
+
+        // below the top of book, no notification
+        orderBook.applyUpdate(decode("{\"type\":\"l2update\",\"product_id\":\"BTC-USD\","
+                + "\"changes\":[[\"buy\",\"10100.00\",\"3\"]]}", L2UpdateMessage.class));
+        Assert.assertEquals(orderBook.getBids().depth(), 3);
+        Assert.assertEquals(bestPrices.size(), 1);
+
+        // best bid removed and best ask improved within a single message, single notification
+        orderBook.applyUpdate(decode("{\"type\":\"l2update\",\"product_id\":\"BTC-USD\","
+                + "\"changes\":[[\"buy\",\"10101.10\",\"0\"],[\"sell\",\"10102.00\",\"0.1\"]]}",
+                L2UpdateMessage.class));
+        Assert.assertEquals(bestPrices.size(), 2);
+        Assert.assertEquals(bestPrices.get(1), new long[]{1010100, 1010200});
+
+        final long[] prices = new long[5];
+        final long[] sizes = new long[5];
+        Assert.assertEquals(orderBook.getAsks().top(prices, sizes), 3);
+        Assert.assertEquals(prices, new long[]{1010200, 1010255, 1010300, 0, 0});
+        Assert.assertEquals(orderBook.sizeOf(sizes[2]).compareTo(orderBook.sizeOf(200000000)), 0);
+    }
+
+    @Test
+    public void testRawDecodingMatchesDecodedMessages() {
+        final L2OrderBook decoded = new L2OrderBook("BTC-USD", 2, 8);
+        final L2OrderBook raw = new L2OrderBook("BTC-USD", 2, 8);
+        final L2MessageDecoder decoder = new L2MessageDecoder();
+        final Random random = new Random(7);
+
+        Assert.assertTrue(decoder.decode(SNAPSHOT));
+        Assert.assertTrue(decoder.isSnapshot());
+        decoded.applySnapshot(decode(SNAPSHOT, SnapshotMessage.class));
+        raw.applySnapshot(decoder.getLevels());
+        for (int i = 0; i < 1_000; i++) {
+            final StringBuilder update = new StringBuilder("{\"type\":\"l2update\",\"product_id\":\"BTC-USD\","
+                    + "\"time\":\"2019-08-14T20:42:27.265Z\",\"changes\":[");
+            for (int j = 0; j < 1 + random.nextInt(3); j++) {
+                update.append(j > 0 ? "," : "")
+                        .append("[\"").append(random.nextBoolean() ? "buy" : "sell").append("\",\"")
+                        .append(10_000 + random.nextInt(200)).append('.').append(random.nextInt(10))
+                        .append("\",\"").append(random.nextInt(4) == 0 ? "0" : "0." + random.nextInt(1_000))
+                        .append("\"]");
+            }
+            final String message = update.append("]}").toString();
+
+            Assert.assertTrue(decoder.decode(message));
+            Assert.assertFalse(decoder.isSnapshot());
+            decoded.applyUpdate(decode(message, L2UpdateMessage.class));
+            raw.applyUpdate(decoder.getLevels());
+        }
+
+        Assert.assertEquals(raw.toString(), decoded.toString());
+        for (final OrderSide side : OrderSide.values()) {
+            Assert.assertEquals(raw.side(side).depth(), decoded.side(side).depth());
+            for (int level = 0; level < raw.side(side).depth(); level++) {
+                Assert.assertEquals(raw.side(side).price(level), decoded.side(side).price(level));
+                Assert.assertEquals(raw.side(side).size(level), decoded.side(side).size(level));
+            }
+        }
+        Assert.assertFalse(decoder.decode("{\"type\":\"heartbeat\",\"sequence\":90,\"product_id\":\"BTC-USD\"}"));
+    }
+
+    @Test
+    public void testTrackerFromJson() {
+        final L2OrderBookTracker tracker = new L2OrderBookTracker();
+        final ProductId productId = ProductId.of("BTC", "USD");
+
+        tracker.updateFromJson("{\"type\":\"l2update\",\"product_id\":\"BTC-USD\","
+                + "\"changes\":[[\"buy\",\"10100.00\",\"3\"]]}");
+        Assert.assertTrue(tracker.getOrderBook(productId).isEmpty());
+
+        tracker.updateFromJson(SNAPSHOT);
+        tracker.updateFromJson("{\"type\":\"l2update\",\"product_id\":\"BTC-USD\","
+                + "\"changes\":[[\"buy\",\"10101.20\",\"3\"]]}");
+        final L2OrderBook orderBook = tracker.getOrderBook(productId).orElseThrow();
+        Assert.assertEquals(orderBook.priceOf(orderBook.bestBid()), new BigDecimal("10101.20000000"));
+        Assert.assertEquals(orderBook.getBids().depth(), 3);
+    }
+
+    @Test
+    public void testTupleDeserialization() {
+        final L2UpdateMessage update = decode("{\"type\":\"l2update\",\"product_id\":\"BTC-USD\","
+                + "\"changes\":[[\"sell\",\"10102.55\",\"0.5\"]]}", L2UpdateMessage.class);
+        final SnapshotMessage snapshot = decode(SNAPSHOT, SnapshotMessage.class);
+
+        Assert.assertEquals(update.getChanges()[0].getSide(), OrderSide.SELL);
+        Assert.assertEquals(update.getChanges()[0].getPrice(), new BigDecimal("10102.55"));
+        Assert.assertEquals(update.getChanges()[0].getSize(), new BigDecimal("0.5"));
+        Assert.assertNull(snapshot.getBids()[1].getSide());
+        Assert.assertEquals(snapshot.getBids()[1].getPrice(), new BigDecimal("10101.00"));
+        Assert.assertEquals(snapshot.getAsks().length, 2);
+    }
+
+    @Test(expectedExceptions = ArithmeticException.class)
+    public void testPriceBeyondScaleRejected() {
+        new L2OrderBook("BTC-USD", 2, 8).toPrice(new BigDecimal("1.001"));
+    }
+
+    private static <T extends FeedMessage> T decode(final String json, final Class<T> type) {
+        return JsonMessageMapper.jsonToObject(json, type).orElseThrow();
+    }
+}
@@ -0,0 +1,147 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import com.melonbar.exchange.coinbase.model.order.flag.OrderSide;
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
+import com.melonbar.exchange.coinbase.websocket.message.deserializer.JsonMessageMapper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+public class L3OrderBookTest {
+
+    private static final String FIRST = "d50ec984-77a8-460a-b958-66f114b0de9b";
+    private static final String SECOND = "ac928c66-ca53-498f-9c13-a110027a60e8";
+
+    @Test
+    public void testOrderIdRoundTrip() {
+        final UUID uuid = UUID.fromString(FIRST);
+
+        Assert.assertEquals(L3OrderBook.orderIdHigh(FIRST), uuid.getMostSignificantBits());
+        Assert.assertEquals(L3OrderBook.orderIdLow(FIRST), uuid.getLeastSignificantBits());
+    }
+
+    @Test
+    public void testFullChannelMessages() {
+        final L3OrderBook orderBook = new L3OrderBook("BTC-USD", 2, 8, 16);
+
+        apply(orderBook, "{\"type\":\"open\",\"product_id\":\"BTC-USD\",\"sequence\":10,\"order_id\":\"" + FIRST
+                + "\",\"price\":\"200.20\",\"remaining_size\":\"1.00\",\"side\":\"sell\"}");
+        apply(orderBook, "{\"type\":\"open\",\"product_id\":\"BTC-USD\",\"sequence\":11,\"order_id\":\"" + SECOND
+                + "\",\"price\":\"200.20\",\"remaining_size\":\"0.50\",\"side\":\"sell\"}");
+        Assert.assertEquals(orderBook.bestAsk(), 20020);
+        Assert.assertEquals(orderBook.getAsks().bestSize(), 150_000_000);
+        Assert.assertEquals(orderBook.orderCount(OrderSide.SELL, 20020), 2);
+
+        final List<Long> queue = new ArrayList<>();
+        orderBook.forEachOrder(OrderSide.SELL, 20020, (high, low, size) -> queue.add(high));
+        Assert.assertEquals(queue, List.of(L3OrderBook.orderIdHigh(FIRST), L3OrderBook.orderIdHigh(SECOND)));
+
+        apply(orderBook, "{\"type\":\"match\",\"product_id\":\"BTC-USD\",\"sequence\":12,\"maker_order_id\":\""
+                + FIRST + "\",\"taker_order_id\":\"132fb6ae-456b-4654-b4e0-d681ac05cea1\",\"size\":\"0.25\","
+                + "\"price\":\"200.20\",\"side\":\"sell\"}");
+        Assert.assertEquals(orderBook.orderSize(FIRST), 75_000_000);
+        apply(orderBook, "{\"type\":\"change\",\"product_id\":\"BTC-USD\",\"sequence\":13,\"order_id\":\"" + SECOND
+                + "\",\"new_size\":\"0.10\",\"old_size\":\"0.50\",\"price\":\"200.20\",\"side\":\"sell\"}");
+        Assert.assertEquals(orderBook.getAsks().bestSize(), 85_000_000);
+
+        apply(orderBook, "{\"type\":\"done\",\"product_id\":\"BTC-USD\",\"sequence\":14,\"order_id\":\"" + FIRST
+                + "\",\"price\":\"200.20\",\"remaining_size\":\"0.75\",\"reason\":\"canceled\",\"side\":\"sell\"}");
+        Assert.assertEquals(orderBook.orderCount(), 1);
+        Assert.assertEquals(orderBook.getAsks().bestSize(), 10_000_000);
+        Assert.assertEquals(orderBook.orderSize(FIRST), -1);
+
+        // stale message is ignored
+        Assert.assertFalse(orderBook.apply(JsonMessageMapper.jsonToObject(
+                "{\"type\":\"done\",\"product_id\":\"BTC-USD\",\"sequence\":14,\"order_id\":\"" + SECOND
+                        + "\",\"reason\":\"canceled\",\"side\":\"sell\"}").orElseThrow()));
+        Assert.assertEquals(orderBook.orderCount(), 1);
+        Assert.assertEquals(orderBook.getSequence(), 14);
+    }
+
+    @Test
+    public void testRandomChurnMatchesReference() {
+        final L3OrderBook orderBook = new L3OrderBook("BTC-USD", 2, 8, 16);
+        final Random random = new Random(7);
+        final Map<UUID, long[]> reference = new HashMap<>();
+        final List<UUID> live = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            if (live.isEmpty() || random.nextInt(3) > 0 && live.size() < 5_000) {
+                final UUID uuid = new UUID(random.nextLong(), random.nextLong());
+                final long side = random.nextInt(2);
+                final long price = side == 0 ? 900 + random.nextInt(100) : 1_000 + random.nextInt(100);
+                final long size = 1 + random.nextInt(1_000);
+                Assert.assertTrue(orderBook.open(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(),
+                        side == 0 ? OrderSide.BUY : OrderSide.SELL, price, size));
+                reference.put(uuid, new long[]{side, price, size});
+                live.add(uuid);
+            } else {
+                final UUID uuid = live.remove(random.nextInt(live.size()));
+                Assert.assertTrue(orderBook.done(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+                reference.remove(uuid);
+            }
+        }
+
+        Assert.assertEquals(orderBook.orderCount(), reference.size());
+        final Map<Long, Long> bidSizes = new HashMap<>();
+        final Map<Long, Long> askSizes = new HashMap<>();
+        for (final var entry : reference.entrySet()) {
+            final long[] order = entry.getValue();
+            (order[0] == 0 ? bidSizes : askSizes).merge(order[1], order[2], Long::sum);
+            Assert.assertEquals(orderBook.orderSize(entry.getKey().toString()), order[2]);
+        }
+        Assert.assertEquals(orderBook.getBids().depth(), bidSizes.size());
+        Assert.assertEquals(orderBook.getAsks().depth(), askSizes.size());
+        bidSizes.forEach((price, size) -> Assert.assertEquals(orderBook.getBids().sizeAt(price), size.longValue()));
+        askSizes.forEach((price, size) -> Assert.assertEquals(orderBook.getAsks().sizeAt(price), size.longValue()));
+    }
+
+    @Test(timeOut = 10_000)
+    public void testLargeSnapshot() {
+        final int levels = 100_000;
+        final StringBuilder json = new StringBuilder("{\"sequence\":42,\"bids\":[");
+        final Random random = new Random(3);
+        // two orders per level, best level first
+        for (int i = 0; i < levels * 2; i++) {
+            json.append(i > 0 ? "," : "").append("[\"").append(levels - i / 2).append(".00\",\"")
+                    .append(1 + i % 2).append("\",\"").append(new UUID(random.nextLong(), random.nextLong()))
+                    .append("\"]");
+        }
+        json.append("],\"asks\":[");
+        for (int i = 0; i < levels * 2; i++) {
+            json.append(i > 0 ? "," : "").append("[\"").append(levels + 1 + i / 2).append(".00\",\"1\",\"")
+                    .append(new UUID(random.nextLong(), random.nextLong())).append("\"]");
+        }
+        final OrderBookSnapshot snapshot = OrderBookSnapshot.parse(json.append("]}").toString(), 2, 8);
+        final L3OrderBook orderBook = new L3OrderBook("BTC-USD", 2, 8, 16);
+
+        snapshot.loadInto(orderBook);
+
+        Assert.assertEquals(orderBook.getSequence(), 42);
+        Assert.assertEquals(orderBook.orderCount(), levels * 4);
+        Assert.assertEquals(orderBook.getBids().depth(), levels);
+        Assert.assertEquals(orderBook.getAsks().depth(), levels);
+        Assert.assertEquals(orderBook.bestBid(), levels * 100L);
+        Assert.assertEquals(orderBook.bestAsk(), (levels + 1) * 100L);
+        Assert.assertEquals(orderBook.getBids().bestSize(), 300_000_000);
+        Assert.assertEquals(orderBook.getAsks().size(levels - 1), 200_000_000);
+        Assert.assertEquals(orderBook.orderCount(OrderSide.BUY, 100), 2);
+
+        // the book is maintained per order again once loaded
+        final List<long[]> best = new ArrayList<>();
+        orderBook.forEachOrder(OrderSide.BUY, levels * 100L, (high, low, size) -> best.add(new long[]{high, low}));
+        Assert.assertEquals(best.size(), 2);
+        Assert.assertTrue(orderBook.done(best.get(0)[0], best.get(0)[1]));
+        Assert.assertEquals(orderBook.getBids().bestSize(), 200_000_000);
+    }
+
+    private static void apply(final L3OrderBook orderBook, final String json) {
+        final FeedMessage message = JsonMessageMapper.jsonToObject(json).orElseThrow();
+        Assert.assertTrue(orderBook.apply(message));
+    }
+}
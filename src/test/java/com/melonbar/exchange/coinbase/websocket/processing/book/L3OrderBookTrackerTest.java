@@ -0,0 +1,141 @@
+package com.melonbar.exchange.coinbase.websocket.processing.book;
+
+import com.melonbar.core.model.ProductId;
+import com.melonbar.exchange.coinbase.model.products.ProductScale;
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
+import com.melonbar.exchange.coinbase.websocket.message.deserializer.JsonMessageMapper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class L3OrderBookTrackerTest {
+
+    private static final String FIRST = "d50ec984-77a8-460a-b958-66f114b0de9b";
+    private static final String SECOND = "ac928c66-ca53-498f-9c13-a110027a60e8";
+    private static final String THIRD = "132fb6ae-456b-4654-b4e0-d681ac05cea1";
+
+    @Test
+    public void testParseSnapshot() {
+        final OrderBookSnapshot snapshot = OrderBookSnapshot.parse(snapshot(10), 2, 8);
+        final L3OrderBook orderBook = new L3OrderBook("BTC-USD", 2, 8);
+        snapshot.loadInto(orderBook);
+
+        Assert.assertEquals(snapshot.getSequence(), 10);
+        Assert.assertEquals(snapshot.orderCount(), 2);
+        Assert.assertEquals(orderBook.getSequence(), 10);
+        Assert.assertEquals(orderBook.bestBid(), 29596);
+        Assert.assertEquals(orderBook.bestAsk(), 29597);
+        Assert.assertEquals(orderBook.orderSize(FIRST), 5_088_265);
+    }
+
+    @Test
+    public void testResyncOnStartAndAfterGap() throws InterruptedException {
+        final BlockingQueue<CompletableFuture<OrderBookSnapshot>> fetches = new LinkedBlockingQueue<>();
+        final L3OrderBookTracker tracker = new L3OrderBookTracker(new ProductScale(2, 8),
+                (productId, priceScale, sizeScale) -> {
+                    final CompletableFuture<OrderBookSnapshot> fetch = new CompletableFuture<>();
+                    fetches.add(fetch);
+                    return fetch;
+                }, L3OrderBookTracker.DEFAULT_MAX_BUFFERED, Duration.ofMillis(200), Duration.ofMillis(400));
+
+        // first message triggers a snapshot fetch, live messages are buffered meanwhile
+        tracker.update(open(10, THIRD, "296.00"));
+        tracker.update(open(11, THIRD, "296.00"));
+        tracker.update(done(12, FIRST));
+        Assert.assertEquals(fetches.size(), 1);
+        Assert.assertFalse(tracker.isInSync(ProductId.BTC_USD));
+
+        // snapshot at 10, buffered 10 is discarded and 11, 12 are replayed
+        fetches.poll().complete(OrderBookSnapshot.parse(snapshot(10), 2, 8));
+        final L3OrderBook orderBook = tracker.getOrderBook(ProductId.BTC_USD).orElseThrow();
+        Assert.assertTrue(tracker.isInSync(ProductId.BTC_USD));
+        Assert.assertEquals(orderBook.getSequence(), 12);
+        Assert.assertEquals(orderBook.orderSize(FIRST), -1);
+        Assert.assertEquals(orderBook.bestBid(), 29600);
+
+        // duplicate is dropped, gap triggers another fetch
+        tracker.update(done(12, THIRD));
+        tracker.update(done(14, THIRD));
+        Assert.assertEquals(orderBook.orderSize(THIRD), 100_000_000);
+        Assert.assertEquals(fetches.size(), 1);
+        Assert.assertFalse(tracker.isInSync(ProductId.BTC_USD));
+
+        // failed fetch is retried after a backoff, not on the next inbound message
+        fetches.poll().completeExceptionally(new IllegalStateException("expected"));
+        tracker.update(done(15, SECOND));
+        Assert.assertTrue(fetches.isEmpty());
+        final CompletableFuture<OrderBookSnapshot> retry = fetches.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(retry);
+        retry.complete(OrderBookSnapshot.parse(snapshot(14), 2, 8));
+        Assert.assertTrue(tracker.isInSync(ProductId.BTC_USD));
+        Assert.assertEquals(orderBook.getSequence(), 15);
+        Assert.assertEquals(orderBook.orderCount(), 1);
+
+        final SequencingMetrics metrics = tracker.getSequencingMetrics();
+        Assert.assertEquals(metrics.gaps(), 1);
+        Assert.assertEquals(metrics.duplicates(), 1);
+        Assert.assertEquals(metrics.resyncs(), 2);
+        Assert.assertEquals(metrics.resyncsInProgress(), 0);
+        Assert.assertTrue(metrics.maxResyncNanos() > 0);
+    }
+
+    @Test
+    public void testStaleSnapshotRetriedAfterBackoff() throws InterruptedException {
+        final BlockingQueue<CompletableFuture<OrderBookSnapshot>> fetches = new LinkedBlockingQueue<>();
+        final L3OrderBookTracker tracker = new L3OrderBookTracker(new ProductScale(2, 8),
+                (productId, priceScale, sizeScale) -> {
+                    final CompletableFuture<OrderBookSnapshot> fetch = new CompletableFuture<>();
+                    fetches.add(fetch);
+                    return fetch;
+                }, L3OrderBookTracker.DEFAULT_MAX_BUFFERED, Duration.ofMillis(200), Duration.ofMillis(400));
+
+        tracker.update(open(10, THIRD, "296.00"));
+        // cached snapshot older than the buffered messages, not refetched right away
+        fetches.poll().complete(OrderBookSnapshot.parse(snapshot(5), 2, 8));
+        tracker.update(open(11, THIRD, "296.00"));
+        Assert.assertTrue(fetches.isEmpty());
+
+        final CompletableFuture<OrderBookSnapshot> retry = fetches.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(retry);
+        retry.complete(OrderBookSnapshot.parse(snapshot(10), 2, 8));
+        Assert.assertTrue(tracker.isInSync(ProductId.BTC_USD));
+        Assert.assertEquals(tracker.getOrderBook(ProductId.BTC_USD).orElseThrow().getSequence(), 11);
+    }
+
+    @Test
+    public void testGapsCountedWithoutSnapshotSource() {
+        final L3OrderBookTracker tracker = new L3OrderBookTracker();
+
+        tracker.update(open(1, FIRST, "1.00"));
+        tracker.update(open(3, SECOND, "1.00"));
+
+        Assert.assertEquals(tracker.getSequencingMetrics().gaps(), 1);
+        Assert.assertEquals(tracker.getOrderBook(ProductId.BTC_USD).orElseThrow().orderCount(), 2);
+        Assert.assertFalse(tracker.isInSync(ProductId.BTC_USD));
+    }
+
+    private static String snapshot(final long sequence) {
+        return "{\"sequence\":" + sequence + ",\"bids\":[[\"295.96\",\"0.05088265\",\"" + FIRST + "\"]],"
+                + "\"asks\":[[\"295.97\",\"5.72036512\",\"" + SECOND + "\"]]}";
+    }
+
+    private static FeedMessage open(final long sequence, final String orderId, final String price) {
+        return decode("{\"type\":\"open\",\"product_id\":\"BTC-USD\",\"sequence\":" + sequence
+                + ",\"order_id\":\"" + orderId + "\",\"price\":\"" + price
+                + "\",\"remaining_size\":\"1.00\",\"side\":\"buy\"}");
+    }
+
+    private static FeedMessage done(final long sequence, final String orderId) {
+        return decode("{\"type\":\"done\",\"product_id\":\"BTC-USD\",\"sequence\":" + sequence
+                + ",\"order_id\":\"" + orderId + "\",\"reason\":\"canceled\",\"side\":\"buy\"}");
+    }
+
+    private static FeedMessage decode(final String json) {
+        return JsonMessageMapper.jsonToObject(json).orElseThrow();
+    }
+}
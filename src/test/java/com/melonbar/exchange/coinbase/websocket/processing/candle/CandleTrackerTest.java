@@ -0,0 +1,139 @@
+package com.melonbar.exchange.coinbase.websocket.processing.candle;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.melonbar.core.model.ProductId;
+import com.melonbar.exchange.coinbase.model.products.Granularity;
+import com.melonbar.exchange.coinbase.websocket.message.FeedMessage;
+import com.melonbar.exchange.coinbase.websocket.message.deserializer.JsonMessageMapper;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class CandleTrackerTest {
+
+    private static final ProductId BTC_USD = ProductId.of("BTC", "USD");
+    private static final long MINUTE = new DateTime(2021, 5, 1, 12, 0, DateTimeZone.UTC).getMillis() / 1000;
+
+    @Test
+    public void testBarsAcrossGranularities() throws Exception {
+        final CandleTracker candleTracker = new CandleTracker();
+
+        candleTracker.update(match(1, MINUTE + 5, "100.00", "1"));
+        candleTracker.update(match(2, MINUTE + 20, "105.50", "0.5"));
+        // same trade seen on the ticker channel is not counted twice
+        candleTracker.update(ticker(2, MINUTE + 20, "105.50", "0.5"));
+        candleTracker.update(match(3, MINUTE + 59, "99.25", "2"));
+        candleTracker.update(match(4, MINUTE + 61, "101", "0.25"));
+
+        final List<Candle> minutes = candleTracker.getCandles(BTC_USD, Granularity.ONE_MINUTE);
+        Assert.assertEquals(minutes.size(), 2);
+        assertCandle(minutes.get(0), MINUTE + 60, "101", "101", "101", "101", "0.25");
+        assertCandle(minutes.get(1), MINUTE, "99.25", "105.50", "100.00", "99.25", "3.5");
+
+        for (final Granularity granularity : List.of(Granularity.FIVE_MINUTES, Granularity.ONE_HOUR)) {
+            final List<Candle> candles = candleTracker.getCandles(BTC_USD, granularity);
+            Assert.assertEquals(candles.size(), 1);
+            assertCandle(candles.get(0), MINUTE, "99.25", "105.50", "100.00", "101", "3.75");
+        }
+        final long day = MINUTE - MINUTE % 86400;
+        Assert.assertEquals(candleTracker.getCandles(BTC_USD, Granularity.ONE_DAY).get(0).time(), day);
+
+        // same shape as the candles resource
+        Assert.assertEquals(new ObjectMapper().writeValueAsString(minutes.get(1)),
+                "[" + MINUTE + ",99.25000000,105.50000000,100.00000000,99.25000000,3.50000000]");
+        Assert.assertTrue(candleTracker.getCandles(ProductId.of("ETH", "USD"), Granularity.ONE_MINUTE).isEmpty());
+    }
+
+    @Test
+    public void testOutOfOrderTradesDeduplicatedWithinWindow() {
+        final CandleTracker candleTracker = new CandleTracker();
+
+        candleTracker.update(decode("{\"type\":\"last_match\",\"trade_id\":10,\"product_id\":\"BTC-USD\","
+                + "\"time\":\"" + time(MINUTE) + "\",\"price\":\"100\",\"size\":\"1\",\"side\":\"buy\"}"));
+        candleTracker.update(match(12, MINUTE + 2, "102", "1"));
+        // arrives after a later trade, still counted once
+        candleTracker.update(match(11, MINUTE + 1, "101", "1"));
+        candleTracker.update(match(11, MINUTE + 1, "101", "1"));
+        candleTracker.update(match(12, MINUTE + 2, "102", "1"));
+        // too far behind to tell whether it was already counted
+        candleTracker.update(match(12 + CandleTracker.TRADE_WINDOW, MINUTE + 3, "103", "1"));
+        candleTracker.update(match(12, MINUTE + 3, "102", "1"));
+
+        assertCandle(candleTracker.getCandles(BTC_USD, Granularity.ONE_MINUTE).get(0),
+                MINUTE, "100", "103", "100", "103", "4");
+    }
+
+    @Test
+    public void testTickersOnlyAsFallback() {
+        final CandleTracker candleTracker = new CandleTracker();
+
+        // no matches received for the product, tickers are recorded
+        candleTracker.update(ticker(1, MINUTE, "100", "1"));
+        candleTracker.update(match(3, MINUTE + 10, "101", "2"));
+        // matches are flowing, a ticker only carries the last of possibly several trades
+        candleTracker.update(ticker(5, MINUTE + 20, "102", "1"));
+        candleTracker.update(match(4, MINUTE + 20, "102", "3"));
+        candleTracker.update(match(5, MINUTE + 20, "102", "1"));
+        // no match for longer than the timeout, tickers take over again
+        candleTracker.update(ticker(9, MINUTE + 20 + CandleTracker.MATCH_TIMEOUT_SECONDS, "104", "1"));
+
+        final List<Candle> minutes = candleTracker.getCandles(BTC_USD, Granularity.ONE_MINUTE);
+        assertCandle(minutes.get(1), MINUTE, "100", "102", "100", "102", "7");
+        assertCandle(minutes.get(0), MINUTE + 60, "104", "104", "104", "104", "1");
+    }
+
+    @Test
+    public void testOldestBarsOverwritten() {
+        final CandleTracker candleTracker = new CandleTracker(3);
+        for (int i = 0; i < 5; i++) {
+            candleTracker.update(match(i, MINUTE + i * 60, Integer.toString(100 + i), "1"));
+        }
+
+        final List<Candle> minutes = candleTracker.getCandles(BTC_USD, Granularity.ONE_MINUTE);
+        Assert.assertEquals(minutes.stream().map(Candle::time).toList(),
+                List.of(MINUTE + 240, MINUTE + 180, MINUTE + 120));
+        Assert.assertEquals(candleTracker.getCandles(BTC_USD, Granularity.ONE_MINUTE,
+                new DateTime((MINUTE + 180) * 1000), new DateTime((MINUTE + 240) * 1000)).size(), 2);
+        assertCandle(candleTracker.getCandles(BTC_USD, Granularity.FIVE_MINUTES).get(0),
+                MINUTE, "100", "104", "100", "104", "5");
+    }
+
+    private static void assertCandle(final Candle candle,
+                                     final long time,
+                                     final String low,
+                                     final String high,
+                                     final String open,
+                                     final String close,
+                                     final String volume) {
+        Assert.assertEquals(candle.time(), time);
+        Assert.assertEquals(candle.low().compareTo(new BigDecimal(low)), 0, "low");
+        Assert.assertEquals(candle.high().compareTo(new BigDecimal(high)), 0, "high");
+        Assert.assertEquals(candle.open().compareTo(new BigDecimal(open)), 0, "open");
+        Assert.assertEquals(candle.close().compareTo(new BigDecimal(close)), 0, "close");
+        Assert.assertEquals(candle.volume().compareTo(new BigDecimal(volume)), 0, "volume");
+    }
+
+    private static FeedMessage match(final long tradeId, final long epochSeconds, final String price,
+                                     final String size) {
+        return decode("{\"type\":\"match\",\"trade_id\":" + tradeId + ",\"product_id\":\"BTC-USD\",\"time\":\""
+                + time(epochSeconds) + "\",\"price\":\"" + price + "\",\"size\":\"" + size + "\",\"side\":\"buy\"}");
+    }
+
+    private static FeedMessage ticker(final long tradeId, final long epochSeconds, final String price,
+                                      final String size) {
+        return decode("{\"type\":\"ticker\",\"trade_id\":" + tradeId + ",\"product_id\":\"BTC-USD\",\"time\":\""
+                + time(epochSeconds) + "\",\"price\":\"" + price + "\",\"last_size\":\"" + size + "\"}");
+    }
+
+    private static String time(final long epochSeconds) {
+        return new DateTime(epochSeconds * 1000, DateTimeZone.UTC).toString();
+    }
+
+    private static FeedMessage decode(final String json) {
+        return JsonMessageMapper.jsonToObject(json).orElseThrow();
+    }
+}
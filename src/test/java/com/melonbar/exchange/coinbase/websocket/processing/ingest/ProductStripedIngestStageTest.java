@@ -0,0 +1,75 @@
+package com.melonbar.exchange.coinbase.websocket.processing.ingest;
+
+import com.melonbar.exchange.coinbase.websocket.processing.ProductOrdinals;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ProductStripedIngestStageTest {
+
+    private static final String[] PRODUCTS = {"BTC-USD", "ETH-USD", "LTC-USD", "BCH-USD", "ETH-BTC", "LTC-BTC"};
+    private static final int MESSAGES_PER_PRODUCT = 10_000;
+
+    @Test
+    public void testOrderPreservedWithinProduct() {
+        final Map<String, List<Long>> sequencesByProduct = new ConcurrentHashMap<>();
+        final Map<String, Thread> threadByProduct = new ConcurrentHashMap<>();
+        final ProductStripedIngestStage stage = new ProductStripedIngestStage(
+                "test-striped", 4, 256, YieldingWaitStrategy::new, message -> {
+                    final String productId = message.substring(message.indexOf("\"product_id\":\"") + 14,
+                            message.indexOf("\",\"sequence\""));
+                    final long sequence = Long.parseLong(
+                            message.substring(message.indexOf("\"sequence\":") + 11, message.length() - 1));
+                    // a product must only ever be handled by the thread of its stripe
+                    Assert.assertSame(threadByProduct.computeIfAbsent(productId, p -> Thread.currentThread()),
+                            Thread.currentThread());
+                    sequencesByProduct.computeIfAbsent(productId, p -> new ArrayList<>()).add(sequence);
+                });
+        stage.start();
+        for (long sequence = 0; sequence < MESSAGES_PER_PRODUCT; sequence++) {
+            for (final String product : PRODUCTS) {
+                stage.onMessage("{\"type\":\"ticker\",\"product_id\":\"" + product + "\",\"sequence\":" + sequence
+                        + "}");
+            }
+        }
+        stage.halt();
+
+        Assert.assertEquals(sequencesByProduct.size(), PRODUCTS.length);
+        for (final String product : PRODUCTS) {
+            final List<Long> sequences = sequencesByProduct.get(product);
+            Assert.assertEquals(sequences.size(), MESSAGES_PER_PRODUCT);
+            for (int i = 0; i < MESSAGES_PER_PRODUCT; i++) {
+                Assert.assertEquals(sequences.get(i).longValue(), i);
+            }
+        }
+        Assert.assertEquals(stage.getMetrics().consumed(), (long) PRODUCTS.length * MESSAGES_PER_PRODUCT);
+    }
+
+    @Test
+    public void testMessageWithoutProductGoesToFirstStripe() {
+        final ProductStripedIngestStage stage = new ProductStripedIngestStage(
+                "test-striped", 4, 8, BlockingWaitStrategy::new, message -> {});
+
+        Assert.assertEquals(ProductOrdinals.ordinalOfMessage("{\"type\":\"subscriptions\",\"channels\":[]}"), -1);
+        Assert.assertEquals(stage.stripeOf(-1), 0);
+    }
+
+    @Test
+    public void testProductOrdinalsAreStable() {
+        final int ordinal = ProductOrdinals.ordinal("XRP-EUR");
+
+        Assert.assertEquals(ProductOrdinals.ordinal("XRP-EUR"), ordinal);
+        Assert.assertEquals(ProductOrdinals.ordinalOfMessage("{\"type\":\"ticker\",\"product_id\": \"XRP-EUR\"}"),
+                ordinal);
+        Assert.assertEquals(ProductOrdinals.productId(ordinal), "XRP-EUR");
+        for (int i = 0; i < 100; i++) {
+            // force the table to grow
+            ProductOrdinals.ordinal("TEST-" + i);
+        }
+        Assert.assertEquals(ProductOrdinals.ordinal("XRP-EUR"), ordinal);
+    }
+}
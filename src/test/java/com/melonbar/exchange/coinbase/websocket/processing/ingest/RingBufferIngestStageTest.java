@@ -0,0 +1,119 @@
+package com.melonbar.exchange.coinbase.websocket.processing.ingest;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class RingBufferIngestStageTest {
+
+    private static final int MESSAGES = 100_000;
+
+    @DataProvider
+    public Object[][] waitStrategies() {
+        return new Object[][]{
+                {new BlockingWaitStrategy()},
+                {new YieldingWaitStrategy()},
+                {new BusySpinWaitStrategy()}
+        };
+    }
+
+    @Test(dataProvider = "waitStrategies")
+    public void testMessagesConsumedInPublishOrder(final WaitStrategy waitStrategy) {
+        final List<String> consumed = new ArrayList<>(MESSAGES);
+        final long[] batchEnds = new long[1];
+        // small capacity so that the producer wraps around and stalls repeatedly
+        final RingBufferIngestStage stage = new RingBufferIngestStage("test-ingest", 64, waitStrategy,
+                (message, sequence, endOfBatch) -> {
+                    Assert.assertEquals(message, Long.toString(sequence));
+                    consumed.add(message);
+                    if (endOfBatch) {
+                        batchEnds[0]++;
+                    }
+                });
+        stage.start();
+        for (int i = 0; i < MESSAGES; i++) {
+            stage.onMessage(Integer.toString(i));
+        }
+        stage.halt();
+
+        Assert.assertEquals(consumed.size(), MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            Assert.assertEquals(consumed.get(i), Integer.toString(i));
+        }
+        Assert.assertTrue(batchEnds[0] > 0 && batchEnds[0] <= MESSAGES);
+
+        final IngestMetrics metrics = stage.getMetrics();
+        Assert.assertEquals(metrics.capacity(), 64);
+        Assert.assertEquals(metrics.published(), MESSAGES);
+        Assert.assertEquals(metrics.consumed(), MESSAGES);
+        Assert.assertEquals(metrics.queueDepth(), 0);
+    }
+
+    @Test
+    public void testThrowingHandlerDoesNotStopConsumer() {
+        final List<String> consumed = new ArrayList<>();
+        final RingBufferIngestStage stage = new RingBufferIngestStage("test-ingest", 8, new BlockingWaitStrategy(),
+                (message, sequence, endOfBatch) -> {
+                    if (sequence == 1) {
+                        throw new IllegalStateException("expected");
+                    }
+                    consumed.add(message);
+                });
+        stage.start();
+        stage.onMessage("a");
+        stage.onMessage("b");
+        stage.onMessage("c");
+        stage.halt();
+
+        Assert.assertEquals(consumed, List.of("a", "c"));
+    }
+
+    @Test(timeOut = 10_000)
+    public void testProducerReturnsOnceHalted() throws InterruptedException {
+        final CountDownLatch consuming = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RingBufferIngestStage stage = new RingBufferIngestStage("test-ingest", 4, new BlockingWaitStrategy(),
+                (message, sequence, endOfBatch) -> {
+                    consuming.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException interruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        stage.start();
+        stage.onMessage("0");
+        Assert.assertTrue(consuming.await(5, TimeUnit.SECONDS));
+        // the consumer has not released the first slot, so the buffer is full after three more messages
+        for (int i = 1; i < 4; i++) {
+            stage.onMessage(Integer.toString(i));
+        }
+
+        final Thread producer = new Thread(() -> stage.onMessage("4"));
+        producer.start();
+        final Thread halting = new Thread(stage::halt);
+        halting.start();
+        while (stage.isRunning()) {
+            Thread.onSpinWait();
+        }
+        producer.join(5_000);
+        Assert.assertFalse(producer.isAlive());
+
+        release.countDown();
+        halting.join(5_000);
+        Assert.assertFalse(halting.isAlive());
+        final IngestMetrics metrics = stage.getMetrics();
+        Assert.assertEquals(metrics.dropped(), 1);
+        Assert.assertEquals(metrics.consumed(), 4);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testCapacityMustBePowerOfTwo() {
+        new RingBufferIngestStage("test-ingest", 100, new BlockingWaitStrategy(), (message, sequence, end) -> {});
+    }
+}
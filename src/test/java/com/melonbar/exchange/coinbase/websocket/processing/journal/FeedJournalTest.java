@@ -0,0 +1,102 @@
+package com.melonbar.exchange.coinbase.websocket.processing.journal;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class FeedJournalTest {
+
+    private Path directory;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("feed-journal");
+    }
+
+    @AfterMethod
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testRecordsRollAcrossSegments() throws IOException {
+        final List<String> messages = new ArrayList<>();
+        try (FeedJournal journal = new FeedJournal(directory, "feed", 4096, FsyncPolicy.onRoll())) {
+            for (int i = 0; i < 200; i++) {
+                final String message = "{\"type\":\"ticker\",\"sequence\":" + i + ",\"note\":\"café € 🚀\"}";
+                messages.add(message);
+                Assert.assertTrue(journal.append(message, 1_000L + i));
+            }
+            Assert.assertFalse(journal.append("x".repeat(2_000), 0L));
+
+            final JournalMetrics metrics = journal.getMetrics();
+            Assert.assertEquals(metrics.records(), 200);
+            Assert.assertEquals(metrics.dropped(), 1);
+            Assert.assertTrue(metrics.segments() > 1);
+        }
+
+        final List<Path> segments = segments();
+        Assert.assertTrue(segments.size() > 1);
+        final List<String> read = new ArrayList<>();
+        final List<Long> times = new ArrayList<>();
+        for (final Path segment : segments) {
+            readSegment(segment, read, times);
+        }
+        Assert.assertEquals(read, messages);
+        Assert.assertEquals(times.get(199).longValue(), 1_199L);
+    }
+
+    @Test
+    public void testNumberingContinuesAfterExistingSegments() throws IOException {
+        final FsyncPolicy fsyncPolicy = FsyncPolicy.periodic(Duration.ofMillis(1));
+        try (FeedJournal journal = new FeedJournal(directory, "feed", 4096, fsyncPolicy)) {
+            journal.onMessage("first");
+        }
+        try (FeedJournal journal = new FeedJournal(directory, "feed", 4096, FsyncPolicy.none())) {
+            journal.onMessage("second");
+            Assert.assertTrue(journal.epochNanos() > 0);
+        }
+
+        final List<Path> segments = segments();
+        Assert.assertEquals(segments.size(), 2);
+        final List<String> read = new ArrayList<>();
+        readSegment(segments.get(1), read, new ArrayList<>());
+        Assert.assertEquals(read, List.of("second"));
+        Assert.assertEquals(segments.get(1).getFileName().toString(), JournalFormat.segmentFileName("feed", 1));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static void readSegment(final Path segment, final List<String> messages, final List<Long> times)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment)).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(buffer.getInt(0), JournalFormat.MAGIC);
+        int position = JournalFormat.SEGMENT_HEADER_SIZE;
+        while (position + JournalFormat.RECORD_HEADER_SIZE <= buffer.capacity() && buffer.getInt(position) != 0) {
+            final int length = buffer.getInt(position);
+            times.add(buffer.getLong(position + 4));
+            messages.add(new String(buffer.array(), position + JournalFormat.RECORD_HEADER_SIZE,
+                    length - JournalFormat.RECORD_HEADER_SIZE, StandardCharsets.UTF_8));
+            position = JournalFormat.align(position + length);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.melonbar.exchange.coinbase.websocket.processing.journal;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class FeedReplayerTest {
+
+    private Path directory;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("feed-replay");
+    }
+
+    @AfterMethod
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testReplayIsIdenticalAcrossRuns() {
+        final List<String> recorded = record(500, 0L);
+
+        final List<String> first = new ArrayList<>();
+        final ReplayResult result = new FeedReplayer(directory, "feed", first::add, ReplaySpeed.asFastAsPossible())
+                .replay();
+        final List<String> second = new ArrayList<>();
+        new FeedReplayer(directory, "feed", second::add, ReplaySpeed.asFastAsPossible()).replay();
+
+        Assert.assertEquals(first, recorded);
+        Assert.assertEquals(second, first);
+        Assert.assertEquals(result.messages(), 500);
+        Assert.assertEquals(result.bytes(), recorded.stream().mapToLong(String::length).sum());
+    }
+
+    @Test
+    public void testHandlerFailuresDoNotStopReplay() {
+        record(10, 0L);
+        final List<String> delivered = new ArrayList<>();
+
+        final ReplayResult result = new FeedReplayer(directory, "feed", message -> {
+            delivered.add(message);
+            if (delivered.size() % 2 == 0) {
+                throw new IllegalStateException("expected");
+            }
+        }, ReplaySpeed.asFastAsPossible()).replay();
+
+        Assert.assertEquals(delivered.size(), 10);
+        Assert.assertEquals(result.handlerFailures(), 5);
+    }
+
+    @Test
+    public void testPacedReplayFollowsRecordedSpacing() {
+        // 10 messages spaced 20ms apart, 180ms end to end
+        record(10, 20_000_000L);
+
+        final ReplayResult result = new FeedReplayer(directory, "feed", message -> { }, ReplaySpeed.times(4))
+                .replay();
+
+        Assert.assertEquals(result.messages(), 10);
+        Assert.assertTrue(result.elapsedNanos() >= 45_000_000L, "elapsed " + result.elapsedNanos());
+    }
+
+    private List<String> record(final int count, final long spacingNanos) {
+        final List<String> messages = new ArrayList<>();
+        try (FeedJournal journal = new FeedJournal(directory, "feed", 8192, FsyncPolicy.none())) {
+            for (int i = 0; i < count; i++) {
+                final String message = "{\"type\":\"heartbeat\",\"sequence\":" + i + ",\"product_id\":\"BTC-USD\"}";
+                messages.add(message);
+                journal.append(message, 1_000_000_000L + i * spacingNanos);
+            }
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,92 @@
+package com.melonbar.exchange.coinbase.websocket.processing.tracking;
+
+import com.melonbar.core.model.ProductId;
+import com.melonbar.exchange.coinbase.util.FixedPoint;
+import com.melonbar.exchange.coinbase.websocket.processing.ProductOrdinals;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class PriceTrackerTest {
+
+    @Test
+    public void testUpdateKeepsLatestSequence() {
+        final PriceTracker priceTracker = new PriceTracker();
+        final ProductId productId = ProductId.of("ETH", "USD");
+
+        final int registered = ProductOrdinals.size();
+        Assert.assertEquals(priceTracker.getPrice(productId), BigDecimal.valueOf(-1));
+        Assert.assertEquals(priceTracker.getPrice(ProductId.of("EUR", "LTC")), BigDecimal.valueOf(-1));
+        // reads of unseen products do not register them
+        Assert.assertEquals(ProductOrdinals.size(), registered);
+        Assert.assertEquals(ProductOrdinals.find("EUR-LTC"), -1);
+        priceTracker.update(ticker("ETH-USD", 10, "2400.5"));
+        priceTracker.update(ticker("ETH-USD", 9, "2300"));
+        // nested objects and fields of the same name are not mistaken for the top-level fields
+        priceTracker.update("{\"type\":\"ticker\",\"meta\":{\"price\":\"1\",\"sequence\":99},"
+                + "\"sequence\": 11, \"product_id\" : \"ETH-USD\", \"price\": \"2401.25\"}");
+        priceTracker.update(ticker("ETH-USD", 12, "not a price"));
+        priceTracker.update("{\"type\":\"heartbeat\",\"sequence\":13,\"product_id\":\"ETH-USD\"}");
+
+        Assert.assertEquals(priceTracker.getPrice(productId).compareTo(new BigDecimal("2401.25")), 0);
+        // the wire scale is preserved
+        Assert.assertEquals(priceTracker.getPrice(productId).scale(), 2);
+        Assert.assertEquals(priceTracker.getTrackedProductIds(), Set.of("ETH-USD"));
+        Assert.assertEquals(priceTracker.getPriceRecords(),
+                Map.of("ETH-USD", new PriceTracker.PriceRecord(new BigDecimal("2401.25"), 11)));
+
+        final PriceTracker.PriceReading reading = new PriceTracker.PriceReading();
+        Assert.assertTrue(priceTracker.read(ProductOrdinals.ordinal("ETH-USD"), reading));
+        Assert.assertEquals(reading.getSequence(), 11);
+        Assert.assertEquals(reading.getPrice(), FixedPoint.parse("2401.25", FixedPoint.WIRE_SCALE));
+        Assert.assertFalse(priceTracker.read(ProductOrdinals.ordinal("ETH-EUR"), reading));
+    }
+
+    @Test
+    public void testReadersObserveConsistentPairs() throws InterruptedException {
+        final PriceTracker priceTracker = new PriceTracker();
+        final int ordinal = ProductOrdinals.ordinal("LTC-USD");
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<String> failure = new AtomicReference<>();
+
+        // price is always ten times the sequence, a torn read would break the relation
+        final Thread reader = new Thread(() -> {
+            final PriceTracker.PriceReading reading = new PriceTracker.PriceReading();
+            while (running.get()) {
+                if (priceTracker.read(ordinal, reading)
+                        && reading.getPrice() != reading.getSequence() * 10 * FixedPoint.powerOfTen(8)) {
+                    failure.compareAndSet(null, reading.getSequence() + " -> " + reading.getPrice());
+                }
+            }
+        });
+        reader.start();
+        final Thread[] writers = new Thread[2];
+        for (int w = 0; w < writers.length; w++) {
+            final int offset = w;
+            writers[w] = new Thread(() -> {
+                for (int sequence = 1 + offset; sequence < 100_000; sequence += writers.length) {
+                    priceTracker.update(ticker("LTC-USD", sequence, Integer.toString(sequence * 10)));
+                }
+            });
+            writers[w].start();
+        }
+        for (final Thread writer : writers) {
+            writer.join();
+        }
+        running.set(false);
+        reader.join();
+
+        Assert.assertNull(failure.get());
+        Assert.assertEquals(priceTracker.getPrice(ProductId.of("LTC", "USD")).compareTo(new BigDecimal("999990")), 0);
+    }
+
+    private static String ticker(final String productId, final long sequence, final String price) {
+        return "{\"type\":\"ticker\",\"sequence\":" + sequence + ",\"product_id\":\"" + productId
+                + "\",\"price\":\"" + price + "\",\"side\":\"buy\"}";
+    }
+}
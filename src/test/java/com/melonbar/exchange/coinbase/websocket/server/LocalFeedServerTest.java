@@ -0,0 +1,70 @@
+package com.melonbar.exchange.coinbase.websocket.server;
+
+import com.melonbar.core.model.ProductId;
+import com.melonbar.exchange.coinbase.websocket.CoinbaseProWebsocketFeedClient;
+import com.melonbar.exchange.coinbase.websocket.MessageTypes;
+import com.melonbar.exchange.coinbase.websocket.message.SubscriptionsMessage;
+import com.melonbar.exchange.coinbase.websocket.message.deserializer.JsonMessageMapper;
+import com.melonbar.exchange.coinbase.websocket.message.model.Channel;
+import com.melonbar.exchange.coinbase.websocket.processing.tracking.PriceTracker;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class LocalFeedServerTest {
+
+    private static final int MESSAGES = 2_000;
+
+    @Test
+    public void testSubscribeAndStream() throws InterruptedException {
+        final Queue<String> received = new ConcurrentLinkedQueue<>();
+        final CountDownLatch done = new CountDownLatch(MESSAGES + 1);
+        final PriceTracker priceTracker = new PriceTracker();
+        try (LocalFeedServer server = new LocalFeedServer(0,
+                subscription -> SyntheticFeedSource.forSubscription(subscription, MESSAGES), 0)) {
+            final CoinbaseProWebsocketFeedClient client = CoinbaseProWebsocketFeedClient.builder()
+                    .withEndpoint(server.getEndpoint())
+                    .withChannels(Channel.TICKER)
+                    .withProducts(ProductId.BTC_USD, ProductId.of("ETH", "USD"))
+                    .withMessageHandlers(message -> {
+                        received.add(message);
+                        done.countDown();
+                    })
+                    .withTrackers(priceTracker)
+                    .build();
+            try {
+                Assert.assertTrue(done.await(30, TimeUnit.SECONDS), "Received " + received.size() + " messages");
+            } finally {
+                client.close();
+            }
+
+            final SubscriptionsMessage subscriptions =
+                    JsonMessageMapper.jsonToObject(received.poll(), SubscriptionsMessage.class).orElseThrow();
+            Assert.assertEquals(subscriptions.getChannels().length, 1);
+            Assert.assertEquals(subscriptions.getChannels()[0].getProductIds().length, 2);
+            Assert.assertTrue(received.stream().allMatch(message -> message.contains(MessageTypes.TICKER)));
+            Assert.assertEquals(priceTracker.getTrackedProductIds().size(), 2);
+
+            final FeedServerMetrics metrics = server.getMetrics();
+            Assert.assertEquals(metrics.messagesSent(), MESSAGES);
+            Assert.assertTrue(metrics.messagesPerSecond() > 0);
+        }
+    }
+
+    @Test
+    public void testSyntheticSequencesArePerProduct() {
+        final SyntheticFeedSource source =
+                new SyntheticFeedSource(List.of(ProductId.BTC_USD, ProductId.of("ETH", "USD")), 4);
+
+        Assert.assertTrue(source.next().contains("\"sequence\":1,"));
+        Assert.assertTrue(source.next().contains("\"product_id\":\"ETH-USD\""));
+        Assert.assertTrue(source.next().contains("\"sequence\":2,"));
+        Assert.assertNotNull(source.next());
+        Assert.assertNull(source.next());
+    }
+}